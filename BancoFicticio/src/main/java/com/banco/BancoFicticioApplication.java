@@ -1,5 +1,6 @@
 package com.banco;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -19,11 +20,15 @@ public class BancoFicticioApplication {
     }
 
     @Bean
-    public CommandLineRunner inicializarDados(BancoService bancoService) {
+    public CommandLineRunner inicializarDados(BancoService bancoService,
+                                              @Value("${banco.particao.papel:UNICO}") String papel) {
         return args -> {
-            // Inicializa dados de exemplo para demonstração
-            bancoService.inicializarDadosExemplo();
-            System.out.println("Dados de exemplo inicializados com sucesso!");
+            // Inicializa dados de exemplo para demonstração, exceto se o diário já restaurou dados;
+            // no modo particionado cada nó repetiria as mesmas contas de exemplo
+            if (papel.equals("UNICO") && bancoService.quantidadeClientes() == 0) {
+                bancoService.inicializarDadosExemplo();
+                System.out.println("Dados de exemplo inicializados com sucesso!");
+            }
         };
     }
 }
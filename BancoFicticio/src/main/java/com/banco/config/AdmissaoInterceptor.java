@@ -0,0 +1,72 @@
+package com.banco.config;
+
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.banco.domain.Cpf;
+import com.banco.service.BancoService;
+import com.banco.service.ControleAdmissao;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Aplica o {@link ControleAdmissao} às requisições da API antes de chegarem ao controller.
+ * A conta vem da variável {@code numero} da URI ou do parâmetro {@code origem}; o cliente
+ * vem da variável {@code cpf}, do parâmetro {@code cpfCliente} ou do titular da conta.
+ */
+@Component
+public class AdmissaoInterceptor implements HandlerInterceptor {
+
+    private static final String VAGA = AdmissaoInterceptor.class.getName() + ".vaga";
+
+    private final ControleAdmissao controle;
+    private final BancoService bancoService;
+
+    public AdmissaoInterceptor(ControleAdmissao controle, BancoService bancoService) {
+        this.controle = controle;
+        this.bancoService = bancoService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!controle.isHabilitado()) {
+            return true;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, String> variaveis = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String numero = variaveis != null ? variaveis.get("numero") : null;
+        String cpf = variaveis != null ? variaveis.get("cpf") : null;
+        if (numero == null) {
+            numero = request.getParameter("origem");
+        }
+        if (cpf == null) {
+            cpf = request.getParameter("cpfCliente");
+        }
+        if (cpf != null && cpf.length() != 11) {
+            // O mesmo cliente com e sem pontuação no CPF usa o mesmo balde
+            long normalizado = Cpf.normalizar(cpf);
+            if (normalizado != Cpf.INVALIDO) {
+                cpf = Cpf.texto(normalizado);
+            }
+        }
+        if (cpf == null && numero != null) {
+            cpf = bancoService.cpfTitular(numero);
+        }
+        if (controle.admitir(numero, cpf)) {
+            request.setAttribute(VAGA, Boolean.TRUE);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(VAGA) != null) {
+            request.removeAttribute(VAGA);
+            controle.liberar();
+        }
+    }
+}
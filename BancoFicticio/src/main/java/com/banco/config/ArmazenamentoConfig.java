@@ -0,0 +1,19 @@
+package com.banco.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.banco.domain.TabelaSaldos;
+import com.banco.domain.TabelaSaldosForaDoHeap;
+
+// Sem esta configuração o BancoService usa TabelaSaldosNoHeap
+@Configuration
+@ConditionalOnProperty(name = "banco.armazenamento", havingValue = "FORA_DO_HEAP")
+public class ArmazenamentoConfig {
+
+    @Bean
+    public TabelaSaldos tabelaSaldos() {
+        return new TabelaSaldosForaDoHeap();
+    }
+}
@@ -0,0 +1,26 @@
+package com.banco.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.banco.metricas.MetricasBanco;
+import com.banco.metricas.MetricasMicrometer;
+import com.banco.service.BancoService;
+import com.banco.service.MetricasOperacoes;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class MetricasConfig {
+
+    @Bean
+    public MetricasOperacoes metricasOperacoes(MeterRegistry registry) {
+        return new MetricasMicrometer(registry);
+    }
+
+    // Registrado pelo Spring Boot no MeterRegistry depois que o BancoService existe
+    @Bean
+    public MetricasBanco metricasBanco(BancoService bancoService) {
+        return new MetricasBanco(bancoService);
+    }
+}
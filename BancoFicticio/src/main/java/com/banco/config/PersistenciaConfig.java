@@ -0,0 +1,56 @@
+package com.banco.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.banco.persistencia.DiarioMapeado;
+import com.banco.persistencia.ModoSincronizacao;
+import com.banco.persistencia.PontosControleArquivo;
+import com.banco.persistencia.ServicoInstantaneos;
+import com.banco.service.BancoService;
+
+@Configuration
+@ConditionalOnProperty(name = "banco.diario.habilitado", havingValue = "true")
+public class PersistenciaConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(PersistenciaConfig.class);
+
+    @Bean(destroyMethod = "close")
+    public DiarioMapeado diarioMapeado(
+            @Value("${banco.diario.diretorio:dados/diario}") String diretorio,
+            @Value("${banco.diario.tamanho-segmento:67108864}") int tamanhoSegmento,
+            @Value("${banco.diario.sincronizacao:GRUPO}") ModoSincronizacao sincronizacao) {
+        return new DiarioMapeado(Path.of(diretorio), tamanhoSegmento, sincronizacao);
+    }
+
+    // Carrega o último snapshot e reproduz a cauda do diário antes que a aplicação comece a atender requisições
+    @Bean(destroyMethod = "close")
+    public ServicoInstantaneos servicoInstantaneos(DiarioMapeado diarioMapeado, BancoService bancoService,
+            @Value("${banco.instantaneo.diretorio:dados/instantaneos}") String diretorio,
+            @Value("${banco.instantaneo.intervalo-segundos:600}") long intervaloSegundos,
+            @Value("${banco.instantaneo.retidos:2}") int retidos) {
+        ServicoInstantaneos instantaneos = new ServicoInstantaneos(Path.of(diretorio), bancoService, diarioMapeado, retidos);
+        long inicio = System.nanoTime();
+        long registros = instantaneos.recuperar();
+        log.info("Estado recuperado: {} contas, {} registros do diário reaplicados em {} ms",
+                bancoService.quantidadeContas(), registros, (System.nanoTime() - inicio) / 1_000_000);
+        if (intervaloSegundos > 0) {
+            instantaneos.agendar(Duration.ofSeconds(intervaloSegundos));
+        }
+        return instantaneos;
+    }
+
+    // Depende da recuperação: as fatias pendentes só podem ser retomadas sobre o estado já restaurado
+    @Bean
+    public PontosControleArquivo pontosControleFechamento(ServicoInstantaneos servicoInstantaneos,
+            @Value("${banco.fechamento.diretorio:dados/fechamento}") String diretorio) {
+        return new PontosControleArquivo(Path.of(diretorio));
+    }
+}
@@ -1,17 +1,49 @@
 package com.banco.config;
 
+import java.util.List;
+
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 @Configuration
 @EnableWebMvc
 public class WebConfig implements WebMvcConfigurer {
 
+    private final ObjectMapper objectMapper;
+    private final AdmissaoInterceptor admissao;
+
+    public WebConfig(ObjectMapper objectMapper, AdmissaoInterceptor admissao) {
+        this.objectMapper = objectMapper;
+        this.admissao = admissao;
+    }
+
+    // Limites de taxa e de concorrência valem só para a API; as páginas e os estáticos ficam de fora
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(admissao).addPathPatterns("/api/banco/**");
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/static/**")
                 .addResourceLocations("classpath:/static/");
     }
+
+    // Com @EnableWebMvc o conversor JSON não usa o ObjectMapper configurado por spring.jackson.*;
+    // usar o mesmo mapper mantém as respostas JSON e NDJSON no mesmo formato
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (HttpMessageConverter<?> converter : converters) {
+            if (converter instanceof MappingJackson2HttpMessageConverter jackson) {
+                jackson.setObjectMapper(objectMapper);
+            }
+        }
+    }
 }
@@ -0,0 +1,59 @@
+package com.banco.controller;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.banco.exception.NoIndisponivelException;
+import com.banco.exception.RecursoNaoEncontradoException;
+import com.banco.particao.RegistroTransferencias.Transferencia;
+import com.banco.particao.RoteadorParticoes;
+
+// Administração do roteador: nós do anel, inclusão de nó com rebalanceamento e
+// acompanhamento das transferências entre nós
+@RestController
+@RequestMapping("/api/particao")
+@ConditionalOnProperty(name = "banco.particao.papel", havingValue = "ROTEADOR")
+public class AnelController {
+
+    @Autowired
+    private RoteadorParticoes roteador;
+
+    @GetMapping("/nos")
+    public Map<String, Object> listarNos() {
+        return Map.of("nos", roteador.anel().nos(), "virtuais", roteador.anel().virtuais());
+    }
+
+    // Síncrono: responde quando as contas já foram movidas e as operações voltaram a ser atendidas
+    @PostMapping("/nos")
+    public RoteadorParticoes.Rebalanceamento adicionarNo(@RequestParam String endereco) {
+        try {
+            return roteador.adicionarNo(endereco);
+        } catch (IOException e) {
+            throw new NoIndisponivelException("Rebalanceamento não concluído: " + e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/transferencias")
+    public List<Transferencia> listarPendentes() {
+        return roteador.transferencias().pendentes();
+    }
+
+    @GetMapping("/transferencias/{id}")
+    public Transferencia buscarTransferencia(@PathVariable String id) {
+        Transferencia transferencia = roteador.transferencias().buscar(id);
+        if (transferencia == null) {
+            throw new RecursoNaoEncontradoException("Transferência " + id + " não encontrada");
+        }
+        return transferencia;
+    }
+}
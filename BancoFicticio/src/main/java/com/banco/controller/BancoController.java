@@ -1,46 +1,110 @@
 package com.banco.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.net.URI;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.banco.domain.Cliente;
 import com.banco.domain.Conta;
 import com.banco.domain.ContaCorrente;
 import com.banco.domain.ContaInvestimento;
 import com.banco.domain.ContaPoupanca;
+import com.banco.domain.LancamentoExtrato;
+import com.banco.domain.ResultadoOperacao;
 import com.banco.domain.TipoInvestimento;
-import com.banco.exception.SaldoInsuficienteException;
 import com.banco.service.BancoService;
+import com.banco.service.EstatisticasBanco;
+import com.banco.service.ImportacaoService;
+import com.banco.service.LoteMensal;
+import com.banco.service.OperacoesLoteService;
+import com.banco.service.Pagina;
+import com.banco.service.ProcessamentoMensalService;
+import com.banco.service.Projecao;
+import com.banco.service.ProjecaoCarteira;
+import com.banco.service.ProjecaoService;
+import com.banco.service.RegistroIdempotencia;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 @RestController
 @RequestMapping("/api/banco")
+// No modo particionado o roteador atende esta API (ver RoteadorController)
+@ConditionalOnExpression("'${banco.particao.papel:UNICO}' != 'ROTEADOR'")
 public class BancoController {
 
     @Autowired
     private BancoService bancoService;
 
+    @Autowired
+    private ProcessamentoMensalService processamentoMensalService;
+
+    @Autowired
+    private OperacoesLoteService operacoesLoteService;
+
+    @Autowired
+    private ImportacaoService importacaoService;
+
+    @Autowired
+    private ProjecaoService projecaoService;
+
+    @Autowired
+    private RegistroIdempotencia registroIdempotencia;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static final int LIMITE_MAXIMO_PAGINA = 1000;
+
     // Endpoints para clientes
+    // Listagens paginadas por cursor (ordem de CPF / número da conta); com
+    // Accept: application/x-ndjson a listagem completa é escrita em fluxo, um item por linha
+    // Os GETs de consulta respondem com ETag e devolvem 304 sem serializar quando
+    // If-None-Match traz a versão atual (ver BancoService.etagConta e etagColecoes)
     @GetMapping("/clientes")
-    public List<Cliente> listarClientes() {
-        return bancoService.listarClientes();
+    public ResponseEntity<Pagina<Cliente>> listarClientes(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limite,
+            WebRequest request) {
+        return condicional(request, bancoService.etagColecoes(),
+                () -> bancoService.listarClientes(cursor, Math.min(limite, LIMITE_MAXIMO_PAGINA)));
+    }
+
+    @GetMapping(value = "/clientes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void listarClientesEmFluxo(WebRequest request, HttpServletResponse response) throws IOException {
+        if (!request.checkNotModified(bancoService.etagColecoes())) {
+            escreverNdjson(bancoService.percorrerClientesPorCpf(), response);
+        }
     }
 
     @GetMapping("/clientes/{cpf}")
-    public ResponseEntity<Cliente> buscarCliente(@PathVariable String cpf) {
+    public ResponseEntity<Cliente> buscarCliente(@PathVariable String cpf, WebRequest request) {
         Cliente cliente = bancoService.buscarClientePorCpf(cpf);
-        return ResponseEntity.ok(cliente);
+        // O cliente é serializado com as suas contas
+        return condicional(request, bancoService.etagContasCliente(cpf), () -> cliente);
     }
 
     @PostMapping("/clientes")
@@ -53,19 +117,61 @@ public class BancoController {
 
     // Endpoints para contas
     @GetMapping("/contas")
-    public List<Conta> listarContas() {
-        return bancoService.listarContas();
+    public ResponseEntity<Pagina<Conta>> listarContas(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limite,
+            WebRequest request) {
+        return condicional(request, bancoService.etagColecoes(),
+                () -> bancoService.listarContas(cursor, Math.min(limite, LIMITE_MAXIMO_PAGINA)));
+    }
+
+    @GetMapping(value = "/contas", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void listarContasEmFluxo(WebRequest request, HttpServletResponse response) throws IOException {
+        if (!request.checkNotModified(bancoService.etagColecoes())) {
+            escreverNdjson(bancoService.percorrerContasPorNumero(), response);
+        }
+    }
+
+    // Consultas servidas pelos índices de contas ativas
+    @GetMapping("/contas/ativas")
+    public ResponseEntity<List<Conta>> listarContasAtivas(WebRequest request) {
+        return condicional(request, bancoService.etagColecoes(), bancoService::buscarContasAtivas);
+    }
+
+    @GetMapping("/contas/corrente")
+    public ResponseEntity<List<ContaCorrente>> listarContasCorrente(WebRequest request) {
+        return condicional(request, bancoService.etagColecoes(), bancoService::buscarContasCorrente);
+    }
+
+    @GetMapping("/contas/poupanca")
+    public ResponseEntity<List<ContaPoupanca>> listarContasPoupanca(WebRequest request) {
+        return condicional(request, bancoService.etagColecoes(), bancoService::buscarContasPoupanca);
+    }
+
+    @GetMapping("/contas/investimento")
+    public ResponseEntity<List<ContaInvestimento>> listarContasInvestimento(
+            @RequestParam(required = false) TipoInvestimento tipo, WebRequest request) {
+        return condicional(request, bancoService.etagColecoes(), () -> tipo == null
+                ? bancoService.buscarContasInvestimento()
+                : bancoService.buscarContasInvestimento(tipo));
     }
 
     @GetMapping("/contas/{numero}")
-    public ResponseEntity<Conta> buscarConta(@PathVariable String numero) {
+    public ResponseEntity<Conta> buscarConta(@PathVariable String numero, WebRequest request) {
+        Conta conta = bancoService.buscarContaPorNumero(numero);
+        return condicional(request, bancoService.etagConta(conta), () -> conta);
+    }
+
+    @GetMapping("/contas/{numero}/extrato")
+    public ResponseEntity<List<LancamentoExtrato>> extrato(@PathVariable String numero,
+            @RequestParam(defaultValue = "" + BancoService.CAPACIDADE_EXTRATO) int limite, WebRequest request) {
         Conta conta = bancoService.buscarContaPorNumero(numero);
-        return ResponseEntity.ok(conta);
+        return condicional(request, bancoService.etagConta(conta), () -> bancoService.extrato(numero, limite));
     }
 
     @GetMapping("/clientes/{cpf}/contas")
-    public List<Conta> listarContasCliente(@PathVariable String cpf) {
-        return bancoService.buscarContasPorCliente(cpf);
+    public ResponseEntity<List<Conta>> listarContasCliente(@PathVariable String cpf, WebRequest request) {
+        return condicional(request, bancoService.etagContasCliente(cpf), () -> bancoService.buscarContasPorCliente(cpf));
     }
 
     @PostMapping("/contas/corrente")
@@ -95,37 +201,43 @@ public class BancoController {
     @PostMapping("/contas/{numero}/depositar")
     public ResponseEntity<String> depositar(
             @PathVariable String numero,
-            @RequestParam BigDecimal valor) {
-        try {
-            bancoService.depositar(numero, valor);
-            return ResponseEntity.ok("Depósito realizado com sucesso");
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+            @RequestParam BigDecimal valor,
+            @RequestHeader(value = "Idempotency-Key", required = false) String chave) {
+        return idempotente(chave, pedido("depositar", numero, valor), () -> {
+            try {
+                return resposta(bancoService.tentarDepositar(numero, valor), "Depósito realizado com sucesso");
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
     }
 
     @PostMapping("/contas/{numero}/sacar")
     public ResponseEntity<String> sacar(
             @PathVariable String numero,
-            @RequestParam BigDecimal valor) {
-        try {
-            bancoService.sacar(numero, valor);
-            return ResponseEntity.ok("Saque realizado com sucesso");
-        } catch (SaldoInsuficienteException e) {
-            return ResponseEntity.badRequest().body("Saldo insuficiente: " + e.getMessage());
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+            @RequestParam BigDecimal valor,
+            @RequestHeader(value = "Idempotency-Key", required = false) String chave) {
+        return idempotente(chave, pedido("sacar", numero, valor), () -> {
+            try {
+                return resposta(bancoService.tentarSacar(numero, valor), "Saque realizado com sucesso");
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
     }
 
     @PostMapping("/contas/{numero}/calcular-rendimento")
-    public ResponseEntity<String> calcularRendimento(@PathVariable String numero) {
-        try {
-            bancoService.calcularRendimentoPoupanca(numero);
-            return ResponseEntity.ok("Rendimento calculado com sucesso");
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+    public ResponseEntity<String> calcularRendimento(
+            @PathVariable String numero,
+            @RequestHeader(value = "Idempotency-Key", required = false) String chave) {
+        return idempotente(chave, pedido("calcular-rendimento", numero, null), () -> {
+            try {
+                processamentoMensalService.calcularRendimento(numero);
+                return ResponseEntity.ok("Rendimento calculado com sucesso");
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
     }
 
     @GetMapping("/contas/{numero}/calcular-imposto")
@@ -138,35 +250,151 @@ public class BancoController {
         }
     }
 
+    // Totais do banco mantidos a cada operação; não percorre clientes nem contas
+    @GetMapping("/estatisticas")
+    public EstatisticasBanco estatisticas() {
+        return bancoService.estatisticas();
+    }
+
+    // Projeção do saldo para os próximos meses, líquida de tarifas e imposto
+    @GetMapping("/contas/{numero}/projecao")
+    public Projecao projetarConta(@PathVariable String numero, @RequestParam(defaultValue = "12") int meses) {
+        return projecaoService.projetarConta(numero, meses);
+    }
+
+    @GetMapping("/clientes/{cpf}/projecao")
+    public ProjecaoCarteira projetarCliente(@PathVariable String cpf, @RequestParam(defaultValue = "12") int meses) {
+        return projecaoService.projetarCliente(cpf, meses);
+    }
+
+    @GetMapping("/projecao")
+    public ProjecaoCarteira projetarBanco(@RequestParam(defaultValue = "12") int meses) {
+        return projecaoService.projetarBanco(meses);
+    }
+
     @PostMapping("/contas/{numero}/investir")
     public ResponseEntity<String> investir(
             @PathVariable String numero,
-            @RequestParam BigDecimal valor) {
-        try {
-            bancoService.investir(numero, valor);
-            return ResponseEntity.ok("Investimento realizado com sucesso");
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+            @RequestParam BigDecimal valor,
+            @RequestHeader(value = "Idempotency-Key", required = false) String chave) {
+        return idempotente(chave, pedido("investir", numero, valor), () -> {
+            try {
+                return resposta(bancoService.tentarInvestir(numero, valor), "Investimento realizado com sucesso");
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
     }
 
     @PostMapping("/contas/{numero}/resgatar")
     public ResponseEntity<String> resgatar(
             @PathVariable String numero,
-            @RequestParam BigDecimal valor) {
-        try {
-            bancoService.resgatar(numero, valor);
-            return ResponseEntity.ok("Resgate realizado com sucesso");
-        } catch (SaldoInsuficienteException e) {
-            return ResponseEntity.badRequest().body("Saldo insuficiente: " + e.getMessage());
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+            @RequestParam BigDecimal valor,
+            @RequestHeader(value = "Idempotency-Key", required = false) String chave) {
+        return idempotente(chave, pedido("resgatar", numero, valor), () -> {
+            try {
+                return resposta(bancoService.tentarResgatar(numero, valor), "Resgate realizado com sucesso");
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
     }
 
+    @PostMapping("/transferencias")
+    public ResponseEntity<String> transferir(
+            @RequestParam String origem,
+            @RequestParam String destino,
+            @RequestParam BigDecimal valor,
+            @RequestHeader(value = "Idempotency-Key", required = false) String chave) {
+        return idempotente(chave, pedido("transferir", origem + ">" + destino, valor), () -> {
+            try {
+                return resposta(bancoService.tentarTransferir(origem, destino, valor), "Transferência realizada com sucesso");
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
+    }
+
+    // Lote de operações: o corpo é lido e a resposta escrita em fluxo, item a item
+    @PostMapping(value = "/operacoes/lote", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public void processarLote(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        operacoesLoteService.processar(request.getInputStream(), response.getOutputStream());
+    }
+
+    // Importação de clientes e contas em massa: CSV ou NDJSON lido em fluxo; a resposta
+    // lista as linhas recusadas e termina com os totais
+    @PostMapping(value = "/importacao", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public void importar(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImportacaoService.Formato formato = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? ImportacaoService.Formato.NDJSON : ImportacaoService.Formato.CSV;
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        importacaoService.importar(request.getInputStream(), formato, response.getOutputStream());
+    }
+
+    // Fechamento mensal assíncrono: devolve o lote para acompanhamento do progresso
     @PostMapping("/calcular-tarifas")
-    public ResponseEntity<String> calcularTarifas() {
-        bancoService.calcularTarifasMensais();
-        return ResponseEntity.ok("Tarifas mensais calculadas com sucesso");
+    public ResponseEntity<LoteMensal> calcularTarifas(
+            @RequestParam(required = false) YearMonth competencia,
+            @RequestHeader(value = "Idempotency-Key", required = false) String chave) {
+        // A repetição devolve o mesmo lote, sem iniciar outro fechamento; sem competência, fecha o mês anterior
+        return idempotente(chave, pedido("calcular-tarifas", competencia == null ? "" : competencia.toString(), null), () -> {
+            LoteMensal lote = competencia == null
+                    ? processamentoMensalService.iniciar()
+                    : processamentoMensalService.iniciar(competencia);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/banco/calcular-tarifas/" + lote.getId()))
+                    .body(lote);
+        });
+    }
+
+    @GetMapping("/calcular-tarifas/{id}")
+    public LoteMensal acompanharTarifas(@PathVariable String id) {
+        return processamentoMensalService.buscar(id);
+    }
+
+    // Operações que movem dinheiro aceitam o cabeçalho Idempotency-Key: a repetição de um
+    // pedido com a mesma chave devolve a resposta original sem chamar o BancoService
+    private <T> T idempotente(String chave, String pedido, Supplier<T> operacao) {
+        return chave == null ? operacao.get() : registroIdempotencia.executar(chave, pedido, operacao);
+    }
+
+    // Recusas esperadas chegam como ResultadoOperacao, sem exceção no caminho da requisição
+    private static ResponseEntity<String> resposta(ResultadoOperacao resultado, String sucesso) {
+        return resultado.isSucesso() ? ResponseEntity.ok(sucesso) : ResponseEntity.badRequest().body(resultado.getMensagem());
+    }
+
+    private static String pedido(String operacao, String conta, BigDecimal valor) {
+        return operacao + " " + conta + (valor == null ? "" : " " + valor.stripTrailingZeros().toPlainString());
+    }
+
+    // A ETag é lida antes do corpo: uma alteração entre os dois só faz o próximo GET responder 200.
+    // No 304, checkNotModified já escreveu o cabeçalho ETag
+    private static <T> ResponseEntity<T> condicional(WebRequest request, String etag, Supplier<T> corpo) {
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(corpo.get());
+    }
+
+    private void escreverNdjson(Iterable<?> itens, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        OutputStream saida = response.getOutputStream();
+        try (SequenceWriter escritor = objectMapper.writer().withRootValueSeparator("\n").writeValues(saida)) {
+            boolean vazio = true;
+            for (Object item : itens) {
+                escritor.write(item);
+                vazio = false;
+            }
+            escritor.flush();
+            // O separador vai só entre registros; o último recebe o seu aqui, e uma listagem vazia fica vazia
+            if (!vazio) {
+                saida.write('\n');
+            }
+        }
     }
 }
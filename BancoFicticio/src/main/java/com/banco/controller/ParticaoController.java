@@ -0,0 +1,133 @@
+package com.banco.controller;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.banco.domain.ResultadoOperacao;
+import com.banco.particao.AnelConsistente;
+import com.banco.particao.ParticaoLocal;
+import com.banco.particao.RegistroMigracao;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Endpoints internos de um nó particionado, chamados só pelo roteador. O anel vem em cada
+// pedido: nos (endereços na ordem do anel), virtuais e no (o endereço deste nó)
+@RestController
+@RequestMapping("/api/particao")
+@ConditionalOnProperty(name = "banco.particao.papel", havingValue = "NO")
+public class ParticaoController {
+
+    @Autowired
+    private ParticaoLocal particaoLocal;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @GetMapping(value = "/exportar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportar(
+            @RequestParam List<String> nos,
+            @RequestParam(defaultValue = "" + AnelConsistente.VIRTUAIS_PADRAO) int virtuais,
+            @RequestParam String destino,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        OutputStream saida = response.getOutputStream();
+        AtomicInteger exportados = new AtomicInteger();
+        try (SequenceWriter escritor = objectMapper.writer().withRootValueSeparator("\n").writeValues(saida)) {
+            particaoLocal.exportar(new AnelConsistente(nos, virtuais), destino, registro -> {
+                try {
+                    escritor.write(registro);
+                    exportados.incrementAndGet();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            escritor.flush();
+            if (exportados.get() > 0) {
+                saida.write('\n');
+            }
+        }
+    }
+
+    @PostMapping(value = "/importar", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Map<String, Integer> importar(HttpServletRequest request) throws IOException {
+        int importados = 0;
+        try (BufferedReader entrada = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String linha; (linha = entrada.readLine()) != null; ) {
+                if (!linha.isBlank()) {
+                    particaoLocal.importar(objectMapper.readValue(linha, RegistroMigracao.class));
+                    importados++;
+                }
+            }
+        }
+        return Map.of("importados", importados);
+    }
+
+    @PostMapping("/remover-alheias")
+    public Map<String, Integer> removerAlheias(
+            @RequestParam List<String> nos,
+            @RequestParam(defaultValue = "" + AnelConsistente.VIRTUAIS_PADRAO) int virtuais,
+            @RequestParam String no) {
+        return Map.of("removidas", particaoLocal.removerAlheias(new AnelConsistente(nos, virtuais), no));
+    }
+
+    // Passos das transferências entre nós: como o saque e o depósito da API do banco, mas com
+    // a chave obrigatória e guardada no diário do nó, sem prazo
+    @PostMapping("/contas/{numero}/sacar")
+    public ResponseEntity<String> sacar(
+            @PathVariable String numero,
+            @RequestParam BigDecimal valor,
+            @RequestHeader("Idempotency-Key") String chave) {
+        return resposta(particaoLocal.sacar(chave, numero, valor), "Saque realizado com sucesso");
+    }
+
+    @PostMapping("/contas/{numero}/depositar")
+    public ResponseEntity<String> depositar(
+            @PathVariable String numero,
+            @RequestParam BigDecimal valor,
+            @RequestHeader("Idempotency-Key") String chave) {
+        return resposta(particaoLocal.depositar(chave, numero, valor), "Depósito realizado com sucesso");
+    }
+
+    // Chaves dos passos das transferências que o roteador já esqueceu
+    @PostMapping("/passos/esquecer")
+    public Map<String, Integer> esquecerPassos(@RequestBody List<String> transferencias) {
+        return Map.of("esquecidos", particaoLocal.esquecerTransferencias(transferencias));
+    }
+
+    @GetMapping("/clientes/contagem")
+    public Map<String, Integer> contarClientes(
+            @RequestParam List<String> nos,
+            @RequestParam(defaultValue = "" + AnelConsistente.VIRTUAIS_PADRAO) int virtuais,
+            @RequestParam String no) {
+        return Map.of("clientes", particaoLocal.contarClientes(new AnelConsistente(nos, virtuais), no));
+    }
+
+    private static ResponseEntity<String> resposta(ResultadoOperacao resultado, String sucesso) {
+        return resultado.isSucesso() ? ResponseEntity.ok(sucesso) : ResponseEntity.badRequest().body(resultado.getMensagem());
+    }
+}
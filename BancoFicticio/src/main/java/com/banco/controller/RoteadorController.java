@@ -0,0 +1,454 @@
+package com.banco.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.banco.domain.Cliente;
+import com.banco.exception.NoIndisponivelException;
+import com.banco.exception.OperacaoInvalidaException;
+import com.banco.particao.No;
+import com.banco.particao.RegistroMigracao;
+import com.banco.particao.RoteadorParticoes;
+import com.banco.particao.TransferenciasEntreParticoes;
+import com.banco.service.RegistroIdempotencia;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// A mesma API de BancoController no modo particionado: cada chamada vai para o nó dono da
+// conta (número) ou do cliente (CPF); listagens e estatísticas consultam todos os nós e
+// juntam as respostas. Transferências entre nós diferentes passam por TransferenciasEntreParticoes
+@RestController
+@RequestMapping("/api/banco")
+@ConditionalOnProperty(name = "banco.particao.papel", havingValue = "ROTEADOR")
+public class RoteadorController {
+
+    @Autowired
+    private RoteadorParticoes roteador;
+
+    @Autowired
+    private RegistroIdempotencia registroIdempotencia;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static final int LIMITE_MAXIMO_PAGINA = 1000;
+    private static final List<String> CABECALHOS_REPASSADOS = List.of("Content-Type", "Accept", "Idempotency-Key", "If-None-Match");
+
+    // Listagens paginadas: cada nó devolve a sua página e as páginas são fundidas pela chave.
+    // Um cliente aparece só no nó dono do CPF, mesmo que outros guardem cópias do cadastro
+    @GetMapping("/clientes")
+    public ObjectNode listarClientes(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limite) {
+        return roteador.executar(() -> paginar("/api/banco/clientes", "cpf", true, cursor, Math.min(limite, LIMITE_MAXIMO_PAGINA)));
+    }
+
+    @GetMapping(value = "/clientes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void listarClientesEmFluxo(HttpServletResponse response) {
+        roteador.executar(() -> fundirEmFluxo("/api/banco/clientes", "cpf", true, response));
+    }
+
+    // As contas do cliente vêm de todos os nós
+    @GetMapping("/clientes/{cpf}")
+    public ResponseEntity<byte[]> buscarCliente(@PathVariable String cpf) {
+        return roteador.executar(() -> {
+            No.Resposta resposta = roteador.noDoCliente(cpf).enviar(No.Pedido.get("/api/banco/clientes/" + codificar(cpf)));
+            if (resposta.status() != 200) {
+                return resposta(resposta);
+            }
+            ObjectNode cliente = (ObjectNode) ler(resposta.corpo());
+            ArrayNode contas = juntarListas("/api/banco/clientes/" + codificar(cpf) + "/contas");
+            if (contas != null) {
+                cliente.set("contas", contas);
+            }
+            return json(HttpStatus.OK, cliente);
+        });
+    }
+
+    @GetMapping("/clientes/{cpf}/contas")
+    public ResponseEntity<byte[]> listarContasCliente(@PathVariable String cpf) {
+        return roteador.executar(() -> {
+            ArrayNode contas = juntarListas("/api/banco/clientes/" + codificar(cpf) + "/contas");
+            if (contas == null) {
+                return resposta(roteador.noDoCliente(cpf).enviar(No.Pedido.get("/api/banco/clientes/" + codificar(cpf) + "/contas")));
+            }
+            return json(HttpStatus.OK, contas);
+        });
+    }
+
+    @PostMapping("/clientes")
+    public ResponseEntity<byte[]> criarCliente(@RequestParam String cpf, HttpServletRequest request) {
+        return roteador.executar(() -> resposta(roteador.noDoCliente(cpf).enviar(pedido(request))));
+    }
+
+    @GetMapping("/contas")
+    public ObjectNode listarContas(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limite) {
+        return roteador.executar(() -> paginar("/api/banco/contas", "numero", false, cursor, Math.min(limite, LIMITE_MAXIMO_PAGINA)));
+    }
+
+    @GetMapping(value = "/contas", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void listarContasEmFluxo(HttpServletResponse response) {
+        roteador.executar(() -> fundirEmFluxo("/api/banco/contas", "numero", false, response));
+    }
+
+    @GetMapping({"/contas/ativas", "/contas/corrente", "/contas/poupanca", "/contas/investimento"})
+    public ResponseEntity<byte[]> listarContasPorTipo(HttpServletRequest request) {
+        return roteador.executar(() -> {
+            ArrayNode contas = juntarListas(caminho(request));
+            return json(HttpStatus.OK, contas == null ? JsonNodeFactory.instance.arrayNode() : contas);
+        });
+    }
+
+    // A conta fica no nó dono do número; se o titular é de outro nó, o cadastro dele é
+    // copiado antes para o nó da conta
+    @PostMapping({"/contas/corrente", "/contas/poupanca", "/contas/investimento"})
+    public ResponseEntity<byte[]> criarConta(
+            @RequestParam String numero,
+            @RequestParam String cpfCliente,
+            HttpServletRequest request) {
+        return roteador.executar(() -> {
+            No dono = roteador.noDaConta(numero);
+            No donoTitular = roteador.noDoCliente(cpfCliente);
+            if (dono != donoTitular) {
+                No.Resposta titular = donoTitular.enviar(No.Pedido.get("/api/banco/clientes/" + codificar(cpfCliente)));
+                if (titular.status() != 200) {
+                    return resposta(titular);
+                }
+                JsonNode cadastro = ler(titular.corpo());
+                Cliente copia = new Cliente(cadastro.path("nome").asText(), cadastro.path("cpf").asText(),
+                        LocalDate.parse(cadastro.path("dataNascimento").asText()));
+                byte[] linha = (objectMapper.writeValueAsString(RegistroMigracao.cliente(copia)) + "\n")
+                        .getBytes(StandardCharsets.UTF_8);
+                No.Resposta importada = dono.enviar(new No.Pedido("POST", "/api/particao/importar",
+                        Map.of("Content-Type", MediaType.APPLICATION_NDJSON_VALUE), linha));
+                if (!importada.sucesso()) {
+                    throw new IOException(dono.endereco() + " recusou o titular: " + importada.status() + " " + importada.texto());
+                }
+            }
+            return resposta(dono.enviar(pedido(request)));
+        });
+    }
+
+    // Consultas e operações de uma conta, inclusive depósito, saque e projeção
+    @RequestMapping({"/contas/{numero}", "/contas/{numero}/**"})
+    public ResponseEntity<byte[]> encaminharConta(@PathVariable String numero, HttpServletRequest request) {
+        return roteador.executar(() -> resposta(roteador.noDaConta(numero).enviar(pedido(request))));
+    }
+
+    // Contas do mesmo nó: a transferência local, atômica. Nós diferentes: a saga com estorno,
+    // 202 se ela não pôde terminar agora (é retomada em segundo plano)
+    @PostMapping("/transferencias")
+    public ResponseEntity<byte[]> transferir(
+            @RequestParam String origem,
+            @RequestParam String destino,
+            @RequestParam BigDecimal valor,
+            @RequestHeader(value = "Idempotency-Key", required = false) String chave,
+            HttpServletRequest request) {
+        return roteador.executar(() -> {
+            No noOrigem = roteador.noDaConta(origem);
+            if (noOrigem == roteador.noDaConta(destino)) {
+                return resposta(noOrigem.enviar(pedido(request)));
+            }
+            Supplier<ResponseEntity<byte[]>> operacao = () -> transferirEntreNos(origem, destino, valor, chave);
+            return chave == null ? operacao.get() : registroIdempotencia.executar(chave,
+                    "transferir " + origem + ">" + destino + " " + valor.stripTrailingZeros().toPlainString(), operacao);
+        });
+    }
+
+    // Soma campo a campo das estatísticas dos nós; clientes são só os de que cada nó é dono
+    @GetMapping("/estatisticas")
+    public ResponseEntity<byte[]> estatisticas() {
+        return roteador.executar(() -> {
+            List<JsonNode> partes = roteador.emTodos(no -> ler(exigir(no, no.enviar(No.Pedido.get("/api/banco/estatisticas")))));
+            List<Long> clientes = roteador.emTodos(no -> ler(exigir(no, no.enviar(No.Pedido.get("/api/particao/clientes/contagem?"
+                    + RoteadorParticoes.parametrosAnel(roteador.anel(), no.endereco()))))).path("clientes").asLong());
+            JsonNode total = partes.get(0);
+            for (int i = 1; i < partes.size(); i++) {
+                total = somar(total, partes.get(i));
+            }
+            ((ObjectNode) total).put("clientes", clientes.stream().mapToLong(Long::longValue).sum());
+            return json(HttpStatus.OK, total);
+        });
+    }
+
+    // O fechamento roda em cada nó; a resposta lista o lote de cada um
+    @PostMapping("/calcular-tarifas")
+    public ResponseEntity<byte[]> calcularTarifas(HttpServletRequest request) {
+        return roteador.executar(() -> {
+            No.Pedido pedido = pedido(request);
+            ArrayNode lotes = JsonNodeFactory.instance.arrayNode();
+            for (Map.Entry<String, No.Resposta> resposta : roteador.emTodos(no -> Map.entry(no.endereco(), no.enviar(pedido)))) {
+                if (!resposta.getValue().sucesso()) {
+                    return resposta(resposta.getValue());
+                }
+                lotes.addObject().put("no", resposta.getKey()).set("lote", ler(resposta.getValue().corpo()));
+            }
+            ObjectNode corpo = JsonNodeFactory.instance.objectNode();
+            corpo.set("lotes", lotes);
+            return json(HttpStatus.ACCEPTED, corpo);
+        });
+    }
+
+    @GetMapping("/calcular-tarifas/{id}")
+    public ResponseEntity<byte[]> acompanharTarifas(HttpServletRequest request) {
+        return roteador.executar(() -> {
+            List<No.Resposta> respostas = roteador.emTodos(no -> no.enviar(No.Pedido.get(caminho(request))));
+            return resposta(respostas.stream().filter(No.Resposta::sucesso).findFirst().orElse(respostas.get(0)));
+        });
+    }
+
+    // Precisam de todas as contas num só processo
+    @RequestMapping({"/operacoes/lote", "/importacao", "/projecao", "/clientes/{cpf}/projecao"})
+    public ResponseEntity<String> naoDisponivel(HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED)
+                .body("Não disponível no modo particionado: " + request.getRequestURI());
+    }
+
+    private ResponseEntity<byte[]> transferirEntreNos(String origem, String destino, BigDecimal valor, String chave) {
+        TransferenciasEntreParticoes.Resultado resultado;
+        try {
+            resultado = roteador.transferencias().transferir(origem, destino, valor, chave);
+        } catch (IllegalArgumentException e) {
+            return texto(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IOException e) {
+            // Nada foi registrado: a consulta ao destino falhou antes do saque
+            throw new NoIndisponivelException("Nó indisponível: " + e.getMessage(), e);
+        }
+        ResponseEntity<byte[]> resposta = texto(HttpStatus.valueOf(resultado.status()), resultado.mensagem());
+        if (resultado.status() == HttpStatus.ACCEPTED.value()) {
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/particao/transferencias/" + resultado.transferencia().id()))
+                    .contentType(resposta.getHeaders().getContentType())
+                    .body(resposta.getBody());
+        }
+        return resposta;
+    }
+
+    private record PaginaNo(List<JsonNode> itens, boolean mais) {
+    }
+
+    private ObjectNode paginar(String recurso, String chave, boolean soDoDono, String cursor, int limite) throws IOException {
+        if (limite <= 0) {
+            throw new OperacaoInvalidaException("Limite deve ser maior que zero");
+        }
+        List<PaginaNo> paginas = roteador.emTodos(no -> paginaDoNo(no, recurso, chave, soDoDono, cursor, limite));
+        List<JsonNode> itens = new ArrayList<>();
+        boolean mais = false;
+        for (PaginaNo pagina : paginas) {
+            itens.addAll(pagina.itens());
+            mais |= pagina.mais();
+        }
+        itens.sort(Comparator.comparing(item -> item.path(chave).asText()));
+        mais |= itens.size() > limite;
+        List<JsonNode> primeiros = itens.subList(0, Math.min(limite, itens.size()));
+        ObjectNode resultado = JsonNodeFactory.instance.objectNode();
+        resultado.putArray("itens").addAll(primeiros);
+        resultado.put("proximoCursor", mais && !primeiros.isEmpty() ? primeiros.get(primeiros.size() - 1).path(chave).asText() : null);
+        return resultado;
+    }
+
+    // Até limite itens do nó depois do cursor; pede mais páginas se o filtro de dono descartar itens
+    private PaginaNo paginaDoNo(No no, String recurso, String chave, boolean soDoDono, String cursor, int limite) throws IOException {
+        List<JsonNode> itens = new ArrayList<>();
+        String proximo = cursor;
+        do {
+            JsonNode pagina = ler(exigir(no, no.enviar(No.Pedido.get(recurso + "?limite=" + limite
+                    + (proximo == null ? "" : "&cursor=" + codificar(proximo))))));
+            for (JsonNode item : pagina.path("itens")) {
+                if (!soDoDono || roteador.anel().noDoCliente(item.path(chave).asText()).equals(no.endereco())) {
+                    itens.add(item);
+                }
+            }
+            proximo = pagina.path("proximoCursor").isTextual() ? pagina.path("proximoCursor").asText() : null;
+        } while (proximo != null && itens.size() < limite);
+        return new PaginaNo(itens, proximo != null);
+    }
+
+    private record Cabeca(String chave, String linha, Iterator<String> resto, No no) {
+    }
+
+    // Fusão em k vias dos fluxos NDJSON dos nós, em ordem da chave, sem guardar as listas
+    private Void fundirEmFluxo(String recurso, String chave, boolean soDoDono, HttpServletResponse response) throws IOException {
+        List<Stream<String>> fluxos = new ArrayList<>();
+        try {
+            PriorityQueue<Cabeca> fila = new PriorityQueue<>(Comparator.comparing(Cabeca::chave));
+            for (No no : roteador.nos()) {
+                Stream<String> fluxo = no.linhas(new No.Pedido("GET", recurso,
+                        Map.of("Accept", MediaType.APPLICATION_NDJSON_VALUE), null));
+                fluxos.add(fluxo);
+                Cabeca cabeca = proxima(fluxo.iterator(), no, chave, soDoDono);
+                if (cabeca != null) {
+                    fila.add(cabeca);
+                }
+            }
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            OutputStream saida = response.getOutputStream();
+            for (Cabeca cabeca; (cabeca = fila.poll()) != null; ) {
+                saida.write(cabeca.linha().getBytes(StandardCharsets.UTF_8));
+                saida.write('\n');
+                Cabeca seguinte = proxima(cabeca.resto(), cabeca.no(), chave, soDoDono);
+                if (seguinte != null) {
+                    fila.add(seguinte);
+                }
+            }
+            saida.flush();
+        } finally {
+            fluxos.forEach(Stream::close);
+        }
+        return null;
+    }
+
+    private Cabeca proxima(Iterator<String> linhas, No no, String chave, boolean soDoDono) throws IOException {
+        while (linhas.hasNext()) {
+            String linha = linhas.next();
+            if (linha.isBlank()) {
+                continue;
+            }
+            String valor = ler(linha.getBytes(StandardCharsets.UTF_8)).path(chave).asText();
+            if (!soDoDono || roteador.anel().noDoCliente(valor).equals(no.endereco())) {
+                return new Cabeca(valor, linha, linhas, no);
+            }
+        }
+        return null;
+    }
+
+    // Concatena as listas JSON dos nós que responderam 200, em ordem de número; null se nenhum respondeu
+    private ArrayNode juntarListas(String caminho) throws IOException {
+        List<No.Resposta> respostas = roteador.emTodos(no -> no.enviar(No.Pedido.get(caminho)));
+        List<JsonNode> itens = new ArrayList<>();
+        boolean alguma = false;
+        for (No.Resposta resposta : respostas) {
+            if (resposta.status() == 200) {
+                alguma = true;
+                ler(resposta.corpo()).forEach(itens::add);
+            } else if (resposta.status() != 404) {
+                throw new IOException("Resposta " + resposta.status() + " de " + caminho + ": " + resposta.texto());
+            }
+        }
+        if (!alguma) {
+            return null;
+        }
+        itens.sort(Comparator.comparing(item -> item.path("numero").asText()));
+        return JsonNodeFactory.instance.arrayNode().addAll(itens);
+    }
+
+    // Números somados (inteiros como long, decimais como BigDecimal), objetos campo a campo
+    private static JsonNode somar(JsonNode a, JsonNode b) {
+        if (a.isObject() && b.isObject()) {
+            ObjectNode soma = ((ObjectNode) a).deepCopy();
+            b.fields().forEachRemaining(campo -> soma.set(campo.getKey(),
+                    soma.has(campo.getKey()) ? somar(soma.get(campo.getKey()), campo.getValue()) : campo.getValue()));
+            return soma;
+        }
+        if (a.isIntegralNumber() && b.isIntegralNumber()) {
+            return JsonNodeFactory.instance.numberNode(a.asLong() + b.asLong());
+        }
+        if (a.isNumber() && b.isNumber()) {
+            return JsonNodeFactory.instance.numberNode(a.decimalValue().add(b.decimalValue()));
+        }
+        return a;
+    }
+
+    private JsonNode ler(byte[] corpo) throws IOException {
+        return objectMapper.reader().with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS).readTree(corpo);
+    }
+
+    private static byte[] exigir(No no, No.Resposta resposta) throws IOException {
+        if (!resposta.sucesso()) {
+            throw new IOException(no.endereco() + " respondeu " + resposta.status() + ": " + resposta.texto());
+        }
+        return resposta.corpo();
+    }
+
+    // O pedido do cliente como chegou: parâmetros (da query ou de formulário) vão na query,
+    // o corpo só quando não é formulário
+    private static No.Pedido pedido(HttpServletRequest request) throws IOException {
+        Map<String, String> cabecalhos = new LinkedHashMap<>();
+        for (String nome : CABECALHOS_REPASSADOS) {
+            String valor = request.getHeader(nome);
+            if (valor != null) {
+                cabecalhos.put(nome, valor);
+            }
+        }
+        byte[] corpo = null;
+        String tipo = request.getContentType();
+        if (tipo != null && tipo.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE)) {
+            cabecalhos.remove("Content-Type");
+        } else {
+            corpo = request.getInputStream().readAllBytes();
+            if (corpo.length == 0) {
+                corpo = null;
+            }
+        }
+        return new No.Pedido(request.getMethod(), caminho(request), cabecalhos, corpo);
+    }
+
+    private static String caminho(HttpServletRequest request) {
+        StringBuilder caminho = new StringBuilder(request.getRequestURI());
+        char separador = '?';
+        for (Map.Entry<String, String[]> parametro : request.getParameterMap().entrySet()) {
+            for (String valor : parametro.getValue()) {
+                caminho.append(separador).append(codificar(parametro.getKey())).append('=').append(codificar(valor));
+                separador = '&';
+            }
+        }
+        return caminho.toString();
+    }
+
+    private static ResponseEntity<byte[]> resposta(No.Resposta resposta) {
+        ResponseEntity.BodyBuilder construtor = ResponseEntity.status(resposta.status());
+        resposta.cabecalhos().forEach((nome, valor) -> construtor.header(nome, valor));
+        return construtor.body(resposta.corpo());
+    }
+
+    private ResponseEntity<byte[]> json(HttpStatus status, JsonNode corpo) throws IOException {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(objectMapper.writeValueAsBytes(corpo));
+    }
+
+    private static ResponseEntity<byte[]> texto(HttpStatus status, String corpo) {
+        return ResponseEntity.status(status)
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(corpo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String codificar(String texto) {
+        return URLEncoder.encode(texto, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
@@ -1,6 +1,7 @@
 package com.banco.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,15 +13,21 @@ import com.banco.domain.TipoInvestimento;
 import java.util.Arrays;
 
 @Controller
+// O roteador não tem contas próprias para mostrar
+@ConditionalOnExpression("'${banco.particao.papel:UNICO}' != 'ROTEADOR'")
 public class WebController {
 
     @Autowired
     private BancoService bancoService;
 
+    private static final int ITENS_PAINEL = 5;
+
+    // O painel lê os totais mantidos pelo BancoService e só as primeiras contas e clientes
     @GetMapping("/")
     public String index(Model model) {
-        model.addAttribute("clientes", bancoService.listarClientes());
-        model.addAttribute("contas", bancoService.listarContas());
+        model.addAttribute("estatisticas", bancoService.estatisticas());
+        model.addAttribute("clientes", bancoService.listarClientes(null, ITENS_PAINEL).getItens());
+        model.addAttribute("contas", bancoService.listarContas(null, ITENS_PAINEL).getItens());
         return "index";
     }
 
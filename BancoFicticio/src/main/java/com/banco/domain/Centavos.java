@@ -0,0 +1,94 @@
+package com.banco.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Aritmética monetária em centavos representados por {@code long}.
+ * As regras de arredondamento reproduzem {@code setScale(2, RoundingMode.HALF_EVEN)}
+ * e toda operação detecta overflow em vez de truncar silenciosamente.
+ * {@link BigDecimal} só aparece na fronteira com a API ({@link #de} e {@link #paraBigDecimal}).
+ */
+public final class Centavos {
+
+    private static final long[] POTENCIAS_DE_DEZ = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L,
+            100_000_000L, 1_000_000_000L, 10_000_000_000L, 100_000_000_000L,
+            1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L,
+            1_000_000_000_000_000_000L
+    };
+
+    private Centavos() {
+    }
+
+    public static long de(BigDecimal valor) {
+        try {
+            return valor.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Valor fora do intervalo suportado: " + valor, e);
+        }
+    }
+
+    public static BigDecimal paraBigDecimal(long centavos) {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    public static long somar(long a, long b) {
+        try {
+            return Math.addExact(a, b);
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Overflow ao somar valores monetários");
+        }
+    }
+
+    public static long subtrair(long a, long b) {
+        try {
+            return Math.subtractExact(a, b);
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Overflow ao subtrair valores monetários");
+        }
+    }
+
+    /**
+     * Aplica uma taxa decimal ({@code taxaSemEscala * 10^-escalaTaxa}) sobre um valor em
+     * centavos, arredondando o resultado para centavos com HALF_EVEN.
+     */
+    public static long aplicarTaxa(long centavos, long taxaSemEscala, int escalaTaxa) {
+        long produto;
+        try {
+            produto = Math.multiplyExact(centavos, taxaSemEscala);
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Overflow ao aplicar taxa sobre valor monetário");
+        }
+        if (escalaTaxa == 0) {
+            return produto;
+        }
+        long divisor = POTENCIAS_DE_DEZ[escalaTaxa];
+        long quociente = produto / divisor;
+        long dobroResto = Math.abs(produto % divisor) * 2;
+        if (dobroResto > divisor || (dobroResto == divisor && (quociente & 1) != 0)) {
+            quociente += produto < 0 ? -1 : 1;
+        }
+        return quociente;
+    }
+
+    /**
+     * Escala de uma taxa {@link BigDecimal} aceita por {@link #aplicarTaxa}.
+     */
+    public static int escalaDe(BigDecimal taxa) {
+        int escala = Math.max(taxa.scale(), 0);
+        if (escala >= POTENCIAS_DE_DEZ.length) {
+            throw new IllegalArgumentException("Taxa com casas decimais demais: " + taxa);
+        }
+        return escala;
+    }
+
+    public static long semEscala(BigDecimal taxa) {
+        try {
+            return taxa.setScale(escalaDe(taxa), RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Taxa fora do intervalo suportado: " + taxa, e);
+        }
+    }
+}
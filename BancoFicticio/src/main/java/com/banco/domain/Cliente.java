@@ -2,25 +2,37 @@ package com.banco.domain;
 
 import java.io.Serializable;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 public class Cliente implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     private String nome;
-    private String cpf;
+    // Normalizado (ver Cpf); o texto é montado só quando pedido
+    private final long cpf;
     private LocalDate dataNascimento;
     private List<Conta> contas;
+    // Incrementada a cada alteração do cliente ou da sua lista de contas; contas de um
+    // mesmo cliente podem ser criadas em paralelo, sob travas diferentes
+    private final AtomicLong versao = new AtomicLong();
 
     public Cliente(String nome, String cpf, LocalDate dataNascimento) {
         this.nome = nome;
-        this.cpf = cpf;
+        // Só o formato é conferido aqui: a recuperação recria clientes gravados antes da
+        // validação dos dígitos verificadores, que fica no cadastro (BancoService)
+        this.cpf = Cpf.normalizar(cpf);
+        if (this.cpf == Cpf.INVALIDO) {
+            throw new IllegalArgumentException("CPF deve ter 11 dígitos: " + cpf);
+        }
         this.dataNascimento = dataNascimento;
-        this.contas = new ArrayList<>();
+        this.contas = new CopyOnWriteArrayList<>();
     }
 
     public String getNome() {
@@ -29,9 +41,20 @@ public class Cliente implements Serializable {
 
     public void setNome(String nome) {
         this.nome = Objects.requireNonNull(nome, "Nome não pode ser nulo");
+        versao.incrementAndGet();
     }
 
+    // Os 11 dígitos, sem pontuação
     public String getCpf() {
+        return Cpf.texto(cpf);
+    }
+
+    @JsonIgnore
+    public String getCpfFormatado() {
+        return Cpf.formatar(cpf);
+    }
+
+    public long cpfNumerico() {
         return cpf;
     }
 
@@ -46,10 +69,18 @@ public class Cliente implements Serializable {
     public void adicionarConta(Conta conta) {
         Objects.requireNonNull(conta, "Conta não pode ser nula");
         this.contas.add(conta);
+        versao.incrementAndGet();
     }
 
     public void removerConta(Conta conta) {
-        this.contas.remove(conta);
+        if (this.contas.remove(conta)) {
+            versao.incrementAndGet();
+        }
+    }
+
+    // Versão do cadastro e da lista de contas; os saldos têm a versão de cada conta
+    public long versao() {
+        return versao.get();
     }
 
     @Override
@@ -61,19 +92,19 @@ public class Cliente implements Serializable {
             return false;
         }
         Cliente cliente = (Cliente) o;
-        return Objects.equals(cpf, cliente.cpf);
+        return cpf == cliente.cpf;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(cpf);
+        return Long.hashCode(cpf);
     }
 
     @Override
     public String toString() {
         return "Cliente{"
                 + "nome='" + nome + '\''
-                + ", cpf='" + cpf + '\''
+                + ", cpf='" + getCpf() + '\''
                 + ", dataNascimento=" + dataNascimento
                 + '}';
     }
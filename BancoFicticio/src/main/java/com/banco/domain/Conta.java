@@ -2,71 +2,217 @@ package com.banco.domain;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Objects;
 
 import com.banco.exception.SaldoInsuficienteException;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 public abstract class Conta {
 
     private String numero;
-    private BigDecimal saldo;
     private Cliente titular;
-    private LocalDateTime dataCriacao;
-    private boolean ativa;
+    // Data de criação em UTC, guardada sem os três objetos de um LocalDateTime
+    private long dataCriacaoSegundos;
+    private int dataCriacaoNanos;
+    // Saldo em centavos e situação ficam na posição desta conta em TabelaSaldos;
+    // BigDecimal só é produzido na fronteira da API
+    private TabelaSaldos saldos;
+    private int posicao;
+    // Incrementada depois de cada alteração de saldo ou situação, sempre sob a trava da conta
+    private volatile long versao;
+    // Últimos lançamentos; criado no primeiro lançamento, para contas paradas não ocuparem memória
+    private Extrato extrato;
+    // Última competência (aaaamm) com fechamento mensal aplicado; 0 se nenhuma, alterada sob a trava da conta
+    private int ultimoFechamento;
+
+    protected Conta(String numero, Cliente titular, int tipo) {
+        this(numero, titular, tipo, TabelaSaldos.avulsa());
+    }
 
-    public Conta(String numero, Cliente titular) {
+    protected Conta(String numero, Cliente titular, int tipo, TabelaSaldos saldos) {
         this.numero = Objects.requireNonNull(numero, "Número não pode ser nulo");
         this.titular = Objects.requireNonNull(titular, "Titular não pode ser nulo");
-        this.saldo = BigDecimal.ZERO;
-        this.dataCriacao = LocalDateTime.now();
-        this.ativa = true;
+        restaurarDataCriacao(LocalDateTime.now(ZoneOffset.UTC));
+        this.saldos = saldos;
+        this.posicao = saldos.alocar(tipo);
     }
 
     public void depositar(BigDecimal valor) {
         if (valor.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Valor do depósito deve ser maior que zero");
         }
-        this.saldo = this.saldo.add(valor);
+        depositarCentavos(Centavos.de(valor));
+    }
+
+    public void depositarCentavos(long valor) {
+        if (tentarDepositarCentavos(valor) != ResultadoOperacao.OK) {
+            throw new IllegalArgumentException("Valor do depósito deve ser maior que zero");
+        }
+    }
+
+    // Versões tentar*: a recusa é o valor devolvido, sem exceção
+    public ResultadoOperacao tentarDepositarCentavos(long valor) {
+        if (valor <= 0) {
+            return ResultadoOperacao.VALOR_INVALIDO;
+        }
+        gravarSaldo(Centavos.somar(saldos.saldo(posicao), valor));
+        return ResultadoOperacao.OK;
     }
 
     public void sacar(BigDecimal valor) {
         if (valor.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Valor do saque deve ser maior que zero");
         }
-        if (valor.compareTo(saldo) > 0) {
-            throw new SaldoInsuficienteException("Saldo insuficiente para saque");
+        sacarCentavos(Centavos.de(valor));
+    }
+
+    public void sacarCentavos(long valor) {
+        switch (tentarSacarCentavos(valor)) {
+            case VALOR_INVALIDO -> throw new IllegalArgumentException("Valor do saque deve ser maior que zero");
+            case SALDO_INSUFICIENTE -> throw saldoInsuficiente(valor);
+            default -> { }
+        }
+    }
+
+    public ResultadoOperacao tentarSacarCentavos(long valor) {
+        if (valor <= 0) {
+            return ResultadoOperacao.VALOR_INVALIDO;
+        }
+        long saldo = saldos.saldo(posicao);
+        if (valor > Centavos.somar(saldo, limiteSaqueCentavos())) {
+            return ResultadoOperacao.SALDO_INSUFICIENTE;
         }
-        this.saldo = this.saldo.subtract(valor);
+        gravarSaldo(saldo - valor);
+        return ResultadoOperacao.OK;
+    }
+
+    // Quanto um saque pode deixar o saldo negativo (o cheque especial da conta corrente)
+    protected long limiteSaqueCentavos() {
+        return 0;
     }
 
-    public abstract void calcularTarifaMensal();
+    public SaldoInsuficienteException saldoInsuficiente(long valor) {
+        return new SaldoInsuficienteException("Saldo insuficiente para saque");
+    }
+
+    // Tarifa de um mês para o saldo informado; usada pela cobrança mensal e pelas projeções
+    public abstract long tarifaMensalCentavos(long saldoCentavos);
+
+    public void calcularTarifaMensal() {
+        long saldo = saldoEmCentavos();
+        setSaldoCentavos(Centavos.subtrair(saldo, tarifaMensalCentavos(saldo)));
+    }
 
     public String getNumero() {
         return numero;
     }
 
     public BigDecimal getSaldo() {
-        return saldo;
+        return Centavos.paraBigDecimal(saldos.saldo(posicao));
+    }
+
+    public long saldoEmCentavos() {
+        return saldos.saldo(posicao);
     }
 
     protected void setSaldo(BigDecimal saldo) {
-        this.saldo = Objects.requireNonNull(saldo, "Saldo não pode ser nulo");
+        gravarSaldo(Centavos.de(Objects.requireNonNull(saldo, "Saldo não pode ser nulo")));
+    }
+
+    protected void setSaldoCentavos(long saldoCentavos) {
+        gravarSaldo(saldoCentavos);
+    }
+
+    // Usado apenas na recuperação (diário/snapshot): grava o saldo sem validações
+    public void restaurarSaldoCentavos(long saldoCentavos) {
+        gravarSaldo(saldoCentavos);
     }
 
+    private void gravarSaldo(long saldoCentavos) {
+        saldos.gravarSaldo(posicao, saldoCentavos);
+        versao++;
+    }
+
+    // Versão monotônica do estado da conta, usada como ETag; não é serializada
+    public long versao() {
+        return versao;
+    }
+
+    // Extrato da conta, ou null se ainda não houve lançamento; acessado sob a trava da conta
+    public Extrato extrato() {
+        return extrato;
+    }
+
+    public Extrato abrirExtrato(int capacidade) {
+        if (extrato == null) {
+            extrato = new Extrato(capacidade);
+        }
+        return extrato;
+    }
+
+    public int posicao() {
+        return posicao;
+    }
+
+    public TabelaSaldos tabelaSaldos() {
+        return saldos;
+    }
+
+    // Move o estado para uma posição nova em outra tabela; chamado antes de a conta ser publicada
+    public void vincular(TabelaSaldos destino) {
+        if (destino == saldos) {
+            return;
+        }
+        int novaPosicao = destino.alocar(saldos.tipo(posicao));
+        destino.gravarSaldo(novaPosicao, saldos.saldo(posicao));
+        destino.gravarAtiva(novaPosicao, saldos.ativa(posicao));
+        saldos.liberar(posicao);
+        this.saldos = destino;
+        this.posicao = novaPosicao;
+    }
+
+    // O titular é serializado sem a lista de contas, que apontaria de volta para esta conta
+    @JsonIgnoreProperties("contas")
     public Cliente getTitular() {
         return titular;
     }
 
     public LocalDateTime getDataCriacao() {
-        return dataCriacao;
+        return LocalDateTime.ofEpochSecond(dataCriacaoSegundos, dataCriacaoNanos, ZoneOffset.UTC);
+    }
+
+    // Usado apenas na recuperação (diário/snapshot)
+    public void restaurarDataCriacao(LocalDateTime dataCriacao) {
+        Objects.requireNonNull(dataCriacao, "Data de criação não pode ser nula");
+        this.dataCriacaoSegundos = dataCriacao.toEpochSecond(ZoneOffset.UTC);
+        this.dataCriacaoNanos = dataCriacao.getNano();
+    }
+
+    // Segundos UTC da criação, sem montar o LocalDateTime
+    public long dataCriacaoEpochSegundos() {
+        return dataCriacaoSegundos;
+    }
+
+    public int ultimoFechamento() {
+        return ultimoFechamento;
+    }
+
+    // Também usado na recuperação; uma competência anterior à registrada é ignorada
+    public void registrarFechamento(int competencia) {
+        if (competencia > ultimoFechamento) {
+            ultimoFechamento = competencia;
+            versao++;
+        }
     }
 
     public boolean isAtiva() {
-        return ativa;
+        return saldos.ativa(posicao);
     }
 
     public void setAtiva(boolean ativa) {
-        this.ativa = ativa;
+        saldos.gravarAtiva(posicao, ativa);
+        versao++;
     }
 
     @Override
@@ -90,9 +236,9 @@ public abstract class Conta {
     public String toString() {
         return "Conta{"
                 + "numero='" + numero + '\''
-                + ", saldo=" + saldo
+                + ", saldo=" + getSaldo()
                 + ", titular=" + titular
-                + ", ativa=" + ativa
+                + ", ativa=" + isAtiva()
                 + '}';
     }
 }
@@ -8,41 +8,52 @@ import com.banco.exception.SaldoInsuficienteException;
 public class ContaCorrente extends Conta {
 
     private BigDecimal limiteChequeEspecial;
-    private static final BigDecimal TARIFA_MENSAL = new BigDecimal("30.00");
+    private long limiteChequeEspecialCentavos;
+    private static final long TARIFA_MENSAL_CENTAVOS = 3000; // R$ 30,00
 
     public ContaCorrente(String numero, Cliente titular) {
         this(numero, titular, BigDecimal.ZERO);
     }
 
     public ContaCorrente(String numero, Cliente titular, BigDecimal limiteChequeEspecial) {
-        super(numero, titular);
-        this.limiteChequeEspecial = limiteChequeEspecial.setScale(2, RoundingMode.HALF_EVEN);
+        this(numero, titular, limiteChequeEspecial, TabelaSaldos.avulsa());
+    }
+
+    public ContaCorrente(String numero, Cliente titular, BigDecimal limiteChequeEspecial, TabelaSaldos saldos) {
+        super(numero, titular, TabelaSaldos.CORRENTE, saldos);
+        setLimiteChequeEspecial(limiteChequeEspecial);
+    }
+
+    @Override
+    protected long limiteSaqueCentavos() {
+        return limiteChequeEspecialCentavos;
     }
 
     @Override
-    public void sacar(BigDecimal valor) {
-        BigDecimal saldoTotal = getSaldo().add(limiteChequeEspecial);
-        if (valor.compareTo(saldoTotal) > 0) {
-            throw new SaldoInsuficienteException(
-                    "Saldo e limite insuficientes para saque",
-                    getSaldo(),
-                    valor
-            );
-        }
-        super.sacar(valor);
+    public SaldoInsuficienteException saldoInsuficiente(long valor) {
+        return new SaldoInsuficienteException(
+                "Saldo e limite insuficientes para saque",
+                getSaldo(),
+                Centavos.paraBigDecimal(valor)
+        );
     }
 
     @Override
-    public void calcularTarifaMensal() {
-        setSaldo(getSaldo().subtract(TARIFA_MENSAL));
+    public long tarifaMensalCentavos(long saldoCentavos) {
+        return TARIFA_MENSAL_CENTAVOS;
     }
 
     public BigDecimal getLimiteChequeEspecial() {
         return limiteChequeEspecial;
     }
 
+    public long limiteChequeEspecialEmCentavos() {
+        return limiteChequeEspecialCentavos;
+    }
+
     public void setLimiteChequeEspecial(BigDecimal limiteChequeEspecial) {
         this.limiteChequeEspecial = limiteChequeEspecial.setScale(2, RoundingMode.HALF_EVEN);
+        this.limiteChequeEspecialCentavos = Centavos.de(this.limiteChequeEspecial);
     }
 
     @Override
@@ -1,16 +1,19 @@
 package com.banco.domain;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
-public class ContaInvestimento extends Conta implements Tributavel {
+public class ContaInvestimento extends Conta implements Tributavel, Rentavel {
 
     private TipoInvestimento tipo;
     private BigDecimal taxaAdministracao;
-    private static final BigDecimal TARIFA_MENSAL = new BigDecimal("15.00");
+    private static final long TARIFA_MENSAL_CENTAVOS = 1500; // R$ 15,00
 
     public ContaInvestimento(String numero, Cliente titular, TipoInvestimento tipo) {
-        super(numero, titular);
+        this(numero, titular, tipo, TabelaSaldos.avulsa());
+    }
+
+    public ContaInvestimento(String numero, Cliente titular, TipoInvestimento tipo, TabelaSaldos saldos) {
+        super(numero, titular, TabelaSaldos.INVESTIMENTO, saldos);
         this.tipo = tipo;
         this.taxaAdministracao = tipo.getTaxaAdministracao();
     }
@@ -29,19 +32,31 @@ public class ContaInvestimento extends Conta implements Tributavel {
         sacar(valor);
     }
 
+    // Rendimento esperado do tipo de investimento; não entra no fechamento mensal, só nas projeções
+    @Override
+    public long rendimentoMensalCentavos(long saldoCentavos) {
+        return Centavos.aplicarTaxa(saldoCentavos, tipo.getTaxaRendimentoSemEscala(), tipo.getEscalaTaxaRendimento());
+    }
+
     @Override
-    public void calcularTarifaMensal() {
-        BigDecimal tarifa = TARIFA_MENSAL.add(
-                getSaldo().multiply(taxaAdministracao)
-                        .setScale(2, RoundingMode.HALF_EVEN)
-        );
-        setSaldo(getSaldo().subtract(tarifa));
+    public long tarifaMensalCentavos(long saldoCentavos) {
+        return Centavos.somar(TARIFA_MENSAL_CENTAVOS, Centavos.aplicarTaxa(saldoCentavos,
+                tipo.getTaxaAdministracaoSemEscala(), tipo.getEscalaTaxaAdministracao()));
     }
 
     @Override
     public BigDecimal calcularImposto() {
-        return getSaldo().multiply(tipo.getAliquotaImposto())
-                .setScale(2, RoundingMode.HALF_EVEN);
+        return Centavos.paraBigDecimal(calcularImpostoCentavos());
+    }
+
+    public long calcularImpostoCentavos() {
+        return impostoCentavos(saldoEmCentavos());
+    }
+
+    @Override
+    public long impostoCentavos(long saldoCentavos) {
+        return Centavos.aplicarTaxa(saldoCentavos,
+                tipo.getAliquotaImpostoSemEscala(), tipo.getEscalaAliquotaImposto());
     }
 
     public TipoInvestimento getTipo() {
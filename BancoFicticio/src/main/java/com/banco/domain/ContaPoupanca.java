@@ -3,29 +3,43 @@ package com.banco.domain;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
-public class ContaPoupanca extends Conta {
+public class ContaPoupanca extends Conta implements Rentavel {
 
     private BigDecimal taxaRendimento;
-    private static final BigDecimal TARIFA_MENSAL = BigDecimal.ZERO;
+    private long taxaRendimentoSemEscala;
+    private int escalaTaxaRendimento;
+    private static final long TARIFA_MENSAL_CENTAVOS = 0;
 
     public ContaPoupanca(String numero, Cliente titular) {
         this(numero, titular, new BigDecimal("0.005")); // 0.5% ao mês
     }
 
+    public ContaPoupanca(String numero, Cliente titular, TabelaSaldos saldos) {
+        this(numero, titular, new BigDecimal("0.005"), saldos);
+    }
+
     public ContaPoupanca(String numero, Cliente titular, BigDecimal taxaRendimento) {
-        super(numero, titular);
-        this.taxaRendimento = taxaRendimento.setScale(4, RoundingMode.HALF_EVEN);
+        this(numero, titular, taxaRendimento, TabelaSaldos.avulsa());
+    }
+
+    public ContaPoupanca(String numero, Cliente titular, BigDecimal taxaRendimento, TabelaSaldos saldos) {
+        super(numero, titular, TabelaSaldos.POUPANCA, saldos);
+        setTaxaRendimento(taxaRendimento);
     }
 
     public void calcularRendimento() {
-        BigDecimal rendimento = getSaldo().multiply(taxaRendimento)
-                .setScale(2, RoundingMode.HALF_EVEN);
-        setSaldo(getSaldo().add(rendimento));
+        long saldo = saldoEmCentavos();
+        setSaldoCentavos(Centavos.somar(saldo, rendimentoMensalCentavos(saldo)));
+    }
+
+    @Override
+    public long rendimentoMensalCentavos(long saldoCentavos) {
+        return Centavos.aplicarTaxa(saldoCentavos, taxaRendimentoSemEscala, escalaTaxaRendimento);
     }
 
     @Override
-    public void calcularTarifaMensal() {
-        setSaldo(getSaldo().subtract(TARIFA_MENSAL));
+    public long tarifaMensalCentavos(long saldoCentavos) {
+        return TARIFA_MENSAL_CENTAVOS;
     }
 
     public BigDecimal getTaxaRendimento() {
@@ -34,6 +48,8 @@ public class ContaPoupanca extends Conta {
 
     public void setTaxaRendimento(BigDecimal taxaRendimento) {
         this.taxaRendimento = taxaRendimento.setScale(4, RoundingMode.HALF_EVEN);
+        this.taxaRendimentoSemEscala = Centavos.semEscala(this.taxaRendimento);
+        this.escalaTaxaRendimento = Centavos.escalaDe(this.taxaRendimento);
     }
 
     @Override
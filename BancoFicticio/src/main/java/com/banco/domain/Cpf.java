@@ -0,0 +1,87 @@
+package com.banco.domain;
+
+/**
+ * CPF como {@code long} de 11 dígitos. {@link #normalizar} aceita o número com ou sem
+ * pontuação ({@code 123.456.789-09} ou {@code 12345678909}) e não aloca, então pode ser
+ * usado em toda busca; {@link #valido} confere os dígitos verificadores.
+ */
+public final class Cpf {
+
+    // Devolvido por normalizar quando o texto não tem 11 dígitos
+    public static final long INVALIDO = -1;
+
+    private static final long LIMITE = 100_000_000_000L;
+
+    private Cpf() {
+    }
+
+    // Ignora '.', '-' e espaços; qualquer outro caractere ou uma contagem diferente de 11 dígitos dá INVALIDO
+    public static long normalizar(CharSequence cpf) {
+        if (cpf == null) {
+            return INVALIDO;
+        }
+        long numero = 0;
+        int digitos = 0;
+        for (int i = 0; i < cpf.length(); i++) {
+            char c = cpf.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digitos > 11) {
+                    return INVALIDO;
+                }
+                numero = numero * 10 + (c - '0');
+            } else if (c != '.' && c != '-' && c != ' ') {
+                return INVALIDO;
+            }
+        }
+        return digitos == 11 ? numero : INVALIDO;
+    }
+
+    // Dígitos verificadores corretos; CPFs com os 11 dígitos iguais passam na conta, mas não são emitidos
+    public static boolean valido(long cpf) {
+        if (cpf < 0 || cpf >= LIMITE || cpf % 11_111_111_111L == 0) {
+            return false;
+        }
+        return comDigitosVerificadores(cpf / 100) == cpf;
+    }
+
+    // Os nove primeiros dígitos seguidos dos dois verificadores calculados
+    public static long comDigitosVerificadores(long base) {
+        if (base < 0 || base >= LIMITE / 100) {
+            throw new IllegalArgumentException("Base do CPF deve ter até 9 dígitos: " + base);
+        }
+        int primeiro = digitoVerificador(base, 10);
+        int segundo = digitoVerificador(base * 10 + primeiro, 11);
+        return (base * 10 + primeiro) * 10 + segundo;
+    }
+
+    // Soma dos dígitos com pesos decrescentes a partir de pesoInicial, da esquerda para a direita
+    private static int digitoVerificador(long numero, int pesoInicial) {
+        int soma = 0;
+        for (int peso = 2; peso <= pesoInicial; peso++) {
+            soma += (int) (numero % 10) * peso;
+            numero /= 10;
+        }
+        int resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
+    }
+
+    // CPF válido, sem pontuação, cujos nove primeiros dígitos são base (para gerar dados de teste)
+    public static String gerar(long base) {
+        return texto(comDigitosVerificadores(base));
+    }
+
+    // Os 11 dígitos, com zeros à esquerda e sem pontuação
+    public static String texto(long cpf) {
+        char[] digitos = new char[11];
+        for (int i = 10; i >= 0; i--) {
+            digitos[i] = (char) ('0' + cpf % 10);
+            cpf /= 10;
+        }
+        return new String(digitos);
+    }
+
+    public static String formatar(long cpf) {
+        String t = texto(cpf);
+        return t.substring(0, 3) + '.' + t.substring(3, 6) + '.' + t.substring(6, 9) + '-' + t.substring(9);
+    }
+}
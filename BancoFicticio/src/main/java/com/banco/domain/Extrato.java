@@ -0,0 +1,63 @@
+package com.banco.domain;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Últimos lançamentos de uma conta num buffer circular de tamanho fixo. Cada lançamento
+ * ocupa três {@code long} de um único vetor: instante em milissegundos com o código do
+ * tipo nos 8 bits baixos, valor em centavos (negativo nas saídas) e saldo depois do
+ * lançamento. Registrar não aloca; quando o buffer enche, o mais antigo é sobrescrito.
+ *
+ * <p>Não é thread-safe: escritas e leituras acontecem sob a trava da conta.
+ */
+public final class Extrato {
+
+    private static final int CAMPOS = 3;
+
+    private final long[] registros;
+    private final int capacidade;
+    // Índice no vetor onde entra o próximo lançamento
+    private int proximo;
+    private long total;
+
+    public Extrato(int capacidade) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("Capacidade do extrato deve ser maior que zero");
+        }
+        this.capacidade = capacidade;
+        this.registros = new long[capacidade * CAMPOS];
+    }
+
+    public void registrar(TipoLancamento tipo, long valorCentavos, long saldoCentavos, long instanteMillis) {
+        int base = proximo;
+        registros[base] = instanteMillis << 8 | tipo.getCodigo();
+        registros[base + 1] = valorCentavos;
+        registros[base + 2] = saldoCentavos;
+        proximo = base + CAMPOS == registros.length ? 0 : base + CAMPOS;
+        total++;
+    }
+
+    // Até limite lançamentos, do mais recente para o mais antigo
+    public List<LancamentoExtrato> recentes(int limite) {
+        int quantidade = (int) Math.min(Math.min(total, capacidade), Math.max(0, limite));
+        List<LancamentoExtrato> lancamentos = new ArrayList<>(quantidade);
+        int base = proximo;
+        for (int i = 0; i < quantidade; i++) {
+            base = (base == 0 ? registros.length : base) - CAMPOS;
+            long instanteETipo = registros[base];
+            lancamentos.add(new LancamentoExtrato(TipoLancamento.doCodigo((byte) (instanteETipo & 0xFF)),
+                    registros[base + 1], registros[base + 2], Instant.ofEpochMilli(instanteETipo >>> 8)));
+        }
+        return lancamentos;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public int capacidade() {
+        return capacidade;
+    }
+}
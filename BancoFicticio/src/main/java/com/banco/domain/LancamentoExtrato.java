@@ -0,0 +1,47 @@
+package com.banco.domain;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Um lançamento lido do {@link Extrato}. Só é criado na consulta; o extrato em si
+ * guarda os lançamentos em campos primitivos.
+ */
+public class LancamentoExtrato {
+
+    private final TipoLancamento tipo;
+    private final long valorCentavos;
+    private final long saldoCentavos;
+    private final Instant dataHora;
+
+    LancamentoExtrato(TipoLancamento tipo, long valorCentavos, long saldoCentavos, Instant dataHora) {
+        this.tipo = tipo;
+        this.valorCentavos = valorCentavos;
+        this.saldoCentavos = saldoCentavos;
+        this.dataHora = dataHora;
+    }
+
+    public TipoLancamento getTipo() {
+        return tipo;
+    }
+
+    public BigDecimal getValor() {
+        return Centavos.paraBigDecimal(valorCentavos);
+    }
+
+    public BigDecimal getSaldo() {
+        return Centavos.paraBigDecimal(saldoCentavos);
+    }
+
+    public Instant getDataHora() {
+        return dataHora;
+    }
+
+    public long valorEmCentavos() {
+        return valorCentavos;
+    }
+
+    public long saldoEmCentavos() {
+        return saldoCentavos;
+    }
+}
@@ -0,0 +1,9 @@
+package com.banco.domain;
+
+// Contas com rendimento mensal projetável. Só a poupança credita o rendimento no fechamento
+// mensal; o do investimento é uma taxa esperada, usada apenas nas projeções
+public interface Rentavel {
+
+    // Rendimento de um mês sobre um saldo qualquer, com o arredondamento do fechamento mensal
+    long rendimentoMensalCentavos(long saldoCentavos);
+}
@@ -0,0 +1,27 @@
+package com.banco.domain;
+
+/**
+ * Resultado de uma operação que move dinheiro, devolvido pelos métodos {@code tentar*}
+ * de Conta e BancoService. Recusas esperadas (saldo insuficiente, valor inválido,
+ * conta encerrada) são valores, não exceções: recusar não aloca nem captura pilha.
+ */
+public enum ResultadoOperacao {
+    OK("Operação realizada com sucesso"),
+    SALDO_INSUFICIENTE("Saldo insuficiente"),
+    VALOR_INVALIDO("Valor deve ser maior que zero"),
+    CONTA_INATIVA("Conta encerrada");
+
+    private final String mensagem;
+
+    ResultadoOperacao(String mensagem) {
+        this.mensagem = mensagem;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    public boolean isSucesso() {
+        return this == OK;
+    }
+}
@@ -0,0 +1,158 @@
+package com.banco.domain;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Estado quente das contas (saldo em centavos, situação e código do tipo)
+ * guardado em colunas primitivas e indexado por uma posição densa atribuída na
+ * criação da conta. A conta guarda só a posição; número, titular e data de
+ * criação continuam no objeto {@link Conta}.
+ *
+ * <p>As colunas são divididas em páginas de tamanho fixo criadas sob demanda, então
+ * posições já atribuídas nunca mudam de lugar. Leituras e escritas de uma posição
+ * têm semântica volátil; a exclusão mútua entre operações fica a cargo do chamador
+ * (as travas do BancoService).
+ */
+public abstract class TabelaSaldos {
+
+    public static final int LIVRE = 0;
+    public static final int CORRENTE = 1;
+    public static final int POUPANCA = 2;
+    public static final int INVESTIMENTO = 3;
+
+    // Situação: bit 0 indica conta ativa; os bits seguintes guardam o tipo (LIVRE em posições não usadas)
+    private static final int ATIVA = 1;
+
+    private final int bitsPagina;
+    private final int mascaraPagina;
+    private final AtomicInteger proxima = new AtomicInteger();
+    private final ReentrantLock crescimento = new ReentrantLock();
+    private volatile int paginas;
+
+    protected TabelaSaldos(int bitsPagina) {
+        if (bitsPagina < 0 || bitsPagina > 24) {
+            throw new IllegalArgumentException("Páginas devem ter entre 1 e 2^24 posições");
+        }
+        this.bitsPagina = bitsPagina;
+        this.mascaraPagina = (1 << bitsPagina) - 1;
+    }
+
+    // Tabela de uma posição para contas criadas fora de um BancoService
+    public static TabelaSaldos avulsa() {
+        return new TabelaSaldosNoHeap(0);
+    }
+
+    public int alocar(int tipo) {
+        if (tipo <= LIVRE || tipo > INVESTIMENTO) {
+            throw new IllegalArgumentException("Tipo de conta inválido: " + tipo);
+        }
+        int posicao = proxima.getAndIncrement();
+        if (posicao < 0) {
+            proxima.set(Integer.MIN_VALUE);
+            throw new IllegalStateException("Tabela de saldos cheia");
+        }
+        int pagina = posicao >>> bitsPagina;
+        if (pagina >= paginas) {
+            crescer(pagina);
+        }
+        gravarSituacao(pagina, posicao & mascaraPagina, tipo << 1 | ATIVA);
+        return posicao;
+    }
+
+    private void crescer(int pagina) {
+        crescimento.lock();
+        try {
+            while (paginas <= pagina) {
+                criarPagina(paginas, 1 << bitsPagina);
+                paginas++;
+            }
+        } finally {
+            crescimento.unlock();
+        }
+    }
+
+    // Devolve a posição de uma conta que não chegou a ser registrada; ela não é reutilizada
+    public void liberar(int posicao) {
+        gravarSituacao(posicao >>> bitsPagina, posicao & mascaraPagina, LIVRE);
+        gravarSaldo(posicao >>> bitsPagina, posicao & mascaraPagina, 0);
+    }
+
+    public long saldo(int posicao) {
+        return lerSaldo(posicao >>> bitsPagina, posicao & mascaraPagina);
+    }
+
+    public void gravarSaldo(int posicao, long centavos) {
+        gravarSaldo(posicao >>> bitsPagina, posicao & mascaraPagina, centavos);
+    }
+
+    public boolean ativa(int posicao) {
+        return (lerSituacao(posicao >>> bitsPagina, posicao & mascaraPagina) & ATIVA) != 0;
+    }
+
+    public void gravarAtiva(int posicao, boolean ativa) {
+        int pagina = posicao >>> bitsPagina;
+        int indice = posicao & mascaraPagina;
+        int situacao = lerSituacao(pagina, indice);
+        gravarSituacao(pagina, indice, ativa ? situacao | ATIVA : situacao & ~ATIVA);
+    }
+
+    public int tipo(int posicao) {
+        return lerSituacao(posicao >>> bitsPagina, posicao & mascaraPagina) >>> 1;
+    }
+
+    // Percorre as colunas sem tocar nos objetos Conta
+    public long somarSaldos(int tipo) {
+        long total = 0;
+        int quantidadePaginas = paginas;
+        int tamanhoPagina = 1 << bitsPagina;
+        for (int pagina = 0; pagina < quantidadePaginas; pagina++) {
+            for (int indice = 0; indice < tamanhoPagina; indice++) {
+                if (lerSituacao(pagina, indice) >>> 1 == tipo) {
+                    total = Centavos.somar(total, lerSaldo(pagina, indice));
+                }
+            }
+        }
+        return total;
+    }
+
+    public int quantidade() {
+        return Math.max(0, proxima.get());
+    }
+
+    // Descarta todas as posições (usado antes de refazer uma recuperação)
+    public void limpar() {
+        crescimento.lock();
+        try {
+            descartarPaginas();
+            paginas = 0;
+            proxima.set(0);
+        } finally {
+            crescimento.unlock();
+        }
+    }
+
+    public long bytesAlocados() {
+        return (long) paginas * (1L << bitsPagina) * bytesPorPosicao();
+    }
+
+    public abstract int bytesPorPosicao();
+
+    protected abstract void criarPagina(int pagina, int tamanho);
+
+    protected abstract void descartarPaginas();
+
+    protected abstract long lerSaldo(int pagina, int indice);
+
+    protected abstract void gravarSaldo(int pagina, int indice, long centavos);
+
+    protected abstract int lerSituacao(int pagina, int indice);
+
+    protected abstract void gravarSituacao(int pagina, int indice, int situacao);
+
+    // Cresce um vetor de páginas; usado pelas subclasses sob a trava de crescimento
+    protected static <T> T[] comCapacidade(T[] paginas, int pagina) {
+        return pagina < paginas.length ? paginas : Arrays.copyOf(paginas, Math.max(pagina + 1, paginas.length * 2));
+    }
+}
@@ -0,0 +1,70 @@
+package com.banco.domain;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * {@link TabelaSaldos} em memória direta (fora do heap). Cada página é um único
+ * {@link ByteBuffer} direto com a coluna de saldos seguida da coluna de situações;
+ * o heap guarda apenas os buffers, independentemente da quantidade de contas.
+ * A memória direta é limitada por {@code -XX:MaxDirectMemorySize}.
+ */
+public class TabelaSaldosForaDoHeap extends TabelaSaldos {
+
+    private static final int BITS_PAGINA_PADRAO = 20;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private volatile ByteBuffer[] paginas = new ByteBuffer[0];
+    private final int inicioSituacoes;
+
+    public TabelaSaldosForaDoHeap() {
+        this(BITS_PAGINA_PADRAO);
+    }
+
+    public TabelaSaldosForaDoHeap(int bitsPagina) {
+        super(bitsPagina);
+        this.inicioSituacoes = (1 << bitsPagina) * Long.BYTES;
+    }
+
+    @Override
+    public int bytesPorPosicao() {
+        return Long.BYTES + Integer.BYTES;
+    }
+
+    @Override
+    protected void criarPagina(int pagina, int tamanho) {
+        ByteBuffer[] novas = comCapacidade(paginas, pagina);
+        // allocateDirect devolve memória zerada: saldo 0 e situação LIVRE
+        novas[pagina] = ByteBuffer.allocateDirect(tamanho * bytesPorPosicao());
+        paginas = novas;
+    }
+
+    @Override
+    protected void descartarPaginas() {
+        // A memória é devolvida quando o coletor descarta os buffers
+        paginas = new ByteBuffer[0];
+    }
+
+    @Override
+    protected long lerSaldo(int pagina, int indice) {
+        return (long) LONGS.getVolatile(paginas[pagina], indice * Long.BYTES);
+    }
+
+    @Override
+    protected void gravarSaldo(int pagina, int indice, long centavos) {
+        LONGS.setVolatile(paginas[pagina], indice * Long.BYTES, centavos);
+    }
+
+    @Override
+    protected int lerSituacao(int pagina, int indice) {
+        return (int) INTS.getVolatile(paginas[pagina], inicioSituacoes + indice * Integer.BYTES);
+    }
+
+    @Override
+    protected void gravarSituacao(int pagina, int indice, int situacao) {
+        INTS.setVolatile(paginas[pagina], inicioSituacoes + indice * Integer.BYTES, situacao);
+    }
+}
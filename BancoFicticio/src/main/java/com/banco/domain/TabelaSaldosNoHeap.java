@@ -0,0 +1,67 @@
+package com.banco.domain;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * {@link TabelaSaldos} em vetores primitivos no heap: 12 bytes por posição e nenhum
+ * objeto por conta, então o coletor não percorre os saldos.
+ */
+public class TabelaSaldosNoHeap extends TabelaSaldos {
+
+    private static final int BITS_PAGINA_PADRAO = 16;
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private volatile long[][] saldos = new long[0][];
+    private volatile int[][] situacoes = new int[0][];
+
+    public TabelaSaldosNoHeap() {
+        this(BITS_PAGINA_PADRAO);
+    }
+
+    public TabelaSaldosNoHeap(int bitsPagina) {
+        super(bitsPagina);
+    }
+
+    @Override
+    public int bytesPorPosicao() {
+        return Long.BYTES + Integer.BYTES;
+    }
+
+    @Override
+    protected void criarPagina(int pagina, int tamanho) {
+        long[][] novosSaldos = comCapacidade(saldos, pagina);
+        int[][] novasSituacoes = comCapacidade(situacoes, pagina);
+        novosSaldos[pagina] = new long[tamanho];
+        novasSituacoes[pagina] = new int[tamanho];
+        saldos = novosSaldos;
+        situacoes = novasSituacoes;
+    }
+
+    @Override
+    protected void descartarPaginas() {
+        saldos = new long[0][];
+        situacoes = new int[0][];
+    }
+
+    @Override
+    protected long lerSaldo(int pagina, int indice) {
+        return (long) LONGS.getVolatile(saldos[pagina], indice);
+    }
+
+    @Override
+    protected void gravarSaldo(int pagina, int indice, long centavos) {
+        LONGS.setVolatile(saldos[pagina], indice, centavos);
+    }
+
+    @Override
+    protected int lerSituacao(int pagina, int indice) {
+        return (int) INTS.getVolatile(situacoes[pagina], indice);
+    }
+
+    @Override
+    protected void gravarSituacao(int pagina, int indice, int situacao) {
+        INTS.setVolatile(situacoes[pagina], indice, situacao);
+    }
+}
@@ -1,52 +1,37 @@
 package com.banco.domain;
-package com.banco.domain;
-package com.banco.domain;
-
-public enum TipoInvestimento {
-    RENDA_FIXA(0.007), // 0.7% ao mês
-    RENDA_VARIAVEL(0.015), // 1.5% ao mês
-    TESOURO_DIRETO(0.008); // 0.8% ao mês
-
-    private final double taxaRendimento;
 
-    TipoInvestimento(double taxaRendimento) {
-        this.taxaRendimento = taxaRendimento;
-    }
-
-    public double getTaxaRendimento() {
-        return taxaRendimento;
-    }
-}
-public enum TipoInvestimento {
-    RENDA_FIXA(0.007), // 0.7% ao mês
-    RENDA_VARIAVEL(0.015), // 1.5% ao mês
-    TESOURO_DIRETO(0.008); // 0.8% ao mês
-
-    private final double taxaRendimento;
-
-    TipoInvestimento(double taxaRendimento) {
-        this.taxaRendimento = taxaRendimento;
-    }
-
-    public double getTaxaRendimento() {
-        return taxaRendimento;
-    }
-}
 import java.math.BigDecimal;
 
 public enum TipoInvestimento {
-    RENDA_FIXA("RF", new BigDecimal("0.015"), new BigDecimal("0.001")), // 1.5% IR, 0.1% taxa adm
-    RENDA_VARIAVEL("RV", new BigDecimal("0.175"), new BigDecimal("0.002")), // 17.5% IR, 0.2% taxa adm
-    TESOURO_DIRETO("TD", new BigDecimal("0.225"), new BigDecimal("0.0005")); // 22.5% IR, 0.05% taxa adm
+    RENDA_FIXA("RF", new BigDecimal("0.015"), new BigDecimal("0.001"), new BigDecimal("0.007")), // 1.5% IR, 0.1% taxa adm, 0.7% ao mês
+    RENDA_VARIAVEL("RV", new BigDecimal("0.175"), new BigDecimal("0.002"), new BigDecimal("0.015")), // 17.5% IR, 0.2% taxa adm, 1.5% ao mês
+    TESOURO_DIRETO("TD", new BigDecimal("0.225"), new BigDecimal("0.0005"), new BigDecimal("0.008")); // 22.5% IR, 0.05% taxa adm, 0.8% ao mês
 
     private final String codigo;
     private final BigDecimal aliquotaImposto;
     private final BigDecimal taxaAdministracao;
+    // Rendimento mensal esperado, usado nas projeções
+    private final BigDecimal taxaRendimento;
+
+    // Formas pré-calculadas para a aritmética em centavos
+    private final long aliquotaImpostoSemEscala;
+    private final int escalaAliquotaImposto;
+    private final long taxaAdministracaoSemEscala;
+    private final int escalaTaxaAdministracao;
+    private final long taxaRendimentoSemEscala;
+    private final int escalaTaxaRendimento;
 
-    TipoInvestimento(String codigo, BigDecimal aliquotaImposto, BigDecimal taxaAdministracao) {
+    TipoInvestimento(String codigo, BigDecimal aliquotaImposto, BigDecimal taxaAdministracao, BigDecimal taxaRendimento) {
         this.codigo = codigo;
         this.aliquotaImposto = aliquotaImposto;
         this.taxaAdministracao = taxaAdministracao;
+        this.taxaRendimento = taxaRendimento;
+        this.aliquotaImpostoSemEscala = Centavos.semEscala(aliquotaImposto);
+        this.escalaAliquotaImposto = Centavos.escalaDe(aliquotaImposto);
+        this.taxaAdministracaoSemEscala = Centavos.semEscala(taxaAdministracao);
+        this.escalaTaxaAdministracao = Centavos.escalaDe(taxaAdministracao);
+        this.taxaRendimentoSemEscala = Centavos.semEscala(taxaRendimento);
+        this.escalaTaxaRendimento = Centavos.escalaDe(taxaRendimento);
     }
 
     public String getCodigo() {
@@ -60,4 +45,32 @@ public enum TipoInvestimento {
     public BigDecimal getTaxaAdministracao() {
         return taxaAdministracao;
     }
+
+    public BigDecimal getTaxaRendimento() {
+        return taxaRendimento;
+    }
+
+    public long getAliquotaImpostoSemEscala() {
+        return aliquotaImpostoSemEscala;
+    }
+
+    public int getEscalaAliquotaImposto() {
+        return escalaAliquotaImposto;
+    }
+
+    public long getTaxaAdministracaoSemEscala() {
+        return taxaAdministracaoSemEscala;
+    }
+
+    public int getEscalaTaxaAdministracao() {
+        return escalaTaxaAdministracao;
+    }
+
+    public long getTaxaRendimentoSemEscala() {
+        return taxaRendimentoSemEscala;
+    }
+
+    public int getEscalaTaxaRendimento() {
+        return escalaTaxaRendimento;
+    }
 }
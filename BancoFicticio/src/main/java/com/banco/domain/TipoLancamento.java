@@ -0,0 +1,38 @@
+package com.banco.domain;
+
+public enum TipoLancamento {
+    DEPOSITO(1),
+    SAQUE(2),
+    INVESTIMENTO(3),
+    RESGATE(4),
+    TARIFA(5),
+    RENDIMENTO(6),
+    // Só aparecem no extrato; o diário grava a transferência como um registro próprio
+    TRANSFERENCIA_ENVIADA(7),
+    TRANSFERENCIA_RECEBIDA(8);
+
+    private static final TipoLancamento[] POR_CODIGO = new TipoLancamento[9];
+
+    static {
+        for (TipoLancamento tipo : values()) {
+            POR_CODIGO[tipo.codigo] = tipo;
+        }
+    }
+
+    private final byte codigo;
+
+    TipoLancamento(int codigo) {
+        this.codigo = (byte) codigo;
+    }
+
+    public byte getCodigo() {
+        return codigo;
+    }
+
+    public static TipoLancamento doCodigo(byte codigo) {
+        if (codigo <= 0 || codigo >= POR_CODIGO.length || POR_CODIGO[codigo] == null) {
+            throw new IllegalArgumentException("Tipo de lançamento desconhecido: " + codigo);
+        }
+        return POR_CODIGO[codigo];
+    }
+}
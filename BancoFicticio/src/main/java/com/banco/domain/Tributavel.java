@@ -1,23 +1,14 @@
 package com.banco.domain;
-package com.banco.domain;
-package com.banco.domain;
 
 import java.math.BigDecimal;
 
-public interface Tributavel {
-    BigDecimal calcularTributo();
-}
-import java.math.BigDecimal;
-
-public interface Tributavel {
-    BigDecimal calcularTributo();
-}
-import java.math.BigDecimal;
-
 public interface Tributavel {
 
     BigDecimal calcularImposto();
 
+    // Imposto sobre um saldo qualquer, com o mesmo arredondamento de calcularImposto
+    long impostoCentavos(long saldoCentavos);
+
     default boolean isento() {
         return calcularImposto().compareTo(BigDecimal.ZERO) == 0;
     }
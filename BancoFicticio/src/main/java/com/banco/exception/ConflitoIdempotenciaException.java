@@ -0,0 +1,12 @@
+package com.banco.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflitoIdempotenciaException extends RuntimeException {
+
+    public ConflitoIdempotenciaException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.banco.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Lançada a cada pedido recusado pelo controle de admissão; sem pilha, para a recusa custar pouco
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class LimiteRequisicoesException extends RuntimeException {
+
+    private final long segundosParaNovaTentativa;
+
+    public LimiteRequisicoesException(String message, long segundosParaNovaTentativa) {
+        super(message, null, false, false);
+        this.segundosParaNovaTentativa = segundosParaNovaTentativa;
+    }
+
+    public long getSegundosParaNovaTentativa() {
+        return segundosParaNovaTentativa;
+    }
+}
@@ -0,0 +1,13 @@
+package com.banco.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Um nó do modo particionado não respondeu; o resultado de um pedido que mudava estado é desconhecido
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class NoIndisponivelException extends RuntimeException {
+
+    public NoIndisponivelException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,41 +1,11 @@
 package com.banco.exception;
-package com.banco.exception;
-package com.banco.exception;
-
-import org.springframework.http.HttpStatus;
-import org.springframework.web.bind.annotation.ResponseStatus;
-
-@ResponseStatus(HttpStatus.BAD_REQUEST)
-public class SaldoInsuficienteException extends RuntimeException {
-
-    private static final long serialVersionUID = 1L;
 
-    public SaldoInsuficienteException(String message) {
-        super(message);
-    }
+import java.math.BigDecimal;
 
-    public SaldoInsuficienteException(String message, Throwable cause) {
-        super(message, cause);
-    }
-}
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
-public class SaldoInsuficienteException extends RuntimeException {
-
-    private static final long serialVersionUID = 1L;
-
-    public SaldoInsuficienteException(String message) {
-        super(message);
-    }
-
-    public SaldoInsuficienteException(String message, Throwable cause) {
-        super(message, cause);
-    }
-}
-import java.math.BigDecimal;
-
 public class SaldoInsuficienteException extends RuntimeException {
 
     private static final long serialVersionUID = 1L;
@@ -0,0 +1,42 @@
+package com.banco.metricas;
+
+import com.banco.domain.TabelaSaldos;
+import com.banco.service.BancoService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Gauges de tamanho e saldo do banco. São lidos na coleta: as quantidades vêm do
+ * tamanho dos mapas e o saldo total por tipo dos agregados mantidos pelo BancoService.
+ */
+public class MetricasBanco implements MeterBinder {
+
+    private final BancoService bancoService;
+
+    public MetricasBanco(BancoService bancoService) {
+        this.bancoService = bancoService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("banco.clientes", bancoService, BancoService::quantidadeClientes)
+                .description("Clientes cadastrados")
+                .register(registry);
+        Gauge.builder("banco.contas", bancoService, BancoService::quantidadeContas)
+                .description("Contas cadastradas, incluindo as encerradas")
+                .register(registry);
+        registrarSaldo(registry, "corrente", TabelaSaldos.CORRENTE);
+        registrarSaldo(registry, "poupanca", TabelaSaldos.POUPANCA);
+        registrarSaldo(registry, "investimento", TabelaSaldos.INVESTIMENTO);
+    }
+
+    private void registrarSaldo(MeterRegistry registry, String nome, int tipo) {
+        Gauge.builder("banco.saldo.total", bancoService, banco -> banco.saldoTotalCentavos(tipo) / 100.0)
+                .description("Soma dos saldos por tipo de conta")
+                .tag("tipo", nome)
+                .baseUnit("reais")
+                .register(registry);
+    }
+}
@@ -0,0 +1,100 @@
+package com.banco.metricas;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import com.banco.domain.ResultadoOperacao;
+import com.banco.exception.OperacaoInvalidaException;
+import com.banco.exception.RecursoNaoEncontradoException;
+import com.banco.exception.SaldoInsuficienteException;
+import com.banco.service.MetricasOperacoes;
+import com.banco.service.OperacaoBancaria;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Timers com histograma de percentis e contadores por resultado para cada
+ * {@link OperacaoBancaria}. Todos os medidores são registrados no construtor e
+ * guardados em arrays indexados pelo ordinal da operação, então o registro de
+ * uma operação não consulta o registry nem monta tags.
+ */
+public class MetricasMicrometer implements MetricasOperacoes {
+
+    enum Resultado {
+        SUCESSO,
+        SALDO_INSUFICIENTE,
+        OPERACAO_INVALIDA,
+        NAO_ENCONTRADO,
+        ERRO
+    }
+
+    private final Timer[] timers;
+    private final Counter[][] contadores;
+
+    public MetricasMicrometer(MeterRegistry registry) {
+        OperacaoBancaria[] operacoes = OperacaoBancaria.values();
+        Resultado[] resultados = Resultado.values();
+        timers = new Timer[operacoes.length];
+        contadores = new Counter[operacoes.length][resultados.length];
+        for (OperacaoBancaria operacao : operacoes) {
+            String nomeOperacao = nome(operacao);
+            timers[operacao.ordinal()] = Timer.builder("banco.operacao")
+                    .description("Duração das operações do BancoService, incluindo a espera pelo diário")
+                    .tag("operacao", nomeOperacao)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            for (Resultado resultado : resultados) {
+                contadores[operacao.ordinal()][resultado.ordinal()] = Counter.builder("banco.operacao.resultado")
+                        .description("Operações do BancoService por resultado")
+                        .tag("operacao", nomeOperacao)
+                        .tag("resultado", nome(resultado))
+                        .register(registry);
+            }
+        }
+    }
+
+    @Override
+    public long iniciar() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void sucesso(OperacaoBancaria operacao, long inicio) {
+        registrar(operacao, inicio, Resultado.SUCESSO);
+    }
+
+    @Override
+    public void falha(OperacaoBancaria operacao, long inicio, RuntimeException erro) {
+        registrar(operacao, inicio, classificar(erro));
+    }
+
+    @Override
+    public void recusa(OperacaoBancaria operacao, long inicio, ResultadoOperacao resultado) {
+        registrar(operacao, inicio, resultado == ResultadoOperacao.SALDO_INSUFICIENTE
+                ? Resultado.SALDO_INSUFICIENTE : Resultado.OPERACAO_INVALIDA);
+    }
+
+    private void registrar(OperacaoBancaria operacao, long inicio, Resultado resultado) {
+        timers[operacao.ordinal()].record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        contadores[operacao.ordinal()][resultado.ordinal()].increment();
+    }
+
+    static Resultado classificar(RuntimeException erro) {
+        if (erro instanceof SaldoInsuficienteException) {
+            return Resultado.SALDO_INSUFICIENTE;
+        }
+        if (erro instanceof OperacaoInvalidaException || erro instanceof IllegalArgumentException) {
+            return Resultado.OPERACAO_INVALIDA;
+        }
+        if (erro instanceof RecursoNaoEncontradoException) {
+            return Resultado.NAO_ENCONTRADO;
+        }
+        return Resultado.ERRO;
+    }
+
+    private static String nome(Enum<?> valor) {
+        return valor.name().toLowerCase(Locale.ROOT);
+    }
+}
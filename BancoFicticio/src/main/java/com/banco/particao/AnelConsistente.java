@@ -0,0 +1,111 @@
+package com.banco.particao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.banco.domain.Cpf;
+
+/**
+ * Anel de hashing consistente que decide o nó dono de cada conta (pelo número) e de cada
+ * cliente (pelo CPF normalizado). Cada nó ocupa {@code virtuais} pontos do anel e a chave
+ * pertence ao primeiro ponto no sentido horário, então acrescentar um nó só move para ele
+ * cerca de 1/N das chaves, e nenhuma chave muda entre os nós que já existiam.
+ *
+ * <p>O anel é função só da lista de nós e de {@code virtuais}: roteador e nós calculam o
+ * mesmo dono sem trocar tabelas. É imutável; {@link #comNo} devolve um anel novo.
+ */
+public final class AnelConsistente {
+
+    public static final int VIRTUAIS_PADRAO = 160;
+
+    private final List<String> nos;
+    private final int virtuais;
+    // Pontos em ordem crescente e o índice do nó dono de cada um
+    private final long[] pontos;
+    private final int[] donos;
+
+    public AnelConsistente(List<String> nos, int virtuais) {
+        if (nos.isEmpty()) {
+            throw new IllegalArgumentException("O anel precisa de pelo menos um nó");
+        }
+        if (virtuais <= 0) {
+            throw new IllegalArgumentException("Pontos virtuais por nó deve ser maior que zero");
+        }
+        if (new HashSet<>(nos).size() != nos.size()) {
+            throw new IllegalArgumentException("Nó repetido no anel: " + nos);
+        }
+        this.nos = List.copyOf(nos);
+        this.virtuais = virtuais;
+        TreeMap<Long, Integer> anel = new TreeMap<>();
+        for (int no = 0; no < nos.size(); no++) {
+            for (int v = 0; v < virtuais; v++) {
+                // Colisão de 64 bits: fica o menor endereço, para não depender da ordem da lista
+                anel.merge(hash(nos.get(no) + "#" + v), no,
+                        (atual, novo) -> nos.get(atual).compareTo(nos.get(novo)) <= 0 ? atual : novo);
+            }
+        }
+        pontos = new long[anel.size()];
+        donos = new int[anel.size()];
+        int i = 0;
+        for (Map.Entry<Long, Integer> ponto : anel.entrySet()) {
+            pontos[i] = ponto.getKey();
+            donos[i++] = ponto.getValue();
+        }
+    }
+
+    public AnelConsistente(List<String> nos) {
+        this(nos, VIRTUAIS_PADRAO);
+    }
+
+    public String noDaConta(String numero) {
+        return nos.get(dono(hash(numero)));
+    }
+
+    // CPF inválido não tem dono próprio: vai para o primeiro nó, que o recusa como o modo único
+    public String noDoCliente(String cpf) {
+        long normalizado = Cpf.normalizar(cpf);
+        return normalizado == Cpf.INVALIDO ? nos.get(0) : nos.get(dono(hash(Cpf.texto(normalizado))));
+    }
+
+    public AnelConsistente comNo(String no) {
+        List<String> novos = new ArrayList<>(nos);
+        novos.add(no);
+        return new AnelConsistente(novos, virtuais);
+    }
+
+    public List<String> nos() {
+        return nos;
+    }
+
+    public int virtuais() {
+        return virtuais;
+    }
+
+    private int dono(long h) {
+        int i = Arrays.binarySearch(pontos, h);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return donos[i == pontos.length ? 0 : i];
+    }
+
+    // FNV-1a de 64 bits seguido da finalização do MurmurHash3, que espalha chaves parecidas
+    // ("C-1", "C-2") por todo o anel
+    static long hash(String texto) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < texto.length(); i++) {
+            h ^= texto.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,47 @@
+package com.banco.particao;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Um nó BancoFicticio visto pelo roteador. O caminho do pedido inclui a query string; os
+ * cabeçalhos são só os que o roteador repassa (tipo de conteúdo, Accept, Idempotency-Key,
+ * If-None-Match). {@link IOException} significa que o resultado do pedido é desconhecido.
+ */
+public interface No {
+
+    String endereco();
+
+    Resposta enviar(Pedido pedido) throws IOException;
+
+    // Resposta NDJSON lida linha a linha, sem guardar o corpo inteiro; o fluxo deve ser fechado
+    Stream<String> linhas(Pedido pedido) throws IOException;
+
+    record Pedido(String metodo, String caminho, Map<String, String> cabecalhos, byte[] corpo) {
+
+        public static Pedido get(String caminho) {
+            return new Pedido("GET", caminho, Map.of(), null);
+        }
+
+        public static Pedido post(String caminho) {
+            return new Pedido("POST", caminho, Map.of(), null);
+        }
+
+        public static Pedido post(String caminho, String chaveIdempotencia) {
+            return new Pedido("POST", caminho, Map.of("Idempotency-Key", chaveIdempotencia), null);
+        }
+    }
+
+    record Resposta(int status, Map<String, String> cabecalhos, byte[] corpo) {
+
+        public boolean sucesso() {
+            return status >= 200 && status < 300;
+        }
+
+        public String texto() {
+            return corpo == null ? "" : new String(corpo, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.banco.particao;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * {@link No} acessado por HTTP/1.1 com um {@link HttpClient} compartilhado, que mantém as
+ * conexões abertas entre pedidos.
+ */
+public class NoHttp implements No {
+
+    // Cabeçalhos da resposta que o roteador devolve ao cliente
+    private static final List<String> CABECALHOS_RESPOSTA = List.of("Content-Type", "ETag", "Location", "Retry-After");
+
+    private final String endereco;
+    private final HttpClient cliente;
+    private final Duration tempoLimite;
+
+    public NoHttp(String endereco, HttpClient cliente, Duration tempoLimite) {
+        this.endereco = endereco.endsWith("/") ? endereco.substring(0, endereco.length() - 1) : endereco;
+        this.cliente = cliente;
+        this.tempoLimite = tempoLimite;
+    }
+
+    @Override
+    public String endereco() {
+        return endereco;
+    }
+
+    @Override
+    public Resposta enviar(Pedido pedido) throws IOException {
+        HttpResponse<byte[]> resposta = executar(requisicao(pedido).timeout(tempoLimite).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        Map<String, String> cabecalhos = new LinkedHashMap<>();
+        for (String nome : CABECALHOS_RESPOSTA) {
+            resposta.headers().firstValue(nome).ifPresent(valor -> cabecalhos.put(nome, valor));
+        }
+        return new Resposta(resposta.statusCode(), cabecalhos, resposta.body());
+    }
+
+    // Sem tempo limite: exportações e listagens completas podem levar minutos
+    @Override
+    public Stream<String> linhas(Pedido pedido) throws IOException {
+        HttpResponse<Stream<String>> resposta = executar(requisicao(pedido).build(), HttpResponse.BodyHandlers.ofLines());
+        if (resposta.statusCode() != 200) {
+            String corpo = String.join("\n", resposta.body().toList());
+            throw new IOException(endereco + pedido.caminho() + " respondeu " + resposta.statusCode() + ": " + corpo);
+        }
+        return resposta.body();
+    }
+
+    private HttpRequest.Builder requisicao(Pedido pedido) {
+        HttpRequest.Builder construtor = HttpRequest.newBuilder(URI.create(endereco + pedido.caminho()))
+                .method(pedido.metodo(), pedido.corpo() == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(pedido.corpo()));
+        pedido.cabecalhos().forEach(construtor::header);
+        return construtor;
+    }
+
+    private <T> HttpResponse<T> executar(HttpRequest requisicao, HttpResponse.BodyHandler<T> corpo) throws IOException {
+        try {
+            return cliente.send(requisicao, corpo);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Pedido a " + endereco + " interrompido");
+        }
+    }
+
+    public static HttpClient novoCliente() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.banco.particao;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.banco.domain.Cliente;
+import com.banco.domain.Conta;
+import com.banco.domain.ResultadoOperacao;
+import com.banco.domain.TipoLancamento;
+import com.banco.persistencia.CodigosRegistro;
+import com.banco.service.BancoService;
+
+/**
+ * O lado do nó no particionamento ({@code banco.particao.papel=NO}): exporta o que um anel
+ * novo atribui ao nó que entra, importa o que chega e remove o que já foi copiado. O nó não guarda
+ * o anel; o roteador o envia em cada pedido.
+ *
+ * <p>Clientes nunca são removidos: uma conta pode estar num nó diferente do dono do CPF do
+ * titular, e o nó guarda uma cópia do cadastro do titular para ela.
+ */
+@Component
+@ConditionalOnProperty(name = "banco.particao.papel", havingValue = "NO")
+public class ParticaoLocal {
+
+    private final BancoService bancoService;
+
+    public ParticaoLocal(BancoService bancoService) {
+        this.bancoService = bancoService;
+    }
+
+    // Clientes e contas que o anel atribui ao nó destino, em ordem de CPF e depois de número. As
+    // cópias de titulares que são de outros nós ficam: o registro de cada conta já leva o titular
+    public void exportar(AnelConsistente anel, String destino, Consumer<RegistroMigracao> saida) {
+        for (Cliente cliente : bancoService.percorrerClientesPorCpf()) {
+            if (anel.noDoCliente(cliente.getCpf()).equals(destino)) {
+                saida.accept(RegistroMigracao.cliente(cliente));
+            }
+        }
+        for (Conta conta : bancoService.percorrerContasPorNumero()) {
+            if (anel.noDaConta(conta.getNumero()).equals(destino)) {
+                saida.accept(RegistroMigracao.conta(conta));
+            }
+        }
+    }
+
+    public void importar(RegistroMigracao registro) {
+        Cliente titular = bancoService.receberCliente(registro.novoCliente());
+        if (!registro.isConta()) {
+            return;
+        }
+        Conta conta = CodigosRegistro.novaConta((byte) registro.tipo().charAt(0), registro.numero(), titular,
+                registro.parametro(), bancoService.tabelaSaldos());
+        conta.restaurarDataCriacao(registro.dataCriacao());
+        bancoService.receberConta(conta, registro.saldoCentavos(), registro.ativa(), registro.ultimoFechamento());
+    }
+
+    // Passos de uma transferência entre nós: a chave vale neste nó para sempre, mesmo depois de um reinício
+    public ResultadoOperacao sacar(String chave, String numero, BigDecimal valor) {
+        return bancoService.tentarPasso(chave, TipoLancamento.SAQUE, numero, valor);
+    }
+
+    public ResultadoOperacao depositar(String chave, String numero, BigDecimal valor) {
+        return bancoService.tentarPasso(chave, TipoLancamento.DEPOSITO, numero, valor);
+    }
+
+    // Transferências que o roteador já esqueceu: as chaves dos seus passos saem deste nó
+    public int esquecerTransferencias(List<String> ids) {
+        List<String> chaves = new ArrayList<>(ids.size() * TransferenciasEntreParticoes.ETAPAS.size());
+        for (String id : ids) {
+            for (String etapa : TransferenciasEntreParticoes.ETAPAS) {
+                chaves.add(id + ":" + etapa);
+            }
+        }
+        return bancoService.esquecerPassos(chaves);
+    }
+
+    // Remove as contas que o anel atribui a outro nó; chamado depois que elas foram importadas lá
+    public int removerAlheias(AnelConsistente anel, String proprio) {
+        List<String> alheias = new ArrayList<>();
+        for (Conta conta : bancoService.percorrerContasPorNumero()) {
+            if (!anel.noDaConta(conta.getNumero()).equals(proprio)) {
+                alheias.add(conta.getNumero());
+            }
+        }
+        for (String numero : alheias) {
+            bancoService.removerConta(numero);
+        }
+        return alheias.size();
+    }
+
+    // Só os clientes de que este nó é dono: as cópias de titulares não contam
+    public int contarClientes(AnelConsistente anel, String proprio) {
+        int clientes = 0;
+        for (Cliente cliente : bancoService.percorrerClientesPorCpf()) {
+            if (anel.noDoCliente(cliente.getCpf()).equals(proprio)) {
+                clientes++;
+            }
+        }
+        return clientes;
+    }
+}
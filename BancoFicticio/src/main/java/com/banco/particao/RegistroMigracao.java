@@ -0,0 +1,49 @@
+package com.banco.particao;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import com.banco.domain.Cliente;
+import com.banco.domain.Conta;
+import com.banco.persistencia.CodigosRegistro;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Uma linha do NDJSON trocado no rebalanceamento: um cliente ({@code numero} nulo) ou uma
+ * conta com o seu titular e todo o estado que o nó novo precisa para recriá-la. Datas vão
+ * como números (dia epoch, segundos e nanos epoch UTC), como no diário.
+ */
+public record RegistroMigracao(String cpf, String nome, long nascimento,
+                               String numero, String tipo, long parametro,
+                               long criacaoSegundos, int criacaoNanos,
+                               long saldoCentavos, boolean ativa, int ultimoFechamento) {
+
+    public static RegistroMigracao cliente(Cliente cliente) {
+        return new RegistroMigracao(cliente.getCpf(), cliente.getNome(), cliente.getDataNascimento().toEpochDay(),
+                null, null, 0, 0, 0, 0, false, 0);
+    }
+
+    // Lido sem a trava da conta: o roteador suspende as operações durante a migração
+    public static RegistroMigracao conta(Conta conta) {
+        Cliente titular = conta.getTitular();
+        LocalDateTime criacao = conta.getDataCriacao();
+        return new RegistroMigracao(titular.getCpf(), titular.getNome(), titular.getDataNascimento().toEpochDay(),
+                conta.getNumero(), String.valueOf((char) CodigosRegistro.tipoConta(conta)),
+                CodigosRegistro.parametroConta(conta), criacao.toEpochSecond(ZoneOffset.UTC), criacao.getNano(),
+                conta.saldoEmCentavos(), conta.isAtiva(), conta.ultimoFechamento());
+    }
+
+    @JsonIgnore
+    public boolean isConta() {
+        return numero != null;
+    }
+
+    public Cliente novoCliente() {
+        return new Cliente(nome, cpf, LocalDate.ofEpochDay(nascimento));
+    }
+
+    public LocalDateTime dataCriacao() {
+        return LocalDateTime.ofEpochSecond(criacaoSegundos, criacaoNanos, ZoneOffset.UTC);
+    }
+}
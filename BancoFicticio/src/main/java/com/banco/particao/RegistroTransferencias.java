@@ -0,0 +1,284 @@
+package com.banco.particao;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registro durável das transferências entre nós, mantido pelo roteador. Cada mudança de
+ * estado acrescenta {@code [int tamanho][byte estado][UTF id][UTF origem][UTF destino][long valor][int crc32]}
+ * ao arquivo; na abertura o arquivo é relido, um registro incompleto ou com CRC inválido no
+ * fim é ignorado, e o arquivo é reescrito só com as transferências pendentes e as últimas
+ * {@value #RECENTES} terminadas.
+ *
+ * <p>O id de uma transferência pedida com {@code Idempotency-Key} começa por um hash da chave,
+ * seguido de um sufixo único: {@link #buscarPorChave} acha a transferência de um pedido
+ * repetido, inclusive depois de um reinício, e as chaves dos passos nos nós nunca se repetem
+ * entre transferências, mesmo que a chave do cliente volte depois de esquecida aqui.
+ *
+ * <p>Uma terminada que sai das recentes fica em {@link #esquecidas} até que todos os nós tenham
+ * apagado as chaves dos seus passos e o roteador a marque com {@link #expurgadas}; como as
+ * demais, essas marcas são só registros acrescentados e sobrevivem à compactação.
+ *
+ * <p>Só {@link Estado#INICIADA} precisa ser forçada ao disco antes do passo seguinte: os
+ * passos usam chaves de idempotência derivadas do id, então refazer a partir de um estado
+ * anterior perdido repete pedidos que os nós respondem sem executar de novo.
+ */
+public class RegistroTransferencias implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistroTransferencias.class);
+
+    // Reescreve o arquivo só com as pendentes depois deste número de registros
+    private static final int REGISTROS_POR_COMPACTACAO = 1_000_000;
+    static final int RECENTES = 10_000;
+    private static final char SEPARADOR_CHAVE = '.';
+
+    public enum Estado {
+        // ESQUECIDA e EXPURGADA ficam no fim: o arquivo guarda o ordinal
+        INICIADA, DEBITADA, CONCLUIDA, ESTORNADA, RECUSADA, ESQUECIDA, EXPURGADA;
+
+        public boolean pendente() {
+            return this == INICIADA || this == DEBITADA;
+        }
+    }
+
+    public record Transferencia(String id, String origem, String destino, long valorCentavos, Estado estado) {
+
+        public Transferencia com(Estado novo) {
+            return new Transferencia(id, origem, destino, valorCentavos, novo);
+        }
+    }
+
+    private final Path arquivo;
+    private final Map<String, Transferencia> pendentes = new LinkedHashMap<>();
+    // Terminadas que saíram das recentes e cujas chaves de passo os nós ainda guardam
+    private final Map<String, Transferencia> esquecidas = new LinkedHashMap<>();
+    // Hash da chave de idempotência -> id, para as pendentes e as recentes
+    private final Map<String, String> porChave = new HashMap<>();
+    // Últimas transferências terminadas, para consulta e para as repetições de um pedido
+    private final Map<String, Transferencia> recentes = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Transferencia> maisAntiga) {
+            if (size() <= RECENTES) {
+                return false;
+            }
+            String hash = hashDoId(maisAntiga.getKey());
+            if (hash != null) {
+                porChave.remove(hash, maisAntiga.getKey());
+            }
+            esquecidas.put(maisAntiga.getKey(), maisAntiga.getValue().com(Estado.ESQUECIDA));
+            return true;
+        }
+    };
+    private FileChannel canal;
+    private int registros;
+
+    public RegistroTransferencias(Path arquivo) {
+        this.arquivo = arquivo;
+        try {
+            Files.createDirectories(arquivo.toAbsolutePath().getParent());
+            if (Files.exists(arquivo)) {
+                ler();
+            }
+            compactar();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao abrir o registro de transferências " + arquivo, e);
+        }
+    }
+
+    public synchronized void registrar(Transferencia transferencia, boolean duravel) {
+        ByteBuffer registro = codificar(transferencia);
+        try {
+            while (registro.hasRemaining()) {
+                canal.write(registro);
+            }
+            if (duravel) {
+                canal.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar o registro de transferências " + arquivo, e);
+        }
+        aplicar(transferencia);
+        if (++registros >= REGISTROS_POR_COMPACTACAO) {
+            try {
+                compactar();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao compactar o registro de transferências " + arquivo, e);
+            }
+        }
+    }
+
+    // Id de uma transferência nova; com a chave do cliente, recuperável por buscarPorChave
+    public static String novoId(String chave) {
+        String unico = UUID.randomUUID().toString();
+        return chave == null ? unico : hash(chave) + SEPARADOR_CHAVE + unico;
+    }
+
+    public synchronized Transferencia buscarPorChave(String chave) {
+        String id = porChave.get(hash(chave));
+        return id == null ? null : buscar(id);
+    }
+
+    public synchronized Transferencia buscar(String id) {
+        Transferencia transferencia = pendentes.get(id);
+        return transferencia != null ? transferencia : recentes.get(id);
+    }
+
+    public synchronized List<Transferencia> pendentes() {
+        return new ArrayList<>(pendentes.values());
+    }
+
+    // Ids das mais antigas entre as esquecidas, para os nós apagarem as chaves dos passos
+    public synchronized List<String> esquecidas(int limite) {
+        List<String> ids = new ArrayList<>(Math.min(limite, esquecidas.size()));
+        for (String id : esquecidas.keySet()) {
+            if (ids.size() == limite) {
+                break;
+            }
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    // Chamado depois que todos os nós apagaram as chaves; perder a marca só faz repetir o pedido
+    public synchronized void expurgadas(List<String> ids) {
+        for (String id : ids) {
+            Transferencia esquecida = esquecidas.get(id);
+            if (esquecida != null) {
+                registrar(esquecida.com(Estado.EXPURGADA), false);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        canal.close();
+    }
+
+    private void aplicar(Transferencia transferencia) {
+        if (transferencia.estado() == Estado.ESQUECIDA) {
+            esquecidas.put(transferencia.id(), transferencia);
+            return;
+        }
+        if (transferencia.estado() == Estado.EXPURGADA) {
+            esquecidas.remove(transferencia.id());
+            return;
+        }
+        String hash = hashDoId(transferencia.id());
+        if (hash != null) {
+            porChave.put(hash, transferencia.id());
+        }
+        if (transferencia.estado().pendente()) {
+            pendentes.put(transferencia.id(), transferencia);
+        } else {
+            pendentes.remove(transferencia.id());
+            recentes.put(transferencia.id(), transferencia);
+        }
+    }
+
+    private void ler() throws IOException {
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo)))) {
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte[] dados;
+                int esperado;
+                try {
+                    int tamanho = entrada.readInt();
+                    if (tamanho <= 0 || tamanho > 1 << 16) {
+                        log.warn("Registro inválido em {}; o restante do arquivo é ignorado", arquivo);
+                        return;
+                    }
+                    dados = new byte[tamanho];
+                    entrada.readFully(dados);
+                    esperado = entrada.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                crc.reset();
+                crc.update(dados);
+                if ((int) crc.getValue() != esperado) {
+                    log.warn("Registro com CRC inválido em {}; o restante do arquivo é ignorado", arquivo);
+                    return;
+                }
+                DataInputStream registro = new DataInputStream(new ByteArrayInputStream(dados));
+                Estado estado = Estado.values()[registro.readByte()];
+                aplicar(new Transferencia(registro.readUTF(), registro.readUTF(), registro.readUTF(), registro.readLong(), estado));
+            }
+        }
+    }
+
+    // Reescreve o arquivo com as esquecidas, as recentes e as pendentes num temporário e o move atomicamente por cima
+    private void compactar() throws IOException {
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        try (FileOutputStream saida = new FileOutputStream(temporario.toFile())) {
+            for (Transferencia esquecida : esquecidas.values()) {
+                saida.write(codificar(esquecida).array());
+            }
+            for (Transferencia terminada : recentes.values()) {
+                saida.write(codificar(terminada).array());
+            }
+            for (Transferencia pendente : pendentes.values()) {
+                saida.write(codificar(pendente).array());
+            }
+            saida.getFD().sync();
+        }
+        if (canal != null) {
+            canal.close();
+        }
+        Files.move(temporario, arquivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        canal = FileChannel.open(arquivo, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        registros = esquecidas.size() + recentes.size() + pendentes.size();
+    }
+
+    private static String hash(String chave) {
+        return UUID.nameUUIDFromBytes(chave.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static String hashDoId(String id) {
+        int separador = id.indexOf(SEPARADOR_CHAVE);
+        return separador < 0 ? null : id.substring(0, separador);
+    }
+
+    private static ByteBuffer codificar(Transferencia transferencia) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream dados = new DataOutputStream(bytes)) {
+            dados.writeByte(transferencia.estado().ordinal());
+            dados.writeUTF(transferencia.id());
+            dados.writeUTF(transferencia.origem());
+            dados.writeUTF(transferencia.destino());
+            dados.writeLong(transferencia.valorCentavos());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] conteudo = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(conteudo);
+        ByteBuffer registro = ByteBuffer.allocate(Integer.BYTES + conteudo.length + Integer.BYTES);
+        registro.putInt(conteudo.length).put(conteudo).putInt((int) crc.getValue());
+        return registro.flip();
+    }
+}
@@ -0,0 +1,397 @@
+package com.banco.particao;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.banco.exception.NoIndisponivelException;
+import com.banco.exception.OperacaoInvalidaException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Estado do roteador ({@code banco.particao.papel=ROTEADOR}): o anel de nós, o acesso a cada
+ * nó e as transferências entre nós. A lista de nós fica em {@code nos.txt} no
+ * {@code banco.particao.diretorio}; {@code banco.particao.nos} só é usado na primeira
+ * inicialização.
+ *
+ * <p>Cada requisição roda sob a trava de leitura ({@link #executar}); o rebalanceamento
+ * ({@link #adicionarNo}) toma a de escrita, então nenhuma operação vê uma conta no meio da
+ * mudança de nó. Ele copia para o nó novo o que o anel novo lhe atribui, grava o anel e só
+ * então remove as cópias antigas. Um marcador ({@code migracao.txt}) gravado antes da cópia
+ * permite terminar a remoção se o roteador cair depois de gravar o anel.
+ */
+@Component
+@ConditionalOnProperty(name = "banco.particao.papel", havingValue = "ROTEADOR")
+public class RoteadorParticoes {
+
+    private static final Logger log = LoggerFactory.getLogger(RoteadorParticoes.class);
+
+    private static final String ARQUIVO_NOS = "nos.txt";
+    private static final String ARQUIVO_MIGRACAO = "migracao.txt";
+    private static final int LINHAS_POR_IMPORTACAO = 2048;
+    private static final int TRANSFERENCIAS_POR_EXPURGO = 1024;
+
+    /** Resultado de um rebalanceamento. */
+    public record Rebalanceamento(String no, int nos, long contasMovidas, long clientesCopiados,
+                                  long copiasRemovidas, long duracaoMs) {
+    }
+
+    @FunctionalInterface
+    public interface Operacao<T> {
+        T executar() throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface OperacaoNo<T> {
+        T executar(No no) throws IOException;
+    }
+
+    private final Path diretorio;
+    private final Function<String, No> fabrica;
+    private final ObjectMapper objectMapper;
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+    private final ExecutorService paralelo = Executors.newVirtualThreadPerTaskExecutor();
+    private final RegistroTransferencias registroTransferencias;
+    private final TransferenciasEntreParticoes transferencias;
+    private volatile AnelConsistente anel;
+    private volatile Map<String, No> nos;
+    private ScheduledExecutorService retomada;
+
+    @Autowired
+    public RoteadorParticoes(@Value("${banco.particao.nos:}") String nos,
+                             @Value("${banco.particao.virtuais:" + AnelConsistente.VIRTUAIS_PADRAO + "}") int virtuais,
+                             @Value("${banco.particao.diretorio:dados/particao}") String diretorio,
+                             @Value("${banco.particao.tempo-limite:PT10S}") Duration tempoLimite,
+                             ObjectMapper objectMapper) {
+        this(Arrays.stream(nos.split(",")).map(String::trim).filter(no -> !no.isEmpty()).toList(), virtuais,
+                Path.of(diretorio), novaFabrica(tempoLimite), objectMapper);
+    }
+
+    public RoteadorParticoes(List<String> nos, int virtuais, Path diretorio, Function<String, No> fabrica,
+                             ObjectMapper objectMapper) {
+        this.diretorio = diretorio;
+        this.fabrica = fabrica;
+        this.objectMapper = objectMapper;
+        try {
+            Files.createDirectories(diretorio);
+            Path arquivo = diretorio.resolve(ARQUIVO_NOS);
+            List<String> enderecos = nos.stream().map(RoteadorParticoes::normalizar).toList();
+            if (Files.exists(arquivo)) {
+                List<String> gravados = Files.readAllLines(arquivo).stream().filter(no -> !no.isBlank()).toList();
+                if (!enderecos.isEmpty() && !gravados.equals(enderecos)) {
+                    log.warn("banco.particao.nos difere de {}; usando o anel gravado {}", arquivo, gravados);
+                }
+                enderecos = gravados;
+            } else if (enderecos.isEmpty()) {
+                throw new IllegalStateException("Informe os nós em banco.particao.nos");
+            } else {
+                gravar(arquivo, enderecos);
+            }
+            usar(new AnelConsistente(enderecos, virtuais));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler o anel em " + diretorio, e);
+        }
+        this.registroTransferencias = new RegistroTransferencias(diretorio.resolve("transferencias.log"));
+        this.transferencias = new TransferenciasEntreParticoes(registroTransferencias, this::noDaConta, objectMapper);
+    }
+
+    // Termina uma migração interrompida e retoma as transferências pendentes a cada 2 s
+    @PostConstruct
+    public void iniciar() {
+        try {
+            concluirMigracaoInterrompida();
+        } catch (RuntimeException e) {
+            log.warn("Migração interrompida não concluída; será tentada no próximo rebalanceamento: {}", e.getMessage());
+        }
+        retomada = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "retomada-transferencias");
+            thread.setDaemon(true);
+            return thread;
+        });
+        retomada.scheduleWithFixedDelay(this::retomarTransferencias, 2, 2, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void encerrar() throws IOException {
+        if (retomada != null) {
+            retomada.shutdownNow();
+        }
+        paralelo.shutdownNow();
+        registroTransferencias.close();
+    }
+
+    public <T> T executar(Operacao<T> operacao) {
+        trava.readLock().lock();
+        try {
+            return operacao.executar();
+        } catch (IOException e) {
+            throw new NoIndisponivelException("Nó indisponível: " + e.getMessage(), e);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    // Chamado sob executar; os pedidos aos nós saem em paralelo e os resultados vêm na ordem do anel
+    public <T> List<T> emTodos(OperacaoNo<T> operacao) throws IOException {
+        List<Future<T>> futuros = new ArrayList<>();
+        for (No no : nos.values()) {
+            futuros.add(paralelo.submit(() -> operacao.executar(no)));
+        }
+        List<T> resultados = new ArrayList<>(futuros.size());
+        for (Future<T> futuro : futuros) {
+            try {
+                resultados.add(futuro.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) {
+                    throw io;
+                }
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IOException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrompido", e);
+            }
+        }
+        return resultados;
+    }
+
+    public No noDaConta(String numero) {
+        return nos.get(anel.noDaConta(numero));
+    }
+
+    public No noDoCliente(String cpf) {
+        return nos.get(anel.noDoCliente(cpf));
+    }
+
+    public List<No> nos() {
+        return List.copyOf(nos.values());
+    }
+
+    public AnelConsistente anel() {
+        return anel;
+    }
+
+    public TransferenciasEntreParticoes transferencias() {
+        return transferencias;
+    }
+
+    // Query string com o anel, como os endpoints internos do nó esperam
+    public static String parametrosAnel(AnelConsistente anel, String no) {
+        return "nos=" + codificar(String.join(",", anel.nos())) + "&virtuais=" + anel.virtuais() + "&no=" + codificar(no);
+    }
+
+    /**
+     * Acrescenta um nó e move para ele as contas e clientes que o anel novo lhe atribui.
+     * As operações ficam suspensas durante o rebalanceamento.
+     */
+    public synchronized Rebalanceamento adicionarNo(String endereco) throws IOException {
+        String novo = normalizar(endereco);
+        trava.writeLock().lock();
+        try {
+            long inicio = System.nanoTime();
+            if (anel.nos().contains(novo)) {
+                throw new OperacaoInvalidaException("O nó " + novo + " já está no anel");
+            }
+            concluirMigracaoInterrompida();
+            // As chaves de idempotência das transferências pendentes só existem nos nós atuais
+            transferencias.retomarPendentes();
+            int pendentes = transferencias.pendentes().size();
+            if (pendentes > 0) {
+                throw new OperacaoInvalidaException(pendentes + " transferências entre nós pendentes; tente de novo");
+            }
+            No destino = fabrica.apply(novo);
+            No.Resposta resposta = destino.enviar(No.Pedido.get("/api/banco/contas?limite=1"));
+            if (resposta.status() != 200) {
+                throw new IOException(novo + " respondeu " + resposta.status());
+            }
+            AnelConsistente proximo = anel.comNo(novo);
+            gravar(diretorio.resolve(ARQUIVO_MIGRACAO), List.of(novo));
+
+            long contas = 0;
+            long clientes = 0;
+            for (No origem : nos.values()) {
+                long[] copiados = copiar(origem, destino, proximo);
+                clientes += copiados[0];
+                contas += copiados[1];
+            }
+            // Daqui em diante o nó novo é o dono: o anel é gravado antes de as cópias antigas saírem
+            gravar(diretorio.resolve(ARQUIVO_NOS), proximo.nos());
+            Map<String, No> atuais = new LinkedHashMap<>(nos);
+            atuais.put(novo, destino);
+            anel = proximo;
+            nos = atuais;
+            long removidas = concluirMigracaoInterrompida();
+            long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+            log.info("Nó {} incluído: {} contas e {} clientes copiados em {} ms", novo, contas, clientes, duracaoMs);
+            return new Rebalanceamento(novo, proximo.nos().size(), contas, clientes, removidas, duracaoMs);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    // Exporta da origem o que é do nó novo e importa no nó novo em blocos; devolve {clientes, contas}
+    private long[] copiar(No origem, No destino, AnelConsistente proximo) throws IOException {
+        long[] copiados = new long[2];
+        StringBuilder bloco = new StringBuilder();
+        int linhas = 0;
+        try (Stream<String> exportadas = origem.linhas(No.Pedido.get("/api/particao/exportar?"
+                + parametrosAnel(proximo, origem.endereco()) + "&destino=" + codificar(destino.endereco())))) {
+            for (String linha : (Iterable<String>) exportadas::iterator) {
+                if (linha.isBlank()) {
+                    continue;
+                }
+                RegistroMigracao registro = objectMapper.readValue(linha, RegistroMigracao.class);
+                copiados[registro.isConta() ? 1 : 0]++;
+                bloco.append(linha).append('\n');
+                if (++linhas == LINHAS_POR_IMPORTACAO) {
+                    importar(destino, bloco);
+                    linhas = 0;
+                }
+            }
+        }
+        if (linhas > 0) {
+            importar(destino, bloco);
+        }
+        return copiados;
+    }
+
+    private static void importar(No destino, StringBuilder bloco) throws IOException {
+        No.Resposta resposta = destino.enviar(new No.Pedido("POST", "/api/particao/importar",
+                Map.of("Content-Type", "application/x-ndjson"), bloco.toString().getBytes(StandardCharsets.UTF_8)));
+        if (!resposta.sucesso()) {
+            throw new IOException(destino.endereco() + " recusou a importação: " + resposta.status() + " " + resposta.texto());
+        }
+        bloco.setLength(0);
+    }
+
+    // Com o marcador presente e o nó já no anel, remove de cada nó as contas que não são mais
+    // dele; sem o nó no anel a cópia não chegou a valer e o marcador só é apagado
+    private long concluirMigracaoInterrompida() {
+        Path marcador = diretorio.resolve(ARQUIVO_MIGRACAO);
+        try {
+            if (!Files.exists(marcador)) {
+                return 0;
+            }
+            String no = Files.readString(marcador).trim();
+            long removidas = 0;
+            if (anel.nos().contains(no)) {
+                for (No atual : nos.values()) {
+                    No.Resposta resposta = atual.enviar(No.Pedido.post("/api/particao/remover-alheias?"
+                            + parametrosAnel(anel, atual.endereco())));
+                    if (!resposta.sucesso()) {
+                        throw new IOException(atual.endereco() + " respondeu " + resposta.status() + " " + resposta.texto());
+                    }
+                    removidas += objectMapper.readTree(resposta.corpo()).path("removidas").asLong();
+                }
+            }
+            Files.delete(marcador);
+            return removidas;
+        } catch (IOException e) {
+            throw new NoIndisponivelException("Falha ao concluir a migração: " + e.getMessage(), e);
+        }
+    }
+
+    // Não espera um rebalanceamento em andamento: a próxima rodada tenta de novo
+    private void retomarTransferencias() {
+        if (!trava.readLock().tryLock()) {
+            return;
+        }
+        try {
+            transferencias.retomarPendentes();
+            expurgarPassos();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao retomar transferências pendentes", e);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    // As chaves dos passos de uma transferência esquecida saem de todos os nós antes da marca
+    // de expurgo; um nó fora do ar faz o lote inteiro ser repetido na próxima rodada
+    private void expurgarPassos() {
+        List<String> ids = registroTransferencias.esquecidas(TRANSFERENCIAS_POR_EXPURGO);
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            byte[] corpo = objectMapper.writeValueAsBytes(ids);
+            for (No no : nos.values()) {
+                No.Resposta resposta = no.enviar(new No.Pedido("POST", "/api/particao/passos/esquecer",
+                        Map.of("Content-Type", "application/json"), corpo));
+                if (!resposta.sucesso()) {
+                    throw new IOException(no.endereco() + " respondeu " + resposta.status() + " " + resposta.texto());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Falha ao expurgar as chaves de passos de {} transferências: {}", ids.size(), e.getMessage());
+            return;
+        }
+        registroTransferencias.expurgadas(ids);
+    }
+
+    private void usar(AnelConsistente novo) {
+        Map<String, No> atuais = new LinkedHashMap<>();
+        for (String endereco : novo.nos()) {
+            atuais.put(endereco, fabrica.apply(endereco));
+        }
+        anel = novo;
+        nos = atuais;
+    }
+
+    // Temporário, sync e movimento atômico, como os pontos de controle do fechamento
+    private static void gravar(Path destino, List<String> linhas) throws IOException {
+        Path temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+        try (FileOutputStream saida = new FileOutputStream(temporario.toFile())) {
+            saida.write((String.join("\n", linhas) + "\n").getBytes(StandardCharsets.UTF_8));
+            saida.getFD().sync();
+        }
+        Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static Function<String, No> novaFabrica(Duration tempoLimite) {
+        HttpClient cliente = NoHttp.novoCliente();
+        return endereco -> new NoHttp(endereco, cliente, tempoLimite);
+    }
+
+    private static String normalizar(String endereco) {
+        String aparado = endereco.trim();
+        return aparado.endsWith("/") ? aparado.substring(0, aparado.length() - 1) : aparado;
+    }
+
+    static String codificar(String texto) {
+        return URLEncoder.encode(texto, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,205 @@
+package com.banco.particao;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.banco.domain.Centavos;
+import com.banco.particao.RegistroTransferencias.Estado;
+import com.banco.particao.RegistroTransferencias.Transferencia;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Transferência entre contas de nós diferentes como uma saga de dois passos: saque na
+ * origem e depósito no destino, cada um com a sua chave de idempotência ({@code id:debito},
+ * {@code id:credito}). Se o destino recusar o depósito, o valor volta para a origem com
+ * {@code id:estorno}. O estado é gravado em {@link RegistroTransferencias} antes de cada
+ * passo, e uma transferência interrompida (nó fora do ar, queda do roteador) é retomada por
+ * {@link #retomarPendentes} a partir do último estado, repetindo o passo com a mesma chave.
+ *
+ * <p>Os passos vão para {@code /api/particao/contas/{numero}/sacar|depositar}, onde o nó grava
+ * a chave no mesmo registro do diário que o lançamento e a guarda sem prazo, inclusive nos
+ * snapshots: um passo repetido depois de qualquer demora ou de um reinício do nó não move
+ * dinheiro de novo. Entre o saque e o depósito o dinheiro não está em conta alguma: a soma
+ * dos saldos dos nós só fecha quando não há transferência pendente.
+ */
+public class TransferenciasEntreParticoes {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferenciasEntreParticoes.class);
+
+    // Sufixos das chaves dos passos de uma transferência
+    static final List<String> ETAPAS = List.of("debito", "credito", "estorno");
+
+    /** Resposta ao cliente: status HTTP e mensagem, como a transferência do modo único. */
+    public record Resultado(int status, String mensagem, Transferencia transferencia) {
+    }
+
+    private final RegistroTransferencias registro;
+    private final Function<String, No> donoDaConta;
+    private final ObjectMapper objectMapper;
+    // Transferências com um passo em execução; a retomada não as toca
+    private final Set<String> emAndamento = ConcurrentHashMap.newKeySet();
+
+    public TransferenciasEntreParticoes(RegistroTransferencias registro, Function<String, No> donoDaConta,
+                                        ObjectMapper objectMapper) {
+        this.registro = registro;
+        this.donoDaConta = donoDaConta;
+        this.objectMapper = objectMapper;
+    }
+
+    public Resultado transferir(String origem, String destino, BigDecimal valor) throws IOException {
+        return transferir(origem, destino, valor, null);
+    }
+
+    /**
+     * Com {@code chave} (o {@code Idempotency-Key} do cliente), um pedido repetido devolve a
+     * transferência já registrada para ela em vez de criar outra, mesmo depois de um reinício
+     * do roteador; a mesma chave com outra origem, destino ou valor é recusada com 409.
+     */
+    public Resultado transferir(String origem, String destino, BigDecimal valor, String chave) throws IOException {
+        if (valor == null || valor.signum() <= 0) {
+            return new Resultado(400, "Valor da transferência deve ser maior que zero", null);
+        }
+        if (chave != null) {
+            Transferencia anterior = registro.buscarPorChave(chave);
+            if (anterior != null) {
+                return repetir(anterior, origem, destino, Centavos.de(valor));
+            }
+        }
+        // O destino é conferido antes do saque: uma recusa aqui não move dinheiro
+        No.Resposta conta = donoDaConta.apply(destino).enviar(No.Pedido.get("/api/banco/contas/" + codificar(destino)));
+        if (!conta.sucesso()) {
+            return new Resultado(conta.status(), conta.texto(), null);
+        }
+        JsonNode ativa = objectMapper.readTree(conta.corpo()).get("ativa");
+        if (ativa != null && !ativa.asBoolean()) {
+            return new Resultado(400, "Transferências só podem envolver contas ativas", null);
+        }
+        Transferencia transferencia = new Transferencia(RegistroTransferencias.novoId(chave), origem, destino,
+                Centavos.de(valor), Estado.INICIADA);
+        emAndamento.add(transferencia.id());
+        try {
+            registro.registrar(transferencia, true);
+            return avancar(transferencia);
+        } catch (IOException e) {
+            log.warn("Transferência {} pendente no estado {}: {}", transferencia.id(),
+                    registro.buscar(transferencia.id()).estado(), e.getMessage());
+            return new Resultado(202, "Transferência " + transferencia.id() + " em processamento",
+                    registro.buscar(transferencia.id()));
+        } finally {
+            emAndamento.remove(transferencia.id());
+        }
+    }
+
+    // A resposta de uma transferência terminada é refeita a partir do estado; a pendente continua daqui
+    private Resultado repetir(Transferencia anterior, String origem, String destino, long valorCentavos) throws IOException {
+        if (!anterior.origem().equals(origem) || !anterior.destino().equals(destino)
+                || anterior.valorCentavos() != valorCentavos) {
+            return new Resultado(409, "Chave de idempotência já usada em outra transferência", anterior);
+        }
+        if (!anterior.estado().pendente()) {
+            return switch (anterior.estado()) {
+                case CONCLUIDA -> new Resultado(200, "Transferência realizada com sucesso", anterior);
+                case RECUSADA -> new Resultado(400, "Transferência " + anterior.id() + " recusada", anterior);
+                default -> new Resultado(400, "Transferência " + anterior.id() + " estornada", anterior);
+            };
+        }
+        if (!emAndamento.add(anterior.id())) {
+            return new Resultado(202, "Transferência " + anterior.id() + " em processamento", anterior);
+        }
+        try {
+            return avancar(registro.buscar(anterior.id()));
+        } catch (IOException e) {
+            return new Resultado(202, "Transferência " + anterior.id() + " em processamento", registro.buscar(anterior.id()));
+        } finally {
+            emAndamento.remove(anterior.id());
+        }
+    }
+
+    public Transferencia buscar(String id) {
+        return registro.buscar(id);
+    }
+
+    public List<Transferencia> pendentes() {
+        return registro.pendentes();
+    }
+
+    // Avança cada transferência pendente que não está em execução; devolve quantas terminaram
+    public int retomarPendentes() {
+        int terminadas = 0;
+        for (Transferencia pendente : registro.pendentes()) {
+            if (!emAndamento.add(pendente.id())) {
+                continue;
+            }
+            try {
+                Transferencia atual = registro.buscar(pendente.id());
+                if (atual.estado().pendente()) {
+                    Resultado resultado = avancar(atual);
+                    log.info("Transferência {} retomada: {}", atual.id(), resultado.transferencia().estado());
+                }
+                terminadas++;
+            } catch (IOException | RuntimeException e) {
+                log.debug("Transferência {} continua pendente: {}", pendente.id(), e.getMessage());
+            } finally {
+                emAndamento.remove(pendente.id());
+            }
+        }
+        return terminadas;
+    }
+
+    // Executa os passos a partir do estado registrado; IOException deixa a transferência onde está
+    private Resultado avancar(Transferencia transferencia) throws IOException {
+        if (transferencia.estado() == Estado.INICIADA) {
+            No.Resposta debito = passo(transferencia.origem(), "sacar", transferencia, "debito");
+            if (!debito.sucesso()) {
+                transferencia = transferencia.com(Estado.RECUSADA);
+                registro.registrar(transferencia, false);
+                return new Resultado(debito.status(), debito.texto(), transferencia);
+            }
+            transferencia = transferencia.com(Estado.DEBITADA);
+            registro.registrar(transferencia, false);
+        }
+        No.Resposta credito = passo(transferencia.destino(), "depositar", transferencia, "credito");
+        if (credito.sucesso()) {
+            transferencia = transferencia.com(Estado.CONCLUIDA);
+            registro.registrar(transferencia, false);
+            return new Resultado(200, "Transferência realizada com sucesso", transferencia);
+        }
+        No.Resposta estorno = passo(transferencia.origem(), "depositar", transferencia, "estorno");
+        if (!estorno.sucesso()) {
+            // Fica DEBITADA: a retomada repete crédito e estorno até um dos dois passar
+            log.error("Estorno da transferência {} recusado pela conta {}: {}", transferencia.id(),
+                    transferencia.origem(), estorno.texto());
+            throw new IOException("Estorno recusado: " + estorno.texto());
+        }
+        transferencia = transferencia.com(Estado.ESTORNADA);
+        registro.registrar(transferencia, false);
+        return new Resultado(400, "Transferência estornada: " + credito.texto(), transferencia);
+    }
+
+    // Erro do servidor, 409 (a mesma chave ainda em execução no nó) ou 429 não decidem o passo:
+    // o resultado é desconhecido e o passo será repetido
+    private No.Resposta passo(String numero, String operacao, Transferencia transferencia, String etapa) throws IOException {
+        No no = donoDaConta.apply(numero);
+        No.Resposta resposta = no.enviar(No.Pedido.post("/api/particao/contas/" + codificar(numero) + "/" + operacao
+                + "?valor=" + Centavos.paraBigDecimal(transferencia.valorCentavos()).toPlainString(),
+                transferencia.id() + ":" + etapa));
+        if (resposta.status() >= 500 || resposta.status() == 409 || resposta.status() == 429) {
+            throw new IOException(no.endereco() + " respondeu " + resposta.status() + " ao " + etapa);
+        }
+        return resposta;
+    }
+
+    private static String codificar(String numero) {
+        return URLEncoder.encode(numero, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
@@ -0,0 +1,71 @@
+package com.banco.persistencia;
+
+import com.banco.domain.Centavos;
+import com.banco.domain.Cliente;
+import com.banco.domain.Conta;
+import com.banco.domain.ContaCorrente;
+import com.banco.domain.ContaInvestimento;
+import com.banco.domain.ContaPoupanca;
+import com.banco.domain.TabelaSaldos;
+import com.banco.domain.TipoInvestimento;
+
+/**
+ * Códigos binários compartilhados pelo diário e pelos snapshots.
+ */
+public final class CodigosRegistro {
+
+    public static final byte CLIENTE_CRIADO = 1;
+    public static final byte CONTA_CRIADA = 2;
+    public static final byte LANCAMENTO = 3;
+    public static final byte CONTA_ENCERRADA = 4;
+    public static final byte TRANSFERENCIA = 5;
+    public static final byte FECHAMENTO_MENSAL = 6;
+    public static final byte CONTA_REMOVIDA = 7;
+    public static final byte PASSO_TRANSFERENCIA = 8;
+    public static final byte PASSO_ESQUECIDO = 9;
+
+    public static final byte CONTA_CORRENTE = 'C';
+    public static final byte CONTA_POUPANCA = 'P';
+    public static final byte CONTA_INVESTIMENTO = 'I';
+
+    private CodigosRegistro() {
+    }
+
+    public static byte tipoConta(Conta conta) {
+        if (conta instanceof ContaCorrente) {
+            return CONTA_CORRENTE;
+        }
+        if (conta instanceof ContaPoupanca) {
+            return CONTA_POUPANCA;
+        }
+        if (conta instanceof ContaInvestimento) {
+            return CONTA_INVESTIMENTO;
+        }
+        throw new IllegalArgumentException("Tipo de conta não suportado: " + conta.getClass().getSimpleName());
+    }
+
+    // Limite em centavos para conta corrente, ordinal do tipo para investimento
+    public static long parametroConta(Conta conta) {
+        if (conta instanceof ContaCorrente) {
+            return Centavos.de(((ContaCorrente) conta).getLimiteChequeEspecial());
+        }
+        if (conta instanceof ContaInvestimento) {
+            return ((ContaInvestimento) conta).getTipo().ordinal();
+        }
+        return 0;
+    }
+
+    // A conta já nasce na tabela de saldos de quem vai restaurá-la
+    public static Conta novaConta(byte tipoConta, String numero, Cliente titular, long parametro, TabelaSaldos saldos) {
+        switch (tipoConta) {
+            case CONTA_CORRENTE:
+                return new ContaCorrente(numero, titular, Centavos.paraBigDecimal(parametro), saldos);
+            case CONTA_POUPANCA:
+                return new ContaPoupanca(numero, titular, saldos);
+            case CONTA_INVESTIMENTO:
+                return new ContaInvestimento(numero, titular, TipoInvestimento.values()[(int) parametro], saldos);
+            default:
+                throw new IllegalArgumentException("Tipo de conta desconhecido: " + tipoConta);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.banco.persistencia;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.banco.domain.TipoLancamento;
+
+/**
+ * Recebe os registros do diário durante a reprodução, na ordem de sequência.
+ */
+public interface ConsumidorRegistros {
+
+    void clienteCriado(long sequencia, String nome, String cpf, LocalDate dataNascimento);
+
+    void contaCriada(long sequencia, byte tipoConta, String numero, String cpfTitular, long parametro,
+                     LocalDateTime dataCriacao);
+
+    void lancamento(long sequencia, TipoLancamento tipo, String numero, long valorCentavos, long saldoResultante);
+
+    void passoTransferencia(long sequencia, TipoLancamento tipo, String numero, String chave, long valorCentavos,
+                            long saldoResultante);
+
+    void passoEsquecido(long sequencia, String chave);
+
+    void contaEncerrada(long sequencia, String numero);
+
+    void contaRemovida(long sequencia, String numero);
+
+    void transferencia(long sequencia, String origem, String destino, long valorCentavos,
+                       long saldoOrigem, long saldoDestino);
+
+    void fechamentoMensal(long sequencia, String numero, int competencia, long rendimentoCentavos,
+                          long tarifaCentavos, long saldoResultante);
+}
@@ -0,0 +1,632 @@
+package com.banco.persistencia;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.banco.domain.Cliente;
+import com.banco.domain.Conta;
+import com.banco.domain.TipoLancamento;
+import com.banco.service.DiarioOperacoes;
+
+/**
+ * Diário binário append-only gravado em segmentos mapeados em memória.
+ *
+ * <p>Cada registro tem o formato {@code [int tamanho][int crc32][byte tipo][long sequencia][campos]};
+ * lançamentos guardam a variação e o saldo resultante, de modo que reaplicá-los é idempotente.
+ * Segmentos são pré-alocados com {@code tamanhoSegmento} bytes e nomeados pela primeira
+ * sequência que contêm; um tamanho zero ou um CRC inválido marca o fim dos dados válidos.
+ * Na inicialização o diário é reproduzido e a escrita continua num segmento novo.
+ */
+public class DiarioMapeado implements DiarioOperacoes, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DiarioMapeado.class);
+
+    private static final String PREFIXO = "diario-";
+    private static final String SUFIXO = ".seg";
+    private static final int CABECALHO = 8;
+    private static final int TAMANHO_MAXIMO_REGISTRO = 4096;
+
+    private final Path diretorio;
+    private final int tamanhoSegmento;
+    private final ModoSincronizacao modo;
+
+    // Escrita: protegida por travaEscrita
+    private final ReentrantLock travaEscrita = new ReentrantLock();
+    private final ByteBuffer rascunho = ByteBuffer.allocate(TAMANHO_MAXIMO_REGISTRO);
+    private final CRC32 crc = new CRC32();
+    private volatile Segmento atual;
+    private long ultimaSequencia;
+
+    // Durabilidade: protegida por travaSincronia
+    private final ReentrantLock travaSincronia = new ReentrantLock();
+    private final Condition haPendencias = travaSincronia.newCondition();
+    private final Condition tornouDuravel = travaSincronia.newCondition();
+    // Um fsync por vez em CADA_OPERACAO
+    private final ReentrantLock travaForca = new ReentrantLock();
+    private final List<Segmento> segmentosFechados = new ArrayList<>();
+    private long ultimaEscrita;
+    private long ultimaDuravel;
+    private boolean fechado;
+    private Thread sincronizador;
+
+    public DiarioMapeado(Path diretorio, int tamanhoSegmento, ModoSincronizacao modo) {
+        if (tamanhoSegmento < TAMANHO_MAXIMO_REGISTRO * 2) {
+            throw new IllegalArgumentException("Segmento muito pequeno: " + tamanhoSegmento);
+        }
+        this.diretorio = diretorio;
+        this.tamanhoSegmento = tamanhoSegmento;
+        this.modo = modo;
+    }
+
+    /**
+     * Reproduz todos os registros com sequência maior que {@code aPartirDe} e abre
+     * um segmento novo para escrita. Deve ser chamado uma vez, antes de qualquer registro.
+     * Um registro inválido só encerra a reprodução no último segmento: se o seguinte não
+     * começa logo depois do último registro válido, faltam registros e a abertura falha.
+     */
+    public void iniciar(long aPartirDe, ConsumidorRegistros consumidor) {
+        try {
+            Files.createDirectories(diretorio);
+            long ultima = aPartirDe;
+            long proxima = -1;
+            for (Path segmento : segmentos()) {
+                long primeira = primeiraSequencia(segmento);
+                if (proxima < 0 && primeira > aPartirDe + 1) {
+                    // Os segmentos anteriores foram descartados com um snapshot que não foi carregado
+                    throw new IllegalStateException("Diário em " + diretorio + " começa na sequência " + primeira
+                            + ", mas o estado recuperado só vai até " + aPartirDe + "; nenhum snapshot válido cobre a lacuna");
+                }
+                if (proxima >= 0 && primeira != proxima) {
+                    throw new IllegalStateException("Diário com lacuna em " + diretorio + ": " + segmento.getFileName()
+                            + " começa na sequência " + primeira + ", mas a anterior válida é " + (proxima - 1));
+                }
+                long ultimaDoSegmento = reproduzirSegmento(segmento, aPartirDe, consumidor);
+                proxima = ultimaDoSegmento > 0 ? ultimaDoSegmento + 1 : primeira;
+                ultima = Math.max(ultima, ultimaDoSegmento);
+            }
+            this.ultimaSequencia = ultima;
+            this.ultimaEscrita = ultima;
+            this.ultimaDuravel = ultima;
+            // Um segmento que começaria em ultima + 1 não pode conter registros válidos
+            Path proximo = arquivoSegmento(ultima + 1);
+            Files.deleteIfExists(proximo);
+            this.atual = Segmento.criar(proximo, tamanhoSegmento);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao abrir o diário em " + diretorio, e);
+        }
+        if (modo == ModoSincronizacao.GRUPO) {
+            sincronizador = new Thread(this::sincronizarEmGrupo, "diario-sincronizador");
+            sincronizador.setDaemon(true);
+            sincronizador.start();
+        }
+    }
+
+    public long ultimaSequencia() {
+        travaEscrita.lock();
+        try {
+            return ultimaSequencia;
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+
+    @Override
+    public long clienteCriado(Cliente cliente) {
+        travaEscrita.lock();
+        try {
+            iniciarRegistro(CodigosRegistro.CLIENTE_CRIADO);
+            escreverTexto(cliente.getNome());
+            escreverTexto(cliente.getCpf());
+            rascunho.putLong(cliente.getDataNascimento() == null ? Long.MIN_VALUE : cliente.getDataNascimento().toEpochDay());
+            return concluirRegistro();
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+
+    @Override
+    public long contaCriada(Conta conta) {
+        travaEscrita.lock();
+        try {
+            iniciarRegistro(CodigosRegistro.CONTA_CRIADA);
+            rascunho.put(CodigosRegistro.tipoConta(conta));
+            escreverTexto(conta.getNumero());
+            escreverTexto(conta.getTitular().getCpf());
+            rascunho.putLong(CodigosRegistro.parametroConta(conta));
+            rascunho.putLong(conta.getDataCriacao().toEpochSecond(ZoneOffset.UTC));
+            rascunho.putInt(conta.getDataCriacao().getNano());
+            return concluirRegistro();
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+
+    @Override
+    public long lancamento(TipoLancamento tipo, Conta conta, long valorCentavos) {
+        travaEscrita.lock();
+        try {
+            iniciarRegistro(CodigosRegistro.LANCAMENTO);
+            rascunho.put(tipo.getCodigo());
+            escreverTexto(conta.getNumero());
+            rascunho.putLong(valorCentavos);
+            // O saldo resultante torna a reprodução idempotente sobre um snapshot
+            rascunho.putLong(conta.saldoEmCentavos());
+            return concluirRegistro();
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+
+    // Um lançamento com a chave do passo: depois de uma queda, ou o passo aparece aplicado
+    // com o saldo novo, ou nenhum dos dois
+    @Override
+    public long passoTransferencia(TipoLancamento tipo, Conta conta, long valorCentavos, String chave) {
+        travaEscrita.lock();
+        try {
+            iniciarRegistro(CodigosRegistro.PASSO_TRANSFERENCIA);
+            rascunho.put(tipo.getCodigo());
+            escreverTexto(conta.getNumero());
+            escreverTexto(chave);
+            rascunho.putLong(valorCentavos);
+            rascunho.putLong(conta.saldoEmCentavos());
+            return concluirRegistro();
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+
+    @Override
+    public long passoEsquecido(String chave) {
+        travaEscrita.lock();
+        try {
+            iniciarRegistro(CodigosRegistro.PASSO_ESQUECIDO);
+            escreverTexto(chave);
+            return concluirRegistro();
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+
+    @Override
+    public long contaEncerrada(Conta conta) {
+        travaEscrita.lock();
+        try {
+            iniciarRegistro(CodigosRegistro.CONTA_ENCERRADA);
+            escreverTexto(conta.getNumero());
+            return concluirRegistro();
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+
+    @Override
+    public long contaRemovida(Conta conta) {
+        travaEscrita.lock();
+        try {
+            iniciarRegistro(CodigosRegistro.CONTA_REMOVIDA);
+            escreverTexto(conta.getNumero());
+            return concluirRegistro();
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+
+    // Um único registro com os dois lados: a reprodução nunca vê meia transferência
+    @Override
+    public long transferencia(Conta origem, Conta destino, long valorCentavos) {
+        travaEscrita.lock();
+        try {
+            iniciarRegistro(CodigosRegistro.TRANSFERENCIA);
+            escreverTexto(origem.getNumero());
+            escreverTexto(destino.getNumero());
+            rascunho.putLong(valorCentavos);
+            rascunho.putLong(origem.saldoEmCentavos());
+            rascunho.putLong(destino.saldoEmCentavos());
+            return concluirRegistro();
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+
+    // A marca da competência vai no mesmo registro do saldo: depois de uma queda, ou a conta
+    // aparece fechada com o saldo novo, ou nem uma coisa nem outra
+    @Override
+    public long fechamentoMensal(Conta conta, int competencia, long rendimentoCentavos, long tarifaCentavos) {
+        travaEscrita.lock();
+        try {
+            iniciarRegistro(CodigosRegistro.FECHAMENTO_MENSAL);
+            escreverTexto(conta.getNumero());
+            rascunho.putInt(competencia);
+            rascunho.putLong(rendimentoCentavos);
+            rascunho.putLong(tarifaCentavos);
+            rascunho.putLong(conta.saldoEmCentavos());
+            return concluirRegistro();
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+
+    @Override
+    public void tornarDuravel(long sequencia) {
+        if (sequencia <= 0 || modo == ModoSincronizacao.NENHUMA) {
+            return;
+        }
+        if (modo == ModoSincronizacao.CADA_OPERACAO) {
+            forcarAte(sequencia);
+            return;
+        }
+        travaSincronia.lock();
+        try {
+            while (ultimaDuravel < sequencia) {
+                if (fechado) {
+                    throw new IllegalStateException("Diário fechado antes de confirmar a sequência " + sequencia);
+                }
+                haPendencias.signal();
+                tornouDuravel.awaitUninterruptibly();
+            }
+        } finally {
+            travaSincronia.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        travaSincronia.lock();
+        try {
+            fechado = true;
+            haPendencias.signalAll();
+            tornouDuravel.signalAll();
+        } finally {
+            travaSincronia.unlock();
+        }
+        if (sincronizador != null) {
+            try {
+                sincronizador.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        travaEscrita.lock();
+        try {
+            travaSincronia.lock();
+            try {
+                forcarPendentes();
+                for (Segmento segmento : segmentosFechados) {
+                    segmento.fechar();
+                }
+                segmentosFechados.clear();
+            } finally {
+                travaSincronia.unlock();
+            }
+            if (atual != null) {
+                atual.fechar();
+                atual = null;
+            }
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+
+    // Remove segmentos cujos registros são todos anteriores a {@code sequencia}
+    public void descartarAte(long sequencia) throws IOException {
+        List<Path> existentes = segmentos();
+        for (int i = 0; i + 1 < existentes.size(); i++) {
+            if (primeiraSequencia(existentes.get(i + 1)) <= sequencia + 1) {
+                Files.deleteIfExists(existentes.get(i));
+            }
+        }
+    }
+
+    private void iniciarRegistro(byte tipo) {
+        if (atual == null) {
+            throw new IllegalStateException("Diário não iniciado");
+        }
+        rascunho.clear();
+        rascunho.position(CABECALHO);
+        rascunho.put(tipo);
+        rascunho.putLong(ultimaSequencia + 1);
+    }
+
+    private void escreverTexto(String texto) {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE || bytes.length + 2 > rascunho.remaining() - Long.BYTES) {
+            throw new IllegalArgumentException("Texto longo demais para o diário");
+        }
+        rascunho.putShort((short) bytes.length);
+        rascunho.put(bytes);
+    }
+
+    private long concluirRegistro() {
+        int tamanho = rascunho.position() - CABECALHO;
+        crc.reset();
+        crc.update(rascunho.array(), CABECALHO, tamanho);
+        rascunho.putInt(0, tamanho);
+        rascunho.putInt(4, (int) crc.getValue());
+        rascunho.flip();
+
+        long sequencia = ultimaSequencia + 1;
+        if (atual.buffer.remaining() < rascunho.remaining() + CABECALHO) {
+            trocarSegmento(sequencia);
+        }
+        atual.buffer.put(rascunho);
+        ultimaSequencia = sequencia;
+
+        travaSincronia.lock();
+        try {
+            ultimaEscrita = sequencia;
+        } finally {
+            travaSincronia.unlock();
+        }
+        return sequencia;
+    }
+
+    private void trocarSegmento(long primeiraSequencia) {
+        try {
+            Segmento novo = Segmento.criar(arquivoSegmento(primeiraSequencia), tamanhoSegmento);
+            travaSincronia.lock();
+            try {
+                segmentosFechados.add(atual);
+                atual = novo;
+            } finally {
+                travaSincronia.unlock();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao criar segmento do diário", e);
+        }
+    }
+
+    // Chamado com travaSincronia: força os segmentos já fechados e o atual
+    private void forcarPendentes() {
+        for (Segmento segmento : segmentosFechados) {
+            segmento.buffer.force();
+            segmento.fechar();
+        }
+        segmentosFechados.clear();
+        Segmento corrente = atual;
+        if (corrente != null) {
+            corrente.buffer.force();
+        }
+    }
+
+    // CADA_OPERACAO: o fsync acontece fora de travaSincronia, para não segurar quem escreve.
+    // travaForca deixa um fsync por vez, então um segmento fechado tirado da lista já foi
+    // forçado quando o próximo chamador olha ultimaDuravel
+    private void forcarAte(long sequencia) {
+        travaForca.lock();
+        try {
+            long alvo;
+            List<Segmento> fechados;
+            Segmento corrente;
+            travaSincronia.lock();
+            try {
+                if (ultimaDuravel >= sequencia) {
+                    return;
+                }
+                alvo = ultimaEscrita;
+                corrente = atual;
+                fechados = new ArrayList<>(segmentosFechados);
+                segmentosFechados.clear();
+            } finally {
+                travaSincronia.unlock();
+            }
+            for (Segmento segmento : fechados) {
+                segmento.buffer.force();
+                segmento.fechar();
+            }
+            if (corrente != null) {
+                corrente.buffer.force();
+            }
+            travaSincronia.lock();
+            try {
+                ultimaDuravel = Math.max(ultimaDuravel, alvo);
+            } finally {
+                travaSincronia.unlock();
+            }
+        } finally {
+            travaForca.unlock();
+        }
+    }
+
+    private void sincronizarEmGrupo() {
+        while (true) {
+            long alvo;
+            List<Segmento> fechados;
+            Segmento corrente;
+            travaSincronia.lock();
+            try {
+                while (ultimaEscrita == ultimaDuravel && !fechado) {
+                    haPendencias.awaitUninterruptibly();
+                }
+                if (fechado && ultimaEscrita == ultimaDuravel) {
+                    return;
+                }
+                alvo = ultimaEscrita;
+                corrente = atual;
+                fechados = new ArrayList<>(segmentosFechados);
+                segmentosFechados.clear();
+            } finally {
+                travaSincronia.unlock();
+            }
+
+            // O fsync acontece fora da trava: novos registros se acumulam para o próximo grupo
+            for (Segmento segmento : fechados) {
+                segmento.buffer.force();
+                segmento.fechar();
+            }
+            if (corrente != null) {
+                corrente.buffer.force();
+            }
+
+            travaSincronia.lock();
+            try {
+                ultimaDuravel = Math.max(ultimaDuravel, alvo);
+                tornouDuravel.signalAll();
+            } finally {
+                travaSincronia.unlock();
+            }
+        }
+    }
+
+    private long reproduzirSegmento(Path arquivo, long aPartirDe, ConsumidorRegistros consumidor) throws IOException {
+        long ultima = 0;
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            byte[] corpo = new byte[TAMANHO_MAXIMO_REGISTRO];
+            CRC32 verificador = new CRC32();
+            while (buffer.remaining() >= CABECALHO) {
+                int tamanho = buffer.getInt();
+                int crcEsperado = buffer.getInt();
+                if (tamanho <= 0 || tamanho > TAMANHO_MAXIMO_REGISTRO || tamanho > buffer.remaining()) {
+                    break;
+                }
+                buffer.get(corpo, 0, tamanho);
+                verificador.reset();
+                verificador.update(corpo, 0, tamanho);
+                if ((int) verificador.getValue() != crcEsperado) {
+                    log.warn("Registro corrompido no diário {}; reprodução do segmento interrompida", arquivo);
+                    break;
+                }
+                ByteBuffer registro = ByteBuffer.wrap(corpo, 0, tamanho);
+                byte tipo = registro.get();
+                long sequencia = registro.getLong();
+                ultima = sequencia;
+                if (sequencia > aPartirDe) {
+                    despachar(tipo, sequencia, registro, consumidor);
+                }
+            }
+        }
+        return ultima;
+    }
+
+    private static void despachar(byte tipo, long sequencia, ByteBuffer registro, ConsumidorRegistros consumidor) {
+        switch (tipo) {
+            case CodigosRegistro.CLIENTE_CRIADO: {
+                String nome = lerTexto(registro);
+                String cpf = lerTexto(registro);
+                long dia = registro.getLong();
+                consumidor.clienteCriado(sequencia, nome, cpf, dia == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(dia));
+                break;
+            }
+            case CodigosRegistro.CONTA_CRIADA: {
+                byte tipoConta = registro.get();
+                String numero = lerTexto(registro);
+                String cpf = lerTexto(registro);
+                long parametro = registro.getLong();
+                LocalDateTime dataCriacao = LocalDateTime.ofEpochSecond(registro.getLong(), registro.getInt(), ZoneOffset.UTC);
+                consumidor.contaCriada(sequencia, tipoConta, numero, cpf, parametro, dataCriacao);
+                break;
+            }
+            case CodigosRegistro.LANCAMENTO: {
+                TipoLancamento tipoLancamento = TipoLancamento.doCodigo(registro.get());
+                String numero = lerTexto(registro);
+                long valor = registro.getLong();
+                consumidor.lancamento(sequencia, tipoLancamento, numero, valor, registro.getLong());
+                break;
+            }
+            case CodigosRegistro.PASSO_TRANSFERENCIA: {
+                TipoLancamento tipoLancamento = TipoLancamento.doCodigo(registro.get());
+                String numero = lerTexto(registro);
+                String chave = lerTexto(registro);
+                long valor = registro.getLong();
+                consumidor.passoTransferencia(sequencia, tipoLancamento, numero, chave, valor, registro.getLong());
+                break;
+            }
+            case CodigosRegistro.PASSO_ESQUECIDO:
+                consumidor.passoEsquecido(sequencia, lerTexto(registro));
+                break;
+            case CodigosRegistro.CONTA_ENCERRADA:
+                consumidor.contaEncerrada(sequencia, lerTexto(registro));
+                break;
+            case CodigosRegistro.CONTA_REMOVIDA:
+                consumidor.contaRemovida(sequencia, lerTexto(registro));
+                break;
+            case CodigosRegistro.TRANSFERENCIA: {
+                String origem = lerTexto(registro);
+                String destino = lerTexto(registro);
+                long valor = registro.getLong();
+                long saldoOrigem = registro.getLong();
+                consumidor.transferencia(sequencia, origem, destino, valor, saldoOrigem, registro.getLong());
+                break;
+            }
+            case CodigosRegistro.FECHAMENTO_MENSAL: {
+                String numero = lerTexto(registro);
+                int competencia = registro.getInt();
+                long rendimento = registro.getLong();
+                long tarifa = registro.getLong();
+                consumidor.fechamentoMensal(sequencia, numero, competencia, rendimento, tarifa, registro.getLong());
+                break;
+            }
+            default:
+                throw new IllegalStateException("Tipo de registro desconhecido no diário: " + tipo);
+        }
+    }
+
+    private static String lerTexto(ByteBuffer registro) {
+        int tamanho = registro.getShort();
+        String texto = new String(registro.array(), registro.arrayOffset() + registro.position(), tamanho, StandardCharsets.UTF_8);
+        registro.position(registro.position() + tamanho);
+        return texto;
+    }
+
+    private List<Path> segmentos() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos
+                    .filter(p -> p.getFileName().toString().startsWith(PREFIXO) && p.getFileName().toString().endsWith(SUFIXO))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path arquivoSegmento(long primeiraSequencia) {
+        return diretorio.resolve(String.format("%s%020d%s", PREFIXO, primeiraSequencia, SUFIXO));
+    }
+
+    private static long primeiraSequencia(Path segmento) {
+        String nome = segmento.getFileName().toString();
+        return Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - SUFIXO.length()));
+    }
+
+    private static final class Segmento {
+
+        private final FileChannel canal;
+        private final MappedByteBuffer buffer;
+
+        private Segmento(FileChannel canal, MappedByteBuffer buffer) {
+            this.canal = canal;
+            this.buffer = buffer;
+        }
+
+        static Segmento criar(Path arquivo, int tamanho) throws IOException {
+            FileChannel canal = FileChannel.open(arquivo,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segmento(canal, canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanho));
+        }
+
+        void fechar() {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.banco.persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import com.banco.domain.Cliente;
+import com.banco.domain.Conta;
+import com.banco.service.BancoService;
+
+/**
+ * Formato binário compacto do estado do banco.
+ *
+ * <p>Cabeçalho {@code [int mágico][int versão][long sequência do diário]}, seguido de
+ * registros de cliente (tag 1) e de conta (tag 2), e terminado por
+ * {@code [tag 0][long clientes][long contas]}. Desde a versão 2 cada conta termina com a última
+ * competência de fechamento mensal aplicada; desde a versão 3 as chaves dos passos de transferências
+ * entre nós já aplicados seguem as contas (tag 3). Versões anteriores ainda são lidas.
+ *
+ * <p>O snapshot é "difuso": é gerado sem parar as escritas, a partir de uma sequência lida
+ * antes de percorrer os mapas. Reaplicar o diário a partir dessa sequência, que é
+ * idempotente, leva ao estado consistente.
+ */
+public final class Instantaneo {
+
+    private static final int MAGICO = 0x42465331; // "BFS1"
+    private static final int VERSAO = 3;
+    private static final byte FIM = 0;
+    private static final byte CLIENTE = 1;
+    private static final byte CONTA = 2;
+    private static final byte PASSO = 3;
+    private static final int BUFFER = 1 << 20;
+
+    private Instantaneo() {
+    }
+
+    public static void gravar(Path arquivo, BancoService bancoService, long sequencia) throws IOException {
+        try (FileOutputStream arquivoSaida = new FileOutputStream(arquivo.toFile());
+             DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(arquivoSaida, BUFFER))) {
+            saida.writeInt(MAGICO);
+            saida.writeInt(VERSAO);
+            saida.writeLong(sequencia);
+
+            long clientes = 0;
+            for (Cliente cliente : bancoService.percorrerClientes()) {
+                saida.writeByte(CLIENTE);
+                saida.writeUTF(cliente.getNome());
+                saida.writeUTF(cliente.getCpf());
+                saida.writeLong(cliente.getDataNascimento() == null ? Long.MIN_VALUE : cliente.getDataNascimento().toEpochDay());
+                clientes++;
+            }
+
+            long contas = 0;
+            for (Conta conta : bancoService.percorrerContas()) {
+                saida.writeByte(CONTA);
+                saida.writeByte(CodigosRegistro.tipoConta(conta));
+                saida.writeUTF(conta.getNumero());
+                saida.writeUTF(conta.getTitular().getCpf());
+                saida.writeLong(CodigosRegistro.parametroConta(conta));
+                saida.writeLong(conta.getDataCriacao().toEpochSecond(ZoneOffset.UTC));
+                saida.writeInt(conta.getDataCriacao().getNano());
+                saida.writeLong(conta.saldoEmCentavos());
+                saida.writeBoolean(conta.isAtiva());
+                saida.writeInt(conta.ultimoFechamento());
+                contas++;
+            }
+
+            for (String chave : bancoService.percorrerPassosAplicados()) {
+                saida.writeByte(PASSO);
+                saida.writeUTF(chave);
+            }
+
+            saida.writeByte(FIM);
+            saida.writeLong(clientes);
+            saida.writeLong(contas);
+            saida.flush();
+            arquivoSaida.getFD().sync();
+        }
+    }
+
+    /**
+     * Carrega o snapshot no BancoService e devolve a sequência do diário a partir da qual
+     * os registros ainda precisam ser reaplicados.
+     */
+    public static long carregar(Path arquivo, BancoService bancoService) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo), BUFFER))) {
+            if (entrada.readInt() != MAGICO) {
+                throw new IOException("Arquivo não é um snapshot válido: " + arquivo);
+            }
+            int versao = entrada.readInt();
+            if (versao < 1 || versao > VERSAO) {
+                throw new IOException("Versão de snapshot não suportada em " + arquivo + ": " + versao);
+            }
+            long sequencia = entrada.readLong();
+            long clientes = 0;
+            long contas = 0;
+            while (true) {
+                byte tag = entrada.readByte();
+                if (tag == FIM) {
+                    break;
+                }
+                if (tag == CLIENTE) {
+                    String nome = entrada.readUTF();
+                    String cpf = entrada.readUTF();
+                    long dia = entrada.readLong();
+                    bancoService.restaurarCliente(new Cliente(nome, cpf, dia == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(dia)));
+                    clientes++;
+                } else if (tag == CONTA) {
+                    byte tipoConta = entrada.readByte();
+                    String numero = entrada.readUTF();
+                    Cliente titular = bancoService.buscarClientePorCpf(entrada.readUTF());
+                    Conta conta = CodigosRegistro.novaConta(tipoConta, numero, titular, entrada.readLong(),
+                            bancoService.tabelaSaldos());
+                    conta.restaurarDataCriacao(LocalDateTime.ofEpochSecond(entrada.readLong(), entrada.readInt(), ZoneOffset.UTC));
+                    conta.restaurarSaldoCentavos(entrada.readLong());
+                    conta.setAtiva(entrada.readBoolean());
+                    if (versao >= 2) {
+                        conta.registrarFechamento(entrada.readInt());
+                    }
+                    bancoService.restaurarConta(conta);
+                    contas++;
+                } else if (tag == PASSO) {
+                    bancoService.restaurarPasso(entrada.readUTF());
+                } else {
+                    throw new IOException("Registro desconhecido no snapshot " + arquivo + ": " + tag);
+                }
+            }
+            if (entrada.readLong() != clientes || entrada.readLong() != contas) {
+                throw new IOException("Snapshot incompleto: " + arquivo);
+            }
+            return sequencia;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.banco.persistencia;
+
+public enum ModoSincronizacao {
+    // Um único fsync cobre todos os registros acumulados enquanto o anterior executava
+    GRUPO,
+    // Cada operação força o próprio fsync antes de responder
+    CADA_OPERACAO,
+    // Nenhum fsync explícito; a gravação fica a cargo do sistema operacional
+    NENHUMA
+}
@@ -0,0 +1,189 @@
+package com.banco.persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.banco.service.PlanoFechamento;
+import com.banco.service.PontosControleFechamento;
+import com.banco.service.TotaisFatia;
+
+/**
+ * Pontos de controle do fechamento mensal em arquivo, um por competência
+ * ({@code fechamento-aaaa-mm.bin}).
+ *
+ * <p>O cabeçalho {@code [int mágico][int versão][int ano][int mês][int fatias][UTF limite]...}
+ * é gravado num arquivo temporário e movido atomicamente, então um plano novo nunca aparece
+ * pela metade. Cada fatia concluída acrescenta {@code [int fatia][long totais]...[int crc32]}
+ * e força o arquivo antes de retornar; um registro incompleto ou com CRC inválido no fim,
+ * deixado por uma queda durante a escrita, é ignorado e a fatia é refeita.
+ */
+public class PontosControleArquivo implements PontosControleFechamento {
+
+    private static final Logger log = LoggerFactory.getLogger(PontosControleArquivo.class);
+
+    private static final int MAGICO = 0x42464631; // "BFF1"
+    private static final int VERSAO = 1;
+    private static final String PREFIXO = "fechamento-";
+    private static final String SUFIXO = ".bin";
+    private static final int TAMANHO_REGISTRO = Integer.BYTES + TotaisFatia.TAMANHO * Long.BYTES + Integer.BYTES;
+
+    private final Path diretorio;
+
+    public PontosControleArquivo(Path diretorio) {
+        this.diretorio = diretorio;
+        try {
+            Files.createDirectories(diretorio);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao criar o diretório de pontos de controle " + diretorio, e);
+        }
+    }
+
+    @Override
+    public synchronized PlanoFechamento carregar(YearMonth competencia) {
+        Path arquivo = arquivo(competencia);
+        if (!Files.exists(arquivo)) {
+            return null;
+        }
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo)))) {
+            if (entrada.readInt() != MAGICO || entrada.readInt() != VERSAO
+                    || entrada.readInt() != competencia.getYear() || entrada.readInt() != competencia.getMonthValue()) {
+                throw new IOException("Arquivo não é um ponto de controle de " + competencia + ": " + arquivo);
+            }
+            int fatias = entrada.readInt();
+            List<String> limites = new ArrayList<>(fatias);
+            for (int i = 0; i < fatias; i++) {
+                limites.add(entrada.readUTF());
+            }
+            Map<Integer, TotaisFatia> concluidas = new HashMap<>();
+            byte[] registro = new byte[TAMANHO_REGISTRO];
+            CRC32 crc = new CRC32();
+            while (true) {
+                try {
+                    entrada.readFully(registro);
+                } catch (EOFException e) {
+                    break;
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(registro);
+                crc.reset();
+                crc.update(registro, 0, TAMANHO_REGISTRO - Integer.BYTES);
+                if (buffer.getInt(TAMANHO_REGISTRO - Integer.BYTES) != (int) crc.getValue()) {
+                    log.warn("Registro inválido no ponto de controle {}; fatias seguintes serão refeitas", arquivo);
+                    break;
+                }
+                int fatia = buffer.getInt();
+                long[] totais = new long[TotaisFatia.TAMANHO];
+                for (int i = 0; i < totais.length; i++) {
+                    totais[i] = buffer.getLong();
+                }
+                concluidas.put(fatia, TotaisFatia.deVetor(totais));
+            }
+            return new PlanoFechamento(competencia, limites, concluidas);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler o ponto de controle " + arquivo, e);
+        }
+    }
+
+    @Override
+    public synchronized void iniciar(YearMonth competencia, List<String> limites) {
+        Path destino = arquivo(competencia);
+        Path temporario = diretorio.resolve(destino.getFileName() + ".tmp");
+        try {
+            try (FileOutputStream arquivoSaida = new FileOutputStream(temporario.toFile());
+                 DataOutputStream saida = new DataOutputStream(arquivoSaida)) {
+                saida.writeInt(MAGICO);
+                saida.writeInt(VERSAO);
+                saida.writeInt(competencia.getYear());
+                saida.writeInt(competencia.getMonthValue());
+                saida.writeInt(limites.size());
+                for (String limite : limites) {
+                    saida.writeUTF(limite);
+                }
+                saida.flush();
+                arquivoSaida.getFD().sync();
+            }
+            Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar o ponto de controle " + destino, e);
+        }
+    }
+
+    @Override
+    public synchronized void fatiaConcluida(YearMonth competencia, int fatia, TotaisFatia totais) {
+        ByteBuffer registro = ByteBuffer.allocate(TAMANHO_REGISTRO);
+        registro.putInt(fatia);
+        for (long valor : totais.paraVetor()) {
+            registro.putLong(valor);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(registro.array(), 0, registro.position());
+        registro.putInt((int) crc.getValue());
+        registro.flip();
+        Path arquivo = arquivo(competencia);
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (registro.hasRemaining()) {
+                canal.write(registro);
+            }
+            canal.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar o ponto de controle " + arquivo, e);
+        }
+    }
+
+    @Override
+    public List<YearMonth> pendentes() {
+        List<YearMonth> pendentes = new ArrayList<>();
+        for (YearMonth competencia : competencias()) {
+            if (!carregar(competencia).completo()) {
+                pendentes.add(competencia);
+            }
+        }
+        return pendentes;
+    }
+
+    @Override
+    public YearMonth ultima() {
+        List<YearMonth> competencias = competencias();
+        return competencias.isEmpty() ? null : competencias.get(competencias.size() - 1);
+    }
+
+    // Competências com arquivo de plano, em ordem
+    private List<YearMonth> competencias() {
+        List<YearMonth> competencias = new ArrayList<>();
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            for (Path arquivo : arquivos.sorted().toList()) {
+                String nome = arquivo.getFileName().toString();
+                if (nome.startsWith(PREFIXO) && nome.endsWith(SUFIXO)) {
+                    competencias.add(YearMonth.parse(nome.substring(PREFIXO.length(), nome.length() - SUFIXO.length())));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao listar pontos de controle em " + diretorio, e);
+        }
+        return competencias;
+    }
+
+    private Path arquivo(YearMonth competencia) {
+        return diretorio.resolve(PREFIXO + competencia + SUFIXO);
+    }
+}
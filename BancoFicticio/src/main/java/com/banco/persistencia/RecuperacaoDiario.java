@@ -0,0 +1,91 @@
+package com.banco.persistencia;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.banco.domain.Cliente;
+import com.banco.domain.Conta;
+import com.banco.domain.TipoLancamento;
+import com.banco.service.BancoService;
+
+/**
+ * Reaplica no BancoService os registros lidos do diário. Todas as operações são
+ * idempotentes, então registros já refletidos num snapshot podem ser reaplicados.
+ */
+public class RecuperacaoDiario implements ConsumidorRegistros {
+
+    private final BancoService bancoService;
+    private long registrosAplicados;
+
+    public RecuperacaoDiario(BancoService bancoService) {
+        this.bancoService = bancoService;
+    }
+
+    @Override
+    public void clienteCriado(long sequencia, String nome, String cpf, LocalDate dataNascimento) {
+        bancoService.restaurarCliente(new Cliente(nome, cpf, dataNascimento));
+        registrosAplicados++;
+    }
+
+    @Override
+    public void contaCriada(long sequencia, byte tipoConta, String numero, String cpfTitular, long parametro,
+                            LocalDateTime dataCriacao) {
+        Cliente titular = bancoService.buscarClientePorCpf(cpfTitular);
+        Conta conta = CodigosRegistro.novaConta(tipoConta, numero, titular, parametro, bancoService.tabelaSaldos());
+        conta.restaurarDataCriacao(dataCriacao);
+        bancoService.restaurarConta(conta);
+        registrosAplicados++;
+    }
+
+    @Override
+    public void lancamento(long sequencia, TipoLancamento tipo, String numero, long valorCentavos,
+                           long saldoResultante) {
+        bancoService.restaurarSaldo(numero, saldoResultante);
+        registrosAplicados++;
+    }
+
+    @Override
+    public void passoTransferencia(long sequencia, TipoLancamento tipo, String numero, String chave,
+                                   long valorCentavos, long saldoResultante) {
+        bancoService.restaurarSaldo(numero, saldoResultante);
+        bancoService.restaurarPasso(chave);
+        registrosAplicados++;
+    }
+
+    @Override
+    public void passoEsquecido(long sequencia, String chave) {
+        bancoService.restaurarPassoEsquecido(chave);
+        registrosAplicados++;
+    }
+
+    @Override
+    public void contaEncerrada(long sequencia, String numero) {
+        bancoService.restaurarEncerramento(numero);
+        registrosAplicados++;
+    }
+
+    @Override
+    public void contaRemovida(long sequencia, String numero) {
+        bancoService.restaurarRemocao(numero);
+        registrosAplicados++;
+    }
+
+    @Override
+    public void transferencia(long sequencia, String origem, String destino, long valorCentavos,
+                              long saldoOrigem, long saldoDestino) {
+        bancoService.restaurarSaldo(origem, saldoOrigem);
+        bancoService.restaurarSaldo(destino, saldoDestino);
+        registrosAplicados++;
+    }
+
+    @Override
+    public void fechamentoMensal(long sequencia, String numero, int competencia, long rendimentoCentavos,
+                                 long tarifaCentavos, long saldoResultante) {
+        bancoService.restaurarFechamento(numero, competencia, saldoResultante);
+        registrosAplicados++;
+    }
+
+    public long getRegistrosAplicados() {
+        return registrosAplicados;
+    }
+}
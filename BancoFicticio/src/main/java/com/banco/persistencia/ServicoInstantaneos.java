@@ -0,0 +1,135 @@
+package com.banco.persistencia;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.banco.service.BancoService;
+
+/**
+ * Gera snapshots periódicos em segundo plano e, na inicialização, recupera o estado
+ * a partir do snapshot mais recente seguido da cauda do diário.
+ */
+public class ServicoInstantaneos implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ServicoInstantaneos.class);
+
+    private static final String PREFIXO = "instantaneo-";
+    private static final String SUFIXO = ".bin";
+
+    private final Path diretorio;
+    private final BancoService bancoService;
+    private final DiarioMapeado diario;
+    private final int retidos;
+    private final ReentrantLock emGeracao = new ReentrantLock();
+    private ScheduledExecutorService agendador;
+
+    public ServicoInstantaneos(Path diretorio, BancoService bancoService, DiarioMapeado diario, int retidos) {
+        if (retidos < 1) {
+            throw new IllegalArgumentException("É preciso reter ao menos um snapshot");
+        }
+        this.diretorio = diretorio;
+        this.bancoService = bancoService;
+        this.diario = diario;
+        this.retidos = retidos;
+    }
+
+    /**
+     * Carrega o snapshot válido mais recente, reproduz o diário a partir dele e abre o
+     * diário para escrita. Devolve a quantidade de registros do diário reaplicados.
+     */
+    public long recuperar() {
+        long sequencia = 0;
+        try {
+            Files.createDirectories(diretorio);
+            List<Path> existentes = instantaneos();
+            for (int i = existentes.size() - 1; i >= 0; i--) {
+                try {
+                    sequencia = Instantaneo.carregar(existentes.get(i), bancoService);
+                    log.info("Snapshot {} carregado", existentes.get(i).getFileName());
+                    break;
+                } catch (IOException | RuntimeException e) {
+                    // Snapshot parcial: descarta o que foi carregado dele e tenta o anterior
+                    log.warn("Snapshot {} inválido: {}", existentes.get(i).getFileName(), e.getMessage());
+                    bancoService.limparParaRecuperacao();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler snapshots em " + diretorio, e);
+        }
+        RecuperacaoDiario recuperacao = new RecuperacaoDiario(bancoService);
+        diario.iniciar(sequencia, recuperacao);
+        return recuperacao.getRegistrosAplicados();
+    }
+
+    public Path gerar() throws IOException {
+        emGeracao.lock();
+        try {
+            long sequencia = diario.ultimaSequencia();
+            Path destino = diretorio.resolve(String.format("%s%020d%s", PREFIXO, sequencia, SUFIXO));
+            Path temporario = diretorio.resolve(destino.getFileName() + ".tmp");
+            long inicio = System.nanoTime();
+            Instantaneo.gravar(temporario, bancoService, sequencia);
+            Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Snapshot {} gerado em {} ms", destino.getFileName(), (System.nanoTime() - inicio) / 1_000_000);
+
+            List<Path> existentes = instantaneos();
+            for (int i = 0; i < existentes.size() - retidos; i++) {
+                Files.deleteIfExists(existentes.get(i));
+            }
+            // Os segmentos só são descartados até o snapshot mais antigo ainda retido
+            diario.descartarAte(sequenciaDe(instantaneos().get(0)));
+            return destino;
+        } finally {
+            emGeracao.unlock();
+        }
+    }
+
+    public void agendar(Duration intervalo) {
+        agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "gerador-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleWithFixedDelay(() -> {
+            try {
+                gerar();
+            } catch (IOException | RuntimeException e) {
+                log.error("Falha ao gerar snapshot", e);
+            }
+        }, intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+        }
+    }
+
+    private List<Path> instantaneos() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos
+                    .filter(p -> p.getFileName().toString().startsWith(PREFIXO) && p.getFileName().toString().endsWith(SUFIXO))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long sequenciaDe(Path instantaneo) {
+        String nome = instantaneo.getFileName().toString();
+        return Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - SUFIXO.length()));
+    }
+}
@@ -0,0 +1,127 @@
+package com.banco.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.banco.domain.Conta;
+import com.banco.domain.ContaCorrente;
+import com.banco.domain.ContaInvestimento;
+import com.banco.domain.ContaPoupanca;
+import com.banco.domain.TabelaSaldos;
+import com.banco.domain.TipoInvestimento;
+
+/**
+ * Totais do banco mantidos a cada mutação, para que o painel e as estatísticas
+ * não precisem percorrer as contas. O BancoService chama estes métodos sob a
+ * trava da conta alterada; contas diferentes atualizam em paralelo, por isso
+ * os contadores são LongAdder. Uma leitura pode ver uma transferência pela metade.
+ *
+ * <p>A versão das coleções é incrementada depois de cada alteração de cliente ou
+ * conta e nunca diminui, nem quando a recuperação limpa os totais.
+ */
+class AgregadosBanco {
+
+    private final LongAdder[] saldoPorTipo = novos(TabelaSaldos.INVESTIMENTO + 1);
+    private final LongAdder contasAtivas = new LongAdder();
+    private final LongAdder limiteChequeEspecial = new LongAdder();
+    private final LongAdder chequeEspecialUtilizado = new LongAdder();
+    private final LongAdder[] impostoPorTipo = novos(TipoInvestimento.values().length);
+    private final LongAdder versao = new LongAdder();
+
+    private static LongAdder[] novos(int quantidade) {
+        LongAdder[] contadores = new LongAdder[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            contadores[i] = new LongAdder();
+        }
+        return contadores;
+    }
+
+    void clienteRegistrado() {
+        versao.increment();
+    }
+
+    void contaRegistrada(Conta conta) {
+        versao.increment();
+        if (conta.isAtiva()) {
+            contasAtivas.increment();
+            if (conta instanceof ContaCorrente) {
+                limiteChequeEspecial.add(((ContaCorrente) conta).limiteChequeEspecialEmCentavos());
+            }
+        }
+        saldoAlterado(conta, 0);
+    }
+
+    void saldoAlterado(Conta conta, long saldoAnterior) {
+        variacao(conta, saldoAnterior, conta.saldoEmCentavos());
+    }
+
+    // A conta deixa os totais como se o saldo fosse a zero (ver BancoService.removerConta)
+    void contaRemovida(Conta conta) {
+        if (conta.isAtiva()) {
+            contaEncerrada(conta);
+        }
+        variacao(conta, conta.saldoEmCentavos(), 0);
+        versao.increment();
+    }
+
+    private void variacao(Conta conta, long saldoAnterior, long saldo) {
+        if (saldo == saldoAnterior) {
+            return;
+        }
+        versao.increment();
+        if (conta instanceof ContaCorrente) {
+            saldoPorTipo[TabelaSaldos.CORRENTE].add(saldo - saldoAnterior);
+            long variacaoUtilizado = Math.max(0, -saldo) - Math.max(0, -saldoAnterior);
+            if (variacaoUtilizado != 0) {
+                chequeEspecialUtilizado.add(variacaoUtilizado);
+            }
+        } else if (conta instanceof ContaPoupanca) {
+            saldoPorTipo[TabelaSaldos.POUPANCA].add(saldo - saldoAnterior);
+        } else if (conta instanceof ContaInvestimento) {
+            ContaInvestimento investimento = (ContaInvestimento) conta;
+            saldoPorTipo[TabelaSaldos.INVESTIMENTO].add(saldo - saldoAnterior);
+            impostoPorTipo[investimento.getTipo().ordinal()]
+                    .add(investimento.impostoCentavos(saldo) - investimento.impostoCentavos(saldoAnterior));
+        }
+    }
+
+    void contaEncerrada(Conta conta) {
+        versao.increment();
+        contasAtivas.decrement();
+        if (conta instanceof ContaCorrente) {
+            limiteChequeEspecial.add(-((ContaCorrente) conta).limiteChequeEspecialEmCentavos());
+        }
+    }
+
+    void limpar() {
+        for (LongAdder contador : saldoPorTipo) {
+            contador.reset();
+        }
+        for (LongAdder contador : impostoPorTipo) {
+            contador.reset();
+        }
+        contasAtivas.reset();
+        limiteChequeEspecial.reset();
+        chequeEspecialUtilizado.reset();
+        versao.increment();
+    }
+
+    long versao() {
+        return versao.sum();
+    }
+
+    long saldoTotal(int tipo) {
+        return saldoPorTipo[tipo].sum();
+    }
+
+    EstatisticasBanco estatisticas(int clientes, int contas) {
+        Map<TipoInvestimento, Long> imposto = new EnumMap<>(TipoInvestimento.class);
+        for (TipoInvestimento tipo : TipoInvestimento.values()) {
+            imposto.put(tipo, impostoPorTipo[tipo.ordinal()].sum());
+        }
+        return new EstatisticasBanco(clientes, contas, contasAtivas.sum(),
+                saldoTotal(TabelaSaldos.CORRENTE), saldoTotal(TabelaSaldos.POUPANCA), saldoTotal(TabelaSaldos.INVESTIMENTO),
+                limiteChequeEspecial.sum(), chequeEspecialUtilizado.sum(), imposto);
+    }
+}
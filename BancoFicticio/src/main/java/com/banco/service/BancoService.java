@@ -2,20 +2,37 @@ package com.banco.service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.banco.domain.Centavos;
 import com.banco.domain.Cliente;
 import com.banco.domain.Conta;
 import com.banco.domain.ContaCorrente;
 import com.banco.domain.ContaInvestimento;
 import com.banco.domain.ContaPoupanca;
+import com.banco.domain.Cpf;
+import com.banco.domain.Extrato;
+import com.banco.domain.LancamentoExtrato;
+import com.banco.domain.ResultadoOperacao;
+import com.banco.domain.TabelaSaldos;
+import com.banco.domain.TabelaSaldosNoHeap;
 import com.banco.domain.TipoInvestimento;
+import com.banco.domain.TipoLancamento;
 import com.banco.domain.Tributavel;
 import com.banco.exception.OperacaoInvalidaException;
 import com.banco.exception.RecursoNaoEncontradoException;
@@ -23,84 +40,349 @@ import com.banco.exception.RecursoNaoEncontradoException;
 @Service
 public class BancoService {
 
-    private final Map<String, Cliente> clientes = new HashMap<>();
-    private final Map<String, Conta> contas = new HashMap<>();
+    public static final int CAPACIDADE_EXTRATO = 32;
+    // Com o limite, até a transferência (dois números e três valores) cabe num registro do diário
+    public static final int TAMANHO_MAXIMO_NUMERO = 64;
+    // Cabe com folga num registro do diário, ao lado do número da conta
+    private static final int TAMANHO_MAXIMO_CHAVE = 128;
+
+    // Os índices são concorrentes; mutações de saldo e estado de cada conta
+    // acontecem sob a trava da sua faixa em TravasContas, escolhida pelo id da conta.
+    private final IndiceClientes clientes = new IndiceClientes();
+    private final TabelaContas contas = new TabelaContas();
+    // Cópias ordenadas por CPF e por número, usadas pela paginação e pelas listagens em fluxo
+    private final ConcurrentNavigableMap<Long, Cliente> clientesPorCpf = new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<String, Conta> contasPorNumero = new ConcurrentSkipListMap<>();
+    private final TravasContas travas = new TravasContas();
+    private final IndiceContas indice = new IndiceContas();
+    // Totais do painel, atualizados a cada mutação sob a trava da conta
+    private final AgregadosBanco agregados = new AgregadosBanco();
+    // Chaves dos passos de transferências entre nós já aplicados, com a sequência do diário
+    // (0 depois de uma recuperação). Vão no registro do lançamento e nos snapshots e não expiram
+    private final ConcurrentHashMap<String, Long> passosAplicados = new ConcurrentHashMap<>();
+    private final String epoca = Long.toString(System.currentTimeMillis(), 36);
+    // Saldo, situação e tipo de todas as contas, indexados pela posição de cada uma
+    private final TabelaSaldos saldos;
+    private final DiarioOperacoes diario;
+    private final MetricasOperacoes metricas;
+    // Lançamentos guardados no extrato de cada conta (0 desliga o extrato)
+    private final int capacidadeExtrato;
+
+    public BancoService() {
+        this(DiarioOperacoes.NENHUM);
+    }
+
+    @Autowired
+    public BancoService(Optional<DiarioOperacoes> diario, Optional<MetricasOperacoes> metricas,
+                        Optional<TabelaSaldos> saldos,
+                        @Value("${banco.extrato.capacidade:" + CAPACIDADE_EXTRATO + "}") int capacidadeExtrato) {
+        this(diario.orElse(DiarioOperacoes.NENHUM), metricas.orElse(MetricasOperacoes.NENHUMA),
+                saldos.orElseGet(TabelaSaldosNoHeap::new), capacidadeExtrato);
+    }
+
+    public BancoService(DiarioOperacoes diario) {
+        this(diario, MetricasOperacoes.NENHUMA);
+    }
+
+    public BancoService(DiarioOperacoes diario, MetricasOperacoes metricas) {
+        this(diario, metricas, new TabelaSaldosNoHeap());
+    }
+
+    public BancoService(DiarioOperacoes diario, MetricasOperacoes metricas, TabelaSaldos saldos) {
+        this(diario, metricas, saldos, CAPACIDADE_EXTRATO);
+    }
+
+    public BancoService(DiarioOperacoes diario, MetricasOperacoes metricas, TabelaSaldos saldos, int capacidadeExtrato) {
+        if (capacidadeExtrato < 0) {
+            throw new IllegalArgumentException("Capacidade do extrato não pode ser negativa");
+        }
+        this.diario = diario;
+        this.metricas = metricas;
+        this.saldos = saldos;
+        this.capacidadeExtrato = capacidadeExtrato;
+    }
 
     // Métodos para gerenciar clientes
     public Cliente criarCliente(String nome, String cpf, LocalDate dataNascimento) {
-        if (clientes.containsKey(cpf)) {
-            throw new OperacaoInvalidaException("Cliente com CPF " + cpf + " já existe");
+        long inicio = metricas.iniciar();
+        try {
+            if (!Cpf.valido(Cpf.normalizar(cpf))) {
+                throw new OperacaoInvalidaException("CPF inválido: " + cpf);
+            }
+            Cliente cliente = new Cliente(nome, cpf, dataNascimento);
+            diario.tornarDuravel(registrarCliente(cliente));
+            metricas.sucesso(OperacaoBancaria.CRIAR_CLIENTE, inicio);
+            return cliente;
+        } catch (RuntimeException e) {
+            metricas.falha(OperacaoBancaria.CRIAR_CLIENTE, inicio, e);
+            throw e;
         }
+    }
 
-        Cliente cliente = new Cliente(nome, cpf, dataNascimento);
-        clientes.put(cpf, cliente);
-        return cliente;
+    // Publica o cliente sem esperar o diário; devolve a sequência do registro (ver ImportacaoService)
+    long registrarCliente(Cliente cliente) {
+        long cpf = cliente.cpfNumerico();
+        if (!Cpf.valido(cpf)) {
+            throw new OperacaoInvalidaException("CPF inválido: " + cliente.getCpfFormatado());
+        }
+        long sequencia;
+        // Publicação e registro no diário acontecem sob a mesma trava: quem
+        // depende do cliente espera a trava e só registra depois dele, e tudo
+        // que já está no diário já está visível no mapa (ver Instantaneo)
+        ReentrantLock trava = travas.trava(cpf);
+        trava.lock();
+        try {
+            if (clientes.adicionarSeAusente(cliente) != null) {
+                throw new OperacaoInvalidaException("Cliente com CPF " + cliente.getCpfFormatado() + " já existe");
+            }
+            try {
+                sequencia = diario.clienteCriado(cliente);
+            } catch (RuntimeException e) {
+                clientes.remover(cliente);
+                throw e;
+            }
+            clientesPorCpf.put(cpf, cliente);
+            agregados.clienteRegistrado();
+        } finally {
+            trava.unlock();
+        }
+        return sequencia;
     }
 
     public List<Cliente> listarClientes() {
-        return new ArrayList<>(clientes.values());
+        return clientes.listar();
+    }
+
+    public int quantidadeClientes() {
+        return clientes.tamanho();
+    }
+
+    // O cursor é o CPF do último cliente da página anterior, com ou sem pontuação
+    public Pagina<Cliente> listarClientes(String cursor, int limite) {
+        Long depoisDe = null;
+        if (cursor != null) {
+            depoisDe = Cpf.normalizar(cursor);
+            if (depoisDe == Cpf.INVALIDO) {
+                throw new IllegalArgumentException("Cursor inválido: " + cursor);
+            }
+        }
+        return paginar(clientesPorCpf, depoisDe, limite, Cpf::texto);
     }
 
+    // Aceita o CPF com ou sem pontuação; a busca não aloca
     public Cliente buscarClientePorCpf(String cpf) {
-        Cliente cliente = clientes.get(cpf);
+        Cliente cliente = buscarClienteOuNulo(cpf);
         if (cliente == null) {
             throw new RecursoNaoEncontradoException("Cliente com CPF " + cpf + " não encontrado");
         }
         return cliente;
     }
 
-    // Métodos para gerenciar contas
-    public ContaCorrente criarContaCorrente(String numero, String cpfCliente, BigDecimal limiteChequeEspecial) {
-        Cliente cliente = buscarClientePorCpf(cpfCliente);
+    // Sem exceção para o cliente ausente (usado pela importação, que adia a conta)
+    Cliente buscarClienteOuNulo(String cpf) {
+        long chave = Cpf.normalizar(cpf);
+        return chave == Cpf.INVALIDO ? null : clientes.buscar(chave);
+    }
 
-        if (contas.containsKey(numero)) {
-            throw new OperacaoInvalidaException("Conta com número " + numero + " já existe");
+    // Antes de qualquer alteração: um registro que não coubesse no diário deixaria a memória
+    // diferente dele
+    static void validarNumeroConta(String numero) {
+        if (numero == null || numero.isBlank() || numero.length() > TAMANHO_MAXIMO_NUMERO) {
+            throw new OperacaoInvalidaException("Número da conta deve ter de 1 a " + TAMANHO_MAXIMO_NUMERO + " caracteres");
         }
+    }
 
-        ContaCorrente conta = new ContaCorrente(numero, cliente, limiteChequeEspecial);
-        contas.put(numero, conta);
-        cliente.adicionarConta(conta);
-        return conta;
+    boolean contaExiste(String numero) {
+        return contas.buscar(numero) != null;
+    }
+
+    // Métodos para gerenciar contas
+    public ContaCorrente criarContaCorrente(String numero, String cpfCliente, BigDecimal limiteChequeEspecial) {
+        long inicio = metricas.iniciar();
+        try {
+            validarNumeroConta(numero);
+            Cliente cliente = buscarClientePorCpf(cpfCliente);
+            ContaCorrente conta = new ContaCorrente(numero, cliente, limiteChequeEspecial, saldos);
+            diario.tornarDuravel(registrarConta(conta));
+            metricas.sucesso(OperacaoBancaria.CRIAR_CONTA, inicio);
+            return conta;
+        } catch (RuntimeException e) {
+            metricas.falha(OperacaoBancaria.CRIAR_CONTA, inicio, e);
+            throw e;
+        }
     }
 
     public ContaPoupanca criarContaPoupanca(String numero, String cpfCliente) {
-        Cliente cliente = buscarClientePorCpf(cpfCliente);
+        long inicio = metricas.iniciar();
+        try {
+            validarNumeroConta(numero);
+            Cliente cliente = buscarClientePorCpf(cpfCliente);
+            ContaPoupanca conta = new ContaPoupanca(numero, cliente, saldos);
+            diario.tornarDuravel(registrarConta(conta));
+            metricas.sucesso(OperacaoBancaria.CRIAR_CONTA, inicio);
+            return conta;
+        } catch (RuntimeException e) {
+            metricas.falha(OperacaoBancaria.CRIAR_CONTA, inicio, e);
+            throw e;
+        }
+    }
 
-        if (contas.containsKey(numero)) {
-            throw new OperacaoInvalidaException("Conta com número " + numero + " já existe");
+    public ContaInvestimento criarContaInvestimento(String numero, String cpfCliente, TipoInvestimento tipo) {
+        long inicio = metricas.iniciar();
+        try {
+            validarNumeroConta(numero);
+            Cliente cliente = buscarClientePorCpf(cpfCliente);
+            ContaInvestimento conta = new ContaInvestimento(numero, cliente, tipo, saldos);
+            diario.tornarDuravel(registrarConta(conta));
+            metricas.sucesso(OperacaoBancaria.CRIAR_CONTA, inicio);
+            return conta;
+        } catch (RuntimeException e) {
+            metricas.falha(OperacaoBancaria.CRIAR_CONTA, inicio, e);
+            throw e;
         }
+    }
 
-        ContaPoupanca conta = new ContaPoupanca(numero, cliente);
-        contas.put(numero, conta);
-        cliente.adicionarConta(conta);
-        return conta;
+    // Publica a conta sem esperar o diário; devolve a sequência do registro. A conta
+    // deve ter sido criada sobre tabelaSaldos()
+    long registrarConta(Conta conta) {
+        // Garante que o registro de criação do titular já foi gravado no diário
+        ReentrantLock travaTitular = travas.trava(conta.getTitular().cpfNumerico());
+        travaTitular.lock();
+        travaTitular.unlock();
+
+        long sequencia;
+        ReentrantLock trava = trava(conta);
+        trava.lock();
+        try {
+            if (contas.adicionarSeAusente(conta) != null) {
+                saldos.liberar(conta.posicao());
+                throw new OperacaoInvalidaException("Conta com número " + conta.getNumero() + " já existe");
+            }
+            try {
+                sequencia = diario.contaCriada(conta);
+            } catch (RuntimeException e) {
+                contas.remover(conta);
+                saldos.liberar(conta.posicao());
+                throw e;
+            }
+            conta.getTitular().adicionarConta(conta);
+            contasPorNumero.put(conta.getNumero(), conta);
+            indice.adicionar(conta);
+            agregados.contaRegistrada(conta);
+        } finally {
+            trava.unlock();
+        }
+        return sequencia;
     }
 
-    public ContaInvestimento criarContaInvestimento(String numero, String cpfCliente, TipoInvestimento tipo) {
-        Cliente cliente = buscarClientePorCpf(cpfCliente);
+    public List<Conta> listarContas() {
+        return contas.listar();
+    }
 
-        if (contas.containsKey(numero)) {
-            throw new OperacaoInvalidaException("Conta com número " + numero + " já existe");
+    public int quantidadeContas() {
+        return contas.tamanho();
+    }
+
+    // Tabela onde a recuperação cria as contas antes de restaurá-las
+    public TabelaSaldos tabelaSaldos() {
+        return saldos;
+    }
+
+    // Soma dos saldos de um tipo (TabelaSaldos.CORRENTE, POUPANCA ou INVESTIMENTO), mantida a cada mutação
+    public long saldoTotalCentavos(int tipo) {
+        return agregados.saldoTotal(tipo);
+    }
+
+    // Totais do banco em tempo constante, sem percorrer clientes nem contas
+    public EstatisticasBanco estatisticas() {
+        return agregados.estatisticas(clientes.tamanho(), contas.tamanho());
+    }
+
+    // ETags para GET condicional. As versões só crescem dentro de um processo; o prefixo
+    // da época evita que uma ETag de antes de um reinício coincida com uma versão nova.
+    // Devem ser lidas antes do estado que descrevem.
+    public String etagConta(Conta conta) {
+        return epoca + "-" + conta.versao();
+    }
+
+    // Lista de contas de um cliente: a versão do cliente muda quando uma conta entra
+    // ou sai e a soma das versões das contas muda quando qualquer saldo muda
+    public String etagContasCliente(String cpf) {
+        Cliente cliente = buscarClientePorCpf(cpf);
+        long versaoContas = 0;
+        for (Conta conta : cliente.getContas()) {
+            versaoContas += conta.versao();
         }
+        return epoca + "-" + cliente.versao() + "." + versaoContas;
+    }
 
-        ContaInvestimento conta = new ContaInvestimento(numero, cliente, tipo);
-        contas.put(numero, conta);
-        cliente.adicionarConta(conta);
-        return conta;
+    // Qualquer alteração de cliente ou conta muda a versão das listagens
+    public String etagColecoes() {
+        return epoca + "-" + agregados.versao();
     }
 
-    public List<Conta> listarContas() {
-        return new ArrayList<>(contas.values());
+    public Pagina<Conta> listarContas(String cursor, int limite) {
+        return paginar(contasPorNumero, cursor, limite, Function.identity());
+    }
+
+    // Percorrem em ordem de CPF / número sem copiar: a memória não depende do total
+    public Iterable<Cliente> percorrerClientesPorCpf() {
+        return Collections.unmodifiableCollection(clientesPorCpf.values());
+    }
+
+    public Iterable<Conta> percorrerContasPorNumero() {
+        return Collections.unmodifiableCollection(contasPorNumero.values());
+    }
+
+    private static <K, T> Pagina<T> paginar(ConcurrentNavigableMap<K, T> ordenados, K cursor, int limite,
+                                            Function<K, String> textoCursor) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("Limite deve ser maior que zero");
+        }
+        Map<K, T> restantes = cursor == null ? ordenados : ordenados.tailMap(cursor, false);
+        List<T> itens = new ArrayList<>(Math.min(limite, 256));
+        K ultimaChave = null;
+        for (Map.Entry<K, T> entrada : restantes.entrySet()) {
+            if (itens.size() == limite) {
+                return new Pagina<>(itens, textoCursor.apply(ultimaChave));
+            }
+            itens.add(entrada.getValue());
+            ultimaChave = entrada.getKey();
+        }
+        return new Pagina<>(itens, null);
     }
 
+    // O número só é usado para achar o id; daí em diante a conta é acessada pelo id
     public Conta buscarContaPorNumero(String numero) {
-        Conta conta = contas.get(numero);
+        Conta conta = contas.buscar(numero);
         if (conta == null) {
             throw new RecursoNaoEncontradoException("Conta com número " + numero + " não encontrada");
         }
         return conta;
     }
 
+    // CPF do titular, ou null se a conta não existir (sem lançar exceção)
+    public String cpfTitular(String numero) {
+        Conta conta = contas.buscar(numero);
+        return conta == null ? null : conta.getTitular().getCpf();
+    }
+
+    // Últimos lançamentos da conta, do mais recente para o mais antigo
+    public List<LancamentoExtrato> extrato(String numeroConta, int limite) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("Limite deve ser maior que zero");
+        }
+        Conta conta = buscarContaPorNumero(numeroConta);
+        ReentrantLock trava = trava(conta);
+        trava.lock();
+        try {
+            Extrato extrato = conta.extrato();
+            return extrato == null ? List.of() : extrato.recentes(limite);
+        } finally {
+            trava.unlock();
+        }
+    }
+
     public List<Conta> buscarContasPorCliente(String cpf) {
         Cliente cliente = buscarClientePorCpf(cpf);
         return cliente.getContas();
@@ -108,21 +390,51 @@ public class BancoService {
 
     // Métodos para operações bancárias
     public void depositar(String numeroConta, BigDecimal valor) {
-        Conta conta = buscarContaPorNumero(numeroConta);
-        conta.depositar(valor);
+        long inicio = metricas.iniciar();
+        try {
+            diario.tornarDuravel(lancarDeposito(numeroConta, valor));
+            metricas.sucesso(OperacaoBancaria.DEPOSITO, inicio);
+        } catch (RuntimeException e) {
+            metricas.falha(OperacaoBancaria.DEPOSITO, inicio, e);
+            throw e;
+        }
+    }
+
+    // Os métodos lancar* aplicam e registram a operação sem esperar o diário ficar
+    // durável; quem chama decide quando esperar (ver OperacoesLoteService)
+    long lancarDeposito(String numeroConta, BigDecimal valor) {
+        return lancarOuLancarExcecao(TipoLancamento.DEPOSITO, numeroConta, valor);
     }
 
     public void sacar(String numeroConta, BigDecimal valor) {
-        Conta conta = buscarContaPorNumero(numeroConta);
-        conta.sacar(valor);
+        long inicio = metricas.iniciar();
+        try {
+            diario.tornarDuravel(lancarSaque(numeroConta, valor));
+            metricas.sucesso(OperacaoBancaria.SAQUE, inicio);
+        } catch (RuntimeException e) {
+            metricas.falha(OperacaoBancaria.SAQUE, inicio, e);
+            throw e;
+        }
     }
 
-    public void calcularRendimentoPoupanca(String numeroConta) {
-        Conta conta = buscarContaPorNumero(numeroConta);
-        if (!(conta instanceof ContaPoupanca)) {
-            throw new OperacaoInvalidaException("Apenas contas poupança podem calcular rendimentos");
+    long lancarSaque(String numeroConta, BigDecimal valor) {
+        return lancarOuLancarExcecao(TipoLancamento.SAQUE, numeroConta, valor);
+    }
+
+    // O rendimento avulso é o fechamento da competência só para esta poupança, com a mesma marca do lote
+    public void calcularRendimentoPoupanca(String numeroConta, YearMonth competencia) {
+        long inicio = metricas.iniciar();
+        try {
+            Conta conta = buscarContaPorNumero(numeroConta);
+            if (!(conta instanceof ContaPoupanca)) {
+                throw new OperacaoInvalidaException("Apenas contas poupança podem calcular rendimentos");
+            }
+            diario.tornarDuravel(fecharAvulsa(conta, competencia));
+            metricas.sucesso(OperacaoBancaria.RENDIMENTO, inicio);
+        } catch (RuntimeException e) {
+            metricas.falha(OperacaoBancaria.RENDIMENTO, inicio, e);
+            throw e;
         }
-        ((ContaPoupanca) conta).calcularRendimento();
     }
 
     public BigDecimal calcularImpostoInvestimento(String numeroConta) {
@@ -130,220 +442,659 @@ public class BancoService {
         if (!(conta instanceof Tributavel)) {
             throw new OperacaoInvalidaException("Esta conta não é tributável");
         }
-        return ((Tributavel) conta).calcularTributo();
+        return ((Tributavel) conta).calcularImposto();
     }
 
     public void investir(String numeroConta, BigDecimal valor) {
-        Conta conta = buscarContaPorNumero(numeroConta);
-        if (!(conta instanceof ContaInvestimento)) {
-            throw new OperacaoInvalidaException("Apenas contas de investimento podem realizar investimentos");
+        long inicio = metricas.iniciar();
+        try {
+            diario.tornarDuravel(lancarInvestimento(numeroConta, valor));
+            metricas.sucesso(OperacaoBancaria.INVESTIMENTO, inicio);
+        } catch (RuntimeException e) {
+            metricas.falha(OperacaoBancaria.INVESTIMENTO, inicio, e);
+            throw e;
         }
-        ((ContaInvestimento) conta).investir(valor);
+    }
+
+    long lancarInvestimento(String numeroConta, BigDecimal valor) {
+        return lancarOuLancarExcecao(TipoLancamento.INVESTIMENTO, numeroConta, valor);
     }
 
     public void resgatar(String numeroConta, BigDecimal valor) {
-        Conta conta = buscarContaPorNumero(numeroConta);
-        if (!(conta instanceof ContaInvestimento)) {
-            throw new OperacaoInvalidaException("Apenas contas de investimento podem realizar resgates");
+        long inicio = metricas.iniciar();
+        try {
+            diario.tornarDuravel(lancarResgate(numeroConta, valor));
+            metricas.sucesso(OperacaoBancaria.RESGATE, inicio);
+        } catch (RuntimeException e) {
+            metricas.falha(OperacaoBancaria.RESGATE, inicio, e);
+            throw e;
         }
-        ((ContaInvestimento) conta).resgatar(valor);
     }
 
-    public void calcularTarifasMensais() {
-        contas.values().forEach(Conta::calcularTarifaMensal);
+    long lancarResgate(String numeroConta, BigDecimal valor) {
+        return lancarOuLancarExcecao(TipoLancamento.RESGATE, numeroConta, valor);
     }
 
-    // Métodos auxiliares
-    public void encerrarConta(String numeroConta) {
-        Conta conta = buscarContaPorNumero(numeroConta);
-        if (conta.getSaldo().compareTo(BigDecimal.ZERO) > 0) {
-            throw new OperacaoInvalidaException("Não é possível encerrar uma conta com saldo positivo");
+    // API sem exceções para recusas esperadas: saldo insuficiente, valor inválido e conta
+    // encerrada voltam como ResultadoOperacao, sem alocar. Conta inexistente ou de tipo
+    // errado para a operação continuam sendo exceções.
+    public ResultadoOperacao tentarDepositar(String numeroConta, BigDecimal valor) {
+        return tentar(OperacaoBancaria.DEPOSITO, TipoLancamento.DEPOSITO, numeroConta, valor);
+    }
+
+    public ResultadoOperacao tentarSacar(String numeroConta, BigDecimal valor) {
+        return tentar(OperacaoBancaria.SAQUE, TipoLancamento.SAQUE, numeroConta, valor);
+    }
+
+    public ResultadoOperacao tentarInvestir(String numeroConta, BigDecimal valor) {
+        return tentar(OperacaoBancaria.INVESTIMENTO, TipoLancamento.INVESTIMENTO, numeroConta, valor);
+    }
+
+    public ResultadoOperacao tentarResgatar(String numeroConta, BigDecimal valor) {
+        return tentar(OperacaoBancaria.RESGATE, TipoLancamento.RESGATE, numeroConta, valor);
+    }
+
+    public ResultadoOperacao tentarTransferir(String numeroOrigem, String numeroDestino, BigDecimal valor) {
+        long inicio = metricas.iniciar();
+        try {
+            long lancamento = lancarTransferenciaOuRecusar(numeroOrigem, numeroDestino, valor);
+            return concluir(OperacaoBancaria.TRANSFERENCIA, inicio, lancamento);
+        } catch (RuntimeException e) {
+            metricas.falha(OperacaoBancaria.TRANSFERENCIA, inicio, e);
+            throw e;
         }
-        conta.setAtiva(false);
     }
 
-    public List<Conta> buscarContasAtivas() {
-        return contas.values().stream()
-                .filter(Conta::isAtiva)
-                .collect(Collectors.toList());
+    // Saque ou depósito de um passo de transferência entre nós (ver com.banco.particao). A chave
+    // vai no mesmo registro do diário que o saldo; repetida, mesmo depois de um reinício, devolve
+    // OK sem mover dinheiro, esperando o registro original ficar durável
+    public ResultadoOperacao tentarPasso(String chave, TipoLancamento tipo, String numeroConta, BigDecimal valor) {
+        if (tipo != TipoLancamento.DEPOSITO && tipo != TipoLancamento.SAQUE) {
+            throw new OperacaoInvalidaException("Passo de transferência deve ser depósito ou saque");
+        }
+        if (chave == null || chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new OperacaoInvalidaException("Chave de idempotência inválida para o passo de transferência");
+        }
+        OperacaoBancaria operacao = tipo == TipoLancamento.DEPOSITO ? OperacaoBancaria.DEPOSITO : OperacaoBancaria.SAQUE;
+        long inicio = metricas.iniciar();
+        try {
+            return concluir(operacao, inicio, lancarOuRecusar(tipo, numeroConta, valor, chave));
+        } catch (RuntimeException e) {
+            metricas.falha(operacao, inicio, e);
+            throw e;
+        }
     }
-}
-package com.banco.service;
 
-import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+    private ResultadoOperacao tentar(OperacaoBancaria operacao, TipoLancamento tipo, String numeroConta, BigDecimal valor) {
+        long inicio = metricas.iniciar();
+        try {
+            return concluir(operacao, inicio, lancarOuRecusar(tipo, numeroConta, valor));
+        } catch (RuntimeException e) {
+            metricas.falha(operacao, inicio, e);
+            throw e;
+        }
+    }
 
-import org.springframework.stereotype.Service;
+    private ResultadoOperacao concluir(OperacaoBancaria operacao, long inicio, long lancamento) {
+        if (lancamento < 0) {
+            ResultadoOperacao resultado = resultado(lancamento);
+            metricas.recusa(operacao, inicio, resultado);
+            return resultado;
+        }
+        diario.tornarDuravel(lancamento);
+        metricas.sucesso(operacao, inicio);
+        return ResultadoOperacao.OK;
+    }
 
-import com.banco.domain.Cliente;
-import com.banco.domain.Conta;
-import com.banco.domain.ContaCorrente;
-import com.banco.domain.ContaInvestimento;
-import com.banco.domain.ContaPoupanca;
-import com.banco.domain.TipoInvestimento;
-import com.banco.domain.Tributavel;
-import com.banco.exception.OperacaoInvalidaException;
-import com.banco.exception.RecursoNaoEncontradoException;
+    // Sequência do diário (>= 0) ou, se a operação foi recusada, o resultado codificado
+    // como número negativo: o caminho da recusa não cria objeto algum
+    private static long recusa(ResultadoOperacao resultado) {
+        return -resultado.ordinal();
+    }
 
-@Service
-public class BancoService {
+    static ResultadoOperacao resultado(long lancamento) {
+        return lancamento >= 0 ? ResultadoOperacao.OK : RESULTADOS[(int) -lancamento];
+    }
 
-    private final Map<String, Cliente> clientes = new HashMap<>();
-    private final Map<String, Conta> contas = new HashMap<>();
+    private static final ResultadoOperacao[] RESULTADOS = ResultadoOperacao.values();
 
-    // Métodos para gerenciar clientes
-    public Cliente criarCliente(String nome, String cpf, LocalDate dataNascimento) {
-        if (clientes.containsKey(cpf)) {
-            throw new OperacaoInvalidaException("Cliente com CPF " + cpf + " já existe");
+    // Depósito, saque, investimento ou resgate; devolve a sequência ou a recusa (ver recusa)
+    long lancarOuRecusar(TipoLancamento tipo, String numeroConta, BigDecimal valor) {
+        return lancarOuRecusar(tipo, numeroConta, valor, null);
+    }
+
+    private long lancarOuRecusar(TipoLancamento tipo, String numeroConta, BigDecimal valor, String chave) {
+        Conta conta = buscarContaPorNumero(numeroConta);
+        if (tipo == TipoLancamento.INVESTIMENTO && !(conta instanceof ContaInvestimento)) {
+            throw new OperacaoInvalidaException("Apenas contas de investimento podem realizar investimentos");
         }
+        if (tipo == TipoLancamento.RESGATE && !(conta instanceof ContaInvestimento)) {
+            throw new OperacaoInvalidaException("Apenas contas de investimento podem realizar resgates");
+        }
+        if (valor == null || valor.signum() <= 0) {
+            return recusa(ResultadoOperacao.VALOR_INVALIDO);
+        }
+        long valorCentavos = Centavos.de(valor);
+        ReentrantLock trava = trava(conta);
+        trava.lock();
+        try {
+            Long aplicado = chave == null ? null : passosAplicados.get(chave);
+            if (aplicado != null) {
+                return aplicado;
+            }
+            if (!conta.isAtiva()) {
+                return recusa(ResultadoOperacao.CONTA_INATIVA);
+            }
+            long saldoAnterior = conta.saldoEmCentavos();
+            ResultadoOperacao resultado = tipo == TipoLancamento.DEPOSITO || tipo == TipoLancamento.INVESTIMENTO
+                    ? conta.tentarDepositarCentavos(valorCentavos)
+                    : conta.tentarSacarCentavos(valorCentavos);
+            if (resultado != ResultadoOperacao.OK) {
+                return recusa(resultado);
+            }
+            return registrarLancamento(tipo, conta, saldoAnterior, chave);
+        } finally {
+            trava.unlock();
+        }
+    }
 
-        Cliente cliente = new Cliente(nome, cpf, dataNascimento);
-        clientes.put(cpf, cliente);
-        return cliente;
+    // A API que lança exceções é a mesma operação, com a recusa convertida em exceção
+    private long lancarOuLancarExcecao(TipoLancamento tipo, String numeroConta, BigDecimal valor) {
+        long lancamento = lancarOuRecusar(tipo, numeroConta, valor);
+        if (lancamento < 0) {
+            throw excecao(resultado(lancamento), tipo, buscarContaPorNumero(numeroConta), valor);
+        }
+        return lancamento;
     }
 
-    public List<Cliente> listarClientes() {
-        return new ArrayList<>(clientes.values());
+    private static RuntimeException excecao(ResultadoOperacao resultado, TipoLancamento tipo, Conta conta, BigDecimal valor) {
+        return switch (resultado) {
+            case VALOR_INVALIDO -> new IllegalArgumentException("Valor do " + switch (tipo) {
+                case DEPOSITO -> "depósito";
+                case SAQUE -> "saque";
+                case INVESTIMENTO -> "investimento";
+                case RESGATE -> "resgate";
+                default -> "lançamento";
+            } + " deve ser maior que zero");
+            case SALDO_INSUFICIENTE -> conta.saldoInsuficiente(Centavos.de(valor));
+            case CONTA_INATIVA -> new OperacaoInvalidaException("Conta " + conta.getNumero() + " está encerrada");
+            default -> new IllegalStateException("Resultado sem exceção: " + resultado);
+        };
     }
 
-    public Cliente buscarClientePorCpf(String cpf) {
-        Cliente cliente = clientes.get(cpf);
-        if (cliente == null) {
-            throw new RecursoNaoEncontradoException("Cliente com CPF " + cpf + " não encontrado");
+    public void transferir(String numeroOrigem, String numeroDestino, BigDecimal valor) {
+        long inicio = metricas.iniciar();
+        try {
+            diario.tornarDuravel(lancarTransferencia(numeroOrigem, numeroDestino, valor));
+            metricas.sucesso(OperacaoBancaria.TRANSFERENCIA, inicio);
+        } catch (RuntimeException e) {
+            metricas.falha(OperacaoBancaria.TRANSFERENCIA, inicio, e);
+            throw e;
         }
-        return cliente;
     }
 
-    // Métodos para gerenciar contas
-    public ContaCorrente criarContaCorrente(String numero, String cpfCliente, BigDecimal limiteChequeEspecial) {
-        Cliente cliente = buscarClientePorCpf(cpfCliente);
+    long lancarTransferencia(String numeroOrigem, String numeroDestino, BigDecimal valor) {
+        long lancamento = lancarTransferenciaOuRecusar(numeroOrigem, numeroDestino, valor);
+        if (lancamento < 0) {
+            throw switch (resultado(lancamento)) {
+                case VALOR_INVALIDO -> new IllegalArgumentException("Valor da transferência deve ser maior que zero");
+                case CONTA_INATIVA -> new OperacaoInvalidaException("Transferências só podem envolver contas ativas");
+                default -> buscarContaPorNumero(numeroOrigem).saldoInsuficiente(Centavos.de(valor));
+            };
+        }
+        return lancamento;
+    }
 
-        if (contas.containsKey(numero)) {
-            throw new OperacaoInvalidaException("Conta com número " + numero + " já existe");
+    private long lancarTransferenciaOuRecusar(String numeroOrigem, String numeroDestino, BigDecimal valor) {
+        if (numeroOrigem.equals(numeroDestino)) {
+            throw new OperacaoInvalidaException("Origem e destino da transferência devem ser contas diferentes");
+        }
+        Conta origem = buscarContaPorNumero(numeroOrigem);
+        Conta destino = buscarContaPorNumero(numeroDestino);
+        if (valor == null || valor.signum() <= 0) {
+            return recusa(ResultadoOperacao.VALOR_INVALIDO);
+        }
+        long valorCentavos = Centavos.de(valor);
+
+        // As duas travas são sempre adquiridas em ordem crescente de índice, então
+        // transferências em sentidos opostos não entram em deadlock; contas na
+        // mesma faixa usam uma única trava
+        int indiceOrigem = travas.indiceConta(origem.posicao());
+        int indiceDestino = travas.indiceConta(destino.posicao());
+        ReentrantLock primeira = travas.travaNoIndice(Math.min(indiceOrigem, indiceDestino));
+        ReentrantLock segunda = travas.travaNoIndice(Math.max(indiceOrigem, indiceDestino));
+        primeira.lock();
+        try {
+            if (segunda != primeira) {
+                segunda.lock();
+            }
+            try {
+                if (!origem.isAtiva() || !destino.isAtiva()) {
+                    return recusa(ResultadoOperacao.CONTA_INATIVA);
+                }
+                long saldoOrigem = origem.saldoEmCentavos();
+                long saldoDestino = destino.saldoEmCentavos();
+                ResultadoOperacao resultado = origem.tentarSacarCentavos(valorCentavos);
+                if (resultado != ResultadoOperacao.OK) {
+                    return recusa(resultado);
+                }
+                try {
+                    destino.depositarCentavos(valorCentavos);
+                } catch (RuntimeException e) {
+                    origem.restaurarSaldoCentavos(saldoOrigem);
+                    throw e;
+                }
+                agregados.saldoAlterado(origem, saldoOrigem);
+                agregados.saldoAlterado(destino, saldoDestino);
+                long agora = System.currentTimeMillis();
+                registrarNoExtrato(origem, TipoLancamento.TRANSFERENCIA_ENVIADA, -valorCentavos, agora);
+                registrarNoExtrato(destino, TipoLancamento.TRANSFERENCIA_RECEBIDA, valorCentavos, agora);
+                return diario.transferencia(origem, destino, valorCentavos);
+            } finally {
+                if (segunda != primeira) {
+                    segunda.unlock();
+                }
+            }
+        } finally {
+            primeira.unlock();
         }
+    }
 
-        ContaCorrente conta = new ContaCorrente(numero, cliente, limiteChequeEspecial);
-        contas.put(numero, conta);
-        cliente.adicionarConta(conta);
-        return conta;
+    // Fecha a competência de uma única conta, fora do lote mensal; recusado se ela já está fechada
+    public void fecharConta(String numeroConta, YearMonth competencia) {
+        long inicio = metricas.iniciar();
+        try {
+            diario.tornarDuravel(fecharAvulsa(buscarContaPorNumero(numeroConta), competencia));
+            metricas.sucesso(OperacaoBancaria.FECHAMENTO_CONTA, inicio);
+        } catch (RuntimeException e) {
+            metricas.falha(OperacaoBancaria.FECHAMENTO_CONTA, inicio, e);
+            throw e;
+        }
     }
 
-    public ContaPoupanca criarContaPoupanca(String numero, String cpfCliente) {
-        Cliente cliente = buscarClientePorCpf(cpfCliente);
+    private long fecharAvulsa(Conta conta, YearMonth competencia) {
+        TotaisFatia totais = new TotaisFatia();
+        long sequencia = aplicarFechamentoMensal(conta, PlanoFechamento.codigo(competencia),
+                PlanoFechamento.criadaAntesDe(competencia), totais);
+        if (totais.jaAplicadas() > 0) {
+            throw new OperacaoInvalidaException("Conta " + conta.getNumero() + " já fechada em " + competencia);
+        }
+        if (totais.aplicadas() == 0) {
+            throw new OperacaoInvalidaException("Conta " + conta.getNumero() + " encerrada ou aberta depois de " + competencia);
+        }
+        return sequencia;
+    }
 
-        if (contas.containsKey(numero)) {
-            throw new OperacaoInvalidaException("Conta com número " + numero + " já existe");
+    // Fechamento de uma conta numa competência (aaaamm), usado pelo fechamento mensal em lote:
+    // rendimento da poupança, tarifa e apuração do imposto sob a trava da conta, com a marca
+    // da competência gravada no mesmo registro do diário que o saldo. Uma conta já marcada,
+    // encerrada ou aberta a partir de criadaAntesDe (segundos UTC) não é tocada. A durabilidade
+    // fica a cargo do chamador, que espera uma vez por fatia em vez de uma vez por conta.
+    long aplicarFechamentoMensal(Conta conta, int competencia, long criadaAntesDe, TotaisFatia totais) {
+        ReentrantLock trava = trava(conta);
+        trava.lock();
+        try {
+            if (conta.ultimoFechamento() >= competencia) {
+                totais.jaAplicada();
+                return 0;
+            }
+            if (!conta.isAtiva() || conta.dataCriacaoEpochSegundos() >= criadaAntesDe) {
+                totais.ignorada();
+                return 0;
+            }
+            long saldoInicial = conta.saldoEmCentavos();
+            long agora = System.currentTimeMillis();
+            long inicio = System.nanoTime();
+            long rendimento = 0;
+            if (conta instanceof ContaPoupanca) {
+                ((ContaPoupanca) conta).calcularRendimento();
+                rendimento = conta.saldoEmCentavos() - saldoInicial;
+                long fim = System.nanoTime();
+                totais.estagio(EstagioFechamento.RENDIMENTO, rendimento, fim - inicio);
+                inicio = fim;
+            }
+            long saldoAntesTarifa = conta.saldoEmCentavos();
+            conta.calcularTarifaMensal();
+            long tarifa = saldoAntesTarifa - conta.saldoEmCentavos();
+            long fim = System.nanoTime();
+            totais.estagio(EstagioFechamento.TARIFA, tarifa, fim - inicio);
+            if (conta instanceof Tributavel) {
+                long imposto = ((Tributavel) conta).impostoCentavos(conta.saldoEmCentavos());
+                totais.estagio(EstagioFechamento.IMPOSTO, imposto, System.nanoTime() - fim);
+            }
+
+            conta.registrarFechamento(competencia);
+            agregados.saldoAlterado(conta, saldoInicial);
+            if (rendimento != 0) {
+                registrarNoExtrato(conta, TipoLancamento.RENDIMENTO, rendimento, agora);
+            }
+            if (tarifa != 0) {
+                registrarNoExtrato(conta, TipoLancamento.TARIFA, -tarifa, agora);
+            }
+            totais.aplicada();
+            return diario.fechamentoMensal(conta, competencia, rendimento, tarifa);
+        } finally {
+            trava.unlock();
         }
+    }
 
-        ContaPoupanca conta = new ContaPoupanca(numero, cliente);
-        contas.put(numero, conta);
-        cliente.adicionarConta(conta);
-        return conta;
+    // Primeiro número de cada fatia de até contasPorFatia contas, em ordem; a primeira começa em ""
+    List<String> limitesPorNumero(int contasPorFatia) {
+        List<String> limites = new ArrayList<>();
+        limites.add("");
+        int naFatia = 0;
+        for (String numero : contasPorNumero.keySet()) {
+            if (naFatia == contasPorFatia) {
+                limites.add(numero);
+                naFatia = 0;
+            }
+            naFatia++;
+        }
+        return limites;
     }
 
-    public ContaInvestimento criarContaInvestimento(String numero, String cpfCliente, TipoInvestimento tipo) {
-        Cliente cliente = buscarClientePorCpf(cpfCliente);
+    // Contas com número em [de, ate), em ordem; ate null vai até o fim
+    Iterable<Conta> percorrerContasPorNumero(String de, String ate) {
+        ConcurrentNavigableMap<String, Conta> faixa = ate == null
+                ? contasPorNumero.tailMap(de, true)
+                : contasPorNumero.subMap(de, true, ate, false);
+        return Collections.unmodifiableCollection(faixa.values());
+    }
+
+    void tornarDuravel(long sequencia) {
+        diario.tornarDuravel(sequencia);
+    }
+
+    Conta[] instantaneoContas() {
+        return contas.listar().toArray(new Conta[0]);
+    }
+
+    // Percorre o estado atual sem bloquear escritas (usado pelos snapshots)
+    public Iterable<Cliente> percorrerClientes() {
+        return clientes;
+    }
 
-        if (contas.containsKey(numero)) {
-            throw new OperacaoInvalidaException("Conta com número " + numero + " já existe");
+    public Iterable<Conta> percorrerContas() {
+        return contas::iterator;
+    }
+
+    public Iterable<String> percorrerPassosAplicados() {
+        return passosAplicados.keySet();
+    }
+
+    /**
+     * Esquece as chaves de passos cujas transferências o roteador já deu por terminadas;
+     * devolve quantas existiam. Cada uma sai do mapa antes do registro no diário, pelo mesmo
+     * motivo que entra antes: um snapshot que cubra o registro já não a inclui.
+     */
+    public int esquecerPassos(Collection<String> chaves) {
+        int esquecidos = 0;
+        long ultimaSequencia = 0;
+        for (String chave : chaves) {
+            if (passosAplicados.remove(chave) != null) {
+                ultimaSequencia = diario.passoEsquecido(chave);
+                esquecidos++;
+            }
         }
+        diario.tornarDuravel(ultimaSequencia);
+        return esquecidos;
+    }
 
-        ContaInvestimento conta = new ContaInvestimento(numero, cliente, tipo);
-        contas.put(numero, conta);
-        cliente.adicionarConta(conta);
-        return conta;
+    private ReentrantLock trava(Conta conta) {
+        return travas.travaConta(conta.posicao());
     }
 
-    public List<Conta> listarContas() {
-        return new ArrayList<>(contas.values());
+    private long registrarLancamento(TipoLancamento tipo, Conta conta, long saldoAnterior) {
+        return registrarLancamento(tipo, conta, saldoAnterior, null);
     }
 
-    public Conta buscarContaPorNumero(String numero) {
-        Conta conta = contas.get(numero);
-        if (conta == null) {
-            throw new RecursoNaoEncontradoException("Conta com número " + numero + " não encontrada");
+    private long registrarLancamento(TipoLancamento tipo, Conta conta, long saldoAnterior, String chave) {
+        long variacao = conta.saldoEmCentavos() - saldoAnterior;
+        if (variacao == 0) {
+            return 0;
         }
-        return conta;
+        agregados.saldoAlterado(conta, saldoAnterior);
+        registrarNoExtrato(conta, tipo, variacao, System.currentTimeMillis());
+        if (chave == null) {
+            return diario.lancamento(tipo, conta, variacao);
+        }
+        // Como o saldo, a chave entra antes do registro: um snapshot que cubra o registro a inclui
+        passosAplicados.put(chave, 0L);
+        long sequencia = diario.passoTransferencia(tipo, conta, variacao, chave);
+        passosAplicados.put(chave, sequencia);
+        return sequencia;
     }
 
-    public List<Conta> buscarContasPorCliente(String cpf) {
-        Cliente cliente = buscarClientePorCpf(cpf);
-        return cliente.getContas();
+    // Chamado sob a trava da conta; a recuperação não passa por aqui, então o extrato
+    // começa vazio depois de um reinício
+    private void registrarNoExtrato(Conta conta, TipoLancamento tipo, long variacao, long instanteMillis) {
+        if (capacidadeExtrato > 0) {
+            conta.abrirExtrato(capacidadeExtrato).registrar(tipo, variacao, conta.saldoEmCentavos(), instanteMillis);
+        }
     }
 
-    // Métodos para operações bancárias
-    public void depositar(String numeroConta, BigDecimal valor) {
-        Conta conta = buscarContaPorNumero(numeroConta);
-        conta.depositar(valor);
+    // Métodos auxiliares
+    public void encerrarConta(String numeroConta) {
+        long inicio = metricas.iniciar();
+        try {
+            diario.tornarDuravel(lancarEncerramento(numeroConta));
+            metricas.sucesso(OperacaoBancaria.ENCERRAR_CONTA, inicio);
+        } catch (RuntimeException e) {
+            metricas.falha(OperacaoBancaria.ENCERRAR_CONTA, inicio, e);
+            throw e;
+        }
     }
 
-    public void sacar(String numeroConta, BigDecimal valor) {
+    private long lancarEncerramento(String numeroConta) {
         Conta conta = buscarContaPorNumero(numeroConta);
-        conta.sacar(valor);
+        ReentrantLock trava = trava(conta);
+        trava.lock();
+        try {
+            if (conta.saldoEmCentavos() > 0) {
+                throw new OperacaoInvalidaException("Não é possível encerrar uma conta com saldo positivo");
+            }
+            if (conta.isAtiva()) {
+                agregados.contaEncerrada(conta);
+            }
+            conta.setAtiva(false);
+            indice.remover(conta);
+            return diario.contaEncerrada(conta);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    // Particionamento (ver com.banco.particao): cliente e conta chegam de outro nó com o
+    // estado completo e passam pelo diário como qualquer criação
+    public Cliente receberCliente(Cliente cliente) {
+        Cliente existente = clientes.buscar(cliente.cpfNumerico());
+        if (existente != null) {
+            return existente;
+        }
+        diario.tornarDuravel(registrarCliente(cliente));
+        return cliente;
+    }
+
+    // A conta deve ter sido criada sobre tabelaSaldos(). Se o número já existe aqui (cópia
+    // de uma migração interrompida), o estado recebido substitui o local
+    public void receberConta(Conta recebida, long saldoCentavos, boolean ativa, int ultimoFechamento) {
+        Conta conta = contas.buscar(recebida.getNumero());
+        long sequencia = 0;
+        if (conta == null) {
+            sequencia = registrarConta(recebida);
+            conta = recebida;
+        } else {
+            saldos.liberar(recebida.posicao());
+        }
+        ReentrantLock trava = trava(conta);
+        trava.lock();
+        try {
+            long saldoAnterior = conta.saldoEmCentavos();
+            if (saldoCentavos != saldoAnterior) {
+                long variacao = saldoCentavos - saldoAnterior;
+                conta.restaurarSaldoCentavos(saldoCentavos);
+                agregados.saldoAlterado(conta, saldoAnterior);
+                sequencia = diario.lancamento(variacao > 0 ? TipoLancamento.DEPOSITO : TipoLancamento.SAQUE, conta, variacao);
+            }
+            if (ultimoFechamento > conta.ultimoFechamento()) {
+                conta.registrarFechamento(ultimoFechamento);
+                sequencia = diario.fechamentoMensal(conta, ultimoFechamento, 0, 0);
+            }
+            if (!ativa && conta.isAtiva()) {
+                agregados.contaEncerrada(conta);
+                conta.setAtiva(false);
+                indice.remover(conta);
+                sequencia = diario.contaEncerrada(conta);
+            }
+        } finally {
+            trava.unlock();
+        }
+        diario.tornarDuravel(sequencia);
     }
 
-    public void calcularRendimentoPoupanca(String numeroConta) {
+    // Tira a conta deste nó depois que ela foi copiada para o dono novo. O titular fica,
+    // mesmo sem contas aqui; a posição na tabela de saldos não é reaproveitada
+    public void removerConta(String numeroConta) {
         Conta conta = buscarContaPorNumero(numeroConta);
-        if (!(conta instanceof ContaPoupanca)) {
-            throw new OperacaoInvalidaException("Apenas contas poupança podem calcular rendimentos");
+        long sequencia;
+        ReentrantLock trava = trava(conta);
+        trava.lock();
+        try {
+            sequencia = diario.contaRemovida(conta);
+            desvincular(conta);
+        } finally {
+            trava.unlock();
         }
-        ((ContaPoupanca) conta).calcularRendimento();
+        diario.tornarDuravel(sequencia);
     }
 
-    public BigDecimal calcularImpostoInvestimento(String numeroConta) {
+    private void desvincular(Conta conta) {
+        if (contas.remover(conta)) {
+            contasPorNumero.remove(conta.getNumero(), conta);
+            conta.getTitular().removerConta(conta);
+            indice.remover(conta);
+            agregados.contaRemovida(conta);
+        }
+    }
+
+    // Métodos de recuperação: reaplicam estado vindo do diário sem registrá-lo de novo
+    public void restaurarCliente(Cliente cliente) {
+        if (clientes.adicionarSeAusente(cliente) == null) {
+            clientesPorCpf.put(cliente.cpfNumerico(), cliente);
+            agregados.clienteRegistrado();
+        }
+    }
+
+    public void restaurarConta(Conta conta) {
+        conta.vincular(saldos);
+        Conta existente = contas.adicionarSeAusente(conta);
+        if (existente == null) {
+            conta.getTitular().adicionarConta(conta);
+            contasPorNumero.put(conta.getNumero(), conta);
+            indice.adicionar(conta);
+            agregados.contaRegistrada(conta);
+        } else if (existente != conta) {
+            saldos.liberar(conta.posicao());
+        }
+    }
+
+    // Descarta o estado parcialmente restaurado de um snapshot inválido
+    public void limparParaRecuperacao() {
+        contas.limpar();
+        clientes.limpar();
+        contasPorNumero.clear();
+        clientesPorCpf.clear();
+        indice.limpar();
+        saldos.limpar();
+        agregados.limpar();
+        passosAplicados.clear();
+    }
+
+    public void restaurarSaldo(String numeroConta, long saldoCentavos) {
         Conta conta = buscarContaPorNumero(numeroConta);
-        if (!(conta instanceof Tributavel)) {
-            throw new OperacaoInvalidaException("Esta conta não é tributável");
+        ReentrantLock trava = trava(conta);
+        trava.lock();
+        try {
+            long saldoAnterior = conta.saldoEmCentavos();
+            conta.restaurarSaldoCentavos(saldoCentavos);
+            agregados.saldoAlterado(conta, saldoAnterior);
+        } finally {
+            trava.unlock();
         }
-        return ((Tributavel) conta).calcularTributo();
     }
 
-    public void investir(String numeroConta, BigDecimal valor) {
+    public void restaurarFechamento(String numeroConta, int competencia, long saldoCentavos) {
         Conta conta = buscarContaPorNumero(numeroConta);
-        if (!(conta instanceof ContaInvestimento)) {
-            throw new OperacaoInvalidaException("Apenas contas de investimento podem realizar investimentos");
+        ReentrantLock trava = trava(conta);
+        trava.lock();
+        try {
+            long saldoAnterior = conta.saldoEmCentavos();
+            conta.restaurarSaldoCentavos(saldoCentavos);
+            conta.registrarFechamento(competencia);
+            agregados.saldoAlterado(conta, saldoAnterior);
+        } finally {
+            trava.unlock();
         }
-        ((ContaInvestimento) conta).investir(valor);
     }
 
-    public void resgatar(String numeroConta, BigDecimal valor) {
+    public void restaurarEncerramento(String numeroConta) {
         Conta conta = buscarContaPorNumero(numeroConta);
-        if (!(conta instanceof ContaInvestimento)) {
-            throw new OperacaoInvalidaException("Apenas contas de investimento podem realizar resgates");
+        ReentrantLock trava = trava(conta);
+        trava.lock();
+        try {
+            if (conta.isAtiva()) {
+                agregados.contaEncerrada(conta);
+            }
+            conta.setAtiva(false);
+            indice.remover(conta);
+        } finally {
+            trava.unlock();
         }
-        ((ContaInvestimento) conta).resgatar(valor);
     }
 
-    public void calcularTarifasMensais() {
-        contas.values().forEach(Conta::calcularTarifaMensal);
+    // A sequência original já está durável: a repetição não precisa esperar
+    public void restaurarPasso(String chave) {
+        passosAplicados.put(chave, 0L);
     }
 
-    // Métodos auxiliares
-    public void encerrarConta(String numeroConta) {
-        Conta conta = buscarContaPorNumero(numeroConta);
-        if (conta.getSaldo().compareTo(BigDecimal.ZERO) > 0) {
-            throw new OperacaoInvalidaException("Não é possível encerrar uma conta com saldo positivo");
+    public void restaurarPassoEsquecido(String chave) {
+        passosAplicados.remove(chave);
+    }
+
+    public void restaurarRemocao(String numeroConta) {
+        Conta conta = contas.buscar(numeroConta);
+        if (conta != null) {
+            desvincular(conta);
         }
-        conta.setAtiva(false);
     }
 
     public List<Conta> buscarContasAtivas() {
-        return contas.values().stream()
-                .filter(Conta::isAtiva)
-                .collect(Collectors.toList());
+        return indice.ativas();
+    }
+
+    // Consultas por tipo: devolvem apenas contas ativas, a partir dos índices
+    public List<ContaCorrente> buscarContasCorrente() {
+        return indice.correntes();
+    }
+
+    public List<ContaPoupanca> buscarContasPoupanca() {
+        return indice.poupancas();
+    }
+
+    public List<ContaInvestimento> buscarContasInvestimento() {
+        return indice.investimentos();
+    }
+
+    public List<ContaInvestimento> buscarContasInvestimento(TipoInvestimento tipo) {
+        return indice.investimentos(tipo);
     }
 
     // Método para inicialização de dados de exemplo
     public void inicializarDadosExemplo() {
         // Criar alguns clientes
-        Cliente joao = criarCliente("João Silva", "12345678900", LocalDate.of(1980, 5, 15));
+        Cliente joao = criarCliente("João Silva", "12345678909", LocalDate.of(1980, 5, 15));
         Cliente maria = criarCliente("Maria Oliveira", "98765432100", LocalDate.of(1990, 10, 20));
-        Cliente pedro = criarCliente("Pedro Santos", "45678912300", LocalDate.of(1985, 3, 8));
+        Cliente pedro = criarCliente("Pedro Santos", "45678912364", LocalDate.of(1985, 3, 8));
 
         // Criar algumas contas
         criarContaCorrente("CC-001", joao.getCpf(), new BigDecimal("1000.00"));
@@ -366,4 +1117,3 @@ public class BancoService {
         investir("CI-002", new BigDecimal("4000.00"));
     }
 }
-}
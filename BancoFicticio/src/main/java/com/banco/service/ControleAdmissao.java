@@ -0,0 +1,222 @@
+package com.banco.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.banco.exception.LimiteRequisicoesException;
+
+/**
+ * Controle de admissão das requisições da API: limite de taxa por número de conta e por
+ * CPF do cliente, e um teto global de requisições simultâneas.
+ *
+ * <p>Cada limite de taxa é um balde de fichas no formato GCRA: por chave guarda-se só o
+ * instante teórico de chegada da próxima requisição ({@code tat}) num {@link AtomicLong}.
+ * Admitir é um CAS que avança esse instante de um intervalo; a requisição é recusada se
+ * ele já estiver mais de {@code (rajada - 1)} intervalos no futuro. Chaves cujo instante
+ * já passou têm o balde cheio e equivalem a chaves ausentes, então são descartadas
+ * quando o mapa passa de {@code chavesMaximas}.
+ *
+ * <p>O teto global é um {@link Semaphore}: se houver vaga ela é tomada sem bloquear;
+ * senão a requisição espera no máximo {@code esperaMaxima} e é recusada em seguida,
+ * em vez de ficar na fila do servidor. A vaga é tomada antes das fichas, e uma recusa
+ * devolve o que já tinha sido consumido: requisição recusada não gasta o limite de ninguém.
+ */
+@Service
+public class ControleAdmissao {
+
+    private final boolean habilitado;
+    private final Balde porConta;
+    private final Balde porCliente;
+    private final Semaphore vagas;
+    private final long esperaMaximaNanos;
+    private final LongSupplier relogio;
+
+    @Autowired
+    public ControleAdmissao(@Value("${banco.admissao.habilitado:true}") boolean habilitado,
+                            @Value("${banco.admissao.conta.taxa:100}") double taxaConta,
+                            @Value("${banco.admissao.conta.rajada:200}") int rajadaConta,
+                            @Value("${banco.admissao.cliente.taxa:200}") double taxaCliente,
+                            @Value("${banco.admissao.cliente.rajada:400}") int rajadaCliente,
+                            @Value("${banco.admissao.concorrencia-maxima:256}") int concorrenciaMaxima,
+                            @Value("${banco.admissao.espera-maxima:PT0.02S}") Duration esperaMaxima,
+                            @Value("${banco.admissao.chaves-maximas:100000}") int chavesMaximas) {
+        this(habilitado, taxaConta, rajadaConta, taxaCliente, rajadaCliente, concorrenciaMaxima,
+                esperaMaxima, chavesMaximas, System::nanoTime);
+    }
+
+    ControleAdmissao(boolean habilitado, double taxaConta, int rajadaConta, double taxaCliente, int rajadaCliente,
+                     int concorrenciaMaxima, Duration esperaMaxima, int chavesMaximas, LongSupplier relogio) {
+        if (concorrenciaMaxima <= 0) {
+            throw new IllegalArgumentException("Concorrência máxima deve ser maior que zero");
+        }
+        this.habilitado = habilitado;
+        this.porConta = new Balde("conta", taxaConta, rajadaConta, chavesMaximas);
+        this.porCliente = new Balde("cliente", taxaCliente, rajadaCliente, chavesMaximas);
+        this.vagas = new Semaphore(concorrenciaMaxima);
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+        this.relogio = relogio;
+    }
+
+    /**
+     * Ocupa uma vaga de concorrência e consome uma ficha da conta e do cliente (qualquer um
+     * pode ser nulo). Devolve {@code true} se ocupou a vaga, que deve então ser devolvida
+     * com {@link #liberar()}; lança {@link LimiteRequisicoesException} se recusar.
+     */
+    public boolean admitir(String numeroConta, String cpf) {
+        if (!habilitado) {
+            return false;
+        }
+        ocuparVaga();
+        try {
+            consumirFichas(numeroConta, cpf);
+        } catch (LimiteRequisicoesException e) {
+            vagas.release();
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Consome uma ficha da conta e do cliente sem ocupar vaga; usado por item nos lotes, que
+     * ocupam uma única vaga. Se o cliente recusar, a ficha da conta é devolvida.
+     */
+    public void consumirFichas(String numeroConta, String cpf) {
+        if (!habilitado) {
+            return;
+        }
+        long agora = relogio.getAsLong();
+        boolean contaConsumida = numeroConta != null && porConta.consumir(numeroConta, agora);
+        if (cpf != null) {
+            try {
+                porCliente.consumir(cpf, agora);
+            } catch (LimiteRequisicoesException e) {
+                if (contaConsumida) {
+                    porConta.devolver(numeroConta);
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void ocuparVaga() {
+        if (vagas.tryAcquire()) {
+            return;
+        }
+        try {
+            if (esperaMaximaNanos > 0 && vagas.tryAcquire(esperaMaximaNanos, TimeUnit.NANOSECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new LimiteRequisicoesException("Servidor sobrecarregado, tente novamente", 1);
+    }
+
+    public void liberar() {
+        vagas.release();
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    int vagasLivres() {
+        return vagas.availablePermits();
+    }
+
+    int chavesAcompanhadas() {
+        return porConta.fichas.size() + porCliente.fichas.size();
+    }
+
+    private static final class Balde {
+
+        // Valor de um balde retirado pela varredura: quem ainda o tiver busca ou cria outro no mapa
+        private static final long DESCARTADO = Long.MIN_VALUE;
+
+        private final String nome;
+        private final long intervaloNanos;
+        private final long toleranciaNanos;
+        private final int chavesMaximas;
+        private final ConcurrentHashMap<String, AtomicLong> fichas = new ConcurrentHashMap<>();
+        private final AtomicBoolean varrendo = new AtomicBoolean();
+
+        Balde(String nome, double taxa, int rajada, int chavesMaximas) {
+            if (taxa > 0 && rajada <= 0) {
+                throw new IllegalArgumentException("Rajada deve ser maior que zero");
+            }
+            this.nome = nome;
+            // Taxa zero ou negativa desliga o limite
+            this.intervaloNanos = taxa > 0 ? Math.max(1, Math.round(1e9 / taxa)) : 0;
+            this.toleranciaNanos = (rajada - 1L) * intervaloNanos;
+            this.chavesMaximas = chavesMaximas;
+        }
+
+        // Devolve false se o limite está desligado e nada foi consumido
+        boolean consumir(String chave, long agora) {
+            if (intervaloNanos == 0) {
+                return false;
+            }
+            AtomicLong tat = fichas.get(chave);
+            while (true) {
+                if (tat == null) {
+                    if (fichas.size() >= chavesMaximas) {
+                        varrer(agora);
+                    }
+                    tat = fichas.computeIfAbsent(chave, c -> new AtomicLong(agora));
+                }
+                long atual = tat.get();
+                if (atual == DESCARTADO) {
+                    fichas.remove(chave, tat);
+                    tat = null;
+                    continue;
+                }
+                long base = atual - agora > 0 ? atual : agora;
+                long adiantamento = base - agora;
+                if (adiantamento > toleranciaNanos) {
+                    long espera = adiantamento - toleranciaNanos;
+                    throw new LimiteRequisicoesException("Limite de requisições por " + nome + " excedido",
+                            Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + 999_999_999)));
+                }
+                if (tat.compareAndSet(atual, base + intervaloNanos)) {
+                    return true;
+                }
+            }
+        }
+
+        // Desfaz um consumo recusado por outro limite; se a chave foi descartada, o balde já está cheio
+        void devolver(String chave) {
+            AtomicLong tat = fichas.get(chave);
+            if (tat != null) {
+                tat.getAndUpdate(atual -> atual == DESCARTADO ? atual : atual - intervaloNanos);
+            }
+        }
+
+        // Uma thread por vez remove as chaves com o balde cheio; as demais seguem sem esperar
+        private void varrer(long agora) {
+            if (varrendo.compareAndSet(false, true)) {
+                try {
+                    for (Map.Entry<String, AtomicLong> entrada : fichas.entrySet()) {
+                        AtomicLong tat = entrada.getValue();
+                        long atual = tat.get();
+                        // O CAS falha se um consumo concorrente avançou o balde depois da leitura: ele fica
+                        if (atual != DESCARTADO && atual - agora <= 0 && tat.compareAndSet(atual, DESCARTADO)) {
+                            fichas.remove(entrada.getKey(), tat);
+                        }
+                    }
+                } finally {
+                    varrendo.set(false);
+                }
+            }
+        }
+    }
+}
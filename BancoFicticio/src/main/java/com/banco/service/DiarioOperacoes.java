@@ -0,0 +1,89 @@
+package com.banco.service;
+
+import com.banco.domain.Cliente;
+import com.banco.domain.Conta;
+import com.banco.domain.TipoLancamento;
+
+/**
+ * Ponto de extensão usado pelo BancoService para registrar cada mutação.
+ * Os métodos de registro são chamados sob a trava da conta (ou do CPF) e
+ * devolvem a sequência atribuída; {@link #tornarDuravel} é chamado depois
+ * que a trava é liberada, para que a espera pelo disco não segure a conta.
+ */
+public interface DiarioOperacoes {
+
+    DiarioOperacoes NENHUM = new DiarioOperacoes() {
+        @Override
+        public long clienteCriado(Cliente cliente) {
+            return 0;
+        }
+
+        @Override
+        public long contaCriada(Conta conta) {
+            return 0;
+        }
+
+        @Override
+        public long lancamento(TipoLancamento tipo, Conta conta, long valorCentavos) {
+            return 0;
+        }
+
+        @Override
+        public long passoTransferencia(TipoLancamento tipo, Conta conta, long valorCentavos, String chave) {
+            return 0;
+        }
+
+        @Override
+        public long passoEsquecido(String chave) {
+            return 0;
+        }
+
+        @Override
+        public long contaEncerrada(Conta conta) {
+            return 0;
+        }
+
+        @Override
+        public long contaRemovida(Conta conta) {
+            return 0;
+        }
+
+        @Override
+        public long transferencia(Conta origem, Conta destino, long valorCentavos) {
+            return 0;
+        }
+
+        @Override
+        public long fechamentoMensal(Conta conta, int competencia, long rendimentoCentavos, long tarifaCentavos) {
+            return 0;
+        }
+
+        @Override
+        public void tornarDuravel(long sequencia) {
+        }
+    };
+
+    long clienteCriado(Cliente cliente);
+
+    long contaCriada(Conta conta);
+
+    long lancamento(TipoLancamento tipo, Conta conta, long valorCentavos);
+
+    // Lançamento de um passo de transferência entre nós, com a chave de idempotência no mesmo registro
+    long passoTransferencia(TipoLancamento tipo, Conta conta, long valorCentavos, String chave);
+
+    // A chave de um passo cuja transferência o roteador já deu por terminada e esqueceu
+    long passoEsquecido(String chave);
+
+    long contaEncerrada(Conta conta);
+
+    // A conta passou para outro nó (ver com.banco.particao); não é um encerramento
+    long contaRemovida(Conta conta);
+
+    long transferencia(Conta origem, Conta destino, long valorCentavos);
+
+    // Rendimento, tarifa e a marca da competência (aaaamm) de uma conta num único registro
+    long fechamentoMensal(Conta conta, int competencia, long rendimentoCentavos, long tarifaCentavos);
+
+    void tornarDuravel(long sequencia);
+}
@@ -0,0 +1,13 @@
+package com.banco.service;
+
+/**
+ * Estágios do fechamento mensal, na ordem em que são aplicados a cada conta.
+ */
+public enum EstagioFechamento {
+    // Rendimento da poupança sobre o saldo do fim do mês
+    RENDIMENTO,
+    // Tarifa mensal de cada tipo de conta, sobre o saldo já com o rendimento
+    TARIFA,
+    // Imposto apurado sobre o saldo final das contas tributáveis; não é debitado
+    IMPOSTO
+}
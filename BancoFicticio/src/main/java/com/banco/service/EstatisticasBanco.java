@@ -0,0 +1,94 @@
+package com.banco.service;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.banco.domain.Centavos;
+import com.banco.domain.TipoInvestimento;
+
+/**
+ * Totais do banco no momento da consulta, lidos dos agregados mantidos pelo
+ * BancoService. Os saldos incluem contas encerradas; a quantidade de contas ativas,
+ * o limite de cheque especial concedido e o imposto devido por tipo de investimento
+ * são os que as contas teriam se fossem consultadas uma a uma.
+ */
+public class EstatisticasBanco {
+
+    private final int clientes;
+    private final int contas;
+    private final long contasAtivas;
+    private final long saldoCorrente;
+    private final long saldoPoupanca;
+    private final long saldoInvestimento;
+    private final long limiteChequeEspecial;
+    private final long chequeEspecialUtilizado;
+    private final Map<TipoInvestimento, Long> impostoPorTipo;
+
+    EstatisticasBanco(int clientes, int contas, long contasAtivas, long saldoCorrente, long saldoPoupanca,
+                      long saldoInvestimento, long limiteChequeEspecial, long chequeEspecialUtilizado,
+                      Map<TipoInvestimento, Long> impostoPorTipo) {
+        this.clientes = clientes;
+        this.contas = contas;
+        this.contasAtivas = contasAtivas;
+        this.saldoCorrente = saldoCorrente;
+        this.saldoPoupanca = saldoPoupanca;
+        this.saldoInvestimento = saldoInvestimento;
+        this.limiteChequeEspecial = limiteChequeEspecial;
+        this.chequeEspecialUtilizado = chequeEspecialUtilizado;
+        this.impostoPorTipo = impostoPorTipo;
+    }
+
+    public int getClientes() {
+        return clientes;
+    }
+
+    public int getContas() {
+        return contas;
+    }
+
+    public long getContasAtivas() {
+        return contasAtivas;
+    }
+
+    // Soma dos saldos de todas as contas: o total depositado no banco
+    public BigDecimal getTotalDepositos() {
+        return Centavos.paraBigDecimal(Centavos.somar(Centavos.somar(saldoCorrente, saldoPoupanca), saldoInvestimento));
+    }
+
+    public BigDecimal getSaldoContasCorrente() {
+        return Centavos.paraBigDecimal(saldoCorrente);
+    }
+
+    public BigDecimal getSaldoContasPoupanca() {
+        return Centavos.paraBigDecimal(saldoPoupanca);
+    }
+
+    public BigDecimal getSaldoContasInvestimento() {
+        return Centavos.paraBigDecimal(saldoInvestimento);
+    }
+
+    // Soma dos limites das contas corrente ativas: quanto o banco pode ter de emprestar
+    public BigDecimal getLimiteChequeEspecial() {
+        return Centavos.paraBigDecimal(limiteChequeEspecial);
+    }
+
+    // Soma dos saldos negativos das contas corrente
+    public BigDecimal getChequeEspecialUtilizado() {
+        return Centavos.paraBigDecimal(chequeEspecialUtilizado);
+    }
+
+    public Map<TipoInvestimento, BigDecimal> getImpostoPorTipo() {
+        Map<TipoInvestimento, BigDecimal> imposto = new EnumMap<>(TipoInvestimento.class);
+        impostoPorTipo.forEach((tipo, centavos) -> imposto.put(tipo, Centavos.paraBigDecimal(centavos)));
+        return imposto;
+    }
+
+    public BigDecimal getImpostoTotal() {
+        long total = 0;
+        for (long centavos : impostoPorTipo.values()) {
+            total = Centavos.somar(total, centavos);
+        }
+        return Centavos.paraBigDecimal(total);
+    }
+}
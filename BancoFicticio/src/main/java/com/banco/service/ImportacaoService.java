@@ -0,0 +1,459 @@
+package com.banco.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.banco.domain.Cliente;
+import com.banco.domain.Conta;
+import com.banco.domain.ContaCorrente;
+import com.banco.domain.ContaInvestimento;
+import com.banco.domain.ContaPoupanca;
+import com.banco.domain.TipoInvestimento;
+import com.banco.exception.OperacaoInvalidaException;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Importa clientes e contas em massa a partir de um arquivo CSV ou NDJSON lido em fluxo.
+ * Uma linha por registro; no CSV a primeira coluna é o tipo e as demais dependem dele:
+ *
+ * <pre>
+ * CLIENTE,cpf,nome,dataNascimento
+ * CORRENTE,numero,cpf,limiteChequeEspecial
+ * POUPANCA,numero,cpf
+ * INVESTIMENTO,numero,cpf,tipoInvestimento
+ * </pre>
+ *
+ * <p>No NDJSON cada linha é um objeto com {@code tipo} e os mesmos campos pelo nome.
+ * Campos do CSV podem vir entre aspas; uma linha de cabeçalho começando por {@code tipo}
+ * é ignorada.
+ *
+ * <p>A thread da requisição só separa as linhas em blocos; a leitura dos campos, a
+ * validação e o registro no BancoService rodam em paralelo, um bloco por tarefa. No
+ * máximo {@code blocosEmVoo} blocos ficam em memória, então a memória da importação não
+ * depende do tamanho do arquivo. CPFs e números repetidos (no arquivo ou já existentes)
+ * são recusados pelos próprios mapas do BancoService; entre linhas repetidas no arquivo
+ * fica a que for processada primeiro, não necessariamente a primeira. Linhas recusadas
+ * são relatadas na resposta sem interromper a importação. O diário é esperado uma vez por bloco.
+ *
+ * <p>Uma conta cujo titular ainda não existe é adiada para o fim do bloco e tentada de
+ * novo depois que todos os blocos anteriores terminaram a primeira passada, para que o
+ * cliente numa linha anterior, processado por outra tarefa, já esteja registrado.
+ */
+@Service
+public class ImportacaoService {
+
+    private final BancoService bancoService;
+    // Fila FIFO: quando um bloco espera pelos anteriores, todos eles já saíram da fila
+    private final ExecutorService executor;
+    private final int linhasPorBloco;
+    private final int blocosEmVoo;
+    private final JsonFactory json = new JsonFactory();
+
+    public enum Formato { CSV, NDJSON }
+
+    @Autowired
+    public ImportacaoService(BancoService bancoService,
+                             @Value("${banco.lote.paralelismo:0}") int paralelismo,
+                             @Value("${banco.importacao.linhas-por-bloco:4096}") int linhasPorBloco) {
+        if (linhasPorBloco <= 0) {
+            throw new IllegalArgumentException("O bloco precisa ter ao menos uma linha");
+        }
+        int threads = paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors();
+        AtomicInteger contador = new AtomicInteger();
+        this.bancoService = bancoService;
+        this.executor = Executors.newFixedThreadPool(threads, tarefa -> {
+            Thread thread = new Thread(tarefa, "importacao-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.linhasPorBloco = linhasPorBloco;
+        this.blocosEmVoo = threads * 2;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    public ResumoLote importar(InputStream entrada, Formato formato, OutputStream saida) throws IOException {
+        long inicio = System.nanoTime();
+        try (JsonGenerator gerador = json.createGenerator(saida, JsonEncoding.UTF8)) {
+            gerador.writeStartObject();
+            gerador.writeArrayFieldStart("rejeitadas");
+
+            Execucao execucao = new Execucao(formato, gerador);
+            BufferedReader leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8), 1 << 16);
+            try {
+                execucao.ler(leitor);
+            } finally {
+                // Espera os blocos já enviados mesmo se a leitura falhar
+                execucao.vagas.acquireUninterruptibly(blocosEmVoo);
+            }
+            if (execucao.falha != null) {
+                throw execucao.falha;
+            }
+
+            ResumoLote resumo = new ResumoLote(execucao.total.get(), execucao.importadas.get(), System.nanoTime() - inicio);
+            gerador.writeEndArray();
+            gerador.writeNumberField("total", resumo.getTotal());
+            gerador.writeNumberField("importadas", resumo.getSucesso());
+            gerador.writeNumberField("rejeitadasTotal", resumo.getFalhas());
+            gerador.writeNumberField("duracaoMs", resumo.getDuracaoMs());
+            gerador.writeNumberField("linhasPorSegundo", Math.round(resumo.getItensPorSegundo()));
+            gerador.writeEndObject();
+            return resumo;
+        }
+    }
+
+    // Estado de uma importação: compartilhado pelas tarefas dos blocos
+    private final class Execucao {
+
+        private final Formato formato;
+        private final JsonGenerator gerador;
+        private final Semaphore vagas = new Semaphore(blocosEmVoo);
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong importadas = new AtomicLong();
+        // Blocos que terminaram a primeira passada: todos abaixo de contiguos, mais os marcados
+        private final BitSet concluidos = new BitSet();
+        private int contiguos;
+        private volatile RuntimeException falha;
+
+        Execucao(Formato formato, JsonGenerator gerador) {
+            this.formato = formato;
+            this.gerador = gerador;
+        }
+
+        void ler(BufferedReader leitor) throws IOException {
+            List<String> linhas = new ArrayList<>(linhasPorBloco);
+            long primeiraLinha = 1;
+            long numeroLinha = 0;
+            int indiceBloco = 0;
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                numeroLinha++;
+                if (numeroLinha == 1 && formato == Formato.CSV && linha.regionMatches(true, 0, "tipo", 0, 4)) {
+                    primeiraLinha = 2;
+                    continue;
+                }
+                linhas.add(linha);
+                if (linhas.size() == linhasPorBloco) {
+                    enviar(new Bloco(indiceBloco++, primeiraLinha, linhas));
+                    linhas = new ArrayList<>(linhasPorBloco);
+                    primeiraLinha = numeroLinha + 1;
+                }
+            }
+            enviar(new Bloco(indiceBloco, primeiraLinha, linhas));
+        }
+
+        private void enviar(Bloco bloco) {
+            vagas.acquireUninterruptibly();
+            try {
+                executor.execute(() -> {
+                    try {
+                        bloco.processar(this);
+                    } catch (RuntimeException e) {
+                        falha = e;
+                        marcarConcluido(bloco.indice);
+                    } finally {
+                        vagas.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                vagas.release();
+                throw e;
+            }
+        }
+
+        synchronized void marcarConcluido(int indice) {
+            if (indice < contiguos || concluidos.get(indice)) {
+                return;
+            }
+            concluidos.set(indice);
+            while (concluidos.get(contiguos)) {
+                concluidos.clear(contiguos);
+                contiguos++;
+            }
+            notifyAll();
+        }
+
+        synchronized void aguardarAnteriores(int indice) {
+            boolean interrompida = false;
+            while (contiguos < indice) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrompida = true;
+                }
+            }
+            if (interrompida) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void rejeitar(long linha, String mensagem) {
+            synchronized (gerador) {
+                try {
+                    gerador.writeStartObject();
+                    gerador.writeNumberField("linha", linha);
+                    gerador.writeStringField("mensagem", mensagem);
+                    gerador.writeEndObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        void descarregar() {
+            synchronized (gerador) {
+                try {
+                    gerador.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    private final class Bloco {
+
+        private final int indice;
+        private final long primeiraLinha;
+        private final List<String> linhas;
+        private long ultimaSequencia;
+
+        Bloco(int indice, long primeiraLinha, List<String> linhas) {
+            this.indice = indice;
+            this.primeiraLinha = primeiraLinha;
+            this.linhas = linhas;
+        }
+
+        void processar(Execucao execucao) {
+            List<Registro> adiados = new ArrayList<>();
+            for (int i = 0; i < linhas.size(); i++) {
+                String texto = linhas.get(i);
+                if (texto.isBlank()) {
+                    continue;
+                }
+                long linha = primeiraLinha + i;
+                execucao.total.incrementAndGet();
+                try {
+                    Registro registro = execucao.formato == Formato.CSV ? lerCsv(texto) : lerNdjson(texto);
+                    if (!aplicar(registro, false)) {
+                        adiados.add(registro.naLinha(linha));
+                        continue;
+                    }
+                    execucao.importadas.incrementAndGet();
+                } catch (RuntimeException e) {
+                    execucao.rejeitar(linha, e.getMessage());
+                }
+            }
+            execucao.marcarConcluido(indice);
+            if (!adiados.isEmpty()) {
+                execucao.aguardarAnteriores(indice);
+                for (Registro registro : adiados) {
+                    try {
+                        aplicar(registro, true);
+                        execucao.importadas.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        execucao.rejeitar(registro.linha(), e.getMessage());
+                    }
+                }
+            }
+            bancoService.tornarDuravel(ultimaSequencia);
+            execucao.descarregar();
+        }
+
+        // Devolve false se a conta precisa ser adiada porque o titular ainda não existe
+        private boolean aplicar(Registro registro, boolean ultimaTentativa) {
+            if (registro.tipo().equals("CLIENTE")) {
+                String cpf = obrigatorio(registro.cpf(), "cpf");
+                String nome = obrigatorio(registro.nome(), "nome");
+                LocalDate dataNascimento;
+                try {
+                    dataNascimento = LocalDate.parse(obrigatorio(registro.dataNascimento(), "dataNascimento"));
+                } catch (DateTimeParseException e) {
+                    throw new OperacaoInvalidaException("Data de nascimento inválida: " + registro.dataNascimento());
+                }
+                ultimaSequencia = Math.max(ultimaSequencia, bancoService.registrarCliente(new Cliente(nome, cpf, dataNascimento)));
+                return true;
+            }
+            String numero = obrigatorio(registro.numero(), "numero");
+            String cpf = obrigatorio(registro.cpf(), "cpf");
+            BancoService.validarNumeroConta(numero);
+            // Linha repetida é recusada antes de alocar a posição do saldo, que não seria reaproveitada
+            if (bancoService.contaExiste(numero)) {
+                throw new OperacaoInvalidaException("Conta com número " + numero + " já existe");
+            }
+            Conta conta = switch (registro.tipo()) {
+                case "CORRENTE" -> {
+                    BigDecimal limite = registro.limite() == null || registro.limite().isBlank()
+                            ? BigDecimal.ZERO : numero(registro.limite());
+                    Cliente titular = titular(cpf, ultimaTentativa);
+                    yield titular == null ? null : new ContaCorrente(numero, titular, limite, bancoService.tabelaSaldos());
+                }
+                case "POUPANCA" -> {
+                    Cliente titular = titular(cpf, ultimaTentativa);
+                    yield titular == null ? null : new ContaPoupanca(numero, titular, bancoService.tabelaSaldos());
+                }
+                case "INVESTIMENTO" -> {
+                    TipoInvestimento tipo = tipoInvestimento(registro.tipoInvestimento());
+                    Cliente titular = titular(cpf, ultimaTentativa);
+                    yield titular == null ? null : new ContaInvestimento(numero, titular, tipo, bancoService.tabelaSaldos());
+                }
+                default -> throw new OperacaoInvalidaException("Tipo de registro desconhecido: " + registro.tipo());
+            };
+            if (conta == null) {
+                return false;
+            }
+            ultimaSequencia = Math.max(ultimaSequencia, bancoService.registrarConta(conta));
+            return true;
+        }
+
+        private Cliente titular(String cpf, boolean ultimaTentativa) {
+            Cliente cliente = bancoService.buscarClienteOuNulo(cpf);
+            if (cliente == null && ultimaTentativa) {
+                throw new OperacaoInvalidaException("Cliente com CPF " + cpf + " não encontrado");
+            }
+            return cliente;
+        }
+    }
+
+    private record Registro(String tipo, String cpf, String nome, String dataNascimento, String numero,
+                            String limite, String tipoInvestimento, long linha) {
+
+        Registro naLinha(long numeroLinha) {
+            return new Registro(tipo, cpf, nome, dataNascimento, numero, limite, tipoInvestimento, numeroLinha);
+        }
+    }
+
+    private static Registro lerCsv(String texto) {
+        List<String> campos = camposCsv(texto);
+        String tipo = campos.get(0).trim();
+        return switch (tipo) {
+            case "CLIENTE" -> new Registro(tipo, campo(campos, 1), campo(campos, 2), campo(campos, 3), null, null, null, 0);
+            case "CORRENTE" -> new Registro(tipo, campo(campos, 2), null, null, campo(campos, 1), campo(campos, 3), null, 0);
+            case "POUPANCA" -> new Registro(tipo, campo(campos, 2), null, null, campo(campos, 1), null, null, 0);
+            case "INVESTIMENTO" -> new Registro(tipo, campo(campos, 2), null, null, campo(campos, 1), null, campo(campos, 3), 0);
+            default -> throw new OperacaoInvalidaException("Tipo de registro desconhecido: " + tipo);
+        };
+    }
+
+    private static String campo(List<String> campos, int indice) {
+        return indice < campos.size() ? campos.get(indice).trim() : null;
+    }
+
+    // Campos separados por vírgula; aspas permitem vírgulas no campo e "" representa uma aspa
+    static List<String> camposCsv(String texto) {
+        List<String> campos = new ArrayList<>(4);
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (entreAspas) {
+                if (c != '"') {
+                    atual.append(c);
+                } else if (i + 1 < texto.length() && texto.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else {
+                    entreAspas = false;
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        if (entreAspas) {
+            throw new OperacaoInvalidaException("Aspas não fechadas na linha");
+        }
+        campos.add(atual.toString());
+        return campos;
+    }
+
+    private Registro lerNdjson(String texto) {
+        String tipo = null, cpf = null, nome = null, dataNascimento = null, numero = null, limite = null, tipoInvestimento = null;
+        try (JsonParser parser = json.createParser(texto)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new OperacaoInvalidaException("A linha deve ser um objeto JSON");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String nomeCampo = parser.currentName();
+                if (parser.nextToken().isStructStart()) {
+                    parser.skipChildren();
+                    continue;
+                }
+                String valor = parser.getValueAsString();
+                switch (nomeCampo) {
+                    case "tipo" -> tipo = valor;
+                    case "cpf" -> cpf = valor;
+                    case "nome" -> nome = valor;
+                    case "dataNascimento" -> dataNascimento = valor;
+                    case "numero" -> numero = valor;
+                    case "limiteChequeEspecial" -> limite = valor;
+                    case "tipoInvestimento" -> tipoInvestimento = valor;
+                    default -> { }
+                }
+            }
+        } catch (IOException e) {
+            throw new OperacaoInvalidaException("JSON inválido: " + e.getMessage().lines().findFirst().orElse(""));
+        }
+        return switch (obrigatorio(tipo, "tipo")) {
+            case "CLIENTE", "CORRENTE", "POUPANCA", "INVESTIMENTO" ->
+                    new Registro(tipo.trim(), cpf, nome, dataNascimento, numero, limite, tipoInvestimento, 0);
+            default -> throw new OperacaoInvalidaException("Tipo de registro desconhecido: " + tipo);
+        };
+    }
+
+    private static String obrigatorio(String valor, String nome) {
+        if (valor == null || valor.isBlank()) {
+            throw new OperacaoInvalidaException("Campo obrigatório ausente: " + nome);
+        }
+        return valor.trim();
+    }
+
+    private static BigDecimal numero(String valor) {
+        try {
+            return new BigDecimal(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new OperacaoInvalidaException("Valor inválido: " + valor);
+        }
+    }
+
+    private static TipoInvestimento tipoInvestimento(String valor) {
+        try {
+            return TipoInvestimento.valueOf(obrigatorio(valor, "tipoInvestimento"));
+        } catch (IllegalArgumentException e) {
+            throw new OperacaoInvalidaException("Tipo de investimento inválido: " + valor);
+        }
+    }
+}
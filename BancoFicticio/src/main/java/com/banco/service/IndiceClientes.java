@@ -0,0 +1,220 @@
+package com.banco.service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.banco.domain.Cliente;
+
+/**
+ * Clientes indexados pelo CPF normalizado ({@link Cliente#cpfNumerico}), em endereçamento
+ * aberto com sondagem linear sobre um {@code long[]} de chaves e um {@code Cliente[]}
+ * paralelo. Não há nó nem chave em objeto por cliente, e a busca não aloca.
+ *
+ * <p>Leituras não usam trava: a escrita grava o cliente antes da chave, ambos com
+ * semântica release, e a leitura lê a chave com acquire. Escritas (cadastro, desfazer
+ * um cadastro, limpar) são serializadas no próprio índice. Ao crescer, as chaves são
+ * copiadas para uma tabela nova publicada de uma vez; quem lia a antiga termina nela.
+ * Remover esvazia só o cliente e mantém a chave, que é reaproveitada se o mesmo CPF
+ * voltar; remoções só acontecem ao desfazer um cadastro que falhou no diário.
+ */
+class IndiceClientes implements Iterable<Cliente> {
+
+    private static final VarHandle CHAVES = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle CLIENTES = MethodHandles.arrayElementVarHandle(Cliente[].class);
+    // CPFs normalizados nunca são negativos
+    private static final long VAZIA = -1;
+    private static final int CAPACIDADE_INICIAL = 64;
+
+    private static final class Tabela {
+        final long[] chaves;
+        final Cliente[] clientes;
+        final int mascara;
+
+        Tabela(int capacidade) {
+            chaves = new long[capacidade];
+            Arrays.fill(chaves, VAZIA);
+            clientes = new Cliente[capacidade];
+            mascara = capacidade - 1;
+        }
+    }
+
+    // Serializa as escritas sem prender a thread virtual à portadora, como as travas de TravasContas
+    private final ReentrantLock trava = new ReentrantLock();
+    private volatile Tabela tabela = new Tabela(CAPACIDADE_INICIAL);
+    private volatile int tamanho;
+    // Posições com chave, incluindo as de clientes removidos; só muda sob a trava do índice
+    private int ocupadas;
+
+    Cliente buscar(long cpf) {
+        Tabela t = tabela;
+        for (int i = posicao(cpf, t.mascara); ; i = (i + 1) & t.mascara) {
+            long chave = (long) CHAVES.getAcquire(t.chaves, i);
+            if (chave == cpf) {
+                return (Cliente) CLIENTES.getAcquire(t.clientes, i);
+            }
+            if (chave == VAZIA) {
+                return null;
+            }
+        }
+    }
+
+    // Inclui o cliente se o CPF estiver livre; devolve o cliente já cadastrado, ou null
+    Cliente adicionarSeAusente(Cliente cliente) {
+        trava.lock();
+        try {
+            long cpf = cliente.cpfNumerico();
+            Tabela t = tabela;
+            int i = posicao(cpf, t.mascara);
+            while (true) {
+                long chave = t.chaves[i];
+                if (chave == cpf) {
+                    if (t.clientes[i] != null) {
+                        return t.clientes[i];
+                    }
+                    CLIENTES.setRelease(t.clientes, i, cliente);
+                    tamanho++;
+                    return null;
+                }
+                if (chave == VAZIA) {
+                    break;
+                }
+                i = (i + 1) & t.mascara;
+            }
+            // Ocupação máxima de metade das posições mantém as sondagens curtas
+            if ((ocupadas + 1) * 2 > t.chaves.length) {
+                t = crescer(t);
+                i = posicao(cpf, t.mascara);
+                while (t.chaves[i] != VAZIA) {
+                    i = (i + 1) & t.mascara;
+                }
+            }
+            CLIENTES.setRelease(t.clientes, i, cliente);
+            CHAVES.setRelease(t.chaves, i, cpf);
+            ocupadas++;
+            tamanho++;
+            return null;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    boolean remover(Cliente cliente) {
+        trava.lock();
+        try {
+            Tabela t = tabela;
+            long cpf = cliente.cpfNumerico();
+            for (int i = posicao(cpf, t.mascara); t.chaves[i] != VAZIA; i = (i + 1) & t.mascara) {
+                if (t.chaves[i] == cpf) {
+                    if (t.clientes[i] != cliente) {
+                        return false;
+                    }
+                    CLIENTES.setRelease(t.clientes, i, null);
+                    tamanho--;
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    void limpar() {
+        trava.lock();
+        try {
+            tabela = new Tabela(CAPACIDADE_INICIAL);
+            ocupadas = 0;
+            tamanho = 0;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    List<Cliente> listar() {
+        List<Cliente> lista = new ArrayList<>(tamanho);
+        for (Cliente cliente : this) {
+            lista.add(cliente);
+        }
+        return lista;
+    }
+
+    // Percorre a tabela vigente no início, como os iteradores dos mapas concorrentes:
+    // não lança ConcurrentModificationException e pode ou não ver inclusões feitas durante o percurso
+    @Override
+    public Iterator<Cliente> iterator() {
+        Cliente[] clientes = tabela.clientes;
+        return new Iterator<>() {
+            private int indice;
+            private Cliente proximo = avancar();
+
+            private Cliente avancar() {
+                while (indice < clientes.length) {
+                    Cliente cliente = (Cliente) CLIENTES.getAcquire(clientes, indice++);
+                    if (cliente != null) {
+                        return cliente;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return proximo != null;
+            }
+
+            @Override
+            public Cliente next() {
+                if (proximo == null) {
+                    throw new NoSuchElementException();
+                }
+                Cliente atual = proximo;
+                proximo = avancar();
+                return atual;
+            }
+        };
+    }
+
+    // Chamado sob a trava do índice; clientes removidos não são copiados
+    private Tabela crescer(Tabela atual) {
+        // Em geral dobra; se boa parte das posições for de removidos, pode manter o tamanho
+        int vivas = tamanho;
+        int capacidade = CAPACIDADE_INICIAL;
+        while (capacidade < (vivas + 1) * 2) {
+            if (capacidade == 1 << 30) {
+                throw new IllegalStateException("Índice de clientes cheio");
+            }
+            capacidade <<= 1;
+        }
+        Tabela nova = new Tabela(capacidade);
+        for (int i = 0; i < atual.chaves.length; i++) {
+            Cliente cliente = atual.clientes[i];
+            if (cliente != null) {
+                int j = posicao(atual.chaves[i], nova.mascara);
+                while (nova.chaves[j] != VAZIA) {
+                    j = (j + 1) & nova.mascara;
+                }
+                nova.chaves[j] = atual.chaves[i];
+                nova.clientes[j] = cliente;
+            }
+        }
+        ocupadas = vivas;
+        // A escrita volátil publica as colunas já preenchidas
+        tabela = nova;
+        return nova;
+    }
+
+    private static int posicao(long cpf, int mascara) {
+        long h = cpf * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+}
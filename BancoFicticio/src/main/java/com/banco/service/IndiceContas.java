@@ -0,0 +1,88 @@
+package com.banco.service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.banco.domain.Conta;
+import com.banco.domain.ContaCorrente;
+import com.banco.domain.ContaInvestimento;
+import com.banco.domain.ContaPoupanca;
+import com.banco.domain.TipoInvestimento;
+
+/**
+ * Índices secundários das contas ativas: todas, por subtipo e por TipoInvestimento.
+ * O BancoService os atualiza sob a trava da conta, na criação, no encerramento e na
+ * recuperação, de modo que as consultas custam proporcionalmente ao tamanho do
+ * resultado e não à quantidade total de contas.
+ */
+class IndiceContas {
+
+    private final Set<Conta> ativas = ConcurrentHashMap.newKeySet();
+    private final Set<ContaCorrente> correntes = ConcurrentHashMap.newKeySet();
+    private final Set<ContaPoupanca> poupancas = ConcurrentHashMap.newKeySet();
+    private final Map<TipoInvestimento, Set<ContaInvestimento>> investimentos = new EnumMap<>(TipoInvestimento.class);
+
+    IndiceContas() {
+        for (TipoInvestimento tipo : TipoInvestimento.values()) {
+            investimentos.put(tipo, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    void adicionar(Conta conta) {
+        if (!conta.isAtiva()) {
+            return;
+        }
+        ativas.add(conta);
+        if (conta instanceof ContaCorrente corrente) {
+            correntes.add(corrente);
+        } else if (conta instanceof ContaPoupanca poupanca) {
+            poupancas.add(poupanca);
+        } else if (conta instanceof ContaInvestimento investimento) {
+            investimentos.get(investimento.getTipo()).add(investimento);
+        }
+    }
+
+    void remover(Conta conta) {
+        ativas.remove(conta);
+        if (conta instanceof ContaCorrente corrente) {
+            correntes.remove(corrente);
+        } else if (conta instanceof ContaPoupanca poupanca) {
+            poupancas.remove(poupanca);
+        } else if (conta instanceof ContaInvestimento investimento) {
+            investimentos.get(investimento.getTipo()).remove(investimento);
+        }
+    }
+
+    void limpar() {
+        ativas.clear();
+        correntes.clear();
+        poupancas.clear();
+        investimentos.values().forEach(Set::clear);
+    }
+
+    List<Conta> ativas() {
+        return new ArrayList<>(ativas);
+    }
+
+    List<ContaCorrente> correntes() {
+        return new ArrayList<>(correntes);
+    }
+
+    List<ContaPoupanca> poupancas() {
+        return new ArrayList<>(poupancas);
+    }
+
+    List<ContaInvestimento> investimentos() {
+        List<ContaInvestimento> resultado = new ArrayList<>();
+        investimentos.values().forEach(resultado::addAll);
+        return resultado;
+    }
+
+    List<ContaInvestimento> investimentos(TipoInvestimento tipo) {
+        return new ArrayList<>(investimentos.get(tipo));
+    }
+}
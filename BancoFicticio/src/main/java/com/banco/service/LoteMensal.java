@@ -0,0 +1,188 @@
+package com.banco.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.banco.domain.Centavos;
+
+/**
+ * Estado de uma execução assíncrona do fechamento mensal de uma competência.
+ * Os contadores são atualizados pelas fatias em paralelo e lidos a qualquer momento;
+ * fatias concluídas numa execução anterior entram com os totais do ponto de controle.
+ */
+public class LoteMensal {
+
+    public enum Estado {
+        EM_ANDAMENTO, CONCLUIDO, FALHOU
+    }
+
+    /**
+     * Totais de um estágio. O tempo é a soma do gasto em cada conta por todas as threads,
+     * sem trava, diário e percurso; contasPorSegundo é a vazão de uma thread no estágio.
+     */
+    public record ResumoEstagio(EstagioFechamento estagio, long contas, BigDecimal valor, long tempoMs,
+                                double contasPorSegundo) {
+    }
+
+    private static final EstagioFechamento[] ESTAGIOS = EstagioFechamento.values();
+
+    private final String id;
+    private final YearMonth competencia;
+    private final long totalContas;
+    private final int totalFatias;
+    private final Instant inicio;
+    private final LongAdder processadas = new LongAdder();
+    private final LongAdder aplicadas = new LongAdder();
+    private final LongAdder jaAplicadas = new LongAdder();
+    private final LongAdder ignoradas = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private final LongAdder fatiasConcluidas = new LongAdder();
+    private final LongAdder fatiasRetomadas = new LongAdder();
+    private final LongAdder[] contasPorEstagio = novosContadores();
+    private final LongAdder[] valorPorEstagio = novosContadores();
+    private final LongAdder[] nanosPorEstagio = novosContadores();
+    private volatile Estado estado = Estado.EM_ANDAMENTO;
+    private volatile Instant fim;
+    private volatile String erro;
+
+    public LoteMensal(String id, YearMonth competencia, long totalContas, int totalFatias) {
+        this.id = id;
+        this.competencia = competencia;
+        this.totalContas = totalContas;
+        this.totalFatias = totalFatias;
+        this.inicio = Instant.now();
+    }
+
+    // concluida: a fatia foi gravada no ponto de controle; retomada: veio de uma execução anterior
+    void registrarFatia(TotaisFatia totais, boolean concluida, boolean retomada) {
+        processadas.add(totais.processadas());
+        aplicadas.add(totais.aplicadas());
+        jaAplicadas.add(totais.jaAplicadas());
+        ignoradas.add(totais.ignoradas());
+        falhas.add(totais.falhas());
+        for (EstagioFechamento estagio : ESTAGIOS) {
+            contasPorEstagio[estagio.ordinal()].add(totais.contas(estagio));
+            valorPorEstagio[estagio.ordinal()].add(totais.valorCentavos(estagio));
+            nanosPorEstagio[estagio.ordinal()].add(totais.nanos(estagio));
+        }
+        if (concluida) {
+            fatiasConcluidas.increment();
+        }
+        if (retomada) {
+            fatiasRetomadas.increment();
+        }
+    }
+
+    void concluir() {
+        this.fim = Instant.now();
+        this.estado = Estado.CONCLUIDO;
+    }
+
+    void falhar(Throwable causa) {
+        this.fim = Instant.now();
+        this.erro = causa.getMessage();
+        this.estado = Estado.FALHOU;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public YearMonth getCompetencia() {
+        return competencia;
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    public long getTotalContas() {
+        return totalContas;
+    }
+
+    public long getContasProcessadas() {
+        return processadas.sum();
+    }
+
+    // Contas fechadas nesta competência por esta execução ou pela execução retomada
+    public long getContasAplicadas() {
+        return aplicadas.sum();
+    }
+
+    // Contas que já tinham a competência aplicada e não foram cobradas de novo
+    public long getContasJaAplicadas() {
+        return jaAplicadas.sum();
+    }
+
+    // Contas encerradas ou abertas depois do fim da competência
+    public long getContasIgnoradas() {
+        return ignoradas.sum();
+    }
+
+    public long getFalhas() {
+        return falhas.sum();
+    }
+
+    public int getTotalFatias() {
+        return totalFatias;
+    }
+
+    public long getFatiasConcluidas() {
+        return fatiasConcluidas.sum();
+    }
+
+    public long getFatiasRetomadas() {
+        return fatiasRetomadas.sum();
+    }
+
+    public double getPercentualConcluido() {
+        return totalContas == 0 ? 100.0 : Math.min(100.0, getContasProcessadas() * 100.0 / totalContas);
+    }
+
+    public long getDuracaoMs() {
+        Instant termino = fim != null ? fim : Instant.now();
+        return Duration.between(inicio, termino).toMillis();
+    }
+
+    public double getContasPorSegundo() {
+        long duracao = Math.max(getDuracaoMs(), 1);
+        return getContasProcessadas() * 1000.0 / duracao;
+    }
+
+    public List<ResumoEstagio> getEstagios() {
+        List<ResumoEstagio> resumos = new ArrayList<>(ESTAGIOS.length);
+        for (EstagioFechamento estagio : ESTAGIOS) {
+            long contas = contasPorEstagio[estagio.ordinal()].sum();
+            long nanos = nanosPorEstagio[estagio.ordinal()].sum();
+            resumos.add(new ResumoEstagio(estagio, contas,
+                    Centavos.paraBigDecimal(valorPorEstagio[estagio.ordinal()].sum()),
+                    nanos / 1_000_000, nanos == 0 ? 0 : contas * 1e9 / nanos));
+        }
+        return resumos;
+    }
+
+    public Instant getInicio() {
+        return inicio;
+    }
+
+    public Instant getFim() {
+        return fim;
+    }
+
+    public String getErro() {
+        return erro;
+    }
+
+    private static LongAdder[] novosContadores() {
+        LongAdder[] contadores = new LongAdder[ESTAGIOS.length];
+        for (int i = 0; i < contadores.length; i++) {
+            contadores[i] = new LongAdder();
+        }
+        return contadores;
+    }
+}
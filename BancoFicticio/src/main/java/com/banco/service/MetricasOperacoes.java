@@ -0,0 +1,40 @@
+package com.banco.service;
+
+import com.banco.domain.ResultadoOperacao;
+
+/**
+ * Ponto de extensão usado pelo BancoService para medir cada operação.
+ * {@link #iniciar} é chamado antes da operação e o valor devolvido é repassado
+ * a {@link #sucesso}, {@link #recusa} (operação recusada sem exceção) ou
+ * {@link #falha}; as implementações não devem alocar
+ * nesses métodos, que ficam no caminho de toda operação.
+ */
+public interface MetricasOperacoes {
+
+    MetricasOperacoes NENHUMA = new MetricasOperacoes() {
+        @Override
+        public long iniciar() {
+            return 0;
+        }
+
+        @Override
+        public void sucesso(OperacaoBancaria operacao, long inicio) {
+        }
+
+        @Override
+        public void falha(OperacaoBancaria operacao, long inicio, RuntimeException erro) {
+        }
+
+        @Override
+        public void recusa(OperacaoBancaria operacao, long inicio, ResultadoOperacao resultado) {
+        }
+    };
+
+    long iniciar();
+
+    void sucesso(OperacaoBancaria operacao, long inicio);
+
+    void falha(OperacaoBancaria operacao, long inicio, RuntimeException erro);
+
+    void recusa(OperacaoBancaria operacao, long inicio, ResultadoOperacao resultado);
+}
@@ -0,0 +1,17 @@
+package com.banco.service;
+
+/**
+ * Operações do BancoService acompanhadas por {@link MetricasOperacoes}.
+ */
+public enum OperacaoBancaria {
+    CRIAR_CLIENTE,
+    CRIAR_CONTA,
+    DEPOSITO,
+    SAQUE,
+    TRANSFERENCIA,
+    INVESTIMENTO,
+    RESGATE,
+    RENDIMENTO,
+    FECHAMENTO_CONTA,
+    ENCERRAR_CONTA
+}
@@ -0,0 +1,182 @@
+package com.banco.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.banco.domain.TipoLancamento;
+import com.banco.exception.OperacaoInvalidaException;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Aplica um lote de depósitos, saques, investimentos e resgates lido de um array JSON,
+ * item a item, escrevendo o resultado de cada item à medida que é processado. Nem o
+ * pedido nem a resposta ficam inteiros em memória.
+ *
+ * <p>Formato de cada item: {@code {"operacao": "DEPOSITO", "conta": "1111", "valor": 10.50}}.
+ * As operações não esperam o diário a cada item: a durabilidade é aguardada uma vez por
+ * bloco, antes de enviar ao cliente os resultados daquele bloco. Cada conta consome uma
+ * ficha sua e do titular no {@link ControleAdmissao} uma vez por bloco, no primeiro item
+ * válido dela: um lote grande numa só conta não esgota a rajada, e o conjunto de contas
+ * cobradas fica limitado ao tamanho do bloco. O item recusado pelo limite volta como erro.
+ */
+@Service
+public class OperacoesLoteService {
+
+    private final BancoService bancoService;
+    private final ControleAdmissao controleAdmissao;
+    private final JsonFactory json = new JsonFactory();
+    private final int itensPorBloco;
+
+    public OperacoesLoteService(BancoService bancoService, ControleAdmissao controleAdmissao,
+            @Value("${banco.lote-operacoes.itens-por-bloco:1024}") int itensPorBloco) {
+        if (itensPorBloco < 1) {
+            throw new IllegalArgumentException("O bloco precisa ter ao menos um item");
+        }
+        this.bancoService = bancoService;
+        this.controleAdmissao = controleAdmissao;
+        this.itensPorBloco = itensPorBloco;
+    }
+
+    public ResumoLote processar(InputStream entrada, OutputStream saida) throws IOException {
+        long inicio = System.nanoTime();
+        try (JsonParser parser = json.createParser(entrada)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new OperacaoInvalidaException("O lote deve ser um array JSON de operações");
+            }
+            // Os resultados de um bloco ficam em memória até o diário confirmar o bloco: o
+            // gerador e o buffer da resposta não podem mandar um OK antes do fsync
+            ByteArrayOutputStream bloco = new ByteArrayOutputStream(64 * 1024);
+            try (JsonGenerator gerador = json.createGenerator(bloco, JsonEncoding.UTF8)) {
+                gerador.writeStartObject();
+                gerador.writeArrayFieldStart("resultados");
+
+                long total = 0;
+                long sucesso = 0;
+                long ultimaSequencia = 0;
+                Set<String> cobradas = new HashSet<>();
+                String erroLote = null;
+                try {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        Item item = lerItem(parser);
+                        gerador.writeStartObject();
+                        gerador.writeNumberField("indice", total);
+                        try {
+                            long lancamento = aplicar(item, cobradas);
+                            if (lancamento >= 0) {
+                                ultimaSequencia = Math.max(ultimaSequencia, lancamento);
+                                gerador.writeStringField("status", "OK");
+                                sucesso++;
+                            } else {
+                                // Recusa esperada (saldo, valor, conta encerrada): sem exceção no caminho
+                                gerador.writeStringField("status", "ERRO");
+                                gerador.writeStringField("mensagem", BancoService.resultado(lancamento).getMensagem());
+                            }
+                        } catch (RuntimeException e) {
+                            gerador.writeStringField("status", "ERRO");
+                            gerador.writeStringField("mensagem", e.getMessage());
+                        }
+                        gerador.writeEndObject();
+                        total++;
+                        if (total % itensPorBloco == 0) {
+                            bancoService.tornarDuravel(ultimaSequencia);
+                            enviar(gerador, bloco, saida);
+                            cobradas.clear();
+                        }
+                    }
+                    if (parser.currentToken() != JsonToken.END_ARRAY) {
+                        erroLote = "Item " + total + " não é um objeto JSON";
+                    }
+                } catch (JsonProcessingException e) {
+                    // Os itens anteriores já foram aplicados; o erro vai no resumo
+                    erroLote = "JSON inválido após o item " + total + ": " + e.getOriginalMessage();
+                }
+                bancoService.tornarDuravel(ultimaSequencia);
+
+                ResumoLote resumo = new ResumoLote(total, sucesso, System.nanoTime() - inicio);
+                gerador.writeEndArray();
+                gerador.writeNumberField("total", resumo.getTotal());
+                gerador.writeNumberField("sucesso", resumo.getSucesso());
+                gerador.writeNumberField("falhas", resumo.getFalhas());
+                gerador.writeNumberField("duracaoMs", resumo.getDuracaoMs());
+                gerador.writeNumberField("itensPorSegundo", Math.round(resumo.getItensPorSegundo()));
+                if (erroLote != null) {
+                    gerador.writeStringField("erro", erroLote);
+                }
+                gerador.writeEndObject();
+                enviar(gerador, bloco, saida);
+                return resumo;
+            }
+        }
+    }
+
+    private static void enviar(JsonGenerator gerador, ByteArrayOutputStream bloco, OutputStream saida) throws IOException {
+        gerador.flush();
+        bloco.writeTo(saida);
+        bloco.reset();
+        saida.flush();
+    }
+
+    private record Item(String operacao, String conta, String valor) {
+    }
+
+    // Lê o item inteiro antes de validá-lo, para que um item inválido não desalinhe o parser
+    private Item lerItem(JsonParser parser) throws IOException {
+        String operacao = null;
+        String conta = null;
+        String valor = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String campo = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (token.isStructStart()) {
+                parser.skipChildren();
+                continue;
+            }
+            switch (campo) {
+                case "operacao" -> operacao = parser.getValueAsString();
+                case "conta" -> conta = parser.getValueAsString();
+                case "valor" -> valor = parser.getValueAsString();
+                default -> { }
+            }
+        }
+        return new Item(operacao, conta, valor);
+    }
+
+    // Aplica a operação do item; devolve a sequência atribuída no diário ou a recusa codificada (negativa)
+    private long aplicar(Item item, Set<String> cobradas) {
+        if (item.operacao() == null || item.conta() == null || item.valor() == null) {
+            throw new OperacaoInvalidaException("Item deve informar operacao, conta e valor");
+        }
+        BigDecimal valor;
+        try {
+            valor = new BigDecimal(item.valor());
+        } catch (NumberFormatException e) {
+            throw new OperacaoInvalidaException("Valor inválido: " + item.valor());
+        }
+        TipoLancamento tipo = switch (item.operacao()) {
+            case "DEPOSITO" -> TipoLancamento.DEPOSITO;
+            case "SAQUE" -> TipoLancamento.SAQUE;
+            case "INVESTIMENTO" -> TipoLancamento.INVESTIMENTO;
+            case "RESGATE" -> TipoLancamento.RESGATE;
+            default -> throw new OperacaoInvalidaException("Operação não permitida em lote: " + item.operacao());
+        };
+        // Se a cobrança for recusada a conta não entra no conjunto, e o próximo item dela tenta de novo
+        if (!cobradas.contains(item.conta())) {
+            controleAdmissao.consumirFichas(item.conta(), bancoService.cpfTitular(item.conta()));
+            cobradas.add(item.conta());
+        }
+        return bancoService.lancarOuRecusar(tipo, item.conta(), valor);
+    }
+}
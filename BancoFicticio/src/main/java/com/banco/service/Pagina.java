@@ -0,0 +1,26 @@
+package com.banco.service;
+
+import java.util.List;
+
+/**
+ * Uma página de uma listagem ordenada. {@code proximoCursor} é a chave do último
+ * item devolvido, ou {@code null} quando não há mais itens.
+ */
+public class Pagina<T> {
+
+    private final List<T> itens;
+    private final String proximoCursor;
+
+    Pagina(List<T> itens, String proximoCursor) {
+        this.itens = itens;
+        this.proximoCursor = proximoCursor;
+    }
+
+    public List<T> getItens() {
+        return itens;
+    }
+
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+}
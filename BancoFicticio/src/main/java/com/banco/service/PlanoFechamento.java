@@ -0,0 +1,72 @@
+package com.banco.service;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Divisão do fechamento de uma competência em fatias por faixa de número de conta, e as
+ * fatias já concluídas com seus totais. A fatia {@code i} vai de {@code limites[i]}
+ * (inclusive) a {@code limites[i + 1]} (exclusive); a primeira começa em {@code ""} e a
+ * última vai até o fim. Como as faixas são de números e não de posições, a mesma divisão
+ * continua valendo depois de um reinício, com contas abertas ou encerradas no meio.
+ */
+public final class PlanoFechamento {
+
+    private final YearMonth competencia;
+    private final List<String> limites;
+    private final Map<Integer, TotaisFatia> concluidas;
+
+    public PlanoFechamento(YearMonth competencia, List<String> limites, Map<Integer, TotaisFatia> concluidas) {
+        if (limites.isEmpty() || !limites.get(0).isEmpty()) {
+            throw new IllegalArgumentException("A primeira fatia deve começar no início");
+        }
+        this.competencia = competencia;
+        this.limites = List.copyOf(limites);
+        this.concluidas = Map.copyOf(concluidas);
+    }
+
+    // Competência como aaaamm, a forma guardada em cada conta e no diário
+    public static int codigo(YearMonth competencia) {
+        return competencia.getYear() * 100 + competencia.getMonthValue();
+    }
+
+    // Contas abertas a partir do primeiro instante do mês seguinte (segundos UTC) não entram na competência
+    public static long criadaAntesDe(YearMonth competencia) {
+        return competencia.plusMonths(1).atDay(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public YearMonth competencia() {
+        return competencia;
+    }
+
+    public List<String> limites() {
+        return limites;
+    }
+
+    public int fatias() {
+        return limites.size();
+    }
+
+    public String inicio(int fatia) {
+        return limites.get(fatia);
+    }
+
+    // null na última fatia
+    public String fim(int fatia) {
+        return fatia + 1 < limites.size() ? limites.get(fatia + 1) : null;
+    }
+
+    public boolean concluida(int fatia) {
+        return concluidas.containsKey(fatia);
+    }
+
+    public TotaisFatia totais(int fatia) {
+        return concluidas.get(fatia);
+    }
+
+    public boolean completo() {
+        return concluidas.size() == limites.size();
+    }
+}
@@ -0,0 +1,27 @@
+package com.banco.service;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Ponto de extensão onde o fechamento mensal guarda o plano de cada competência e as
+ * fatias concluídas. Uma execução interrompida é retomada só pelas fatias que faltam;
+ * dentro delas, a competência registrada em cada conta impede uma segunda cobrança.
+ */
+public interface PontosControleFechamento {
+
+    // Plano gravado para a competência, ou null se ela nunca foi iniciada
+    PlanoFechamento carregar(YearMonth competencia);
+
+    // Grava um plano novo, sem fatias concluídas, no lugar do anterior da mesma competência
+    void iniciar(YearMonth competencia, List<String> limites);
+
+    // Chamado depois que os registros da fatia estão duráveis no diário; durável ao retornar
+    void fatiaConcluida(YearMonth competencia, int fatia, TotaisFatia totais);
+
+    // Competências com plano e fatias ainda por concluir, em ordem
+    List<YearMonth> pendentes();
+
+    // Competência mais recente com plano gravado, concluído ou não, ou null se nenhuma foi iniciada
+    YearMonth ultima();
+}
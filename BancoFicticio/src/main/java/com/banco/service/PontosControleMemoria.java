@@ -0,0 +1,55 @@
+package com.banco.service;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Pontos de controle só em memória, usados quando o diário está desligado: permitem
+ * refazer uma execução com falhas sem repetir as fatias concluídas, mas não sobrevivem
+ * a um reinício (e nesse caso o estado das contas também não sobrevive).
+ */
+class PontosControleMemoria implements PontosControleFechamento {
+
+    private record Plano(List<String> limites, Map<Integer, TotaisFatia> concluidas) {
+    }
+
+    private final ConcurrentNavigableMap<YearMonth, Plano> planos = new ConcurrentSkipListMap<>();
+
+    @Override
+    public PlanoFechamento carregar(YearMonth competencia) {
+        Plano plano = planos.get(competencia);
+        return plano == null ? null : new PlanoFechamento(competencia, plano.limites(), plano.concluidas());
+    }
+
+    @Override
+    public void iniciar(YearMonth competencia, List<String> limites) {
+        planos.put(competencia, new Plano(List.copyOf(limites), new ConcurrentHashMap<>()));
+    }
+
+    @Override
+    public void fatiaConcluida(YearMonth competencia, int fatia, TotaisFatia totais) {
+        Plano plano = planos.get(competencia);
+        if (plano == null) {
+            throw new IllegalStateException("Fechamento de " + competencia + " não iniciado");
+        }
+        plano.concluidas().put(fatia, totais);
+    }
+
+    @Override
+    public List<YearMonth> pendentes() {
+        return planos.entrySet().stream()
+                .filter(e -> e.getValue().concluidas().size() < e.getValue().limites().size())
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @Override
+    public YearMonth ultima() {
+        Map.Entry<YearMonth, Plano> ultima = planos.lastEntry();
+        return ultima == null ? null : ultima.getKey();
+    }
+}
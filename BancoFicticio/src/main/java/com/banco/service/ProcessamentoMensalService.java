@@ -0,0 +1,320 @@
+package com.banco.service;
+
+import java.time.Clock;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.banco.domain.Conta;
+import com.banco.exception.OperacaoInvalidaException;
+import com.banco.exception.RecursoNaoEncontradoException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Executa o fechamento mensal de uma competência (rendimento da poupança, tarifas e
+ * apuração do imposto) como um lote assíncrono: as contas são divididas em fatias por
+ * faixa de número, processadas em paralelo num ForkJoinPool próprio, cada conta sob a
+ * sua trava, de modo que depósitos e saques continuam sendo atendidos durante a execução.
+ *
+ * <p>Cada fatia concluída é gravada em {@link PontosControleFechamento} depois que os
+ * seus registros estão duráveis no diário. Uma execução interrompida é retomada pelas
+ * fatias que faltam, e cada conta guarda a última competência fechada, então uma conta
+ * nunca é cobrada duas vezes na mesma competência, nem ao refazer uma fatia pela metade,
+ * nem ao repetir uma competência já concluída. Por guardar só a última, uma competência
+ * anterior à mais recente já iniciada é recusada, assim como o mês ainda em curso.
+ *
+ * <p>Na inicialização as competências pendentes são retomadas; com
+ * {@code banco.fechamento.automatico} o mês anterior é fechado todo dia 1º no
+ * {@code banco.fechamento.horario}, e também na inicialização se ainda não foi.
+ */
+@Service
+public class ProcessamentoMensalService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessamentoMensalService.class);
+
+    private static final int LOTES_RETIDOS = 100;
+
+    private final BancoService bancoService;
+    private final PontosControleFechamento pontosControle;
+    private final ForkJoinPool pool;
+    private final int tamanhoFatia;
+    private final boolean automatico;
+    private final LocalTime horario;
+    private final Clock relogio;
+    private final Map<String, LoteMensal> lotes = new ConcurrentHashMap<>();
+    private final Deque<String> ordemLotes = new ConcurrentLinkedDeque<>();
+    // Uma execução por competência: um segundo pedido recebe o lote em andamento
+    private final Map<YearMonth, LoteMensal> emAndamento = new ConcurrentHashMap<>();
+    private ScheduledExecutorService agendador;
+
+    @Autowired
+    public ProcessamentoMensalService(BancoService bancoService,
+                                      Optional<PontosControleFechamento> pontosControle,
+                                      @Value("${banco.lote.paralelismo:0}") int paralelismo,
+                                      @Value("${banco.lote.tamanho-fatia:4096}") int tamanhoFatia,
+                                      @Value("${banco.fechamento.automatico:true}") boolean automatico,
+                                      @Value("${banco.fechamento.horario:00:30}") String horario) {
+        this(bancoService, pontosControle.orElseGet(PontosControleMemoria::new), paralelismo, tamanhoFatia,
+                automatico, horario, Clock.systemUTC());
+    }
+
+    public ProcessamentoMensalService(BancoService bancoService, int paralelismo, int tamanhoFatia) {
+        this(bancoService, paralelismo, tamanhoFatia, Clock.systemUTC());
+    }
+
+    public ProcessamentoMensalService(BancoService bancoService, PontosControleFechamento pontosControle,
+                                      int paralelismo, int tamanhoFatia) {
+        this(bancoService, pontosControle, paralelismo, tamanhoFatia, Clock.systemUTC());
+    }
+
+    // O relógio decide qual é o mês em curso; testes o adiantam para fechar o mês real
+    public ProcessamentoMensalService(BancoService bancoService, int paralelismo, int tamanhoFatia, Clock relogio) {
+        this(bancoService, new PontosControleMemoria(), paralelismo, tamanhoFatia, relogio);
+    }
+
+    public ProcessamentoMensalService(BancoService bancoService, PontosControleFechamento pontosControle,
+                                      int paralelismo, int tamanhoFatia, Clock relogio) {
+        this(bancoService, pontosControle, paralelismo, tamanhoFatia, false, "00:30", relogio);
+    }
+
+    private ProcessamentoMensalService(BancoService bancoService, PontosControleFechamento pontosControle,
+                                       int paralelismo, int tamanhoFatia, boolean automatico, String horario,
+                                       Clock relogio) {
+        if (tamanhoFatia <= 0) {
+            throw new IllegalArgumentException("Tamanho da fatia deve ser maior que zero");
+        }
+        this.bancoService = bancoService;
+        this.pontosControle = pontosControle;
+        this.pool = new ForkJoinPool(paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors());
+        this.tamanhoFatia = tamanhoFatia;
+        this.automatico = automatico;
+        this.horario = LocalTime.parse(horario);
+        this.relogio = relogio;
+    }
+
+    // Fecha o mês anterior, o último já encerrado
+    public LoteMensal iniciar() {
+        return iniciar(YearMonth.now(relogio).minusMonths(1));
+    }
+
+    // Rendimento avulso de uma poupança: fecha só para ela o mês anterior, que o lote depois pula
+    public void calcularRendimento(String numeroConta) {
+        bancoService.calcularRendimentoPoupanca(numeroConta, YearMonth.now(relogio).minusMonths(1));
+    }
+
+    /**
+     * Inicia ou retoma o fechamento da competência. Se já há um plano com fatias por
+     * concluir, só elas são processadas; se o plano anterior foi concluído, um plano novo
+     * percorre todas as contas e fecha apenas as que ainda não têm a competência. O mês
+     * em curso e os posteriores são recusados, e também uma competência anterior à mais
+     * recente já iniciada: as contas fechadas nesta já a teriam como marca e seriam puladas.
+     */
+    public synchronized LoteMensal iniciar(YearMonth competencia) {
+        LoteMensal atual = emAndamento.get(competencia);
+        if (atual != null) {
+            return atual;
+        }
+        if (!competencia.isBefore(YearMonth.now(relogio))) {
+            throw new OperacaoInvalidaException("Competência " + competencia + " ainda não terminou");
+        }
+        YearMonth ultima = pontosControle.ultima();
+        if (ultima != null && competencia.isBefore(ultima)) {
+            throw new OperacaoInvalidaException("Competência " + competencia + " é anterior a " + ultima
+                    + ", já fechada ou em fechamento");
+        }
+        PlanoFechamento plano = pontosControle.carregar(competencia);
+        boolean retomada = plano != null && !plano.completo();
+        if (!retomada) {
+            pontosControle.iniciar(competencia, bancoService.limitesPorNumero(tamanhoFatia));
+            plano = pontosControle.carregar(competencia);
+        }
+        LoteMensal lote = new LoteMensal(UUID.randomUUID().toString(), competencia,
+                bancoService.quantidadeContas(), plano.fatias());
+        List<Fatia> pendentes = new ArrayList<>();
+        for (int i = 0; i < plano.fatias(); i++) {
+            if (plano.concluida(i)) {
+                lote.registrarFatia(plano.totais(i), true, true);
+            } else {
+                pendentes.add(new Fatia(lote, plano, i));
+            }
+        }
+        if (retomada) {
+            log.info("Retomando o fechamento de {}: {} de {} fatias concluídas", competencia,
+                    plano.fatias() - pendentes.size(), plano.fatias());
+        }
+        registrar(lote);
+        emAndamento.put(competencia, lote);
+        pool.execute(new ExecucaoLote(lote, pendentes));
+        return lote;
+    }
+
+    public LoteMensal buscar(String id) {
+        LoteMensal lote = lotes.get(id);
+        if (lote == null) {
+            throw new RecursoNaoEncontradoException("Lote " + id + " não encontrado");
+        }
+        return lote;
+    }
+
+    @PostConstruct
+    public void iniciarAgendamento() {
+        for (YearMonth pendente : pontosControle.pendentes()) {
+            try {
+                iniciar(pendente);
+            } catch (OperacaoInvalidaException e) {
+                log.warn("Fechamento pendente de {} não retomado: {}", pendente, e.getMessage());
+            }
+        }
+        if (!automatico) {
+            return;
+        }
+        YearMonth anterior = YearMonth.now(relogio).minusMonths(1);
+        YearMonth ultima = pontosControle.ultima();
+        if (ultima == null || ultima.isBefore(anterior)) {
+            log.info("Fechamento de {} ainda não executado; iniciando", anterior);
+            iniciar(anterior);
+        }
+        agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "agendador-fechamento");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendarProximo();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+        }
+        pool.shutdownNow();
+    }
+
+    // Reagendado a cada execução, já que os meses têm durações diferentes
+    private void agendarProximo() {
+        ZonedDateTime agora = ZonedDateTime.now(relogio);
+        ZonedDateTime proximo = agora.toLocalDate().withDayOfMonth(1).atTime(horario).atZone(ZoneOffset.UTC);
+        if (!proximo.isAfter(agora)) {
+            proximo = proximo.plusMonths(1);
+        }
+        agendador.schedule(this::executarAgendado,
+                proximo.toInstant().toEpochMilli() - agora.toInstant().toEpochMilli(), TimeUnit.MILLISECONDS);
+    }
+
+    private void executarAgendado() {
+        try {
+            iniciar(YearMonth.now(relogio).minusMonths(1));
+        } catch (RuntimeException e) {
+            log.error("Falha ao iniciar o fechamento mensal agendado", e);
+        } finally {
+            agendarProximo();
+        }
+    }
+
+    private void registrar(LoteMensal lote) {
+        lotes.put(lote.getId(), lote);
+        ordemLotes.addLast(lote.getId());
+        while (ordemLotes.size() > LOTES_RETIDOS) {
+            String antigo = ordemLotes.pollFirst();
+            if (antigo != null) {
+                lotes.remove(antigo);
+            }
+        }
+    }
+
+    private class ExecucaoLote extends RecursiveAction {
+
+        private final LoteMensal lote;
+        private final List<Fatia> fatias;
+
+        ExecucaoLote(LoteMensal lote, List<Fatia> fatias) {
+            this.lote = lote;
+            this.fatias = fatias;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                // As fatias não lançam exceção, então todas terminam antes de o lote terminar
+                invokeAll(fatias);
+                RuntimeException erro = fatias.stream().map(f -> f.erro).filter(e -> e != null).findFirst().orElse(null);
+                if (erro != null) {
+                    lote.falhar(erro);
+                } else if (lote.getFalhas() > 0) {
+                    // As fatias com falha ficam sem ponto de controle e são refeitas na próxima execução
+                    lote.falhar(new IllegalStateException(lote.getFalhas() + " contas falharam; execute de novo para retomar"));
+                } else {
+                    lote.concluir();
+                }
+            } catch (RuntimeException e) {
+                lote.falhar(e);
+            } finally {
+                emAndamento.remove(lote.getCompetencia(), lote);
+            }
+        }
+    }
+
+    private class Fatia extends RecursiveAction {
+
+        private final LoteMensal lote;
+        private final PlanoFechamento plano;
+        private final int indice;
+        // Falha ao gravar o ponto de controle; as contas já fechadas continuam marcadas
+        private RuntimeException erro;
+
+        Fatia(LoteMensal lote, PlanoFechamento plano, int indice) {
+            this.lote = lote;
+            this.plano = plano;
+            this.indice = indice;
+        }
+
+        @Override
+        protected void compute() {
+            int competencia = PlanoFechamento.codigo(plano.competencia());
+            long criadaAntesDe = PlanoFechamento.criadaAntesDe(plano.competencia());
+            TotaisFatia totais = new TotaisFatia();
+            long ultimaSequencia = 0;
+            for (Conta conta : bancoService.percorrerContasPorNumero(plano.inicio(indice), plano.fim(indice))) {
+                try {
+                    ultimaSequencia = Math.max(ultimaSequencia,
+                            bancoService.aplicarFechamentoMensal(conta, competencia, criadaAntesDe, totais));
+                } catch (RuntimeException e) {
+                    totais.falha();
+                }
+            }
+            boolean concluida = false;
+            try {
+                bancoService.tornarDuravel(ultimaSequencia);
+                if (totais.falhas() == 0) {
+                    pontosControle.fatiaConcluida(plano.competencia(), indice, totais);
+                    concluida = true;
+                }
+            } catch (RuntimeException e) {
+                erro = e;
+            }
+            lote.registrarFatia(totais, concluida, false);
+        }
+    }
+}
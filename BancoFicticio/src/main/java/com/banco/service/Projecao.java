@@ -0,0 +1,87 @@
+package com.banco.service;
+
+import java.math.BigDecimal;
+
+import com.banco.domain.Centavos;
+
+/**
+ * Saldo de uma conta projetado para alguns meses à frente, com os totais de
+ * rendimentos e tarifas do período e o imposto sobre o saldo final.
+ */
+public class Projecao {
+
+    private final String numero;
+    private final int meses;
+    private final long saldoAtual;
+    private final long saldoProjetado;
+    private final long rendimentos;
+    private final long tarifas;
+    private final long imposto;
+
+    Projecao(String numero, int meses, long saldoAtual, long saldoProjetado, long rendimentos, long tarifas, long imposto) {
+        this.numero = numero;
+        this.meses = meses;
+        this.saldoAtual = saldoAtual;
+        this.saldoProjetado = saldoProjetado;
+        this.rendimentos = rendimentos;
+        this.tarifas = tarifas;
+        this.imposto = imposto;
+    }
+
+    public String getNumero() {
+        return numero;
+    }
+
+    public int getMeses() {
+        return meses;
+    }
+
+    public BigDecimal getSaldoAtual() {
+        return Centavos.paraBigDecimal(saldoAtual);
+    }
+
+    public BigDecimal getSaldoProjetado() {
+        return Centavos.paraBigDecimal(saldoProjetado);
+    }
+
+    public BigDecimal getRendimentos() {
+        return Centavos.paraBigDecimal(rendimentos);
+    }
+
+    public BigDecimal getTarifas() {
+        return Centavos.paraBigDecimal(tarifas);
+    }
+
+    public BigDecimal getImposto() {
+        return Centavos.paraBigDecimal(imposto);
+    }
+
+    // Saldo projetado menos o imposto devido sobre ele
+    public BigDecimal getSaldoLiquido() {
+        return Centavos.paraBigDecimal(saldoLiquidoEmCentavos());
+    }
+
+    public long saldoProjetadoEmCentavos() {
+        return saldoProjetado;
+    }
+
+    public long impostoEmCentavos() {
+        return imposto;
+    }
+
+    public long saldoLiquidoEmCentavos() {
+        return Centavos.subtrair(saldoProjetado, imposto);
+    }
+
+    long saldoAtualEmCentavos() {
+        return saldoAtual;
+    }
+
+    long rendimentosEmCentavos() {
+        return rendimentos;
+    }
+
+    long tarifasEmCentavos() {
+        return tarifas;
+    }
+}
@@ -0,0 +1,78 @@
+package com.banco.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.banco.domain.Centavos;
+
+/**
+ * Soma das projeções de um conjunto de contas. As projeções individuais só são
+ * guardadas quando pedidas (carteira de um cliente); para o banco inteiro ficam só os totais.
+ */
+public class ProjecaoCarteira {
+
+    private final int meses;
+    private final long contas;
+    private final long saldoAtual;
+    private final long saldoProjetado;
+    private final long rendimentos;
+    private final long tarifas;
+    private final long imposto;
+    private final List<Projecao> projecoes;
+
+    ProjecaoCarteira(int meses, long contas, long saldoAtual, long saldoProjetado, long rendimentos, long tarifas,
+                     long imposto, List<Projecao> projecoes) {
+        this.meses = meses;
+        this.contas = contas;
+        this.saldoAtual = saldoAtual;
+        this.saldoProjetado = saldoProjetado;
+        this.rendimentos = rendimentos;
+        this.tarifas = tarifas;
+        this.imposto = imposto;
+        this.projecoes = projecoes;
+    }
+
+    public int getMeses() {
+        return meses;
+    }
+
+    public long getContas() {
+        return contas;
+    }
+
+    public BigDecimal getSaldoAtual() {
+        return Centavos.paraBigDecimal(saldoAtual);
+    }
+
+    public BigDecimal getSaldoProjetado() {
+        return Centavos.paraBigDecimal(saldoProjetado);
+    }
+
+    public BigDecimal getRendimentos() {
+        return Centavos.paraBigDecimal(rendimentos);
+    }
+
+    public BigDecimal getTarifas() {
+        return Centavos.paraBigDecimal(tarifas);
+    }
+
+    public BigDecimal getImposto() {
+        return Centavos.paraBigDecimal(imposto);
+    }
+
+    public BigDecimal getSaldoLiquido() {
+        return Centavos.paraBigDecimal(Centavos.subtrair(saldoProjetado, imposto));
+    }
+
+    public List<Projecao> getProjecoes() {
+        return projecoes;
+    }
+
+    public long saldoProjetadoEmCentavos() {
+        return saldoProjetado;
+    }
+
+    public long impostoEmCentavos() {
+        return imposto;
+    }
+}
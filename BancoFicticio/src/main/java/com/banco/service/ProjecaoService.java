@@ -0,0 +1,193 @@
+package com.banco.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.banco.domain.Centavos;
+import com.banco.domain.Conta;
+import com.banco.domain.Rentavel;
+import com.banco.domain.Tributavel;
+import com.banco.exception.OperacaoInvalidaException;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Projeta o saldo de contas poupança e investimento para N meses: rendimento e
+ * tarifa de cada mês aplicados em sequência, e o imposto sobre o saldo final. Para a
+ * poupança é o que o fechamento mensal faria; para o investimento o rendimento é a taxa
+ * esperada do tipo, uma suposição só da projeção, já que o fechamento não o credita. O arredondamento de cada mês depende do saldo do
+ * mês anterior, então não existe fórmula fechada que dê os mesmos centavos; a
+ * projeção é uma única passagem em aritmética de centavos, sem BigDecimal e sem
+ * alterar as contas. Carteiras grandes são divididas em fatias num ForkJoinPool próprio.
+ */
+@Service
+public class ProjecaoService {
+
+    public static final int MESES_MAXIMO = 1200;
+
+    private final BancoService bancoService;
+    private final ForkJoinPool pool;
+    private final int tamanhoFatia;
+
+    @Autowired
+    public ProjecaoService(BancoService bancoService,
+                           @Value("${banco.lote.paralelismo:0}") int paralelismo,
+                           @Value("${banco.lote.tamanho-fatia:4096}") int tamanhoFatia) {
+        if (tamanhoFatia <= 0) {
+            throw new IllegalArgumentException("Tamanho da fatia deve ser maior que zero");
+        }
+        this.bancoService = bancoService;
+        this.pool = new ForkJoinPool(paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors());
+        this.tamanhoFatia = tamanhoFatia;
+    }
+
+    public Projecao projetarConta(String numero, int meses) {
+        validarMeses(meses);
+        Conta conta = bancoService.buscarContaPorNumero(numero);
+        if (!(conta instanceof Rentavel)) {
+            throw new OperacaoInvalidaException("Apenas contas poupança e investimento têm projeção de saldo");
+        }
+        return projetar(conta, meses);
+    }
+
+    // Carteira de um cliente, com a projeção de cada conta
+    public ProjecaoCarteira projetarCliente(String cpf, int meses) {
+        validarMeses(meses);
+        return projetar(bancoService.buscarContasPorCliente(cpf).toArray(new Conta[0]), meses, true);
+    }
+
+    // Todas as contas do banco, só com os totais
+    public ProjecaoCarteira projetarBanco(int meses) {
+        validarMeses(meses);
+        return projetar(bancoService.instantaneoContas(), meses, false);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        pool.shutdownNow();
+    }
+
+    private ProjecaoCarteira projetar(Conta[] contas, int meses, boolean detalhar) {
+        Projecao[] projecoes = detalhar ? new Projecao[contas.length] : null;
+        Fatia fatia = new Fatia(contas, meses, projecoes, 0, contas.length);
+        // Carteiras que cabem numa fatia são projetadas na própria thread da requisição
+        if (contas.length <= tamanhoFatia) {
+            fatia.compute();
+        } else {
+            pool.invoke(fatia);
+        }
+        List<Projecao> lista = new ArrayList<>();
+        if (detalhar) {
+            for (Projecao projecao : projecoes) {
+                if (projecao != null) {
+                    lista.add(projecao);
+                }
+            }
+        }
+        return new ProjecaoCarteira(meses, fatia.quantidade, fatia.saldoAtual, fatia.saldoProjetado,
+                fatia.rendimentos, fatia.tarifas, fatia.imposto, lista);
+    }
+
+    static Projecao projetar(Conta conta, int meses) {
+        Rentavel rentavel = (Rentavel) conta;
+        long saldoAtual = conta.saldoEmCentavos();
+        long saldo = saldoAtual;
+        long rendimentos = 0;
+        long tarifas = 0;
+        try {
+            for (int mes = 0; mes < meses; mes++) {
+                long rendimento = rentavel.rendimentoMensalCentavos(saldo);
+                saldo = Centavos.somar(saldo, rendimento);
+                long tarifa = conta.tarifaMensalCentavos(saldo);
+                if (rendimento == 0 && tarifa == 0) {
+                    // Saldo pequeno demais para render e sem tarifa: não muda mais
+                    break;
+                }
+                saldo = Centavos.subtrair(saldo, tarifa);
+                rendimentos = Centavos.somar(rendimentos, rendimento);
+                tarifas = Centavos.somar(tarifas, tarifa);
+            }
+            long imposto = conta instanceof Tributavel ? ((Tributavel) conta).impostoCentavos(saldo) : 0;
+            return new Projecao(conta.getNumero(), meses, saldoAtual, saldo, rendimentos, tarifas, imposto);
+        } catch (ArithmeticException e) {
+            throw new OperacaoInvalidaException("Projeção da conta " + conta.getNumero()
+                    + " excede o intervalo de valores suportado", e);
+        }
+    }
+
+    private static void validarMeses(int meses) {
+        if (meses <= 0 || meses > MESES_MAXIMO) {
+            throw new OperacaoInvalidaException("Número de meses deve estar entre 1 e " + MESES_MAXIMO);
+        }
+    }
+
+    private class Fatia extends RecursiveAction {
+
+        private final Conta[] contas;
+        private final int meses;
+        private final Projecao[] projecoes;
+        private final int inicio;
+        private final int fim;
+
+        long quantidade;
+        long saldoAtual;
+        long saldoProjetado;
+        long rendimentos;
+        long tarifas;
+        long imposto;
+
+        Fatia(Conta[] contas, int meses, Projecao[] projecoes, int inicio, int fim) {
+            this.contas = contas;
+            this.meses = meses;
+            this.projecoes = projecoes;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute() {
+            if (fim - inicio > tamanhoFatia) {
+                int meio = (inicio + fim) >>> 1;
+                Fatia primeira = new Fatia(contas, meses, projecoes, inicio, meio);
+                Fatia segunda = new Fatia(contas, meses, projecoes, meio, fim);
+                invokeAll(primeira, segunda);
+                acumular(primeira.quantidade, primeira.saldoAtual, primeira.saldoProjetado,
+                        primeira.rendimentos, primeira.tarifas, primeira.imposto);
+                acumular(segunda.quantidade, segunda.saldoAtual, segunda.saldoProjetado,
+                        segunda.rendimentos, segunda.tarifas, segunda.imposto);
+                return;
+            }
+            for (int i = inicio; i < fim; i++) {
+                if (!(contas[i] instanceof Rentavel)) {
+                    continue;
+                }
+                Projecao projecao = projetar(contas[i], meses);
+                if (projecoes != null) {
+                    projecoes[i] = projecao;
+                }
+                acumular(1, projecao.saldoAtualEmCentavos(), projecao.saldoProjetadoEmCentavos(),
+                        projecao.rendimentosEmCentavos(), projecao.tarifasEmCentavos(), projecao.impostoEmCentavos());
+            }
+        }
+
+        private void acumular(long quantidade, long saldoAtual, long saldoProjetado, long rendimentos, long tarifas,
+                              long imposto) {
+            try {
+                this.quantidade += quantidade;
+                this.saldoAtual = Centavos.somar(this.saldoAtual, saldoAtual);
+                this.saldoProjetado = Centavos.somar(this.saldoProjetado, saldoProjetado);
+                this.rendimentos = Centavos.somar(this.rendimentos, rendimentos);
+                this.tarifas = Centavos.somar(this.tarifas, tarifas);
+                this.imposto = Centavos.somar(this.imposto, imposto);
+            } catch (ArithmeticException e) {
+                throw new OperacaoInvalidaException("Total da projeção excede o intervalo de valores suportado", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.banco.service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.banco.exception.ConflitoIdempotenciaException;
+import com.banco.exception.LimiteRequisicoesException;
+import com.banco.exception.OperacaoInvalidaException;
+import com.banco.exception.RecursoNaoEncontradoException;
+import com.banco.exception.SaldoInsuficienteException;
+
+/**
+ * Resultados de operações identificadas por uma chave de idempotência (cabeçalho
+ * {@code Idempotency-Key}), para que a repetição de um pedido devolva o resultado
+ * original sem executar a operação de novo.
+ *
+ * <p>As chaves ficam num mapa concorrente e numa fila na ordem de inserção. Como o TTL é
+ * o mesmo para todas, a cabeça da fila é sempre a próxima a expirar. Cada inserção
+ * descarta da cabeça as chaves vencidas e, se a fila passar da capacidade, as mais
+ * antigas já concluídas. Busca e inserção são O(1) e a memória fica limitada à
+ * capacidade mais as operações em andamento.
+ *
+ * <p>Enquanto a primeira execução não termina, repetições da mesma chave esperam pelo
+ * resultado dela. Recusas (operação inválida, recurso inexistente, saldo insuficiente,
+ * limite excedido) acontecem antes de qualquer alteração: a chave é liberada e quem
+ * esperava recebe a mesma exceção. Qualquer outra falha pode ter deixado efeitos, então
+ * ela fica guardada como o resultado da chave e as repetições a recebem de novo.
+ */
+@Service
+public class RegistroIdempotencia {
+
+    private static final long ESPERA_MAXIMA_SEGUNDOS = 30;
+
+    private final ConcurrentHashMap<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entrada> ordem = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger naFila = new AtomicInteger();
+    private final int capacidade;
+    private final long ttlNanos;
+    private final LongSupplier relogio;
+
+    @Autowired
+    public RegistroIdempotencia(@Value("${banco.idempotencia.capacidade:100000}") int capacidade,
+                                @Value("${banco.idempotencia.ttl:PT10M}") Duration ttl) {
+        this(capacidade, ttl, System::nanoTime);
+    }
+
+    RegistroIdempotencia(int capacidade, Duration ttl, LongSupplier relogio) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("Capacidade deve ser maior que zero");
+        }
+        this.capacidade = capacidade;
+        this.ttlNanos = ttl.toNanos();
+        this.relogio = relogio;
+    }
+
+    /**
+     * Executa a operação uma única vez por chave dentro do TTL. {@code pedido} descreve a
+     * operação e seus parâmetros: a mesma chave com outro pedido é recusada.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T executar(String chave, String pedido, Supplier<T> operacao) {
+        long agora = relogio.getAsLong();
+        // Repetições não alocam: a entrada só é criada para chaves novas
+        Entrada existente = entradas.get(chave);
+        if (existente != null && existente.expiraEm - agora > 0) {
+            return (T) repetir(existente, pedido);
+        }
+        Entrada nova = new Entrada(chave, pedido, agora + ttlNanos);
+        while ((existente = entradas.putIfAbsent(chave, nova)) != null) {
+            if (existente.expiraEm - agora > 0) {
+                return (T) repetir(existente, pedido);
+            }
+            entradas.remove(chave, existente);
+        }
+        ordem.add(nova);
+        naFila.incrementAndGet();
+        descartarAntigas(agora);
+
+        T resultado;
+        try {
+            resultado = operacao.get();
+        } catch (RuntimeException e) {
+            if (recusa(e)) {
+                entradas.remove(chave, nova);
+            }
+            nova.resultado.completeExceptionally(e);
+            throw e;
+        }
+        nova.resultado.complete(resultado);
+        return resultado;
+    }
+
+    public int tamanho() {
+        return entradas.size();
+    }
+
+    private void descartarAntigas(long agora) {
+        Entrada cabeca;
+        while ((cabeca = ordem.peek()) != null && cabeca.expiraEm - agora <= 0) {
+            descartar(cabeca);
+        }
+        // Por capacidade só saem as concluídas; as em andamento, no máximo uma por requisição, são puladas
+        for (Iterator<Entrada> it = ordem.iterator(); naFila.get() > capacidade && it.hasNext(); ) {
+            Entrada entrada = it.next();
+            if (entrada.resultado.isDone()) {
+                descartar(entrada);
+            }
+        }
+    }
+
+    private void descartar(Entrada entrada) {
+        if (ordem.remove(entrada)) {
+            naFila.decrementAndGet();
+            entradas.remove(entrada.chave, entrada);
+        }
+    }
+
+    private static boolean recusa(RuntimeException e) {
+        return e instanceof OperacaoInvalidaException || e instanceof RecursoNaoEncontradoException
+                || e instanceof SaldoInsuficienteException || e instanceof LimiteRequisicoesException;
+    }
+
+    private static Object repetir(Entrada entrada, String pedido) {
+        if (!entrada.pedido.equals(pedido)) {
+            throw new ConflitoIdempotenciaException(
+                    "Chave de idempotência " + entrada.chave + " já usada em outra operação");
+        }
+        if (entrada.resultado.isDone() && !entrada.resultado.isCompletedExceptionally()) {
+            return entrada.resultado.getNow(null);
+        }
+        return aguardar(entrada);
+    }
+
+    private static Object aguardar(Entrada entrada) {
+        try {
+            return entrada.resultado.get(ESPERA_MAXIMA_SEGUNDOS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ConflitoIdempotenciaException("Operação com a chave " + entrada.chave + " ainda em processamento");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflitoIdempotenciaException("Operação com a chave " + entrada.chave + " ainda em processamento");
+        }
+    }
+
+    private static final class Entrada {
+
+        private final String chave;
+        private final String pedido;
+        private final long expiraEm;
+        private final CompletableFuture<Object> resultado = new CompletableFuture<>();
+
+        Entrada(String chave, String pedido, long expiraEm) {
+            this.chave = chave;
+            this.pedido = pedido;
+            this.expiraEm = expiraEm;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.banco.service;
+
+/**
+ * Totais de um lote processado por OperacoesLoteService ou por ImportacaoService.
+ */
+public class ResumoLote {
+
+    private final long total;
+    private final long sucesso;
+    private final long duracaoNanos;
+
+    ResumoLote(long total, long sucesso, long duracaoNanos) {
+        this.total = total;
+        this.sucesso = sucesso;
+        this.duracaoNanos = duracaoNanos;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getSucesso() {
+        return sucesso;
+    }
+
+    public long getFalhas() {
+        return total - sucesso;
+    }
+
+    public long getDuracaoMs() {
+        return duracaoNanos / 1_000_000;
+    }
+
+    public double getItensPorSegundo() {
+        return duracaoNanos == 0 ? 0 : total * 1_000_000_000.0 / duracaoNanos;
+    }
+}
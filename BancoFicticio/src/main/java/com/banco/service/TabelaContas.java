@@ -0,0 +1,288 @@
+package com.banco.service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.banco.domain.Conta;
+import com.banco.domain.TabelaSaldos;
+
+/**
+ * Tabela de contas endereçada pelo id denso de cada conta, que é a posição atribuída
+ * na criação em {@link TabelaSaldos} ({@link Conta#posicao}), mais um dicionário de
+ * número para id usado só na entrada (API, importação, recuperação). Depois da busca,
+ * saldo, situação e trava da conta são todos encontrados pelo id.
+ *
+ * <p>As contas ficam em páginas de {@code Conta[]} indexadas pelo id. O dicionário é de
+ * endereçamento aberto com sondagem linear sobre um único {@code long[]} com chave e id
+ * lado a lado, então cada sondagem lê uma linha de cache. Números de até 9 caracteres
+ * ASCII (como {@code CC-001}) são codificados na própria chave, 7 bits por caractere, e a
+ * busca os compara sem calcular hash nem ler a conta; os demais guardam o hashCode do
+ * número e são confirmados pela conta encontrada.
+ *
+ * <p>Mesmo modelo de concorrência de {@link IndiceClientes}: leituras sem trava (a
+ * escrita grava conta, id e chave nessa ordem, com semântica release), escritas
+ * serializadas na própria tabela. Remover esvazia só a conta; a chave fica até o
+ * próximo crescimento do dicionário. Ids de contas removidas não são reutilizados.
+ */
+public class TabelaContas implements Iterable<Conta> {
+
+    public static final int AUSENTE = -1;
+
+    private static final VarHandle ENTRADAS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle CONTAS = MethodHandles.arrayElementVarHandle(Conta[].class);
+    // Chaves codificadas são positivas e as de números longos, negativas
+    private static final long VAZIA = 0;
+    private static final int CAPACIDADE_INICIAL = 64;
+    private static final int BITS_PAGINA = 16;
+    private static final int MASCARA_PAGINA = (1 << BITS_PAGINA) - 1;
+
+    // Posição i do dicionário: chave em entradas[2 * i], id em entradas[2 * i + 1]
+    private static final class Dicionario {
+        final long[] entradas;
+        final int mascara;
+
+        Dicionario(int capacidade) {
+            entradas = new long[capacidade * 2];
+            mascara = capacidade - 1;
+        }
+
+        int capacidade() {
+            return mascara + 1;
+        }
+    }
+
+    // Serializa as escritas sem prender a thread virtual à portadora, como as travas de TravasContas
+    private final ReentrantLock trava = new ReentrantLock();
+    private volatile Dicionario dicionario = new Dicionario(CAPACIDADE_INICIAL);
+    private volatile Conta[][] paginas = new Conta[0][];
+    private volatile int tamanho;
+    // Posições do dicionário com chave, incluindo as de contas removidas; só muda sob a trava da tabela
+    private int ocupadas;
+
+    // Id da conta com esse número, ou AUSENTE; não aloca
+    public int id(String numero) {
+        long chave = chave(numero);
+        Dicionario d = dicionario;
+        for (int i = posicao(chave, d.mascara); ; i = (i + 1) & d.mascara) {
+            long atual = (long) ENTRADAS.getAcquire(d.entradas, 2 * i);
+            if (atual == VAZIA) {
+                return AUSENTE;
+            }
+            if (atual == chave) {
+                int id = (int) d.entradas[2 * i + 1];
+                Conta conta = conta(id);
+                if (conta != null && (chave > 0 || conta.getNumero().equals(numero))) {
+                    return id;
+                }
+            }
+        }
+    }
+
+    public Conta conta(int id) {
+        Conta[][] p = paginas;
+        int pagina = id >>> BITS_PAGINA;
+        if (pagina >= p.length || p[pagina] == null) {
+            return null;
+        }
+        return (Conta) CONTAS.getAcquire(p[pagina], id & MASCARA_PAGINA);
+    }
+
+    public Conta buscar(String numero) {
+        int id = id(numero);
+        return id == AUSENTE ? null : conta(id);
+    }
+
+    // Inclui a conta se o número estiver livre; devolve a conta já cadastrada, ou null
+    public Conta adicionarSeAusente(Conta conta) {
+        trava.lock();
+        try {
+            String numero = conta.getNumero();
+            long chave = chave(numero);
+            Dicionario d = dicionario;
+            int i = posicao(chave, d.mascara);
+            for (long atual; (atual = d.entradas[2 * i]) != VAZIA; i = (i + 1) & d.mascara) {
+                if (atual == chave) {
+                    Conta existente = conta((int) d.entradas[2 * i + 1]);
+                    if (existente != null && existente.getNumero().equals(numero)) {
+                        return existente;
+                    }
+                }
+            }
+            // Ocupação máxima de três quartos: as sondagens comparam só longs
+            if ((ocupadas + 1) * 4L > d.capacidade() * 3L) {
+                d = crescer(d);
+                i = livre(d, chave);
+            }
+            gravarConta(conta.posicao(), conta);
+            ENTRADAS.setRelease(d.entradas, 2 * i + 1, (long) conta.posicao());
+            ENTRADAS.setRelease(d.entradas, 2 * i, chave);
+            ocupadas++;
+            tamanho++;
+            return null;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public boolean remover(Conta conta) {
+        trava.lock();
+        try {
+            if (conta(conta.posicao()) != conta) {
+                return false;
+            }
+            gravarConta(conta.posicao(), null);
+            tamanho--;
+            return true;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public void limpar() {
+        trava.lock();
+        try {
+            dicionario = new Dicionario(CAPACIDADE_INICIAL);
+            paginas = new Conta[0][];
+            ocupadas = 0;
+            tamanho = 0;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    public List<Conta> listar() {
+        List<Conta> lista = new ArrayList<>(tamanho);
+        for (Conta conta : this) {
+            lista.add(conta);
+        }
+        return lista;
+    }
+
+    // Percorre em ordem de id, isto é, de criação; como IndiceClientes, não lança
+    // ConcurrentModificationException e pode ou não ver inclusões feitas durante o percurso
+    @Override
+    public Iterator<Conta> iterator() {
+        Conta[][] p = paginas;
+        return new Iterator<>() {
+            private int id;
+            private Conta proxima = avancar();
+
+            private Conta avancar() {
+                while (id >>> BITS_PAGINA < p.length) {
+                    Conta[] pagina = p[id >>> BITS_PAGINA];
+                    if (pagina == null) {
+                        id = ((id >>> BITS_PAGINA) + 1) << BITS_PAGINA;
+                        continue;
+                    }
+                    Conta conta = (Conta) CONTAS.getAcquire(pagina, id++ & MASCARA_PAGINA);
+                    if (conta != null) {
+                        return conta;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return proxima != null;
+            }
+
+            @Override
+            public Conta next() {
+                if (proxima == null) {
+                    throw new NoSuchElementException();
+                }
+                Conta atual = proxima;
+                proxima = avancar();
+                return atual;
+            }
+        };
+    }
+
+    // Chamado sob a trava da tabela
+    private void gravarConta(int id, Conta conta) {
+        int pagina = id >>> BITS_PAGINA;
+        Conta[][] p = paginas;
+        if (pagina < p.length && p[pagina] != null) {
+            CONTAS.setRelease(p[pagina], id & MASCARA_PAGINA, conta);
+            return;
+        }
+        if (conta == null) {
+            return;
+        }
+        // Página nova: preenchida antes de o vetor de páginas ser publicado
+        Conta[][] novas = pagina < p.length ? p.clone() : Arrays.copyOf(p, Math.max(pagina + 1, p.length * 2));
+        novas[pagina] = new Conta[1 << BITS_PAGINA];
+        novas[pagina][id & MASCARA_PAGINA] = conta;
+        paginas = novas;
+    }
+
+    // Chamado sob a trava da tabela; chaves de contas removidas não são copiadas
+    private Dicionario crescer(Dicionario atual) {
+        int vivas = tamanho;
+        int capacidade = CAPACIDADE_INICIAL;
+        while ((vivas + 1) * 4L > capacidade * 3L) {
+            if (capacidade == 1 << 30) {
+                throw new IllegalStateException("Tabela de contas cheia");
+            }
+            capacidade <<= 1;
+        }
+        Dicionario novo = new Dicionario(capacidade);
+        for (int i = 0; i < atual.entradas.length; i += 2) {
+            if (atual.entradas[i] != VAZIA && conta((int) atual.entradas[i + 1]) != null) {
+                int j = livre(novo, atual.entradas[i]);
+                novo.entradas[2 * j] = atual.entradas[i];
+                novo.entradas[2 * j + 1] = atual.entradas[i + 1];
+            }
+        }
+        ocupadas = vivas;
+        // A escrita volátil publica as colunas já preenchidas
+        dicionario = novo;
+        return novo;
+    }
+
+    private static int livre(Dicionario d, long chave) {
+        int i = posicao(chave, d.mascara);
+        while (d.entradas[2 * i] != VAZIA) {
+            i = (i + 1) & d.mascara;
+        }
+        return i;
+    }
+
+    // Números de 1 a 9 caracteres entre 1 e 127 cabem em 63 bits, e números de tamanhos
+    // diferentes caem em faixas diferentes, então a chave identifica o número
+    static long chave(String numero) {
+        int tamanho = numero.length();
+        if (tamanho == 0 || tamanho > 9) {
+            return chaveLonga(numero);
+        }
+        long chave = 0;
+        for (int i = 0; i < tamanho; i++) {
+            char c = numero.charAt(i);
+            if (c == 0 || c > 127) {
+                return chaveLonga(numero);
+            }
+            chave = chave << 7 | c;
+        }
+        return chave;
+    }
+
+    private static long chaveLonga(String numero) {
+        return Long.MIN_VALUE | (numero.hashCode() & 0xFFFF_FFFFL);
+    }
+
+    private static int posicao(long chave, int mascara) {
+        long h = chave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+}
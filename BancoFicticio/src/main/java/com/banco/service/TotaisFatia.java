@@ -0,0 +1,105 @@
+package com.banco.service;
+
+import java.util.Arrays;
+
+/**
+ * Totais de uma fatia do fechamento mensal: contas fechadas, contas que já tinham a
+ * competência aplicada, contas ignoradas (encerradas ou abertas depois da competência) e
+ * falhas; e, por estágio, quantas contas passaram por ele, o valor movimentado em centavos
+ * e o tempo gasto. Preenchido por uma única thread; é o que o ponto de controle guarda de
+ * cada fatia concluída.
+ */
+public final class TotaisFatia {
+
+    private static final int ESTAGIOS = EstagioFechamento.values().length;
+    // Vetor: aplicadas, jaAplicadas, ignoradas, falhas e depois contas, valor e nanos de cada estágio
+    private static final int CONTADORES = 4;
+    public static final int TAMANHO = CONTADORES + 3 * ESTAGIOS;
+
+    private final long[] valores;
+
+    public TotaisFatia() {
+        this(new long[TAMANHO]);
+    }
+
+    private TotaisFatia(long[] valores) {
+        this.valores = valores;
+    }
+
+    public static TotaisFatia deVetor(long[] valores) {
+        if (valores.length != TAMANHO) {
+            throw new IllegalArgumentException("Totais de fatia com " + valores.length + " valores");
+        }
+        return new TotaisFatia(valores.clone());
+    }
+
+    public long[] paraVetor() {
+        return valores.clone();
+    }
+
+    void aplicada() {
+        valores[0]++;
+    }
+
+    void jaAplicada() {
+        valores[1]++;
+    }
+
+    void ignorada() {
+        valores[2]++;
+    }
+
+    void falha() {
+        valores[3]++;
+    }
+
+    void estagio(EstagioFechamento estagio, long valorCentavos, long nanos) {
+        int base = CONTADORES + 3 * estagio.ordinal();
+        valores[base]++;
+        valores[base + 1] += valorCentavos;
+        valores[base + 2] += nanos;
+    }
+
+    public long aplicadas() {
+        return valores[0];
+    }
+
+    public long jaAplicadas() {
+        return valores[1];
+    }
+
+    public long ignoradas() {
+        return valores[2];
+    }
+
+    public long falhas() {
+        return valores[3];
+    }
+
+    // Todas as contas percorridas pela fatia, qualquer que tenha sido o resultado
+    public long processadas() {
+        return valores[0] + valores[1] + valores[2] + valores[3];
+    }
+
+    public long contas(EstagioFechamento estagio) {
+        return valores[CONTADORES + 3 * estagio.ordinal()];
+    }
+
+    public long valorCentavos(EstagioFechamento estagio) {
+        return valores[CONTADORES + 3 * estagio.ordinal() + 1];
+    }
+
+    public long nanos(EstagioFechamento estagio) {
+        return valores[CONTADORES + 3 * estagio.ordinal() + 2];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof TotaisFatia outros && Arrays.equals(valores, outros.valores);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(valores);
+    }
+}
@@ -0,0 +1,58 @@
+package com.banco.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Conjunto fixo de travas indexado pelo id da conta (lock striping).
+ * Operações em contas diferentes raramente disputam a mesma trava, então
+ * escalam entre núcleos sem depender de uma trava global.
+ */
+public class TravasContas {
+
+    private static final int QUANTIDADE_PADRAO = 1024;
+
+    private final ReentrantLock[] travas;
+    private final int mascara;
+
+    public TravasContas() {
+        this(QUANTIDADE_PADRAO);
+    }
+
+    public TravasContas(int quantidade) {
+        if (quantidade <= 0 || Integer.bitCount(quantidade) != 1) {
+            throw new IllegalArgumentException("Quantidade de travas deve ser potência de 2");
+        }
+        this.travas = new ReentrantLock[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            travas[i] = new ReentrantLock();
+        }
+        this.mascara = quantidade - 1;
+    }
+
+    // Ids são densos, então contas consecutivas caem em faixas consecutivas
+    public int indiceConta(int idConta) {
+        return idConta & mascara;
+    }
+
+    public ReentrantLock travaConta(int idConta) {
+        return travas[indiceConta(idConta)];
+    }
+
+    // Travas dos clientes, pelo CPF normalizado; compartilham as faixas com as contas
+    public int indice(long chave) {
+        long h = chave * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mascara;
+    }
+
+    public ReentrantLock trava(long chave) {
+        return travas[indice(chave)];
+    }
+
+    public ReentrantLock travaNoIndice(int indice) {
+        return travas[indice];
+    }
+
+    public int quantidade() {
+        return travas.length;
+    }
+}
@@ -0,0 +1,72 @@
+package com.banco.benchmark;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.banco.exception.LimiteRequisicoesException;
+import com.banco.service.ControleAdmissao;
+
+/**
+ * Custo do ControleAdmissao por requisição: admissão de uma conta dentro do limite
+ * (balde da conta, balde do cliente e vaga de concorrência) e recusa de uma conta
+ * que já passou do limite.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx512m"})
+@State(Scope.Benchmark)
+public class AdmissaoBenchmark {
+
+    private ControleAdmissao livre;
+    private ControleAdmissao esgotado;
+
+    @Setup
+    public void setUp() {
+        // Taxas e rajadas altas o bastante para nunca recusar, mesmo com threads preemptadas entre ler o relógio e o CAS
+        livre = new ControleAdmissao(true, 1e9, 1_000_000_000, 1e9, 1_000_000_000, 1024, Duration.ZERO, 100000);
+        esgotado = new ControleAdmissao(true, 1e-3, 1, 0, 0, 1024, Duration.ZERO, 100000);
+        esgotado.admitir("1111", null);
+        esgotado.liberar();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean admitir() {
+        boolean vaga = livre.admitir("1111", "12345678901");
+        livre.liberar();
+        return vaga;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean admitirConcorrente() {
+        boolean vaga = livre.admitir("1111", "12345678901");
+        livre.liberar();
+        return vaga;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long recusar() {
+        try {
+            esgotado.admitir("1111", null);
+            return 0;
+        } catch (LimiteRequisicoesException e) {
+            return e.getSegundosParaNovaTentativa();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.banco.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.banco.domain.Cliente;
+import com.banco.domain.Conta;
+import com.banco.domain.ContaCorrente;
+import com.banco.domain.ContaInvestimento;
+import com.banco.domain.ContaPoupanca;
+import com.banco.domain.Cpf;
+import com.banco.domain.TipoInvestimento;
+import com.banco.service.BancoService;
+
+/**
+ * Operações do BancoService sobre bases de 1 mil, 100 mil e 1 milhão de contas
+ * (um terço de cada tipo, 10% encerradas, {@value #CONTAS_POR_CLIENTE} contas por cliente). Operações por conta são medidas em
+ * nanossegundos; as que percorrem todas as contas, em milissegundos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class BancoServiceBenchmark {
+
+    private static final String CPF = "000.000.001-91";
+    private static final int CONTAS_POR_CLIENTE = 4;
+    private static final BigDecimal VALOR = new BigDecimal("10.00");
+    private static final BigDecimal SALDO_INICIAL = new BigDecimal("1000000.00");
+    private static final int CONTAS_CRIADAS_POR_LOTE = 10_000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int contas;
+
+    private BancoService bancoService;
+    private String[] numeros;
+    // CPFs dos clientes com pontuação, como chegam pela API
+    private String[] cpfs;
+    private YearMonth competencia = YearMonth.now(ZoneOffset.UTC);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bancoService = new BancoService();
+        List<String> abertas = new ArrayList<>();
+        TipoInvestimento[] tipos = TipoInvestimento.values();
+        for (int i = 0; i < contas; i++) {
+            String cpf = cpf(i);
+            if (i % CONTAS_POR_CLIENTE == 0) {
+                bancoService.criarCliente("Cliente " + i, cpf, LocalDate.of(1990, 1, 1));
+            }
+            String numero = "C-" + i;
+            switch (i % 3) {
+                case 0 -> bancoService.criarContaCorrente(numero, cpf, new BigDecimal("500.00"));
+                case 1 -> bancoService.criarContaPoupanca(numero, cpf);
+                default -> bancoService.criarContaInvestimento(numero, cpf, tipos[(i / 3) % tipos.length]);
+            }
+            if (i % 10 == 0) {
+                bancoService.encerrarConta(numero);
+            } else {
+                bancoService.depositar(numero, SALDO_INICIAL);
+                abertas.add(numero);
+            }
+        }
+        // Depósitos, saques e buscas sorteiam entre as contas abertas. São cópias dos números,
+        // como os que chegam numa requisição: com a String da própria conta a busca compararia
+        // só referências
+        numeros = abertas.stream().map(numero -> new String(numero.toCharArray())).toArray(String[]::new);
+        cpfs = new String[(contas + CONTAS_POR_CLIENTE - 1) / CONTAS_POR_CLIENTE];
+        for (int i = 0; i < cpfs.length; i++) {
+            cpfs[i] = Cpf.formatar(Cpf.normalizar(cpf(i * CONTAS_POR_CLIENTE)));
+        }
+    }
+
+    // Base nova a cada iteração para que a criação não acumule milhões de contas
+    @State(Scope.Thread)
+    public static class Criacao {
+        BancoService bancoService;
+        int proxima;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            bancoService = new BancoService();
+            for (int i = 0; i < CONTAS_CRIADAS_POR_LOTE; i += CONTAS_POR_CLIENTE) {
+                bancoService.criarCliente("Cliente " + i, cpf(i), LocalDate.of(1990, 1, 1));
+            }
+            proxima = 0;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ChequeEspecial {
+        ContaCorrente conta;
+
+        @Setup
+        public void setUp() {
+            conta = new ContaCorrente("CE", new Cliente("Benchmark", CPF, LocalDate.of(1990, 1, 1)), new BigDecimal("500.00"));
+        }
+    }
+
+    private static String cpf(int conta) {
+        return Cpf.gerar(conta / CONTAS_POR_CLIENTE + 1);
+    }
+
+    private String numeroAleatorio() {
+        return numeros[ThreadLocalRandom.current().nextInt(numeros.length)];
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = CONTAS_CRIADAS_POR_LOTE)
+    @Measurement(iterations = 5, batchSize = CONTAS_CRIADAS_POR_LOTE)
+    public ContaCorrente criarContaCorrente(Criacao criacao) {
+        int conta = criacao.proxima++;
+        return criacao.bancoService.criarContaCorrente("N-" + conta, cpf(conta), VALOR);
+    }
+
+    @Benchmark
+    public void depositar() {
+        bancoService.depositar(numeroAleatorio(), VALOR);
+    }
+
+    @Benchmark
+    public void sacar() {
+        bancoService.sacar(numeroAleatorio(), VALOR);
+    }
+
+    // Saque que entra no cheque especial: parte sempre de saldo zero
+    @Benchmark
+    public long sacarComChequeEspecial(ChequeEspecial estado) {
+        estado.conta.restaurarSaldoCentavos(0);
+        estado.conta.sacar(VALOR);
+        return estado.conta.saldoEmCentavos();
+    }
+
+    @Benchmark
+    public Conta buscarContaPorNumero() {
+        return bancoService.buscarContaPorNumero(numeroAleatorio());
+    }
+
+    @Benchmark
+    public Cliente buscarClientePorCpf() {
+        return bancoService.buscarClientePorCpf(cpfs[ThreadLocalRandom.current().nextInt(cpfs.length)]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void fecharMes() {
+        // Uma competência nova a cada chamada, para que nenhuma conta seja pulada como já fechada
+        competencia = competencia.plusMonths(1);
+        for (String numero : numeros) {
+            bancoService.fecharConta(numero, competencia);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Conta> buscarContasAtivas() {
+        return bancoService.buscarContasAtivas();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<ContaPoupanca> buscarContasPoupanca() {
+        return bancoService.buscarContasPoupanca();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<ContaInvestimento> buscarContasInvestimentoRendaVariavel() {
+        return bancoService.buscarContasInvestimento(TipoInvestimento.RENDA_VARIAVEL);
+    }
+}
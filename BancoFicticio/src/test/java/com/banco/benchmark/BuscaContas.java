@@ -0,0 +1,147 @@
+package com.banco.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+import com.banco.domain.Cliente;
+import com.banco.domain.Conta;
+import com.banco.domain.ContaPoupanca;
+import com.banco.domain.TabelaSaldos;
+import com.banco.domain.TabelaSaldosNoHeap;
+import com.banco.service.TabelaContas;
+import com.banco.service.TravasContas;
+
+/**
+ * Busca de conta pelo número e bytes por conta do índice de contas, comparando a forma
+ * anterior com a atual:
+ *
+ * <ul>
+ * <li>{@code mapa}: {@code ConcurrentHashMap<String, Conta>} e a faixa de trava calculada
+ * pelo hashCode do número</li>
+ * <li>{@code tabela}: {@link TabelaContas} e a faixa de trava pelo id da conta</li>
+ * </ul>
+ *
+ * <p>As contas e seus números são criados antes da primeira medição, então os bytes por conta
+ * são só os do índice. Cada busca usa uma String nova, com o hashCode ainda não calculado,
+ * como o número que chega numa requisição; o tempo inclui a leitura da conta encontrada.
+ * Cada modo roda num processo separado, com o mesmo heap.
+ *
+ * <p>Uso: {@code BuscaContas [contas=10000000] [buscas=2000000] [heap=3g]}
+ */
+public class BuscaContas {
+
+    private static final int RODADAS_AQUECIMENTO = 5;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--filho")) {
+            filho(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+        Map<String, String> opcoes = new LinkedHashMap<>(Map.of("contas", "10000000", "buscas", "2000000", "heap", "3g"));
+        for (String arg : args) {
+            String[] partes = arg.split("=", 2);
+            opcoes.put(partes[0], partes[1]);
+        }
+        for (String modo : new String[] {"mapa", "tabela"}) {
+            String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+            ProcessBuilder construtor = new ProcessBuilder(java,
+                    "-Xms" + opcoes.get("heap"), "-Xmx" + opcoes.get("heap"),
+                    "-cp", System.getProperty("java.class.path"),
+                    BuscaContas.class.getName(), "--filho", modo, opcoes.get("contas"), opcoes.get("buscas"));
+            construtor.redirectErrorStream(true);
+            construtor.redirectOutput(ProcessBuilder.Redirect.INHERIT);
+            if (construtor.start().waitFor() != 0) {
+                throw new IllegalStateException("Modo " + modo + " falhou");
+            }
+        }
+    }
+
+    private static void filho(String modo, int quantidade, int buscas) {
+        TabelaSaldos saldos = new TabelaSaldosNoHeap();
+        Cliente titular = new Cliente("Titular", "12345678909", LocalDate.of(1990, 1, 1));
+        Conta[] contas = new Conta[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            contas[i] = new ContaPoupanca("C-" + i, titular, saldos);
+        }
+        TravasContas travas = new TravasContas();
+        long antes = heapUsado();
+
+        Object estado;
+        ToIntFunction<String> buscar;
+        if (modo.equals("mapa")) {
+            ConcurrentHashMap<String, Conta> mapa = new ConcurrentHashMap<>();
+            for (Conta conta : contas) {
+                mapa.put(conta.getNumero(), conta);
+            }
+            estado = mapa;
+            buscar = numero -> {
+                Conta conta = mapa.get(numero);
+                int h = numero.hashCode();
+                return ((h ^ (h >>> 16)) & (travas.quantidade() - 1)) + conta.posicao();
+            };
+        } else {
+            TabelaContas tabela = new TabelaContas();
+            for (Conta conta : contas) {
+                tabela.adicionarSeAusente(conta);
+            }
+            estado = tabela;
+            buscar = numero -> {
+                int id = tabela.id(numero);
+                return travas.indiceConta(id) + tabela.conta(id).posicao();
+            };
+        }
+        long depois = heapUsado();
+
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        long soma = 0;
+        for (int rodada = 0; rodada < RODADAS_AQUECIMENTO; rodada++) {
+            soma += buscarTodas(buscar, numerosDeRequisicao(aleatorio, quantidade, buscas));
+        }
+        String[] medidas = numerosDeRequisicao(aleatorio, quantidade, buscas);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long alocadosAntes = threads.getCurrentThreadAllocatedBytes();
+        long inicio = System.nanoTime();
+        soma += buscarTodas(buscar, medidas);
+        long duracao = System.nanoTime() - inicio;
+        long alocados = threads.getCurrentThreadAllocatedBytes() - alocadosAntes;
+        Reference.reachabilityFence(estado);
+        Reference.reachabilityFence(contas);
+
+        System.out.printf(Locale.ROOT,
+                "{\"modo\":\"%s\",\"contas\":%d,\"bytesPorConta\":%.1f,\"nsPorBusca\":%.1f,\"bytesAlocadosPorBusca\":%.2f,\"soma\":%d}%n",
+                modo, quantidade, (depois - antes) / (double) quantidade, duracao / (double) buscas,
+                alocados / (double) buscas, soma);
+    }
+
+    // Cópias novas dos números sorteados, como chegariam de fora
+    private static String[] numerosDeRequisicao(SplittableRandom aleatorio, int contas, int buscas) {
+        String[] numeros = new String[buscas];
+        for (int i = 0; i < buscas; i++) {
+            numeros[i] = new String(("C-" + aleatorio.nextInt(contas)).toCharArray());
+        }
+        return numeros;
+    }
+
+    private static long buscarTodas(ToIntFunction<String> buscar, String[] numeros) {
+        long soma = 0;
+        for (String numero : numeros) {
+            soma += buscar.applyAsInt(numero);
+        }
+        return soma;
+    }
+
+    private static long heapUsado() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
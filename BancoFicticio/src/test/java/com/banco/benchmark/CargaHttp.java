@@ -0,0 +1,332 @@
+package com.banco.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Teste de carga local comparando o Tomcat com o pool de threads de plataforma e com
+ * threads virtuais ({@code spring.threads.virtual.enabled}).
+ *
+ * <p>Para cada modo a aplicação sobe num processo separado, para que os descritores de
+ * arquivo do cliente e do servidor não disputem o mesmo limite. O teste abre
+ * {@code conexoes} conexões HTTP/1.1 persistentes, cada uma numa thread virtual do
+ * cliente. A maioria faz depósitos em sequência, sem pausa; as {@code lentas} enviam lotes
+ * em {@code /operacoes/lote} devagar, simulando clientes lentos que seguram a thread
+ * que lê o corpo. Vazão e percentis consideram só os depósitos feitos depois do aquecimento.
+ *
+ * <p>Uso: {@code CargaHttp [modo=ambos|plataforma|virtual] [conexoes=10000] [lentas=500]
+ * [duracao=30] [aquecimento=10] [resultado=target/carga-resultado.json]}
+ */
+public class CargaHttp {
+
+    private static final String CPF = "11122233396";
+    private static final int CONTAS = 1000;
+    private static final int ITENS_LOTE_LENTO = 20;
+    private static final long PAUSA_LOTE_LENTO_MS = 100;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = new LinkedHashMap<>(Map.of(
+                "modo", "ambos", "conexoes", "10000", "lentas", "500",
+                "duracao", "30", "aquecimento", "10", "porta", "18080",
+                "resultado", "target/carga-resultado.json"));
+        for (String arg : args) {
+            String[] partes = arg.split("=", 2);
+            opcoes.put(partes[0], partes[1]);
+        }
+        List<String> modos = opcoes.get("modo").equals("ambos")
+                ? List.of("plataforma", "virtual") : List.of(opcoes.get("modo"));
+
+        List<Resultado> resultados = new ArrayList<>();
+        for (String modo : modos) {
+            resultados.add(executar(modo, opcoes));
+        }
+
+        System.out.printf(Locale.ROOT, "%n%-12s %10s %12s %10s %10s %10s %10s %8s%n",
+                "modo", "conexoes", "depositos", "req/s", "p50 ms", "p99 ms", "p999 ms", "erros");
+        StringBuilder json = new StringBuilder("[");
+        for (Resultado r : resultados) {
+            System.out.printf(Locale.ROOT, "%-12s %10d %12d %10.0f %10.2f %10.2f %10.2f %8d%n",
+                    r.modo, r.conexoes, r.requisicoes, r.porSegundo, r.p50, r.p99, r.p999, r.erros);
+            json.append(json.length() > 1 ? "," : "").append(r.json());
+        }
+        json.append("]\n");
+        Path arquivo = Path.of(opcoes.get("resultado"));
+        if (arquivo.getParent() != null) {
+            Files.createDirectories(arquivo.getParent());
+        }
+        Files.writeString(arquivo, json);
+        System.out.println("Resultado gravado em " + arquivo);
+    }
+
+    private static Resultado executar(String modo, Map<String, String> opcoes) throws Exception {
+        int porta = Integer.parseInt(opcoes.get("porta"));
+        int conexoes = Integer.parseInt(opcoes.get("conexoes"));
+        int lentas = Integer.parseInt(opcoes.get("lentas"));
+        long duracaoNs = TimeUnit.SECONDS.toNanos(Long.parseLong(opcoes.get("duracao")));
+        long aquecimentoNs = TimeUnit.SECONDS.toNanos(Long.parseLong(opcoes.get("aquecimento")));
+
+        System.out.printf("== Modo %s: %d conexões (%d lentas)%n", modo, conexoes, lentas);
+        Process servidor = iniciarServidor(modo, porta);
+        try {
+            prepararDados(porta);
+
+            long inicio = System.nanoTime();
+            long inicioMedicao = inicio + aquecimentoNs;
+            long fim = inicioMedicao + duracaoNs;
+            ConcurrentLinkedQueue<long[]> latencias = new ConcurrentLinkedQueue<>();
+            LongAdder erros = new LongAdder();
+            try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < conexoes; i++) {
+                    int indice = i;
+                    boolean lenta = i < lentas;
+                    clientes.submit(() -> {
+                        // Conexões abertas aos poucos durante o aquecimento, sem estourar o backlog
+                        Thread.sleep(aquecimentoNs / 2 / 1_000_000 * indice / conexoes);
+                        conectar(porta, indice, lenta, inicioMedicao, fim, latencias, erros);
+                        return null;
+                    });
+                }
+            }
+
+            long total = latencias.stream().mapToLong(l -> l.length).sum();
+            long[] todas = new long[(int) total];
+            int posicao = 0;
+            for (long[] parte : latencias) {
+                System.arraycopy(parte, 0, todas, posicao, parte.length);
+                posicao += parte.length;
+            }
+            Arrays.sort(todas);
+            double segundos = duracaoNs / 1e9;
+            return new Resultado(modo, conexoes, todas.length, todas.length / segundos,
+                    percentil(todas, 0.50), percentil(todas, 0.99), percentil(todas, 0.999), erros.sum());
+        } finally {
+            servidor.destroy();
+            servidor.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static Process iniciarServidor(String modo, int porta) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder construtor = new ProcessBuilder(java, "-Xmx1g",
+                "-cp", System.getProperty("java.class.path"),
+                "com.banco.BancoFicticioApplication",
+                "--server.port=" + porta,
+                "--spring.threads.virtual.enabled=" + modo.equals("virtual"),
+                "--server.tomcat.max-connections=20000",
+                "--server.tomcat.accept-count=4096",
+                "--server.tomcat.max-keep-alive-requests=-1",
+                "--banco.diario.habilitado=false",
+                "--banco.admissao.habilitado=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.banco=WARN");
+        construtor.redirectErrorStream(true);
+        construtor.redirectOutput(new File("target/carga-servidor-" + modo + ".log"));
+        Process processo = construtor.start();
+
+        HttpClient cliente = HttpClient.newHttpClient();
+        HttpRequest pronto = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/api/banco/contas?limite=1")).build();
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(120);
+        while (System.nanoTime() < limite) {
+            if (!processo.isAlive()) {
+                throw new IllegalStateException("Servidor terminou durante a inicialização; veja target/carga-servidor-" + modo + ".log");
+            }
+            try {
+                if (cliente.send(pronto, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return processo;
+                }
+            } catch (IOException e) {
+                // Ainda subindo
+            }
+            Thread.sleep(500);
+        }
+        processo.destroy();
+        throw new IllegalStateException("Servidor não respondeu em 120 s");
+    }
+
+    private static void prepararDados(int porta) throws Exception {
+        HttpClient cliente = HttpClient.newHttpClient();
+        String base = "http://localhost:" + porta + "/api/banco";
+        enviar(cliente, base + "/clientes?nome=Carga&cpf=" + CPF + "&dataNascimento=1990-01-01");
+        for (int i = 0; i < CONTAS; i++) {
+            enviar(cliente, base + "/contas/corrente?numero=CARGA-" + i + "&cpfCliente=" + CPF);
+        }
+    }
+
+    private static void enviar(HttpClient cliente, String url) throws Exception {
+        HttpResponse<String> resposta = cliente.send(
+                HttpRequest.newBuilder(URI.create(url)).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (resposta.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + resposta.statusCode() + " em " + url + ": " + resposta.body());
+        }
+    }
+
+    // Uma conexão persistente; reconecta se o servidor fechar ou der erro
+    private static void conectar(int porta, int indice, boolean lenta, long inicioMedicao, long fim,
+                                 ConcurrentLinkedQueue<long[]> latencias, LongAdder erros) {
+        String conta = "CARGA-" + (indice % CONTAS);
+        byte[] deposito = ("POST /api/banco/contas/" + conta + "/depositar?valor=0.01 HTTP/1.1\r\n"
+                + "Host: localhost\r\nContent-Length: 0\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        long[] medidas = new long[1024];
+        int quantidade = 0;
+        while (System.nanoTime() < fim) {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("localhost", porta), 30_000);
+                socket.setSoTimeout(60_000);
+                socket.setTcpNoDelay(true);
+                OutputStream saida = socket.getOutputStream();
+                InputStream entrada = new BufferedInputStream(socket.getInputStream());
+                while (System.nanoTime() < fim) {
+                    if (lenta) {
+                        enviarLoteDevagar(saida, conta);
+                        lerResposta(entrada);
+                        continue;
+                    }
+                    long inicio = System.nanoTime();
+                    saida.write(deposito);
+                    saida.flush();
+                    int status = lerResposta(entrada);
+                    long agora = System.nanoTime();
+                    if (status != 200) {
+                        erros.increment();
+                    } else if (inicio >= inicioMedicao && agora <= fim) {
+                        if (quantidade == medidas.length) {
+                            medidas = Arrays.copyOf(medidas, quantidade * 2);
+                        }
+                        medidas[quantidade++] = agora - inicio;
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                if (System.nanoTime() < fim) {
+                    erros.increment();
+                }
+            }
+        }
+        latencias.add(Arrays.copyOf(medidas, quantidade));
+    }
+
+    private static void enviarLoteDevagar(OutputStream saida, String conta) throws IOException, InterruptedException {
+        StringBuilder corpo = new StringBuilder("[");
+        List<byte[]> partes = new ArrayList<>();
+        for (int i = 0; i < ITENS_LOTE_LENTO; i++) {
+            String item = (i == 0 ? "" : ",") + "{\"operacao\":\"DEPOSITO\",\"conta\":\"" + conta + "\",\"valor\":0.01}";
+            corpo.append(item);
+        }
+        corpo.append("]");
+        byte[] bytes = corpo.toString().getBytes(StandardCharsets.US_ASCII);
+        int tamanhoParte = bytes.length / ITENS_LOTE_LENTO + 1;
+        for (int i = 0; i < bytes.length; i += tamanhoParte) {
+            partes.add(Arrays.copyOfRange(bytes, i, Math.min(bytes.length, i + tamanhoParte)));
+        }
+        saida.write(("POST /api/banco/operacoes/lote HTTP/1.1\r\nHost: localhost\r\n"
+                + "Content-Type: application/json\r\nContent-Length: " + bytes.length + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        for (byte[] parte : partes) {
+            saida.write(parte);
+            saida.flush();
+            Thread.sleep(PAUSA_LOTE_LENTO_MS);
+        }
+    }
+
+    // Lê uma resposta HTTP/1.1 (Content-Length ou chunked) e devolve o status
+    private static int lerResposta(InputStream entrada) throws IOException {
+        String linhaStatus = lerLinha(entrada);
+        int status = Integer.parseInt(linhaStatus.substring(9, 12));
+        long tamanho = -1;
+        boolean chunked = false;
+        boolean fechar = false;
+        for (String linha = lerLinha(entrada); !linha.isEmpty(); linha = lerLinha(entrada)) {
+            String minuscula = linha.toLowerCase(Locale.ROOT);
+            if (minuscula.startsWith("content-length:")) {
+                tamanho = Long.parseLong(linha.substring(15).trim());
+            } else if (minuscula.startsWith("transfer-encoding:") && minuscula.contains("chunked")) {
+                chunked = true;
+            } else if (minuscula.startsWith("connection:") && minuscula.contains("close")) {
+                fechar = true;
+            }
+        }
+        if (chunked) {
+            for (long parte = Long.parseLong(lerLinha(entrada).trim(), 16); parte > 0;
+                 parte = Long.parseLong(lerLinha(entrada).trim(), 16)) {
+                descartar(entrada, parte);
+                lerLinha(entrada);
+            }
+            lerLinha(entrada);
+        } else if (tamanho > 0) {
+            descartar(entrada, tamanho);
+        }
+        if (fechar) {
+            throw new IOException("Servidor fechou a conexão");
+        }
+        return status;
+    }
+
+    private static String lerLinha(InputStream entrada) throws IOException {
+        ByteArrayOutputStream linha = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = entrada.read()) != '\n') {
+            if (b < 0) {
+                throw new IOException("Conexão encerrada");
+            }
+            if (b != '\r') {
+                linha.write(b);
+            }
+        }
+        return linha.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static void descartar(InputStream entrada, long bytes) throws IOException {
+        while (bytes > 0) {
+            long pulados = entrada.skip(bytes);
+            if (pulados <= 0) {
+                if (entrada.read() < 0) {
+                    throw new IOException("Conexão encerrada");
+                }
+                pulados = 1;
+            }
+            bytes -= pulados;
+        }
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return Double.NaN;
+        }
+        return ordenadas[(int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1)] / 1e6;
+    }
+
+    private record Resultado(String modo, int conexoes, long requisicoes, double porSegundo,
+                             double p50, double p99, double p999, long erros) {
+
+        String json() {
+            return String.format(Locale.ROOT,
+                    "{\"modo\":\"%s\",\"conexoes\":%d,\"depositos\":%d,\"porSegundo\":%.1f,"
+                            + "\"p50Ms\":%.3f,\"p99Ms\":%.3f,\"p999Ms\":%.3f,\"erros\":%d}",
+                    modo, conexoes, requisicoes, porSegundo, p50, p99, p999, erros);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.banco.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compara dois arquivos de resultado do JMH ({@code -rf json}) benchmark a benchmark,
+ * considerando os parâmetros, e termina com código 1 se algum piorou além do limite.
+ * Em modo de vazão (thrpt) maior é melhor; nos modos de tempo, menor é melhor.
+ *
+ * <p>Uso: {@code CompararBenchmarks base.json atual.json [limitePercentual]}
+ */
+public class CompararBenchmarks {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: CompararBenchmarks base.json atual.json [limitePercentual]");
+            System.exit(2);
+        }
+        double limite = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, JsonNode> base = carregar(new File(args[0]));
+        Map<String, JsonNode> atual = carregar(new File(args[1]));
+
+        int regressoes = 0;
+        System.out.printf("%-80s %14s %14s %9s%n", "Benchmark", "Base", "Atual", "Variação");
+        for (Map.Entry<String, JsonNode> entrada : atual.entrySet()) {
+            JsonNode resultado = entrada.getValue();
+            JsonNode anterior = base.get(entrada.getKey());
+            double pontuacao = resultado.path("primaryMetric").path("score").asDouble();
+            String unidade = resultado.path("primaryMetric").path("scoreUnit").asText();
+            if (anterior == null) {
+                System.out.printf("%-80s %14s %14.3f %9s  %s (novo)%n", entrada.getKey(), "-", pontuacao, "", unidade);
+                continue;
+            }
+            double pontuacaoBase = anterior.path("primaryMetric").path("score").asDouble();
+            double variacao = (pontuacao - pontuacaoBase) / pontuacaoBase * 100.0;
+            boolean maiorEMelhor = "thrpt".equals(resultado.path("mode").asText());
+            double piora = maiorEMelhor ? -variacao : variacao;
+            boolean regressao = piora > limite;
+            if (regressao) {
+                regressoes++;
+            }
+            System.out.printf("%-80s %14.3f %14.3f %+8.1f%%  %s%s%n", entrada.getKey(), pontuacaoBase, pontuacao,
+                    variacao, unidade, regressao ? "  <-- REGRESSÃO" : "");
+        }
+        System.out.printf("%d benchmark(s) comparados, %d regressão(ões) acima de %.1f%%%n", atual.size(), regressoes, limite);
+        if (regressoes > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Indexa os resultados por nome do benchmark mais os parâmetros, em ordem estável
+    private static Map<String, JsonNode> carregar(File arquivo) throws IOException {
+        Map<String, JsonNode> resultados = new LinkedHashMap<>();
+        for (JsonNode resultado : new ObjectMapper().readTree(arquivo)) {
+            // Mantém só Classe.metodo do nome completo
+            String nome = resultado.path("benchmark").asText();
+            int metodo = nome.lastIndexOf('.');
+            StringBuilder chave = new StringBuilder(nome.substring(nome.lastIndexOf('.', metodo - 1) + 1));
+            JsonNode parametros = resultado.path("params");
+            if (!parametros.isMissingNode()) {
+                Map<String, String> ordenados = new TreeMap<>();
+                parametros.fields().forEachRemaining(p -> ordenados.put(p.getKey(), p.getValue().asText()));
+                chave.append(ordenados);
+            }
+            chave.append(" [").append(resultado.path("threads").asInt()).append("t ").append(resultado.path("mode").asText()).append(']');
+            resultados.put(chave.toString(), resultado);
+        }
+        return resultados;
+    }
+}
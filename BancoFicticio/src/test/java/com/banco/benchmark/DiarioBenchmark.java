@@ -0,0 +1,76 @@
+package com.banco.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.banco.domain.Cliente;
+import com.banco.domain.ContaCorrente;
+import com.banco.domain.TipoLancamento;
+import com.banco.persistencia.DiarioMapeado;
+import com.banco.persistencia.ModoSincronizacao;
+import com.banco.persistencia.RecuperacaoDiario;
+import com.banco.service.BancoService;
+
+/**
+ * Operações duráveis por segundo do diário com 16 threads gravando ao mesmo tempo.
+ * GRUPO agrupa vários registros num fsync; CADA_OPERACAO faz um fsync por registro.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class DiarioBenchmark {
+
+    @Param({"GRUPO", "CADA_OPERACAO", "NENHUMA"})
+    public ModoSincronizacao modo;
+
+    private Path diretorio;
+    private DiarioMapeado diario;
+    private ContaCorrente conta;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        diretorio = Files.createTempDirectory(Path.of(System.getProperty("java.io.tmpdir")), "diario-bench");
+        diario = new DiarioMapeado(diretorio, 256 * 1024 * 1024, modo);
+        diario.iniciar(0, new RecuperacaoDiario(new BancoService()));
+        conta = new ContaCorrente("CC-BENCH", new Cliente("Benchmark", "000", LocalDate.of(1990, 1, 1)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        diario.close();
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            arquivos.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long depositoDuravel() {
+        long sequencia = diario.lancamento(TipoLancamento.DEPOSITO, conta, 100);
+        diario.tornarDuravel(sequencia);
+        return sequencia;
+    }
+}
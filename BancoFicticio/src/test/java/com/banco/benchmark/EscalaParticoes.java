@@ -0,0 +1,422 @@
+package com.banco.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import com.banco.domain.Cpf;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Escalabilidade do modo particionado de 1 a {@code nos} nós, todos processos locais.
+ *
+ * <p>Sobe um nó ({@code banco.particao.papel=NO}) e o roteador, cria {@code clientes}
+ * clientes e {@code contas} contas correntes com R$ 100,00 cada e mede, pelo roteador,
+ * uma carga de {@code conexoes} clientes HTTP em threads virtuais: depósitos de R$ 0,01 e,
+ * na fração {@code transferencias} (0 a 1), transferências de R$ 0,01 entre contas
+ * sorteadas, quase sempre de nós diferentes. Depois acrescenta um nó por vez com
+ * {@code POST /api/particao/nos}, anota o tempo do rebalanceamento e as contas movidas e
+ * mede de novo. A cada etapa confere que nenhuma transferência ficou pendente, que a soma
+ * dos saldos de todos os nós é a esperada pelos depósitos confirmados e que cada conta
+ * responde pelo roteador.
+ *
+ * <p>Numa máquina só os nós disputam as mesmas CPUs: a vazão só cresce com os nós se houver
+ * núcleos livres para eles.
+ *
+ * <p>Uso: {@code EscalaParticoes [nos=4] [clientes=200] [contas=2000] [conexoes=64]
+ * [transferencias=0.2] [duracao=20] [aquecimento=5] [porta=18180] [heap=384m]
+ * [resultado=target/particoes-resultado.json]}
+ */
+public class EscalaParticoes {
+
+    private static final BigDecimal SALDO_INICIAL = new BigDecimal("100.00");
+    private static final BigDecimal CENTAVO = new BigDecimal("0.01");
+
+    private static final ObjectMapper JSON = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = new LinkedHashMap<>(Map.of(
+                "nos", "4", "clientes", "200", "contas", "2000", "conexoes", "64",
+                "transferencias", "0.2", "duracao", "20", "aquecimento", "5", "porta", "18180",
+                "heap", "384m", "resultado", "target/particoes-resultado.json"));
+        for (String arg : args) {
+            String[] partes = arg.split("=", 2);
+            opcoes.put(partes[0], partes[1]);
+        }
+        int totalNos = Integer.parseInt(opcoes.get("nos"));
+        int portaRoteador = Integer.parseInt(opcoes.get("porta"));
+        Path pasta = Path.of("target", "particoes");
+        apagar(pasta);
+        Files.createDirectories(pasta);
+
+        HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        String roteador = "http://localhost:" + portaRoteador;
+        List<Process> processos = new ArrayList<>();
+        List<Etapa> etapas = new ArrayList<>();
+        try {
+            processos.add(iniciar(cliente, "no-1", portaRoteador + 1, opcoes.get("heap"),
+                    "--banco.particao.papel=NO"));
+            processos.add(iniciar(cliente, "roteador", portaRoteador, opcoes.get("heap"),
+                    "--banco.particao.papel=ROTEADOR",
+                    "--banco.particao.nos=" + endereco(portaRoteador + 1),
+                    "--banco.particao.diretorio=" + pasta.resolve("roteador")));
+            Carga carga = new Carga(cliente, roteador, opcoes);
+            carga.preparar();
+
+            Rebalanceamento rebalanceamento = null;
+            for (int nos = 1; nos <= totalNos; nos++) {
+                if (nos > 1) {
+                    int porta = portaRoteador + nos;
+                    processos.add(iniciar(cliente, "no-" + nos, porta, opcoes.get("heap"), "--banco.particao.papel=NO"));
+                    rebalanceamento = adicionarNo(cliente, roteador, endereco(porta));
+                }
+                Medicao medicao = carga.medir();
+                carga.conferir();
+                Etapa etapa = new Etapa(nos, medicao, rebalanceamento);
+                etapas.add(etapa);
+                System.out.println(etapa.resumo());
+            }
+        } finally {
+            for (Process processo : processos) {
+                processo.destroy();
+            }
+            for (Process processo : processos) {
+                processo.waitFor(30, TimeUnit.SECONDS);
+            }
+        }
+
+        System.out.printf(Locale.ROOT, "%n%4s %12s %10s %10s %10s %8s %8s %14s %10s%n",
+                "nos", "operacoes", "op/s", "p50 ms", "p99 ms", "erros", "recusas", "rebalanceamento", "movidas");
+        StringBuilder json = new StringBuilder("[");
+        for (Etapa etapa : etapas) {
+            Medicao m = etapa.medicao;
+            System.out.printf(Locale.ROOT, "%4d %12d %10.0f %10.2f %10.2f %8d %8d %12s ms %10s%n",
+                    etapa.nos, m.operacoes, m.porSegundo, m.p50, m.p99, m.erros, m.recusas,
+                    etapa.rebalanceamento == null ? "-" : String.valueOf(etapa.rebalanceamento.duracaoMs),
+                    etapa.rebalanceamento == null ? "-" : String.valueOf(etapa.rebalanceamento.contasMovidas));
+            json.append(json.length() > 1 ? "," : "").append(etapa.json());
+        }
+        json.append("]\n");
+        Path arquivo = Path.of(opcoes.get("resultado"));
+        if (arquivo.getParent() != null) {
+            Files.createDirectories(arquivo.getParent());
+        }
+        Files.writeString(arquivo, json);
+        System.out.println("Resultado gravado em " + arquivo);
+    }
+
+    private static Rebalanceamento adicionarNo(HttpClient cliente, String roteador, String endereco) throws Exception {
+        System.out.println("== Acrescentando " + endereco);
+        HttpResponse<String> resposta = cliente.send(
+                HttpRequest.newBuilder(URI.create(roteador + "/api/particao/nos?endereco=" + endereco))
+                        .POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (resposta.statusCode() != 200) {
+            throw new IllegalStateException("Rebalanceamento recusado: HTTP " + resposta.statusCode() + " " + resposta.body());
+        }
+        JsonNode corpo = JSON.readTree(resposta.body());
+        return new Rebalanceamento(corpo.get("contasMovidas").asLong(), corpo.get("clientesCopiados").asLong(),
+                corpo.get("duracaoMs").asLong());
+    }
+
+    private static Process iniciar(HttpClient cliente, String nome, int porta, String heap, String... extras) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> comando = new ArrayList<>(List.of(java, "-Xmx" + heap,
+                "-cp", System.getProperty("java.class.path"),
+                "com.banco.BancoFicticioApplication",
+                "--server.port=" + porta,
+                "--banco.diario.habilitado=false",
+                "--banco.admissao.habilitado=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.banco=WARN"));
+        comando.addAll(List.of(extras));
+        ProcessBuilder construtor = new ProcessBuilder(comando);
+        construtor.redirectErrorStream(true);
+        String log = "target/particoes/" + nome + ".log";
+        construtor.redirectOutput(new File(log));
+        Process processo = construtor.start();
+
+        // O roteador não tem dados próprios: fica pronto quando responde o anel
+        String caminho = nome.equals("roteador") ? "/api/particao/nos" : "/api/banco/contas?limite=1";
+        HttpRequest pronto = HttpRequest.newBuilder(URI.create(endereco(porta) + caminho)).build();
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(180);
+        while (System.nanoTime() < limite) {
+            if (!processo.isAlive()) {
+                throw new IllegalStateException(nome + " terminou durante a inicialização; veja " + log);
+            }
+            try {
+                if (cliente.send(pronto, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    System.out.println("== " + nome + " pronto em " + endereco(porta));
+                    return processo;
+                }
+            } catch (IOException e) {
+                // Ainda subindo
+            }
+            Thread.sleep(500);
+        }
+        processo.destroy();
+        throw new IllegalStateException(nome + " não respondeu em 180 s");
+    }
+
+    private static String endereco(int porta) {
+        return "http://localhost:" + porta;
+    }
+
+    private static void apagar(Path pasta) throws IOException {
+        if (!Files.exists(pasta)) {
+            return;
+        }
+        try (Stream<Path> caminhos = Files.walk(pasta)) {
+            for (Path caminho : caminhos.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(caminho);
+            }
+        }
+    }
+
+    // Carga e conferência pelo roteador; guarda o total que a soma dos saldos deve ter
+    private static class Carga {
+
+        private final HttpClient cliente;
+        private final String base;
+        private final int clientes;
+        private final int contas;
+        private final int conexoes;
+        private final double fracaoTransferencias;
+        private final long duracaoNs;
+        private final long aquecimentoNs;
+        private final LongAdder depositosConfirmados = new LongAdder();
+        // Depósitos sem resposta ou com erro do roteador: podem ter entrado ou não
+        private final LongAdder depositosIncertos = new LongAdder();
+        private BigDecimal totalInicial = BigDecimal.ZERO;
+
+        Carga(HttpClient cliente, String roteador, Map<String, String> opcoes) {
+            this.cliente = cliente;
+            this.base = roteador + "/api/banco";
+            this.clientes = Integer.parseInt(opcoes.get("clientes"));
+            this.contas = Integer.parseInt(opcoes.get("contas"));
+            this.conexoes = Integer.parseInt(opcoes.get("conexoes"));
+            this.fracaoTransferencias = Double.parseDouble(opcoes.get("transferencias"));
+            this.duracaoNs = TimeUnit.SECONDS.toNanos(Long.parseLong(opcoes.get("duracao")));
+            this.aquecimentoNs = TimeUnit.SECONDS.toNanos(Long.parseLong(opcoes.get("aquecimento")));
+        }
+
+        void preparar() throws Exception {
+            System.out.printf("== Criando %d clientes e %d contas%n", clientes, contas);
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int parte = 0; parte < 16; parte++) {
+                    int inicio = parte;
+                    executor.submit(() -> {
+                        for (int i = inicio; i < clientes; i += 16) {
+                            exigir(post(base + "/clientes?nome=Cliente%20" + i + "&cpf=" + Cpf.gerar(i + 1)
+                                    + "&dataNascimento=1990-01-01"));
+                        }
+                        return null;
+                    });
+                }
+            }
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int parte = 0; parte < 16; parte++) {
+                    int inicio = parte;
+                    executor.submit(() -> {
+                        for (int i = inicio; i < contas; i += 16) {
+                            exigir(post(base + "/contas/corrente?numero=" + numero(i)
+                                    + "&cpfCliente=" + Cpf.gerar(i % clientes + 1)));
+                            exigir(post(base + "/contas/" + numero(i) + "/depositar?valor=" + SALDO_INICIAL));
+                        }
+                        return null;
+                    });
+                }
+            }
+            totalInicial = SALDO_INICIAL.multiply(BigDecimal.valueOf(contas));
+        }
+
+        Medicao medir() throws Exception {
+            long inicio = System.nanoTime();
+            long inicioMedicao = inicio + aquecimentoNs;
+            long fim = inicioMedicao + duracaoNs;
+            ConcurrentLinkedQueue<long[]> latencias = new ConcurrentLinkedQueue<>();
+            LongAdder erros = new LongAdder();
+            LongAdder recusas = new LongAdder();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < conexoes; i++) {
+                    long semente = i;
+                    executor.submit(() -> {
+                        operar(new SplittableRandom(semente ^ inicio), inicioMedicao, fim, latencias, erros, recusas);
+                        return null;
+                    });
+                }
+            }
+            long total = latencias.stream().mapToLong(l -> l.length).sum();
+            long[] todas = new long[(int) total];
+            int posicao = 0;
+            for (long[] parte : latencias) {
+                System.arraycopy(parte, 0, todas, posicao, parte.length);
+                posicao += parte.length;
+            }
+            Arrays.sort(todas);
+            return new Medicao(todas.length, todas.length / (duracaoNs / 1e9),
+                    percentil(todas, 0.50), percentil(todas, 0.99), erros.sum(), recusas.sum());
+        }
+
+        private void operar(SplittableRandom aleatorio, long inicioMedicao, long fim,
+                            ConcurrentLinkedQueue<long[]> latencias, LongAdder erros, LongAdder recusas) {
+            long[] medidas = new long[1024];
+            int quantidade = 0;
+            while (System.nanoTime() < fim) {
+                boolean transferencia = aleatorio.nextDouble() < fracaoTransferencias;
+                String url = transferencia
+                        ? base + "/transferencias?origem=" + numero(aleatorio.nextInt(contas))
+                                + "&destino=" + numero(aleatorio.nextInt(contas)) + "&valor=" + CENTAVO
+                        : base + "/contas/" + numero(aleatorio.nextInt(contas)) + "/depositar?valor=" + CENTAVO;
+                long inicio = System.nanoTime();
+                int status;
+                try {
+                    status = post(url).statusCode();
+                } catch (IOException | InterruptedException e) {
+                    status = -1;
+                }
+                long agora = System.nanoTime();
+                if (status == 200 || status == 202) {
+                    if (!transferencia) {
+                        depositosConfirmados.increment();
+                    }
+                    if (inicio >= inicioMedicao && agora <= fim) {
+                        if (quantidade == medidas.length) {
+                            medidas = Arrays.copyOf(medidas, quantidade * 2);
+                        }
+                        medidas[quantidade++] = agora - inicio;
+                    }
+                } else if (status == 400) {
+                    // Transferência para a própria conta ou saldo insuficiente
+                    recusas.increment();
+                } else {
+                    if (!transferencia) {
+                        depositosIncertos.increment();
+                    }
+                    erros.increment();
+                }
+            }
+            latencias.add(Arrays.copyOf(medidas, quantidade));
+        }
+
+        // Sem pendências, soma dos saldos igual ao esperado e todas as contas alcançáveis
+        void conferir() throws Exception {
+            String roteador = base.substring(0, base.length() - "/api/banco".length());
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            while (JSON.readTree(get(roteador + "/api/particao/transferencias").body()).size() > 0) {
+                if (System.nanoTime() > limite) {
+                    throw new IllegalStateException("Transferências pendentes depois de 60 s");
+                }
+                Thread.sleep(500);
+            }
+            JsonNode estatisticas = JSON.readTree(get(base + "/estatisticas").body());
+            BigDecimal esperado = totalInicial.add(CENTAVO.multiply(BigDecimal.valueOf(depositosConfirmados.sum())));
+            BigDecimal maximo = esperado.add(CENTAVO.multiply(BigDecimal.valueOf(depositosIncertos.sum())));
+            BigDecimal total = estatisticas.get("totalDepositos").decimalValue();
+            if (total.compareTo(esperado) < 0 || total.compareTo(maximo) > 0) {
+                throw new IllegalStateException("Soma dos saldos " + total + " fora do esperado [" + esperado + ", " + maximo + "]");
+            }
+            if (estatisticas.get("contas").asInt() != contas) {
+                throw new IllegalStateException("Roteador conta " + estatisticas.get("contas") + " contas, esperado " + contas);
+            }
+            LongAdder inalcancaveis = new LongAdder();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int parte = 0; parte < 16; parte++) {
+                    int inicio = parte;
+                    executor.submit(() -> {
+                        for (int i = inicio; i < contas; i += 16) {
+                            if (get(base + "/contas/" + numero(i)).statusCode() != 200) {
+                                inalcancaveis.increment();
+                            }
+                        }
+                        return null;
+                    });
+                }
+            }
+            if (inalcancaveis.sum() > 0) {
+                throw new IllegalStateException(inalcancaveis.sum() + " contas não respondem pelo roteador");
+            }
+            System.out.println("== Conferido: soma dos saldos " + total + ", " + contas + " contas alcançáveis");
+        }
+
+        private HttpResponse<String> post(String url) throws IOException, InterruptedException {
+            return cliente.send(HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+        }
+
+        private HttpResponse<String> get(String url) throws IOException, InterruptedException {
+            return cliente.send(HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+        }
+
+        private static void exigir(HttpResponse<String> resposta) {
+            if (resposta.statusCode() != 200) {
+                throw new IllegalStateException("HTTP " + resposta.statusCode() + " em " + resposta.uri() + ": " + resposta.body());
+            }
+        }
+
+        private static String numero(int i) {
+            return String.format("PART-%06d", i);
+        }
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return Double.NaN;
+        }
+        return ordenadas[(int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1)] / 1e6;
+    }
+
+    private record Medicao(long operacoes, double porSegundo, double p50, double p99, long erros, long recusas) {
+    }
+
+    private record Rebalanceamento(long contasMovidas, long clientesCopiados, long duracaoMs) {
+    }
+
+    private record Etapa(int nos, Medicao medicao, Rebalanceamento rebalanceamento) {
+
+        String resumo() {
+            return String.format(Locale.ROOT, "== %d nó(s): %.0f op/s, p50 %.2f ms, p99 %.2f ms, %d erros%s",
+                    nos, medicao.porSegundo, medicao.p50, medicao.p99, medicao.erros,
+                    rebalanceamento == null ? "" : String.format(Locale.ROOT, "; rebalanceamento %d ms, %d contas movidas",
+                            rebalanceamento.duracaoMs, rebalanceamento.contasMovidas));
+        }
+
+        String json() {
+            return String.format(Locale.ROOT,
+                    "{\"nos\":%d,\"operacoes\":%d,\"porSegundo\":%.1f,\"p50Ms\":%.3f,\"p99Ms\":%.3f,"
+                            + "\"erros\":%d,\"recusas\":%d,\"rebalanceamentoMs\":%s,\"contasMovidas\":%s}",
+                    nos, medicao.operacoes, medicao.porSegundo, medicao.p50, medicao.p99, medicao.erros, medicao.recusas,
+                    rebalanceamento == null ? "null" : rebalanceamento.duracaoMs,
+                    rebalanceamento == null ? "null" : rebalanceamento.contasMovidas);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.banco.benchmark;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.banco.service.RegistroIdempotencia;
+
+/**
+ * Vazão do RegistroIdempotencia com o registro cheio: cada chave nova descarta a mais
+ * antiga, que é o regime de uma carga contínua. A repetição mede a busca de uma chave lembrada.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx512m"})
+@State(Scope.Benchmark)
+public class IdempotenciaBenchmark {
+
+    private static final String RESPOSTA = "Depósito realizado com sucesso";
+
+    @Param({"100000"})
+    private int capacidade;
+
+    private RegistroIdempotencia registro;
+    private long proxima;
+
+    @Setup
+    public void setUp() {
+        registro = new RegistroIdempotencia(capacidade, Duration.ofMinutes(10));
+        for (int i = 0; i < capacidade; i++) {
+            registro.executar(chave(proxima++), "depositar 1111 10.5", () -> RESPOSTA);
+        }
+    }
+
+    private static String chave(long numero) {
+        return "chave-" + numero;
+    }
+
+    @Benchmark
+    public String chaveNova() {
+        return registro.executar(chave(proxima++), "depositar 1111 10.5", () -> RESPOSTA);
+    }
+
+    @Benchmark
+    public String repeticao() {
+        return registro.executar(chave(proxima - 1), "depositar 1111 10.5", () -> RESPOSTA);
+    }
+}
@@ -0,0 +1,158 @@
+package com.banco.benchmark;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.banco.domain.Cpf;
+import com.banco.domain.TabelaSaldosNoHeap;
+import com.banco.service.BancoService;
+import com.banco.service.DiarioOperacoes;
+import com.banco.service.ImportacaoService;
+import com.banco.service.MetricasOperacoes;
+import com.banco.service.ResumoLote;
+
+/**
+ * Vazão e memória da importação em massa. O CSV é gerado em fluxo, sem existir inteiro em
+ * memória nem em disco: cada cliente vem com uma conta corrente e uma poupança.
+ *
+ * <ul>
+ * <li>{@code novas}: todas as linhas são importadas; a memória retida por linha é a das
+ * contas e clientes criados e deve ser a mesma para qualquer tamanho de arquivo</li>
+ * <li>{@code repetidas}: o arquivo é importado duas vezes e a segunda passada mede só a
+ * recusa das linhas repetidas; a memória não deve crescer</li>
+ * </ul>
+ *
+ * <p>Cada tamanho roda num processo separado, com o mesmo heap.
+ * Uso: {@code ImportacaoMassa [linhas=300000,3000000] [modos=novas,repetidas] [heap=3g]
+ * [resultado=target/importacao-resultado.json]}
+ */
+public class ImportacaoMassa {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--filho")) {
+            filho(args[1], Integer.parseInt(args[2]));
+            return;
+        }
+        Map<String, String> opcoes = new LinkedHashMap<>(Map.of(
+                "linhas", "300000,3000000", "modos", "novas,repetidas", "heap", "3g",
+                "resultado", "target/importacao-resultado.json"));
+        for (String arg : args) {
+            String[] partes = arg.split("=", 2);
+            opcoes.put(partes[0], partes[1]);
+        }
+
+        List<String> resultados = new ArrayList<>();
+        for (String modo : opcoes.get("modos").split(",")) {
+            for (String linhas : opcoes.get("linhas").split(",")) {
+                String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+                ProcessBuilder construtor = new ProcessBuilder(java,
+                        "-Xms" + opcoes.get("heap"), "-Xmx" + opcoes.get("heap"),
+                        "-cp", System.getProperty("java.class.path"),
+                        ImportacaoMassa.class.getName(), "--filho", modo, linhas);
+                construtor.redirectError(ProcessBuilder.Redirect.INHERIT);
+                Process processo = construtor.start();
+                String saida = new String(processo.getInputStream().readAllBytes()).trim();
+                if (processo.waitFor() != 0) {
+                    throw new IllegalStateException("Modo " + modo + " com " + linhas + " linhas falhou: " + saida);
+                }
+                resultados.add(saida.substring(saida.lastIndexOf('\n') + 1));
+                System.out.println(resultados.get(resultados.size() - 1));
+            }
+        }
+        Path arquivo = Path.of(opcoes.get("resultado"));
+        if (arquivo.getParent() != null) {
+            Files.createDirectories(arquivo.getParent());
+        }
+        Files.writeString(arquivo, "[" + String.join(",\n", resultados) + "]\n");
+        System.out.println("Resultado gravado em " + arquivo);
+    }
+
+    private static void filho(String modo, int linhas) throws Exception {
+        BancoService banco = new BancoService(DiarioOperacoes.NENHUM, MetricasOperacoes.NENHUMA, new TabelaSaldosNoHeap());
+        ImportacaoService importacao = new ImportacaoService(banco, 0, 4096);
+        try {
+            if (modo.equals("repetidas")) {
+                importacao.importar(new CsvGerado(linhas), ImportacaoService.Formato.CSV, OutputStream.nullOutputStream());
+            } else if (!modo.equals("novas")) {
+                throw new IllegalArgumentException("Modo desconhecido: " + modo);
+            }
+            long heapAntes = heapUsado();
+            ResumoLote resumo = importacao.importar(new CsvGerado(linhas), ImportacaoService.Formato.CSV,
+                    OutputStream.nullOutputStream());
+            long heapDepois = heapUsado();
+            System.out.printf(Locale.ROOT,
+                    "{\"modo\":\"%s\",\"linhas\":%d,\"importadas\":%d,\"rejeitadas\":%d,\"linhasPorSegundo\":%.0f,"
+                            + "\"heapRetidoPorLinha\":%.1f,\"heapRetidoMb\":%.1f}%n",
+                    modo, resumo.getTotal(), resumo.getSucesso(), resumo.getFalhas(), resumo.getItensPorSegundo(),
+                    (heapDepois - heapAntes) / (double) linhas, (heapDepois - heapAntes) / 1048576.0);
+        } finally {
+            importacao.encerrar();
+        }
+    }
+
+    private static long heapUsado() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // Gera as linhas sob demanda: cliente, conta corrente e poupança
+    private static final class CsvGerado extends InputStream {
+
+        private final int linhas;
+        private int proxima;
+        private byte[] atual = new byte[0];
+        private int posicao;
+
+        CsvGerado(int linhas) {
+            this.linhas = linhas;
+        }
+
+        private boolean preparar() {
+            if (posicao < atual.length) {
+                return true;
+            }
+            if (proxima >= linhas) {
+                return false;
+            }
+            int cliente = proxima / 3;
+            String cpf = Cpf.gerar(cliente + 1);
+            String linha = switch (proxima % 3) {
+                case 0 -> "CLIENTE," + cpf + ",Cliente " + cliente + ",1990-01-01\n";
+                case 1 -> "CORRENTE,C" + cliente + "," + cpf + ",500.00\n";
+                default -> "POUPANCA,P" + cliente + "," + cpf + "\n";
+            };
+            proxima++;
+            atual = linha.getBytes(StandardCharsets.UTF_8);
+            posicao = 0;
+            return true;
+        }
+
+        @Override
+        public int read() {
+            return preparar() ? atual[posicao++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] destino, int deslocamento, int tamanho) {
+            int lidos = 0;
+            while (lidos < tamanho && preparar()) {
+                int parte = Math.min(tamanho - lidos, atual.length - posicao);
+                System.arraycopy(atual, posicao, destino, deslocamento + lidos, parte);
+                posicao += parte;
+                lidos += parte;
+            }
+            return lidos == 0 && tamanho > 0 ? -1 : lidos;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.banco.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import com.banco.domain.Cliente;
+import com.banco.domain.Cpf;
+import com.banco.service.BancoService;
+
+/**
+ * Bytes por cliente do cadastro de clientes do BancoService, comparado com a forma
+ * anterior: {@code ConcurrentHashMap<String, Cliente>} mais a cópia ordenada
+ * {@code ConcurrentSkipListMap<String, Cliente>}, com o CPF em {@code String} no cliente.
+ *
+ * <ul>
+ * <li>{@code texto}: os dois mapas e as Strings dos CPFs, reconstruídos sobre clientes já criados</li>
+ * <li>{@code servico}: BancoService com os clientes cadastrados, descontados os próprios objetos Cliente</li>
+ * </ul>
+ *
+ * <p>Os objetos Cliente são criados antes da primeira medição nos dois modos, então a diferença
+ * é só a do índice e das chaves. Cada modo roda num processo separado, com o mesmo heap.
+ *
+ * <p>Uso: {@code MemoriaClientes [clientes=2000000] [heap=3g]}
+ */
+public class MemoriaClientes {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--filho")) {
+            filho(args[1], Integer.parseInt(args[2]));
+            return;
+        }
+        Map<String, String> opcoes = new LinkedHashMap<>(Map.of("clientes", "2000000", "heap", "3g"));
+        for (String arg : args) {
+            String[] partes = arg.split("=", 2);
+            opcoes.put(partes[0], partes[1]);
+        }
+        for (String modo : new String[] {"texto", "servico"}) {
+            String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+            ProcessBuilder construtor = new ProcessBuilder(java,
+                    "-Xms" + opcoes.get("heap"), "-Xmx" + opcoes.get("heap"),
+                    "-cp", System.getProperty("java.class.path"),
+                    MemoriaClientes.class.getName(), "--filho", modo, opcoes.get("clientes"));
+            construtor.redirectErrorStream(true);
+            construtor.redirectOutput(ProcessBuilder.Redirect.INHERIT);
+            if (construtor.start().waitFor() != 0) {
+                throw new IllegalStateException("Modo " + modo + " falhou");
+            }
+        }
+    }
+
+    private static void filho(String modo, int quantidade) {
+        String[] cpfs = new String[quantidade];
+        Cliente[] clientes = new Cliente[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            cpfs[i] = Cpf.gerar(i + 1);
+            clientes[i] = new Cliente("Cliente", cpfs[i], null);
+        }
+        // Os textos de entrada não fazem parte do estado medido; as estruturas fixas do serviço também não
+        cpfs = null;
+        BancoService banco = modo.equals("servico") ? new BancoService() : null;
+        long antes = heapUsado();
+
+        Object estado;
+        if (modo.equals("texto")) {
+            ConcurrentHashMap<String, Cliente> porCpf = new ConcurrentHashMap<>();
+            ConcurrentSkipListMap<String, Cliente> ordenados = new ConcurrentSkipListMap<>();
+            for (Cliente cliente : clientes) {
+                // A String do CPF era um campo do cliente e a chave dos dois mapas
+                String cpf = cliente.getCpf();
+                porCpf.put(cpf, cliente);
+                ordenados.put(cpf, cliente);
+            }
+            estado = new Object[] {porCpf, ordenados};
+        } else {
+            for (Cliente cliente : clientes) {
+                banco.restaurarCliente(cliente);
+            }
+            estado = banco;
+        }
+        long depois = heapUsado();
+        Reference.reachabilityFence(estado);
+        Reference.reachabilityFence(clientes);
+
+        System.out.printf(Locale.ROOT, "{\"modo\":\"%s\",\"clientes\":%d,\"bytesPorCliente\":%.1f}%n",
+                modo, quantidade, (depois - antes) / (double) quantidade);
+    }
+
+    private static long heapUsado() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,236 @@
+package com.banco.benchmark;
+
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.banco.domain.Cpf;
+import com.banco.domain.TabelaSaldos;
+import com.banco.domain.TabelaSaldosForaDoHeap;
+import com.banco.domain.TabelaSaldosNoHeap;
+import com.banco.service.BancoService;
+import com.banco.service.DiarioOperacoes;
+import com.banco.service.MetricasOperacoes;
+
+/**
+ * Mede bytes por conta e pausas de GC para cada forma de guardar o estado das contas.
+ * Cada modo roda num processo separado, com o mesmo heap e o mesmo coletor:
+ *
+ * <ul>
+ * <li>{@code objetos}: um objeto por conta com saldo e situação, como os campos que a conta tinha</li>
+ * <li>{@code heap}: {@link TabelaSaldosNoHeap}</li>
+ * <li>{@code fora-do-heap}: {@link TabelaSaldosForaDoHeap}</li>
+ * <li>{@code servico-heap} e {@code servico-fora-do-heap}: BancoService completo, com os metadados das contas</li>
+ * </ul>
+ *
+ * <p>Depois de criar as contas, o processo faz depósitos em contas aleatórias por {@code segundos}
+ * gerando lixo de vida curta, como uma requisição faria, e ao fim força uma coleta completa.
+ * As pausas vêm do log {@code -Xlog:gc} do próprio processo.
+ *
+ * <p>Uso: {@code MemoriaContas [modos=objetos,heap,fora-do-heap] [contas=50000000] [segundos=20]
+ * [heap=3g] [coletor=G1] [resultado=target/memoria-resultado.json]}
+ */
+public class MemoriaContas {
+
+    private static final Pattern PAUSA = Pattern.compile("^\\[([0-9.]+)s\\].*Pause (\\w+).* ([0-9.]+)ms$");
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--filho")) {
+            filho(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]), Path.of(args[4]));
+            return;
+        }
+        Map<String, String> opcoes = new LinkedHashMap<>(Map.of(
+                "modos", "objetos,heap,fora-do-heap", "contas", "50000000", "segundos", "20",
+                "heap", "3g", "coletor", "G1", "resultado", "target/memoria-resultado.json"));
+        for (String arg : args) {
+            String[] partes = arg.split("=", 2);
+            opcoes.put(partes[0], partes[1]);
+        }
+
+        List<String> linhas = new ArrayList<>();
+        for (String modo : opcoes.get("modos").split(",")) {
+            System.out.printf("== %s com %s contas%n", modo, opcoes.get("contas"));
+            linhas.add(executarFilho(modo, opcoes));
+            System.out.println(linhas.get(linhas.size() - 1));
+        }
+        Path arquivo = Path.of(opcoes.get("resultado"));
+        if (arquivo.getParent() != null) {
+            Files.createDirectories(arquivo.getParent());
+        }
+        Files.writeString(arquivo, "[" + String.join(",\n", linhas) + "]\n");
+        System.out.println("Resultado gravado em " + arquivo);
+    }
+
+    private static String executarFilho(String modo, Map<String, String> opcoes) throws Exception {
+        Path log = Path.of("target", "memoria-gc-" + modo + ".log").toAbsolutePath();
+        Files.createDirectories(log.getParent());
+        Files.deleteIfExists(log);
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder construtor = new ProcessBuilder(java,
+                "-Xms" + opcoes.get("heap"), "-Xmx" + opcoes.get("heap"),
+                "-XX:MaxDirectMemorySize=4g",
+                "-XX:+Use" + opcoes.get("coletor") + "GC",
+                "-Xlog:gc:file=" + log + ":uptime",
+                "-cp", System.getProperty("java.class.path"),
+                MemoriaContas.class.getName(), "--filho", modo, opcoes.get("contas"), opcoes.get("segundos"), log.toString());
+        construtor.redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process processo = construtor.start();
+        String saida = new String(processo.getInputStream().readAllBytes()).trim();
+        if (processo.waitFor() != 0) {
+            throw new IllegalStateException("Modo " + modo + " falhou: " + saida);
+        }
+        return saida.substring(saida.lastIndexOf('\n') + 1);
+    }
+
+    private static void filho(String modo, int contas, int segundos, Path log) throws Exception {
+        long heapAntes = heapUsado();
+        long diretaAntes = memoriaDireta();
+
+        Estado estado = criar(modo, contas);
+        long heapDepois = heapUsado();
+        long diretaDepois = memoriaDireta();
+
+        double inicioCarga = uptimeSegundos();
+        long operacoes = carga(estado, contas, TimeUnit.SECONDS.toNanos(segundos));
+        double fimCarga = uptimeSegundos();
+
+        // Lido antes da coleta completa forçada, que é medida à parte
+        List<Double> pausas = pausasEntre(log, inicioCarga, fimCarga);
+
+        long inicioCompleta = System.nanoTime();
+        System.gc();
+        double coletaCompletaMs = (System.nanoTime() - inicioCompleta) / 1e6;
+        // Mantém o estado vivo até depois da coleta completa
+        Reference.reachabilityFence(estado);
+
+        double[] ordenadas = pausas.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        System.out.printf(Locale.ROOT,
+                "{\"modo\":\"%s\",\"contas\":%d,\"heapBytesPorConta\":%.1f,\"foraDoHeapBytesPorConta\":%.1f,"
+                        + "\"depositosPorSegundo\":%.0f,\"pausas\":%d,\"pausaP50Ms\":%.2f,\"pausaMaximaMs\":%.2f,"
+                        + "\"pausaTotalMs\":%.1f,\"coletaCompletaMs\":%.1f}%n",
+                modo, contas, (heapDepois - heapAntes) / (double) contas, (diretaDepois - diretaAntes) / (double) contas,
+                operacoes / (fimCarga - inicioCarga), ordenadas.length, percentil(ordenadas, 0.5),
+                percentil(ordenadas, 1.0), Arrays.stream(ordenadas).sum(), coletaCompletaMs);
+    }
+
+    // Um objeto por conta, com os campos quentes que Conta guardava antes da TabelaSaldos
+    private static final class SaldoObjeto {
+        volatile long saldoCentavos;
+        volatile boolean ativa = true;
+    }
+
+    private interface Estado {
+        void depositar(int conta, long centavos);
+    }
+
+    private static Estado criar(String modo, int contas) {
+        switch (modo) {
+            case "objetos": {
+                SaldoObjeto[] saldos = new SaldoObjeto[contas];
+                for (int i = 0; i < contas; i++) {
+                    saldos[i] = new SaldoObjeto();
+                }
+                return (conta, centavos) -> saldos[conta].saldoCentavos += centavos;
+            }
+            case "heap":
+            case "fora-do-heap": {
+                TabelaSaldos tabela = modo.equals("heap") ? new TabelaSaldosNoHeap() : new TabelaSaldosForaDoHeap();
+                for (int i = 0; i < contas; i++) {
+                    tabela.alocar(TabelaSaldos.CORRENTE + i % 3);
+                }
+                return (conta, centavos) -> tabela.gravarSaldo(conta, tabela.saldo(conta) + centavos);
+            }
+            case "servico-heap":
+            case "servico-fora-do-heap": {
+                TabelaSaldos tabela = modo.equals("servico-heap") ? new TabelaSaldosNoHeap() : new TabelaSaldosForaDoHeap();
+                // Sem extrato: o modo mede o estado das contas, e cada depósito abriria o extrato de outra conta
+                BancoService banco = new BancoService(DiarioOperacoes.NENHUM, MetricasOperacoes.NENHUMA, tabela, 0);
+                String[] numeros = new String[contas];
+                // Quatro contas por cliente: a lista de contas do cliente é copiada a cada inclusão
+                for (int i = 0; i < contas; i++) {
+                    String cpf = Cpf.gerar(i / 4 + 1);
+                    if (i % 4 == 0) {
+                        banco.criarCliente("Cliente " + i / 4, cpf, LocalDate.of(1990, 1, 1));
+                    }
+                    numeros[i] = "C" + i;
+                    banco.criarContaCorrente(numeros[i], cpf, BigDecimal.ZERO);
+                }
+                BigDecimal centavo = new BigDecimal("0.01");
+                return (conta, centavos) -> banco.depositar(numeros[conta], centavo);
+            }
+            default:
+                throw new IllegalArgumentException("Modo desconhecido: " + modo);
+        }
+    }
+
+    private static long carga(Estado estado, int contas, long duracaoNs) {
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        byte[][] lixo = new byte[1024][];
+        long operacoes = 0;
+        long fim = System.nanoTime() + duracaoNs;
+        while (System.nanoTime() < fim) {
+            for (int i = 0; i < 1024; i++) {
+                estado.depositar(aleatorio.nextInt(contas), 1);
+                lixo[i] = new byte[256];
+            }
+            operacoes += 1024;
+        }
+        return operacoes;
+    }
+
+    private static List<Double> pausasEntre(Path log, double inicio, double fim) throws IOException {
+        List<Double> pausas = new ArrayList<>();
+        for (String linha : Files.readAllLines(log)) {
+            Matcher m = PAUSA.matcher(linha);
+            if (m.matches() && !m.group(2).equals("Full")) {
+                double instante = Double.parseDouble(m.group(1));
+                if (instante >= inicio && instante <= fim) {
+                    pausas.add(Double.parseDouble(m.group(3)));
+                }
+            }
+        }
+        return pausas;
+    }
+
+    private static long heapUsado() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long memoriaDireta() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+
+    private static double uptimeSegundos() {
+        return ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0;
+    }
+
+    private static double percentil(double[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        return ordenadas[(int) Math.min(ordenadas.length - 1, Math.max(0, Math.ceil(p * ordenadas.length) - 1))];
+    }
+}
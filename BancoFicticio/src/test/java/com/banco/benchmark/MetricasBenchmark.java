@@ -0,0 +1,71 @@
+package com.banco.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.banco.metricas.MetricasMicrometer;
+import com.banco.service.BancoService;
+import com.banco.service.DiarioOperacoes;
+import com.banco.service.OperacaoBancaria;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+/**
+ * Custo das métricas por operação: o registro isolado num PrometheusMeterRegistry
+ * e o depósito com e sem métricas. Rode com {@code -prof gc}; o registro não deve alocar.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MetricasBenchmark {
+
+    private static final BigDecimal VALOR = new BigDecimal("10.50");
+
+    private MetricasMicrometer metricas;
+    private BancoService semMetricas;
+    private BancoService comMetricas;
+
+    @Setup
+    public void setUp() {
+        metricas = new MetricasMicrometer(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        semMetricas = criarBanco(new BancoService(DiarioOperacoes.NENHUM));
+        comMetricas = criarBanco(new BancoService(DiarioOperacoes.NENHUM, metricas));
+    }
+
+    private static BancoService criarBanco(BancoService banco) {
+        banco.criarCliente("Benchmark", "00000000191", LocalDate.of(1990, 1, 1));
+        banco.criarContaCorrente("CC-BENCH", "00000000191", BigDecimal.ZERO);
+        return banco;
+    }
+
+    @Benchmark
+    public void registrarSucesso() {
+        metricas.sucesso(OperacaoBancaria.DEPOSITO, metricas.iniciar());
+    }
+
+    @Benchmark
+    public void depositarSemMetricas() {
+        semMetricas.depositar("CC-BENCH", VALOR);
+    }
+
+    @Benchmark
+    public void depositarComMetricas() {
+        comMetricas.depositar("CC-BENCH", VALOR);
+    }
+}
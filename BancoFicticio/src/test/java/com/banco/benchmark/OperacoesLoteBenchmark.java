@@ -0,0 +1,121 @@
+package com.banco.benchmark;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.banco.BancoFicticioApplication;
+import com.banco.persistencia.ModoSincronizacao;
+import com.banco.service.BancoService;
+
+/**
+ * Itens por segundo pela API HTTP: um depósito por requisição em
+ * {@code /contas/{numero}/depositar} contra lotes de {@value #ITENS_POR_LOTE} depósitos em
+ * {@code /operacoes/lote}. A aplicação sobe com o diário habilitado num diretório temporário.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OperacoesLoteBenchmark {
+
+    private static final int ITENS_POR_LOTE = 1000;
+    private static final String CONTA = "LOTE-BENCH";
+
+    @Param({"GRUPO", "NENHUMA"})
+    public ModoSincronizacao sincronizacao;
+
+    private Path diretorio;
+    private ConfigurableApplicationContext contexto;
+    private HttpClient cliente;
+    private HttpRequest depositoUnitario;
+    private HttpRequest depositoEmLote;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        diretorio = Files.createTempDirectory(Path.of(System.getProperty("java.io.tmpdir")), "lote-bench");
+        contexto = new SpringApplicationBuilder(BancoFicticioApplication.class)
+                .run("--server.port=0",
+                        "--logging.level.root=WARN",
+                        "--banco.diario.diretorio=" + diretorio.resolve("diario"),
+                        "--banco.diario.sincronizacao=" + sincronizacao,
+                        "--banco.instantaneo.diretorio=" + diretorio.resolve("instantaneos"),
+                        "--banco.instantaneo.intervalo-segundos=0");
+        BancoService bancoService = contexto.getBean(BancoService.class);
+        bancoService.criarCliente("Benchmark", "999.999.998-08", LocalDate.of(1990, 1, 1));
+        bancoService.criarContaCorrente(CONTA, "999.999.998-08", BigDecimal.ZERO);
+
+        String base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port") + "/api/banco";
+        cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        depositoUnitario = HttpRequest.newBuilder(URI.create(base + "/contas/" + CONTA + "/depositar?valor=0.01"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+
+        StringBuilder corpo = new StringBuilder("[");
+        for (int i = 0; i < ITENS_POR_LOTE; i++) {
+            corpo.append(i == 0 ? "" : ",")
+                    .append("{\"operacao\":\"DEPOSITO\",\"conta\":\"").append(CONTA).append("\",\"valor\":0.01}");
+        }
+        corpo.append("]");
+        depositoEmLote = HttpRequest.newBuilder(URI.create(base + "/operacoes/lote"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(corpo.toString(), StandardCharsets.UTF_8))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        contexto.close();
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            arquivos.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int depositoUnitario() throws IOException, InterruptedException {
+        return enviar(depositoUnitario);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITENS_POR_LOTE)
+    public int depositoEmLote() throws IOException, InterruptedException {
+        return enviar(depositoEmLote);
+    }
+
+    private int enviar(HttpRequest requisicao) throws IOException, InterruptedException {
+        HttpResponse<byte[]> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.ofByteArray());
+        if (resposta.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + resposta.statusCode() + ": " + new String(resposta.body(), StandardCharsets.UTF_8));
+        }
+        return resposta.body().length;
+    }
+}
@@ -0,0 +1,115 @@
+package com.banco.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.banco.domain.Cliente;
+import com.banco.domain.ContaInvestimento;
+import com.banco.domain.ContaPoupanca;
+import com.banco.domain.TipoInvestimento;
+import com.banco.service.BancoService;
+import com.banco.service.DiarioOperacoes;
+import com.banco.service.ProjecaoCarteira;
+import com.banco.service.ProjecaoService;
+
+/**
+ * Projeção de saldo: o laço antigo da tela de saldo futuro (copiar a conta e
+ * aplicar rendimento e tarifa mês a mês) contra o ProjecaoService, para uma
+ * conta e para o banco inteiro.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjecaoBenchmark {
+
+    private static final BigDecimal SALDO = new BigDecimal("15432.10");
+
+    @Param({"120"})
+    private int meses;
+
+    @Param({"100000"})
+    private int contas;
+
+    private Cliente cliente;
+    private BancoService banco;
+    private ProjecaoService projecao;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cliente = new Cliente("Benchmark", "00000000191", LocalDate.of(1990, 1, 1));
+        banco = new BancoService(DiarioOperacoes.NENHUM);
+        banco.criarCliente("Benchmark", "00000000191", LocalDate.of(1990, 1, 1));
+        for (int i = 0; i < contas; i++) {
+            String numero = "C-" + i;
+            if (i % 2 == 0) {
+                banco.criarContaPoupanca(numero, "00000000191");
+            } else {
+                banco.criarContaInvestimento(numero, "00000000191", TipoInvestimento.values()[i % 3]);
+            }
+            banco.depositar(numero, SALDO.add(BigDecimal.valueOf(i)));
+        }
+        projecao = new ProjecaoService(banco, 0, 4096);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        projecao.encerrar();
+    }
+
+    @Benchmark
+    public BigDecimal poupancaMesAMes() {
+        ContaPoupanca copia = new ContaPoupanca("CP", cliente);
+        copia.depositar(SALDO);
+        for (int mes = 0; mes < meses; mes++) {
+            copia.calcularRendimento();
+            copia.calcularTarifaMensal();
+        }
+        return copia.getSaldo();
+    }
+
+    @Benchmark
+    public BigDecimal investimentoMesAMes() {
+        ContaInvestimento copia = new ContaInvestimento("CI", cliente, TipoInvestimento.RENDA_FIXA);
+        copia.depositar(SALDO);
+        for (int mes = 0; mes < meses; mes++) {
+            long saldo = copia.saldoEmCentavos();
+            copia.restaurarSaldoCentavos(saldo + copia.rendimentoMensalCentavos(saldo));
+            copia.calcularTarifaMensal();
+        }
+        return copia.getSaldo().subtract(copia.calcularImposto());
+    }
+
+    @Benchmark
+    public BigDecimal poupancaProjetada() {
+        return projecao.projetarConta("C-0", meses).getSaldoLiquido();
+    }
+
+    @Benchmark
+    public BigDecimal investimentoProjetado() {
+        return projecao.projetarConta("C-1", meses).getSaldoLiquido();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ProjecaoCarteira bancoProjetado() {
+        return projecao.projetarBanco(meses);
+    }
+}
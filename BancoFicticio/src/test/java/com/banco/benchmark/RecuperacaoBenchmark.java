@@ -0,0 +1,100 @@
+package com.banco.benchmark;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.banco.domain.Cpf;
+import com.banco.persistencia.DiarioMapeado;
+import com.banco.persistencia.Instantaneo;
+import com.banco.persistencia.ModoSincronizacao;
+import com.banco.persistencia.RecuperacaoDiario;
+import com.banco.service.BancoService;
+
+/**
+ * Tempo de inicialização em função da quantidade de contas: carregar o snapshot binário
+ * contra reproduzir o diário inteiro (criação de cada conta e um depósito por conta).
+ * Para 10 milhões de contas use {@code -p contas=10000000 -jvmArgsAppend -Xmx16g}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class RecuperacaoBenchmark {
+
+    private static final int CONTAS_POR_CLIENTE = 4;
+
+    @Param({"100000", "1000000"})
+    public int contas;
+
+    private Path diretorio;
+    private Path instantaneo;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        diretorio = Files.createTempDirectory(Path.of(System.getProperty("java.io.tmpdir")), "recuperacao-bench");
+        instantaneo = diretorio.resolve("instantaneo.bin");
+        try (DiarioMapeado diario = abrirDiario()) {
+            diario.iniciar(0, new RecuperacaoDiario(new BancoService()));
+            BancoService banco = new BancoService(diario);
+            BigDecimal deposito = new BigDecimal("100.00");
+            for (int i = 0; i < contas; i++) {
+                String cpf = Cpf.gerar(i / CONTAS_POR_CLIENTE + 1);
+                if (i % CONTAS_POR_CLIENTE == 0) {
+                    banco.criarCliente("Cliente " + i, cpf, null);
+                }
+                String numero = String.valueOf(i);
+                banco.criarContaPoupanca(numero, cpf);
+                banco.depositar(numero, deposito);
+            }
+            Instantaneo.gravar(instantaneo, banco, diario.ultimaSequencia());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            arquivos.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public BancoService carregarInstantaneo() throws IOException {
+        BancoService banco = new BancoService();
+        Instantaneo.carregar(instantaneo, banco);
+        return banco;
+    }
+
+    @Benchmark
+    public BancoService reproduzirDiario() {
+        BancoService banco = new BancoService();
+        try (DiarioMapeado diario = abrirDiario()) {
+            diario.iniciar(0, new RecuperacaoDiario(banco));
+        }
+        return banco;
+    }
+
+    private DiarioMapeado abrirDiario() {
+        return new DiarioMapeado(diretorio.resolve("diario"), 64 * 1024 * 1024, ModoSincronizacao.NENHUMA);
+    }
+}
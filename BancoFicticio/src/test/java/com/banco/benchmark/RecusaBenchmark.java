@@ -0,0 +1,89 @@
+package com.banco.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.banco.domain.ResultadoOperacao;
+import com.banco.exception.SaldoInsuficienteException;
+import com.banco.service.BancoService;
+
+/**
+ * Carga dominada por recusas: saques em contas sem saldo suficiente, na API que
+ * lança SaldoInsuficienteException e na API {@code tentar*}, que devolve o
+ * resultado. {@code recusas} é a fração (em %) dos saques que não cabem no saldo;
+ * o restante é sacado e depositado de volta. Rodar com {@code -prof gc} para ver a
+ * alocação por operação.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecusaBenchmark {
+
+    private static final String CPF = "000.000.001-91";
+    private static final int CONTAS = 1024;
+    private static final BigDecimal SALDO = new BigDecimal("100.00");
+    private static final BigDecimal CABE = new BigDecimal("10.00");
+    private static final BigDecimal NAO_CABE = new BigDecimal("1000.00");
+
+    @Param({"50", "90", "100"})
+    public int recusas;
+
+    private BancoService bancoService;
+    private String[] numeros;
+    private BigDecimal[] valores;
+    private int proxima;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bancoService = new BancoService();
+        bancoService.criarCliente("Cliente", CPF, LocalDate.of(1990, 1, 1));
+        numeros = new String[CONTAS];
+        valores = new BigDecimal[CONTAS];
+        for (int i = 0; i < CONTAS; i++) {
+            numeros[i] = "R-" + i;
+            bancoService.criarContaPoupanca(numeros[i], CPF);
+            bancoService.depositar(numeros[i], SALDO);
+            // Distribuição fixa: a mesma sequência de valores em cada iteração
+            valores[i] = i * 100 / CONTAS < recusas ? NAO_CABE : CABE;
+        }
+    }
+
+    @Benchmark
+    public Object sacarComExcecao() {
+        int i = proxima++ & (CONTAS - 1);
+        try {
+            bancoService.sacar(numeros[i], valores[i]);
+        } catch (SaldoInsuficienteException e) {
+            return e;
+        }
+        bancoService.depositar(numeros[i], valores[i]);
+        return null;
+    }
+
+    @Benchmark
+    public ResultadoOperacao tentarSacar() {
+        int i = proxima++ & (CONTAS - 1);
+        ResultadoOperacao resultado = bancoService.tentarSacar(numeros[i], valores[i]);
+        if (resultado.isSucesso()) {
+            bancoService.tentarDepositar(numeros[i], valores[i]);
+        }
+        return resultado;
+    }
+}
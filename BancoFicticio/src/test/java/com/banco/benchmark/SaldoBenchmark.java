@@ -0,0 +1,95 @@
+package com.banco.benchmark;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.banco.domain.Centavos;
+import com.banco.domain.Cliente;
+import com.banco.domain.ContaCorrente;
+import com.banco.domain.ContaInvestimento;
+import com.banco.domain.TipoInvestimento;
+
+/**
+ * Compara o ciclo depósito/saque/tarifa do caminho antigo em {@link BigDecimal}
+ * com a aritmética em centavos usada pelas contas.
+ * Rode com {@code -prof gc} para ver a alocação por operação.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SaldoBenchmark {
+
+    private static final BigDecimal TARIFA_CORRENTE = new BigDecimal("30.00");
+    private static final BigDecimal TARIFA_INVESTIMENTO = new BigDecimal("15.00");
+    private static final BigDecimal VALOR = new BigDecimal("10.50");
+
+    private BigDecimal saldoReferencia;
+    private BigDecimal limiteReferencia;
+
+    private ContaCorrente contaCorrente;
+    private ContaInvestimento contaInvestimento;
+    private long valorCentavos;
+
+    @Setup
+    public void setUp() {
+        saldoReferencia = new BigDecimal("1000.00");
+        limiteReferencia = new BigDecimal("500.00");
+
+        Cliente cliente = new Cliente("Benchmark", "000.000.001-91", LocalDate.of(1990, 1, 1));
+        contaCorrente = new ContaCorrente("CC-BENCH", cliente, new BigDecimal("500.00"));
+        contaCorrente.depositar(new BigDecimal("1000.00"));
+        contaInvestimento = new ContaInvestimento("CI-BENCH", cliente, TipoInvestimento.RENDA_VARIAVEL);
+        contaInvestimento.depositar(new BigDecimal("100000.00"));
+        valorCentavos = Centavos.de(VALOR);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalDepositoSaque() {
+        saldoReferencia = saldoReferencia.add(VALOR);
+        BigDecimal saldoTotal = saldoReferencia.add(limiteReferencia);
+        if (VALOR.compareTo(saldoTotal) <= 0) {
+            saldoReferencia = saldoReferencia.subtract(VALOR);
+        }
+        return saldoReferencia;
+    }
+
+    @Benchmark
+    public long centavosDepositoSaque() {
+        contaCorrente.depositarCentavos(valorCentavos);
+        contaCorrente.sacarCentavos(valorCentavos);
+        return contaCorrente.saldoEmCentavos();
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTarifaInvestimento() {
+        BigDecimal saldo = new BigDecimal("100000.00");
+        BigDecimal tarifa = TARIFA_INVESTIMENTO.add(saldo.multiply(TipoInvestimento.RENDA_VARIAVEL.getTaxaAdministracao())
+                .setScale(2, RoundingMode.HALF_EVEN));
+        return saldo.subtract(tarifa).subtract(TARIFA_CORRENTE);
+    }
+
+    @Benchmark
+    public long centavosTarifaInvestimento() {
+        long saldo = 10_000_000L;
+        long tarifa = Centavos.somar(1500, Centavos.aplicarTaxa(saldo,
+                TipoInvestimento.RENDA_VARIAVEL.getTaxaAdministracaoSemEscala(),
+                TipoInvestimento.RENDA_VARIAVEL.getEscalaTaxaAdministracao()));
+        return saldo - tarifa - 3000;
+    }
+}
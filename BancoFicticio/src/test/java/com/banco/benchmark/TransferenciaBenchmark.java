@@ -0,0 +1,105 @@
+package com.banco.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.banco.domain.Conta;
+import com.banco.service.BancoService;
+
+/**
+ * Transferências por segundo com várias threads. Em DISJUNTOS cada thread movimenta o seu
+ * próprio par de contas; em DISPUTADOS todas usam o mesmo par, em sentidos alternados.
+ * Ao fim de cada iteração a soma dos saldos é conferida e o benchmark falha se houver
+ * diferença. Varie as threads com {@code -t} para ver a escala com pares disjuntos.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class TransferenciaBenchmark {
+
+    private static final int MAXIMO_THREADS = 256;
+    private static final BigDecimal SALDO_INICIAL = new BigDecimal("1000000.00");
+    private static final BigDecimal VALOR = new BigDecimal("1.00");
+
+    @Param({"DISJUNTOS", "DISPUTADOS"})
+    public String cenario;
+
+    private BancoService bancoService;
+    private final AtomicInteger proximaThread = new AtomicInteger();
+    private BigDecimal totalEsperado;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bancoService = new BancoService();
+        bancoService.criarCliente("Benchmark", "000", LocalDate.of(1990, 1, 1));
+        for (int i = 0; i < 2 * MAXIMO_THREADS; i++) {
+            bancoService.criarContaPoupanca("CP-" + i, "000");
+            bancoService.depositar("CP-" + i, SALDO_INICIAL);
+        }
+        totalEsperado = total();
+    }
+
+    @TearDown(Level.Iteration)
+    public void conferirConservacao() {
+        BigDecimal total = total();
+        if (total.compareTo(totalEsperado) != 0) {
+            throw new IllegalStateException("Dinheiro não conservado: esperado " + totalEsperado + ", obtido " + total);
+        }
+    }
+
+    private BigDecimal total() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Conta conta : bancoService.listarContas()) {
+            total = total.add(conta.getSaldo());
+        }
+        return total;
+    }
+
+    @State(Scope.Thread)
+    public static class Par {
+        String a;
+        String b;
+        boolean sentido;
+
+        @Setup(Level.Trial)
+        public void setUp(TransferenciaBenchmark benchmark) {
+            int thread = benchmark.proximaThread.getAndIncrement() % MAXIMO_THREADS;
+            int base = "DISJUNTOS".equals(benchmark.cenario) ? 2 * thread : 0;
+            // Nos pares disputados metade das threads começa no sentido oposto
+            sentido = thread % 2 == 0;
+            a = "CP-" + base;
+            b = "CP-" + (base + 1);
+        }
+    }
+
+    @Benchmark
+    public void transferir(Par par) {
+        par.sentido = !par.sentido;
+        if (par.sentido) {
+            bancoService.transferir(par.a, par.b, VALOR);
+        } else {
+            bancoService.transferir(par.b, par.a, VALOR);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.banco.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+public class CentavosTest {
+
+    @Test
+    public void testConversaoArredondaComoSetScaleHalfEven() {
+        assertEquals(1002, Centavos.de(new BigDecimal("10.025")));
+        assertEquals(1004, Centavos.de(new BigDecimal("10.035")));
+        assertEquals(-1002, Centavos.de(new BigDecimal("-10.025")));
+        assertEquals(new BigDecimal("10.02"), Centavos.paraBigDecimal(1002));
+    }
+
+    @Test
+    public void testAplicarTaxaEquivaleAoCaminhoBigDecimal() {
+        Random random = new Random(42);
+        BigDecimal[] taxas = {
+                new BigDecimal("0.0050"), new BigDecimal("0.001"), new BigDecimal("0.0005"),
+                new BigDecimal("0.015"), new BigDecimal("0.175"), new BigDecimal("0.225")
+        };
+        for (int i = 0; i < 200_000; i++) {
+            long centavos = random.nextLong() % 10_000_000_000L;
+            BigDecimal taxa = taxas[i % taxas.length];
+            BigDecimal esperado = Centavos.paraBigDecimal(centavos).multiply(taxa)
+                    .setScale(2, RoundingMode.HALF_EVEN);
+            long calculado = Centavos.aplicarTaxa(centavos, Centavos.semEscala(taxa), Centavos.escalaDe(taxa));
+            assertEquals(esperado, Centavos.paraBigDecimal(calculado), "Divergência para " + centavos + " x " + taxa);
+        }
+    }
+
+    @Test
+    public void testEmpatesArredondamParaPar() {
+        // 0,05 * 0,5 = 0,025 -> 0,02 ; 0,15 * 0,5 = 0,075 -> 0,08
+        assertEquals(2, Centavos.aplicarTaxa(5, 5, 1));
+        assertEquals(8, Centavos.aplicarTaxa(15, 5, 1));
+        assertEquals(-2, Centavos.aplicarTaxa(-5, 5, 1));
+    }
+
+    @Test
+    public void testOverflowEDetectado() {
+        assertThrows(ArithmeticException.class, () -> Centavos.somar(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Centavos.subtrair(Long.MIN_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Centavos.aplicarTaxa(Long.MAX_VALUE / 2, 5, 1));
+        assertThrows(IllegalArgumentException.class, () -> Centavos.de(new BigDecimal("1E+30")));
+    }
+
+    @Test
+    public void testTarifasEquivalemAoCaminhoBigDecimal() {
+        Cliente cliente = new Cliente("Teste", "000.000.001-91", LocalDate.of(1990, 1, 1));
+        ContaInvestimento investimento = new ContaInvestimento("CI", cliente, TipoInvestimento.TESOURO_DIRETO);
+        investimento.depositar(new BigDecimal("12345.67"));
+
+        BigDecimal saldo = investimento.getSaldo();
+        BigDecimal tarifa = new BigDecimal("15.00").add(saldo.multiply(TipoInvestimento.TESOURO_DIRETO.getTaxaAdministracao())
+                .setScale(2, RoundingMode.HALF_EVEN));
+        investimento.calcularTarifaMensal();
+
+        assertEquals(saldo.subtract(tarifa), investimento.getSaldo());
+    }
+
+    @Test
+    public void testContaCorrenteUsaLimiteChequeEspecial() {
+        Cliente cliente = new Cliente("Teste", "000.000.001-91", LocalDate.of(1990, 1, 1));
+        ContaCorrente conta = new ContaCorrente("CC", cliente, new BigDecimal("500.00"));
+        conta.depositar(new BigDecimal("100.00"));
+
+        conta.sacar(new BigDecimal("550.00"));
+
+        assertEquals(new BigDecimal("-450.00"), conta.getSaldo());
+    }
+}
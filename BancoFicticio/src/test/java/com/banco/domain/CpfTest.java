@@ -0,0 +1,56 @@
+package com.banco.domain;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class CpfTest {
+
+    @Test
+    public void testNormalizarAceitaComESemPontuacao() {
+        assertEquals(12345678909L, Cpf.normalizar("123.456.789-09"));
+        assertEquals(12345678909L, Cpf.normalizar("12345678909"));
+        assertEquals(191L, Cpf.normalizar("000.000.001-91"));
+        assertEquals(Cpf.INVALIDO, Cpf.normalizar("1234567890"));
+        assertEquals(Cpf.INVALIDO, Cpf.normalizar("123456789012"));
+        assertEquals(Cpf.INVALIDO, Cpf.normalizar("123.456.789/09"));
+        assertEquals(Cpf.INVALIDO, Cpf.normalizar(null));
+    }
+
+    @Test
+    public void testDigitosVerificadores() {
+        assertTrue(Cpf.valido(12345678909L));
+        assertTrue(Cpf.valido(98765432100L));
+        assertTrue(Cpf.valido(52998224725L));
+        assertFalse(Cpf.valido(12345678900L));
+        assertFalse(Cpf.valido(12345678919L));
+        // Dígitos repetidos passam na conta mas não são CPFs emitidos
+        assertFalse(Cpf.valido(0L));
+        assertFalse(Cpf.valido(55555555555L));
+        assertFalse(Cpf.valido(Cpf.INVALIDO));
+        for (long base = 1; base < 100_000; base += 7) {
+            assertTrue(Cpf.valido(Cpf.comDigitosVerificadores(base)));
+        }
+    }
+
+    @Test
+    public void testTextoEFormatacao() {
+        assertEquals("00000000191", Cpf.gerar(1));
+        assertEquals("000.000.001-91", Cpf.formatar(191));
+        assertEquals("123.456.789-09", Cpf.formatar(Cpf.normalizar("12345678909")));
+    }
+
+    @Test
+    public void testClienteGuardaOCpfNormalizado() {
+        Cliente formatado = new Cliente("Ana", "123.456.789-09", LocalDate.of(1990, 1, 1));
+        Cliente semPontuacao = new Cliente("Ana", "12345678909", LocalDate.of(1990, 1, 1));
+        assertEquals("12345678909", formatado.getCpf());
+        assertEquals(formatado, semPontuacao);
+        assertEquals(formatado.hashCode(), semPontuacao.hashCode());
+        assertThrows(IllegalArgumentException.class, () -> new Cliente("Ana", "123", LocalDate.of(1990, 1, 1)));
+    }
+}
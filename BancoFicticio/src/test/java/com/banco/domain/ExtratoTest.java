@@ -0,0 +1,71 @@
+package com.banco.domain;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class ExtratoTest {
+
+    @Test
+    public void testLancamentosDoMaisRecenteParaOMaisAntigo() {
+        Extrato extrato = new Extrato(4);
+        extrato.registrar(TipoLancamento.DEPOSITO, 10_000, 10_000, 1_000);
+        extrato.registrar(TipoLancamento.SAQUE, -2_550, 7_450, 2_000);
+
+        List<LancamentoExtrato> lancamentos = extrato.recentes(10);
+
+        assertEquals(2, lancamentos.size());
+        assertEquals(TipoLancamento.SAQUE, lancamentos.get(0).getTipo());
+        assertEquals(new BigDecimal("-25.50"), lancamentos.get(0).getValor());
+        assertEquals(new BigDecimal("74.50"), lancamentos.get(0).getSaldo());
+        assertEquals(Instant.ofEpochMilli(2_000), lancamentos.get(0).getDataHora());
+        assertEquals(TipoLancamento.DEPOSITO, lancamentos.get(1).getTipo());
+        assertEquals(Instant.ofEpochMilli(1_000), lancamentos.get(1).getDataHora());
+    }
+
+    @Test
+    public void testBufferCheioSobrescreveOsMaisAntigos() {
+        Extrato extrato = new Extrato(3);
+        for (int i = 1; i <= 10; i++) {
+            extrato.registrar(TipoLancamento.DEPOSITO, i, i * 100L, i);
+        }
+
+        List<LancamentoExtrato> lancamentos = extrato.recentes(5);
+
+        assertEquals(3, lancamentos.size());
+        assertEquals(10, lancamentos.get(0).valorEmCentavos());
+        assertEquals(9, lancamentos.get(1).valorEmCentavos());
+        assertEquals(8, lancamentos.get(2).valorEmCentavos());
+        assertEquals(1, extrato.recentes(1).size());
+        assertEquals(10, extrato.total());
+    }
+
+    @Test
+    public void testTodosOsTiposEInstantesAtuaisSobrevivemAoEmpacotamento() {
+        long agora = System.currentTimeMillis();
+        Extrato extrato = new Extrato(TipoLancamento.values().length);
+        for (TipoLancamento tipo : TipoLancamento.values()) {
+            extrato.registrar(tipo, Long.MIN_VALUE + tipo.ordinal(), Long.MAX_VALUE - tipo.ordinal(), agora);
+        }
+
+        List<LancamentoExtrato> lancamentos = extrato.recentes(Integer.MAX_VALUE);
+        for (int i = 0; i < lancamentos.size(); i++) {
+            TipoLancamento tipo = TipoLancamento.values()[lancamentos.size() - 1 - i];
+            assertEquals(tipo, lancamentos.get(i).getTipo());
+            assertEquals(Long.MIN_VALUE + tipo.ordinal(), lancamentos.get(i).valorEmCentavos());
+            assertEquals(Long.MAX_VALUE - tipo.ordinal(), lancamentos.get(i).saldoEmCentavos());
+            assertEquals(Instant.ofEpochMilli(agora), lancamentos.get(i).getDataHora());
+        }
+    }
+
+    @Test
+    public void testExtratoVazioECapacidadeInvalida() {
+        assertTrue(new Extrato(1).recentes(10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new Extrato(0));
+    }
+}
@@ -0,0 +1,101 @@
+package com.banco.domain;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.banco.exception.SaldoInsuficienteException;
+
+public class TabelaSaldosTest {
+
+    private final Cliente cliente = new Cliente("Ana", "12345678909", LocalDate.of(1990, 1, 1));
+
+    @Test
+    public void testPosicoesDensasAtravessamPaginasNoHeap() {
+        verificarPaginas(new TabelaSaldosNoHeap(2));
+    }
+
+    @Test
+    public void testPosicoesDensasAtravessamPaginasForaDoHeap() {
+        verificarPaginas(new TabelaSaldosForaDoHeap(2));
+    }
+
+    private void verificarPaginas(TabelaSaldos tabela) {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, tabela.alocar(TabelaSaldos.CORRENTE + i % 3));
+            tabela.gravarSaldo(i, 100L * i - 300);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals(100L * i - 300, tabela.saldo(i));
+            assertEquals(TabelaSaldos.CORRENTE + i % 3, tabela.tipo(i));
+            assertTrue(tabela.ativa(i));
+        }
+        assertEquals(10, tabela.quantidade());
+        assertEquals(12 * tabela.bytesPorPosicao(), tabela.bytesAlocados());
+
+        tabela.gravarAtiva(4, false);
+        assertFalse(tabela.ativa(4));
+        assertEquals(TabelaSaldos.POUPANCA, tabela.tipo(4));
+
+        // Correntes nas posições 0, 3, 6 e 9
+        assertEquals(-300 + 0 + 300 + 600, tabela.somarSaldos(TabelaSaldos.CORRENTE));
+        tabela.liberar(9);
+        assertEquals(TabelaSaldos.LIVRE, tabela.tipo(9));
+        assertEquals(0, tabela.somarSaldos(TabelaSaldos.CORRENTE));
+
+        tabela.limpar();
+        assertEquals(0, tabela.quantidade());
+        assertEquals(0, tabela.alocar(TabelaSaldos.INVESTIMENTO));
+        assertEquals(0, tabela.saldo(0));
+    }
+
+    @Test
+    public void testContaGuardaEstadoNaTabela() {
+        TabelaSaldos tabela = new TabelaSaldosForaDoHeap(4);
+        ContaCorrente conta = new ContaCorrente("CC-1", cliente, new BigDecimal("100.00"), tabela);
+        conta.depositar(new BigDecimal("50.00"));
+        conta.sacar(new BigDecimal("120.00"));
+        assertThrows(SaldoInsuficienteException.class, () -> conta.sacar(new BigDecimal("100.00")));
+
+        assertSame(tabela, conta.tabelaSaldos());
+        assertEquals(-7000, tabela.saldo(conta.posicao()));
+        assertEquals(new BigDecimal("-70.00"), conta.getSaldo());
+        conta.setAtiva(false);
+        assertFalse(tabela.ativa(conta.posicao()));
+    }
+
+    @Test
+    public void testVincularMoveEstadoParaOutraTabela() {
+        ContaPoupanca conta = new ContaPoupanca("CP-1", cliente);
+        conta.depositar(new BigDecimal("10.00"));
+        conta.setAtiva(false);
+        TabelaSaldos avulsa = conta.tabelaSaldos();
+        int posicaoAvulsa = conta.posicao();
+
+        TabelaSaldos destino = new TabelaSaldosNoHeap(4);
+        destino.alocar(TabelaSaldos.CORRENTE);
+        conta.vincular(destino);
+
+        assertSame(destino, conta.tabelaSaldos());
+        assertEquals(1, conta.posicao());
+        assertEquals(1000, conta.saldoEmCentavos());
+        assertFalse(conta.isAtiva());
+        assertEquals(TabelaSaldos.POUPANCA, destino.tipo(1));
+        assertEquals(TabelaSaldos.LIVRE, avulsa.tipo(posicaoAvulsa));
+    }
+
+    @Test
+    public void testDataCriacaoPreservaNanossegundos() {
+        ContaCorrente conta = new ContaCorrente("CC-2", cliente);
+        LocalDateTime data = LocalDateTime.of(2024, 2, 29, 23, 59, 58, 123_456_789);
+        conta.restaurarDataCriacao(data);
+        assertEquals(data, conta.getDataCriacao());
+    }
+}
@@ -0,0 +1,86 @@
+package com.banco.metricas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.banco.domain.ResultadoOperacao;
+import com.banco.domain.TipoInvestimento;
+import com.banco.exception.OperacaoInvalidaException;
+import com.banco.exception.RecursoNaoEncontradoException;
+import com.banco.exception.SaldoInsuficienteException;
+import com.banco.service.BancoService;
+import com.banco.service.DiarioOperacoes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MetricasMicrometerTest {
+
+    private SimpleMeterRegistry registry;
+    private BancoService bancoService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        bancoService = new BancoService(DiarioOperacoes.NENHUM, new MetricasMicrometer(registry));
+        new MetricasBanco(bancoService).bindTo(registry);
+        bancoService.criarCliente("Ana", "12345678909", LocalDate.of(1990, 1, 1));
+        bancoService.criarContaCorrente("CC-1", "12345678909", BigDecimal.ZERO);
+        bancoService.criarContaPoupanca("CP-1", "12345678909");
+        bancoService.criarContaInvestimento("CI-1", "12345678909", TipoInvestimento.RENDA_FIXA);
+    }
+
+    @Test
+    void contaOperacoesPorResultado() {
+        bancoService.depositar("CC-1", new BigDecimal("100.00"));
+        bancoService.depositar("CC-1", new BigDecimal("50.00"));
+        assertThrows(SaldoInsuficienteException.class, () -> bancoService.sacar("CC-1", new BigDecimal("1000.00")));
+        assertThrows(RecursoNaoEncontradoException.class, () -> bancoService.sacar("NAO-EXISTE", BigDecimal.ONE));
+        assertThrows(OperacaoInvalidaException.class, () -> bancoService.investir("CC-1", BigDecimal.ONE));
+        // Recusas sem exceção entram nos mesmos contadores
+        assertEquals(ResultadoOperacao.SALDO_INSUFICIENTE, bancoService.tentarSacar("CC-1", new BigDecimal("1000.00")));
+        assertEquals(ResultadoOperacao.VALOR_INVALIDO, bancoService.tentarDepositar("CC-1", BigDecimal.ZERO));
+
+        assertEquals(2, contador("deposito", "sucesso"));
+        assertEquals(1, contador("deposito", "operacao_invalida"));
+        assertEquals(2, contador("saque", "saldo_insuficiente"));
+        assertEquals(1, contador("saque", "nao_encontrado"));
+        assertEquals(0, contador("saque", "sucesso"));
+        assertEquals(1, contador("investimento", "operacao_invalida"));
+        assertEquals(3, contador("criar_conta", "sucesso"));
+        assertEquals(1, contador("criar_cliente", "sucesso"));
+
+        assertEquals(3, registry.get("banco.operacao").tag("operacao", "deposito").timer().count());
+        assertEquals(3, registry.get("banco.operacao").tag("operacao", "saque").timer().count());
+    }
+
+    @Test
+    void gaugesRefletemQuantidadesESaldosPorTipo() {
+        bancoService.depositar("CC-1", new BigDecimal("100.00"));
+        bancoService.depositar("CP-1", new BigDecimal("20.50"));
+        bancoService.transferir("CC-1", "CI-1", new BigDecimal("30.00"));
+
+        assertEquals(1, registry.get("banco.clientes").gauge().value());
+        assertEquals(3, registry.get("banco.contas").gauge().value());
+        assertEquals(70.0, saldo("corrente"), 0.001);
+        assertEquals(20.5, saldo("poupanca"), 0.001);
+        assertEquals(30.0, saldo("investimento"), 0.001);
+        assertEquals(1, contador("transferencia", "sucesso"));
+    }
+
+    private double contador(String operacao, String resultado) {
+        return registry.get("banco.operacao.resultado")
+                .tag("operacao", operacao)
+                .tag("resultado", resultado)
+                .counter().count();
+    }
+
+    private double saldo(String tipo) {
+        return registry.get("banco.saldo.total").tag("tipo", tipo).gauge().value();
+    }
+}
@@ -0,0 +1,69 @@
+package com.banco.particao;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class AnelConsistenteTest {
+
+    private static final List<String> QUATRO = List.of("http://a", "http://b", "http://c", "http://d");
+    private static final int CHAVES = 100_000;
+
+    @Test
+    public void testDonoNaoDependeDaOrdemDosNos() {
+        AnelConsistente anel = new AnelConsistente(QUATRO);
+        AnelConsistente invertido = new AnelConsistente(List.of("http://d", "http://c", "http://b", "http://a"));
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(anel.noDaConta("C" + i), invertido.noDaConta("C" + i));
+        }
+    }
+
+    @Test
+    public void testChavesSeDistribuemDeFormaEquilibrada() {
+        AnelConsistente anel = new AnelConsistente(QUATRO);
+        Map<String, Integer> porNo = new HashMap<>();
+        for (int i = 0; i < CHAVES; i++) {
+            porNo.merge(anel.noDaConta(String.format("CONTA-%06d", i)), 1, Integer::sum);
+        }
+        assertEquals(4, porNo.size());
+        for (int quantidade : porNo.values()) {
+            // 25% esperado por nó; 160 pontos por nó deixam o desvio bem abaixo de 20%
+            assertTrue(Math.abs(quantidade - CHAVES / 4) < CHAVES / 20, porNo.toString());
+        }
+    }
+
+    @Test
+    public void testNoNovoSoRecebeChavesSemMoverAsDemais() {
+        AnelConsistente tres = new AnelConsistente(QUATRO.subList(0, 3));
+        AnelConsistente quatro = tres.comNo("http://d");
+        int movidas = 0;
+        for (int i = 0; i < CHAVES; i++) {
+            String numero = String.format("CONTA-%06d", i);
+            String antes = tres.noDaConta(numero);
+            String depois = quatro.noDaConta(numero);
+            if (!antes.equals(depois)) {
+                assertEquals("http://d", depois);
+                movidas++;
+            }
+        }
+        assertTrue(Math.abs(movidas - CHAVES / 4) < CHAVES / 20, "movidas: " + movidas);
+    }
+
+    @Test
+    public void testClienteUsaCpfNormalizado() {
+        AnelConsistente anel = new AnelConsistente(QUATRO);
+        assertEquals(anel.noDoCliente("12345678909"), anel.noDoCliente("123.456.789-09"));
+        assertEquals("http://a", anel.noDoCliente("invalido"));
+    }
+
+    @Test
+    public void testNoRepetidoERecusado() {
+        AnelConsistente anel = new AnelConsistente(QUATRO);
+        assertThrows(IllegalArgumentException.class, () -> anel.comNo("http://a"));
+    }
+}
@@ -0,0 +1,246 @@
+package com.banco.particao;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.banco.domain.Conta;
+import com.banco.domain.Cpf;
+import com.banco.domain.ResultadoOperacao;
+import com.banco.exception.RecursoNaoEncontradoException;
+import com.banco.persistencia.DiarioMapeado;
+import com.banco.persistencia.Instantaneo;
+import com.banco.persistencia.ModoSincronizacao;
+import com.banco.persistencia.RecuperacaoDiario;
+import com.banco.service.BancoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ParticaoLocalTest {
+
+    private static final int CONTAS = 200;
+
+    @TempDir
+    Path diretorio;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AnelConsistente anel = new AnelConsistente(List.of("a", "b"));
+
+    @Test
+    public void testMigracaoPreservaContasESobreviveAReproducao() throws IOException {
+        Map<String, Conta> originais = new HashMap<>();
+        try (DiarioMapeado diarioA = abrir(diretorio.resolve("a"), new BancoService());
+             DiarioMapeado diarioB = abrir(diretorio.resolve("b"), new BancoService())) {
+            BancoService bancoA = new BancoService(diarioA);
+            BancoService bancoB = new BancoService(diarioB);
+            popular(bancoA);
+            for (Conta conta : bancoA.percorrerContasPorNumero()) {
+                originais.put(conta.getNumero(), conta);
+            }
+            BigDecimal totalAntes = bancoA.estatisticas().getTotalDepositos();
+
+            migrar(new ParticaoLocal(bancoA), new ParticaoLocal(bancoB));
+
+            verificar(bancoA, bancoB, originais);
+            assertEquals(totalAntes, bancoA.estatisticas().getTotalDepositos()
+                    .add(bancoB.estatisticas().getTotalDepositos()));
+        }
+
+        // O diário de cada nó reproduz a conta recebida e a removida
+        BancoService recuperadoA = new BancoService();
+        BancoService recuperadoB = new BancoService();
+        try (DiarioMapeado diarioA = abrir(diretorio.resolve("a"), recuperadoA);
+             DiarioMapeado diarioB = abrir(diretorio.resolve("b"), recuperadoB)) {
+            verificar(recuperadoA, recuperadoB, originais);
+        }
+    }
+
+    @Test
+    public void testImportacaoRepetidaSubstituiOEstado() throws IOException {
+        BancoService bancoA = new BancoService();
+        BancoService bancoB = new BancoService();
+        popular(bancoA);
+        ParticaoLocal origem = new ParticaoLocal(bancoA);
+        ParticaoLocal destino = new ParticaoLocal(bancoB);
+
+        // Primeira cópia interrompida antes da remoção; a origem continua recebendo operações
+        for (RegistroMigracao registro : exportar(origem)) {
+            destino.importar(registro);
+        }
+        String numero = exportar(origem).stream().filter(r -> r.isConta() && r.ativa()).findFirst().orElseThrow().numero();
+        bancoA.depositar(numero, new BigDecimal("7.00"));
+
+        migrar(origem, destino);
+
+        assertEquals(bancoA.estatisticas().getContas() + bancoB.estatisticas().getContas(), CONTAS);
+        assertThrows(RecursoNaoEncontradoException.class, () -> bancoA.buscarContaPorNumero(numero));
+        assertEquals(saldoEsperado(numero).add(new BigDecimal("7.00")), bancoB.buscarContaPorNumero(numero).getSaldo());
+    }
+
+    @Test
+    public void testContagemIgnoraCopiasDeTitulares() throws IOException {
+        BancoService bancoA = new BancoService();
+        BancoService bancoB = new BancoService();
+        popular(bancoA);
+        ParticaoLocal origem = new ParticaoLocal(bancoA);
+        ParticaoLocal destino = new ParticaoLocal(bancoB);
+
+        migrar(origem, destino);
+
+        assertEquals(20, origem.contarClientes(anel, "a") + destino.contarClientes(anel, "b"));
+        assertTrue(bancoA.quantidadeClientes() + bancoB.quantidadeClientes() > 20);
+    }
+
+    @Test
+    public void testExportaSoOQueEDoNoNovo() {
+        BancoService bancoA = new BancoService();
+        popular(bancoA);
+        ParticaoLocal origem = new ParticaoLocal(bancoA);
+        AnelConsistente comC = anel.comNo("c");
+
+        List<RegistroMigracao> registros = new ArrayList<>();
+        origem.exportar(comC, "c", registros::add);
+
+        // Clientes e contas de "b" continuam onde estão; só o que passa a ser de "c" sai
+        assertTrue(registros.stream().anyMatch(RegistroMigracao::isConta));
+        for (RegistroMigracao registro : registros) {
+            String dono = registro.isConta() ? comC.noDaConta(registro.numero()) : comC.noDoCliente(registro.cpf());
+            assertEquals("c", dono, registro.toString());
+        }
+        long clientesDeC = bancoA.listarClientes().stream().filter(c -> comC.noDoCliente(c.getCpf()).equals("c")).count();
+        assertEquals(clientesDeC, registros.stream().filter(r -> !r.isConta()).count());
+    }
+
+    @Test
+    public void testPassoRepetidoDepoisDoReinicioNaoMoveDinheiro() throws IOException {
+        try (DiarioMapeado diario = abrir(diretorio.resolve("a"), new BancoService())) {
+            BancoService banco = new BancoService(diario);
+            banco.criarCliente("Ana", cpf(0), LocalDate.of(1990, 1, 1));
+            banco.criarContaPoupanca("C1", cpf(0));
+            banco.depositar("C1", new BigDecimal("100.00"));
+            ParticaoLocal particao = new ParticaoLocal(banco);
+            assertEquals(ResultadoOperacao.OK, particao.sacar("t1:debito", "C1", new BigDecimal("30.00")));
+            assertEquals(ResultadoOperacao.OK, particao.sacar("t1:debito", "C1", new BigDecimal("30.00")));
+            assertEquals(new BigDecimal("70.00"), banco.buscarContaPorNumero("C1").getSaldo());
+        }
+
+        // A chave volta com a reprodução do diário
+        BancoService recuperado = new BancoService();
+        try (DiarioMapeado diario = abrir(diretorio.resolve("a"), recuperado)) {
+            ParticaoLocal particao = new ParticaoLocal(recuperado);
+            assertEquals(ResultadoOperacao.OK, particao.sacar("t1:debito", "C1", new BigDecimal("30.00")));
+            assertEquals(new BigDecimal("70.00"), recuperado.buscarContaPorNumero("C1").getSaldo());
+        }
+
+        // E com o snapshot, que substitui os segmentos antigos do diário
+        Path arquivo = diretorio.resolve("snapshot.bin");
+        Instantaneo.gravar(arquivo, recuperado, 0);
+        BancoService restaurado = new BancoService();
+        Instantaneo.carregar(arquivo, restaurado);
+        ParticaoLocal particao = new ParticaoLocal(restaurado);
+        assertEquals(ResultadoOperacao.OK, particao.sacar("t1:debito", "C1", new BigDecimal("30.00")));
+        assertEquals(new BigDecimal("70.00"), restaurado.buscarContaPorNumero("C1").getSaldo());
+        assertEquals(ResultadoOperacao.OK, particao.sacar("t2:debito", "C1", new BigDecimal("30.00")));
+        assertEquals(new BigDecimal("40.00"), restaurado.buscarContaPorNumero("C1").getSaldo());
+    }
+
+    @Test
+    public void testPassoDeTransferenciaEsquecidaSaiDoNo() throws IOException {
+        try (DiarioMapeado diario = abrir(diretorio.resolve("a"), new BancoService())) {
+            BancoService banco = new BancoService(diario);
+            banco.criarCliente("Ana", cpf(0), LocalDate.of(1990, 1, 1));
+            banco.criarContaPoupanca("C1", cpf(0));
+            banco.depositar("C1", new BigDecimal("100.00"));
+            ParticaoLocal particao = new ParticaoLocal(banco);
+            particao.sacar("t1:debito", "C1", new BigDecimal("30.00"));
+            particao.depositar("t1:estorno", "C1", new BigDecimal("30.00"));
+            particao.sacar("t2:debito", "C1", new BigDecimal("10.00"));
+
+            assertEquals(2, particao.esquecerTransferencias(List.of("t1")));
+            assertEquals(0, particao.esquecerTransferencias(List.of("t1")));
+        }
+
+        // O esquecimento também vale na reprodução do diário
+        BancoService recuperado = new BancoService();
+        try (DiarioMapeado diario = abrir(diretorio.resolve("a"), recuperado)) {
+            assertEquals(List.of("t2:debito"), listar(recuperado.percorrerPassosAplicados()));
+            assertEquals(new BigDecimal("90.00"), recuperado.buscarContaPorNumero("C1").getSaldo());
+        }
+    }
+
+    private static List<String> listar(Iterable<String> chaves) {
+        List<String> lista = new ArrayList<>();
+        chaves.forEach(lista::add);
+        return lista;
+    }
+
+    private void migrar(ParticaoLocal origem, ParticaoLocal destino) throws IOException {
+        for (RegistroMigracao registro : exportar(origem)) {
+            // Mesma serialização do /api/particao/importar
+            destino.importar(objectMapper.readValue(objectMapper.writeValueAsString(registro), RegistroMigracao.class));
+        }
+        origem.removerAlheias(anel, "a");
+    }
+
+    private List<RegistroMigracao> exportar(ParticaoLocal origem) {
+        List<RegistroMigracao> registros = new ArrayList<>();
+        origem.exportar(anel, "b", registros::add);
+        return registros;
+    }
+
+    private void popular(BancoService banco) {
+        for (int i = 0; i < 20; i++) {
+            banco.criarCliente("Cliente " + i, cpf(i), LocalDate.of(1980 + i, 1, 1));
+        }
+        for (int i = 0; i < CONTAS; i++) {
+            String numero = String.format("C%04d", i);
+            banco.criarContaPoupanca(numero, cpf(i % 20));
+            if (i % 10 != 0) {
+                banco.depositar(numero, saldoEsperado(numero));
+            }
+        }
+        banco.encerrarConta("C0000");
+        banco.encerrarConta("C0010");
+    }
+
+    private void verificar(BancoService bancoA, BancoService bancoB, Map<String, Conta> originais) {
+        assertEquals(CONTAS, bancoA.quantidadeContas() + bancoB.quantidadeContas());
+        for (Conta original : originais.values()) {
+            String numero = original.getNumero();
+            BancoService dono = anel.noDaConta(numero).equals("a") ? bancoA : bancoB;
+            BancoService outro = dono == bancoA ? bancoB : bancoA;
+            Conta conta = dono.buscarContaPorNumero(numero);
+            assertThrows(RecursoNaoEncontradoException.class, () -> outro.buscarContaPorNumero(numero), numero);
+            assertEquals(saldoEsperado(numero), conta.getSaldo(), numero);
+            assertEquals(original.getDataCriacao(), conta.getDataCriacao(), numero);
+            assertEquals(original.isAtiva(), conta.isAtiva(), numero);
+            assertNotNull(dono.buscarClientePorCpf(original.getTitular().getCpf()), numero);
+        }
+    }
+
+    private static BigDecimal saldoEsperado(String numero) {
+        int i = Integer.parseInt(numero.substring(1));
+        return i % 10 == 0 ? new BigDecimal("0.00") : new BigDecimal(i).add(new BigDecimal("0.25"));
+    }
+
+    private static String cpf(int i) {
+        return Cpf.gerar(i + 1);
+    }
+
+    private DiarioMapeado abrir(Path pasta, BancoService destino) {
+        DiarioMapeado diario = new DiarioMapeado(pasta, 64 * 1024, ModoSincronizacao.GRUPO);
+        diario.iniciar(0, new RecuperacaoDiario(destino));
+        return diario;
+    }
+}
@@ -0,0 +1,300 @@
+package com.banco.particao;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.banco.domain.ResultadoOperacao;
+import com.banco.exception.RecursoNaoEncontradoException;
+import com.banco.particao.RegistroTransferencias.Estado;
+import com.banco.service.BancoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TransferenciasEntreParticoesTest {
+
+    @TempDir
+    Path diretorio;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private NoEmMemoria noA;
+    private NoEmMemoria noB;
+    private RegistroTransferencias registro;
+    private TransferenciasEntreParticoes transferencias;
+
+    @BeforeEach
+    public void setUp() {
+        noA = new NoEmMemoria("a");
+        noB = new NoEmMemoria("b");
+        noA.banco.criarCliente("Ana", "12345678909", LocalDate.of(1990, 1, 1));
+        noA.banco.criarContaPoupanca("A1", "12345678909");
+        noA.banco.depositar("A1", new BigDecimal("100.00"));
+        noB.banco.criarCliente("Ana", "12345678909", LocalDate.of(1990, 1, 1));
+        noB.banco.criarContaPoupanca("B1", "12345678909");
+        registro = new RegistroTransferencias(diretorio.resolve("transferencias.log"));
+        transferencias = novaSaga(registro);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        registro.close();
+    }
+
+    @Test
+    public void testTransferenciaConcluidaMoveOValor() throws IOException {
+        TransferenciasEntreParticoes.Resultado resultado = transferencias.transferir("A1", "B1", new BigDecimal("40.00"));
+
+        assertEquals(200, resultado.status());
+        assertEquals(Estado.CONCLUIDA, resultado.transferencia().estado());
+        assertSaldos("60.00", "40.00");
+        assertTrue(transferencias.pendentes().isEmpty());
+    }
+
+    @Test
+    public void testSaqueRecusadoNaoMoveDinheiro() throws IOException {
+        TransferenciasEntreParticoes.Resultado resultado = transferencias.transferir("A1", "B1", new BigDecimal("150.00"));
+
+        assertEquals(400, resultado.status());
+        assertEquals(Estado.RECUSADA, resultado.transferencia().estado());
+        assertSaldos("100.00", "0.00");
+    }
+
+    @Test
+    public void testDestinoEncerradoERecusadoAntesDoSaque() throws IOException {
+        noB.banco.encerrarConta("B1");
+
+        TransferenciasEntreParticoes.Resultado resultado = transferencias.transferir("A1", "B1", new BigDecimal("40.00"));
+
+        assertEquals(400, resultado.status());
+        assertEquals(null, resultado.transferencia());
+        assertSaldos("100.00", "0.00");
+    }
+
+    @Test
+    public void testDepositoRecusadoEstornaAOrigem() throws IOException {
+        noB.recusarDepositos = true;
+
+        TransferenciasEntreParticoes.Resultado resultado = transferencias.transferir("A1", "B1", new BigDecimal("40.00"));
+
+        assertEquals(400, resultado.status());
+        assertEquals(Estado.ESTORNADA, resultado.transferencia().estado());
+        assertSaldos("100.00", "0.00");
+    }
+
+    @Test
+    public void testRespostaPerdidaNoCreditoNaoDuplicaODeposito() throws IOException {
+        noB.perderRespostas = true;
+
+        TransferenciasEntreParticoes.Resultado resultado = transferencias.transferir("A1", "B1", new BigDecimal("40.00"));
+
+        assertEquals(202, resultado.status());
+        assertEquals(Estado.DEBITADA, resultado.transferencia().estado());
+        assertEquals(1, transferencias.pendentes().size());
+
+        noB.perderRespostas = false;
+        assertEquals(1, transferencias.retomarPendentes());
+
+        assertEquals(Estado.CONCLUIDA, transferencias.buscar(resultado.transferencia().id()).estado());
+        assertSaldos("60.00", "40.00");
+    }
+
+    @Test
+    public void testRoteadorReiniciadoRetomaDoRegistro() throws IOException {
+        noB.foraDoAr = true;
+        TransferenciasEntreParticoes.Resultado resultado = transferencias.transferir("A1", "B1", new BigDecimal("25.00"));
+        assertEquals(202, resultado.status());
+        assertSaldos("75.00", "0.00");
+        registro.close();
+
+        noB.foraDoAr = false;
+        registro = new RegistroTransferencias(diretorio.resolve("transferencias.log"));
+        TransferenciasEntreParticoes reiniciada = novaSaga(registro);
+        assertEquals(1, reiniciada.pendentes().size());
+        assertEquals(1, reiniciada.retomarPendentes());
+
+        assertEquals(Estado.CONCLUIDA, reiniciada.buscar(resultado.transferencia().id()).estado());
+        assertSaldos("75.00", "25.00");
+        assertTrue(reiniciada.pendentes().isEmpty());
+    }
+
+    @Test
+    public void testSaqueRepetidoDepoisDeQuedaNaoDebitaDuasVezes() throws IOException {
+        // O saque é executado mas a resposta se perde: a transferência fica INICIADA
+        noA.perderRespostas = true;
+        TransferenciasEntreParticoes.Resultado resultado = transferencias.transferir("A1", "B1", new BigDecimal("30.00"));
+        assertEquals(Estado.INICIADA, resultado.transferencia().estado());
+
+        noA.perderRespostas = false;
+        assertEquals(1, transferencias.retomarPendentes());
+
+        assertSaldos("70.00", "30.00");
+    }
+
+    @Test
+    public void testConflitoDeChaveNoNoERepetidoSemEstornar() throws IOException {
+        // 409: o nó ainda executa a mesma chave; não é uma recusa do depósito
+        noB.conflitos = 1;
+
+        TransferenciasEntreParticoes.Resultado resultado = transferencias.transferir("A1", "B1", new BigDecimal("40.00"));
+
+        assertEquals(202, resultado.status());
+        assertEquals(Estado.DEBITADA, resultado.transferencia().estado());
+        assertEquals(1, transferencias.retomarPendentes());
+        assertEquals(Estado.CONCLUIDA, transferencias.buscar(resultado.transferencia().id()).estado());
+        assertSaldos("60.00", "40.00");
+    }
+
+    @Test
+    public void testMesmaChaveDepoisDoReinicioNaoTransfereDeNovo() throws IOException {
+        TransferenciasEntreParticoes.Resultado primeira = transferencias.transferir("A1", "B1", new BigDecimal("40.00"), "k1");
+        assertEquals(200, primeira.status());
+        registro.close();
+
+        // O registro em memória do roteador se perdeu; o de transferências acha a chave
+        registro = new RegistroTransferencias(diretorio.resolve("transferencias.log"));
+        TransferenciasEntreParticoes reiniciada = novaSaga(registro);
+        TransferenciasEntreParticoes.Resultado repetida = reiniciada.transferir("A1", "B1", new BigDecimal("40.00"), "k1");
+
+        assertEquals(200, repetida.status());
+        assertEquals(primeira.transferencia().id(), repetida.transferencia().id());
+        assertSaldos("60.00", "40.00");
+        assertEquals(409, reiniciada.transferir("A1", "B1", new BigDecimal("41.00"), "k1").status());
+        assertEquals(200, reiniciada.transferir("A1", "B1", new BigDecimal("40.00"), "k2").status());
+        assertSaldos("20.00", "80.00");
+    }
+
+    @Test
+    public void testMesmaChaveComTransferenciaPendenteContinuaAMesma() throws IOException {
+        noB.foraDoAr = true;
+        TransferenciasEntreParticoes.Resultado primeira = transferencias.transferir("A1", "B1", new BigDecimal("25.00"), "k1");
+        assertEquals(202, primeira.status());
+
+        noB.foraDoAr = false;
+        TransferenciasEntreParticoes.Resultado repetida = transferencias.transferir("A1", "B1", new BigDecimal("25.00"), "k1");
+
+        assertEquals(200, repetida.status());
+        assertEquals(primeira.transferencia().id(), repetida.transferencia().id());
+        assertSaldos("75.00", "25.00");
+        assertTrue(transferencias.pendentes().isEmpty());
+    }
+
+    @Test
+    public void testTerminadaEsquecidaFicaAteOExpurgo() throws IOException {
+        for (int i = 0; i <= RegistroTransferencias.RECENTES; i++) {
+            registro.registrar(new RegistroTransferencias.Transferencia("t" + i, "A1", "B1", 100, Estado.CONCLUIDA), false);
+        }
+        assertEquals(List.of("t0"), registro.esquecidas(10));
+        registro.close();
+
+        // As esquecidas sobrevivem à compactação da reabertura até serem expurgadas
+        registro = new RegistroTransferencias(diretorio.resolve("transferencias.log"));
+        assertEquals(List.of("t0"), registro.esquecidas(10));
+        assertNull(registro.buscar("t0"));
+        registro.expurgadas(List.of("t0"));
+        assertTrue(registro.esquecidas(10).isEmpty());
+        registro.close();
+
+        registro = new RegistroTransferencias(diretorio.resolve("transferencias.log"));
+        assertTrue(registro.esquecidas(10).isEmpty());
+        assertEquals(Estado.CONCLUIDA, registro.buscar("t1").estado());
+    }
+
+    private TransferenciasEntreParticoes novaSaga(RegistroTransferencias registro) {
+        Function<String, No> donoDaConta = numero -> numero.startsWith("A") ? noA : noB;
+        return new TransferenciasEntreParticoes(registro, donoDaConta, objectMapper);
+    }
+
+    private void assertSaldos(String origem, String destino) {
+        assertEquals(new BigDecimal(origem), noA.banco.buscarContaPorNumero("A1").getSaldo());
+        assertEquals(new BigDecimal(destino), noB.banco.buscarContaPorNumero("B1").getSaldo());
+    }
+
+    // Nó em processo que entende só o que a saga usa: consulta de conta e os passos, aplicados
+    // por ParticaoLocal como no ParticaoController. As falhas simuladas atingem só os passos
+    // (POST); a consulta do destino sempre responde
+    private static class NoEmMemoria implements No {
+
+        final BancoService banco = new BancoService();
+        private final ParticaoLocal particao = new ParticaoLocal(banco);
+        private final String endereco;
+        volatile boolean foraDoAr;
+        volatile boolean perderRespostas;
+        volatile boolean recusarDepositos;
+        volatile int conflitos;
+
+        NoEmMemoria(String endereco) {
+            this.endereco = endereco;
+        }
+
+        @Override
+        public String endereco() {
+            return endereco;
+        }
+
+        @Override
+        public Resposta enviar(Pedido pedido) throws IOException {
+            boolean passo = pedido.metodo().equals("POST");
+            if (passo && foraDoAr) {
+                throw new IOException("Conexão recusada por " + endereco);
+            }
+            if (passo && conflitos > 0) {
+                conflitos--;
+                return resposta(409, "Operação ainda em processamento");
+            }
+            Resposta resposta = executar(pedido);
+            if (passo && perderRespostas) {
+                throw new IOException("Tempo esgotado esperando " + endereco);
+            }
+            return resposta;
+        }
+
+        @Override
+        public Stream<String> linhas(Pedido pedido) {
+            throw new UnsupportedOperationException();
+        }
+
+        private Resposta executar(Pedido pedido) {
+            String[] partes = pedido.caminho().split("[/?]");
+            String numero = partes[4];
+            try {
+                if (pedido.metodo().equals("GET")) {
+                    boolean ativa = banco.buscarContaPorNumero(numero).isAtiva();
+                    return resposta(200, "{\"numero\":\"" + numero + "\",\"ativa\":" + ativa + "}");
+                }
+                BigDecimal valor = new BigDecimal(pedido.caminho().substring(pedido.caminho().indexOf("valor=") + 6));
+                String chave = pedido.cabecalhos().get("Idempotency-Key");
+                ResultadoOperacao resultado;
+                if (partes[5].equals("sacar")) {
+                    resultado = particao.sacar(chave, numero, valor);
+                } else if (recusarDepositos) {
+                    return resposta(400, "Depósito recusado");
+                } else {
+                    resultado = particao.depositar(chave, numero, valor);
+                }
+                return resultado.isSucesso() ? resposta(200, "Operação realizada com sucesso")
+                        : resposta(400, resultado.getMensagem());
+            } catch (RecursoNaoEncontradoException e) {
+                return resposta(404, e.getMessage());
+            } catch (RuntimeException e) {
+                return resposta(400, e.getMessage());
+            }
+        }
+
+        private static Resposta resposta(int status, String corpo) {
+            return new Resposta(status, Map.of(), corpo.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
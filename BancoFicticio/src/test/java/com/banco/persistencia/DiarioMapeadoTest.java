@@ -0,0 +1,254 @@
+package com.banco.persistencia;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.banco.domain.ContaCorrente;
+import com.banco.domain.ContaInvestimento;
+import com.banco.domain.TipoInvestimento;
+import com.banco.exception.OperacaoInvalidaException;
+import com.banco.service.BancoService;
+
+public class DiarioMapeadoTest {
+
+    private static final int SEGMENTO_PEQUENO = 16 * 1024;
+    private static final YearMonth COMPETENCIA = YearMonth.now(ZoneOffset.UTC);
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    public void testReproducaoRestauraClientesContasESaldos() {
+        for (ModoSincronizacao modo : ModoSincronizacao.values()) {
+            Path pasta = diretorio.resolve(modo.name());
+            try (DiarioMapeado diario = abrir(pasta, modo, new BancoService())) {
+                BancoService banco = new BancoService(diario);
+                popular(banco);
+            }
+
+            BancoService recuperado = new BancoService();
+            try (DiarioMapeado diario = abrir(pasta, modo, recuperado)) {
+                verificar(recuperado);
+            }
+        }
+    }
+
+    @Test
+    public void testReproducaoAtravessaVariosSegmentos() throws IOException {
+        try (DiarioMapeado diario = abrir(diretorio, ModoSincronizacao.GRUPO, new BancoService())) {
+            BancoService banco = new BancoService(diario);
+            banco.criarCliente("Cliente", "12345678909", LocalDate.of(1990, 1, 1));
+            banco.criarContaPoupanca("CP", "12345678909");
+            for (int i = 0; i < 5_000; i++) {
+                banco.depositar("CP", new BigDecimal("0.01"));
+            }
+        }
+        assertTrue(quantidadeSegmentos() > 1);
+
+        BancoService recuperado = new BancoService();
+        try (DiarioMapeado diario = abrir(diretorio, ModoSincronizacao.GRUPO, recuperado)) {
+            assertEquals(new BigDecimal("50.00"), recuperado.buscarContaPorNumero("CP").getSaldo());
+            // A escrita continua após a última sequência reproduzida
+            BancoService continuacao = new BancoService(diario);
+            continuacao.restaurarCliente(recuperado.buscarClientePorCpf("12345678909"));
+            continuacao.restaurarConta(recuperado.buscarContaPorNumero("CP"));
+            continuacao.depositar("CP", new BigDecimal("1.00"));
+        }
+
+        BancoService novamente = new BancoService();
+        try (DiarioMapeado diario = abrir(diretorio, ModoSincronizacao.GRUPO, novamente)) {
+            assertEquals(new BigDecimal("51.00"), novamente.buscarContaPorNumero("CP").getSaldo());
+        }
+    }
+
+    @Test
+    public void testCadaOperacaoComEscritoresConcorrentesAtravessandoSegmentos() throws Exception {
+        try (DiarioMapeado diario = abrir(diretorio, ModoSincronizacao.CADA_OPERACAO, new BancoService())) {
+            BancoService banco = new BancoService(diario);
+            banco.criarCliente("Cliente", "12345678909", LocalDate.of(1990, 1, 1));
+            for (int conta = 0; conta < 8; conta++) {
+                banco.criarContaPoupanca("CP" + conta, "12345678909");
+            }
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int conta = 0; conta < 8; conta++) {
+                    String numero = "CP" + conta;
+                    executor.submit(() -> {
+                        for (int i = 0; i < 500; i++) {
+                            banco.depositar(numero, new BigDecimal("0.01"));
+                        }
+                    });
+                }
+            }
+        }
+        assertTrue(quantidadeSegmentos() > 1);
+
+        BancoService recuperado = new BancoService();
+        try (DiarioMapeado diario = abrir(diretorio, ModoSincronizacao.CADA_OPERACAO, recuperado)) {
+            for (int conta = 0; conta < 8; conta++) {
+                assertEquals(new BigDecimal("5.00"), recuperado.buscarContaPorNumero("CP" + conta).getSaldo());
+            }
+        }
+    }
+
+    @Test
+    public void testReproducaoAplicaOsDoisLadosDaTransferencia() {
+        try (DiarioMapeado diario = abrir(diretorio, ModoSincronizacao.GRUPO, new BancoService())) {
+            BancoService banco = new BancoService(diario);
+            banco.criarCliente("Cliente", "12345678909", LocalDate.of(1990, 1, 1));
+            banco.criarContaPoupanca("ORIGEM", "12345678909");
+            banco.criarContaCorrente("DESTINO", "12345678909", BigDecimal.ZERO);
+            banco.depositar("ORIGEM", new BigDecimal("100.00"));
+            banco.transferir("ORIGEM", "DESTINO", new BigDecimal("40.00"));
+        }
+
+        BancoService recuperado = new BancoService();
+        try (DiarioMapeado diario = abrir(diretorio, ModoSincronizacao.GRUPO, recuperado)) {
+            assertEquals(new BigDecimal("60.00"), recuperado.buscarContaPorNumero("ORIGEM").getSaldo());
+            assertEquals(new BigDecimal("40.00"), recuperado.buscarContaPorNumero("DESTINO").getSaldo());
+        }
+    }
+
+    @Test
+    public void testTransferenciaEntreNumerosNoLimiteCabeNoRegistro() {
+        // Caracteres de dois bytes: os dois números ocupam o máximo em UTF-8
+        String origem = "Ç".repeat(BancoService.TAMANHO_MAXIMO_NUMERO);
+        String destino = "É".repeat(BancoService.TAMANHO_MAXIMO_NUMERO);
+        try (DiarioMapeado diario = abrir(diretorio, ModoSincronizacao.GRUPO, new BancoService())) {
+            BancoService banco = new BancoService(diario);
+            banco.criarCliente("Cliente", "12345678909", LocalDate.of(1990, 1, 1));
+            banco.criarContaPoupanca(origem, "12345678909");
+            banco.criarContaPoupanca(destino, "12345678909");
+            assertThrows(OperacaoInvalidaException.class, () -> banco.criarContaPoupanca(origem + "Ç", "12345678909"));
+            banco.depositar(origem, new BigDecimal("100.00"));
+            banco.transferir(origem, destino, new BigDecimal("40.00"));
+        }
+
+        BancoService recuperado = new BancoService();
+        try (DiarioMapeado diario = abrir(diretorio, ModoSincronizacao.GRUPO, recuperado)) {
+            assertEquals(new BigDecimal("60.00"), recuperado.buscarContaPorNumero(origem).getSaldo());
+            assertEquals(new BigDecimal("40.00"), recuperado.buscarContaPorNumero(destino).getSaldo());
+            assertEquals(2, recuperado.quantidadeContas());
+        }
+    }
+
+    @Test
+    public void testRegistroCorrompidoNoFimEDescartado() throws IOException {
+        try (DiarioMapeado diario = abrir(diretorio, ModoSincronizacao.GRUPO, new BancoService())) {
+            BancoService banco = new BancoService(diario);
+            banco.criarCliente("Cliente", "12345678909", LocalDate.of(1990, 1, 1));
+            banco.criarContaPoupanca("CP", "12345678909");
+            banco.depositar("CP", new BigDecimal("10.00"));
+            banco.depositar("CP", new BigDecimal("5.00"));
+        }
+        corromperUltimoByteEscrito(segmentos().get(0));
+
+        BancoService recuperado = new BancoService();
+        try (DiarioMapeado diario = abrir(diretorio, ModoSincronizacao.GRUPO, recuperado)) {
+            assertEquals(new BigDecimal("10.00"), recuperado.buscarContaPorNumero("CP").getSaldo());
+        }
+    }
+
+    @Test
+    public void testRegistroCorrompidoAntesDoUltimoSegmentoImpedeAAbertura() throws IOException {
+        try (DiarioMapeado diario = abrir(diretorio, ModoSincronizacao.GRUPO, new BancoService())) {
+            BancoService banco = new BancoService(diario);
+            banco.criarCliente("Cliente", "12345678909", LocalDate.of(1990, 1, 1));
+            banco.criarContaPoupanca("CP", "12345678909");
+            for (int i = 0; i < 1_000; i++) {
+                banco.depositar("CP", new BigDecimal("0.01"));
+            }
+        }
+        assertTrue(quantidadeSegmentos() > 1);
+        // Um registro no meio do primeiro segmento: os seguintes dele seriam pulados em silêncio
+        try (FileChannel canal = FileChannel.open(segmentos().get(0), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer byteLido = ByteBuffer.allocate(1);
+            canal.read(byteLido, 1_000);
+            canal.write(ByteBuffer.wrap(new byte[] {(byte) (byteLido.get(0) ^ 0x5A)}), 1_000);
+        }
+
+        IllegalStateException erro = assertThrows(IllegalStateException.class,
+                () -> abrir(diretorio, ModoSincronizacao.GRUPO, new BancoService()));
+        assertTrue(erro.getMessage().contains("lacuna"), erro.getMessage());
+    }
+
+    private DiarioMapeado abrir(Path pasta, ModoSincronizacao modo, BancoService destino) {
+        DiarioMapeado diario = new DiarioMapeado(pasta, SEGMENTO_PEQUENO, modo);
+        diario.iniciar(0, new RecuperacaoDiario(destino));
+        return diario;
+    }
+
+    private void popular(BancoService banco) {
+        banco.criarCliente("Ana", "12345678909", LocalDate.of(1990, 1, 1));
+        banco.criarCliente("Bruno", "98765432100", null);
+        banco.criarContaCorrente("CC", "12345678909", new BigDecimal("300.00"));
+        banco.criarContaPoupanca("CP", "12345678909");
+        banco.criarContaInvestimento("CI", "98765432100", TipoInvestimento.RENDA_VARIAVEL);
+        banco.criarContaPoupanca("CP-ENCERRADA", "98765432100");
+
+        banco.depositar("CC", new BigDecimal("100.00"));
+        banco.sacar("CC", new BigDecimal("250.00"));
+        banco.depositar("CP", new BigDecimal("1000.00"));
+        banco.calcularRendimentoPoupanca("CP", COMPETENCIA);
+        banco.investir("CI", new BigDecimal("2000.00"));
+        banco.resgatar("CI", new BigDecimal("500.00"));
+        banco.fecharConta("CC", COMPETENCIA);
+        banco.fecharConta("CI", COMPETENCIA);
+        banco.encerrarConta("CP-ENCERRADA");
+    }
+
+    private void verificar(BancoService banco) {
+        assertEquals(2, banco.quantidadeClientes());
+        assertEquals(4, banco.listarContas().size());
+        ContaCorrente corrente = (ContaCorrente) banco.buscarContaPorNumero("CC");
+        assertEquals(new BigDecimal("300.00"), corrente.getLimiteChequeEspecial());
+        assertEquals(new BigDecimal("-180.00"), corrente.getSaldo());
+        assertEquals(new BigDecimal("1005.00"), banco.buscarContaPorNumero("CP").getSaldo());
+        ContaInvestimento investimento = (ContaInvestimento) banco.buscarContaPorNumero("CI");
+        assertEquals(TipoInvestimento.RENDA_VARIAVEL, investimento.getTipo());
+        // 1500,00 - (15,00 + 1500,00 * 0,002)
+        assertEquals(new BigDecimal("1482.00"), investimento.getSaldo());
+        assertFalse(banco.buscarContaPorNumero("CP-ENCERRADA").isAtiva());
+        assertEquals(2, banco.buscarContasPorCliente("12345678909").size());
+    }
+
+    private long quantidadeSegmentos() throws IOException {
+        return segmentos().size();
+    }
+
+    private List<Path> segmentos() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.sorted().toList();
+        }
+    }
+
+    private void corromperUltimoByteEscrito(Path segmento) throws IOException {
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer conteudo = ByteBuffer.allocate((int) canal.size());
+            canal.read(conteudo, 0);
+            int ultimo = conteudo.capacity() - 1;
+            while (conteudo.get(ultimo) == 0) {
+                ultimo--;
+            }
+            canal.write(ByteBuffer.wrap(new byte[] {(byte) (conteudo.get(ultimo) ^ 0x5A)}), ultimo);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.banco.persistencia;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.banco.service.PlanoFechamento;
+import com.banco.service.TotaisFatia;
+
+public class PontosControleArquivoTest {
+
+    private static final YearMonth SETEMBRO = YearMonth.of(2026, 9);
+    private static final YearMonth OUTUBRO = YearMonth.of(2026, 10);
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    public void testPlanoEFatiasConcluidasSobrevivemAoReinicio() {
+        PontosControleArquivo pontos = new PontosControleArquivo(diretorio);
+        assertNull(pontos.carregar(SETEMBRO));
+        assertNull(pontos.ultima());
+        pontos.iniciar(SETEMBRO, List.of("", "CC-100", "CP-050"));
+        pontos.iniciar(OUTUBRO, List.of(""));
+        TotaisFatia totais = totais(7);
+        pontos.fatiaConcluida(SETEMBRO, 2, totais);
+        pontos.fatiaConcluida(OUTUBRO, 0, totais(1));
+
+        PontosControleArquivo reaberto = new PontosControleArquivo(diretorio);
+        PlanoFechamento plano = reaberto.carregar(SETEMBRO);
+        assertEquals(List.of("", "CC-100", "CP-050"), plano.limites());
+        assertEquals("CC-100", plano.inicio(1));
+        assertEquals("CP-050", plano.fim(1));
+        assertNull(plano.fim(2));
+        assertFalse(plano.concluida(0));
+        assertTrue(plano.concluida(2));
+        assertEquals(totais, plano.totais(2));
+        assertTrue(reaberto.carregar(OUTUBRO).completo());
+        assertEquals(List.of(SETEMBRO), reaberto.pendentes());
+        assertEquals(OUTUBRO, reaberto.ultima());
+
+        // Um plano novo da mesma competência descarta as fatias do anterior
+        reaberto.iniciar(SETEMBRO, List.of(""));
+        assertFalse(reaberto.carregar(SETEMBRO).concluida(0));
+    }
+
+    @Test
+    public void testRegistroIncompletoNoFimEIgnorado() throws IOException {
+        PontosControleArquivo pontos = new PontosControleArquivo(diretorio);
+        pontos.iniciar(SETEMBRO, List.of("", "M"));
+        pontos.fatiaConcluida(SETEMBRO, 0, totais(3));
+        pontos.fatiaConcluida(SETEMBRO, 1, totais(4));
+        Path arquivo = diretorio.resolve("fechamento-2026-09.bin");
+
+        // Queda no meio da gravação da última fatia: ela volta a ficar pendente
+        long tamanho = Files.size(arquivo);
+        try (var canal = Files.newByteChannel(arquivo, StandardOpenOption.WRITE)) {
+            canal.truncate(tamanho - 5);
+        }
+        PlanoFechamento plano = pontos.carregar(SETEMBRO);
+        assertTrue(plano.concluida(0));
+        assertFalse(plano.concluida(1));
+
+        // CRC inválido também
+        Files.write(arquivo, new byte[] {0, 0, 0, 1, 9, 9, 9}, StandardOpenOption.APPEND);
+        assertFalse(pontos.carregar(SETEMBRO).concluida(1));
+        assertEquals(List.of(SETEMBRO), pontos.pendentes());
+    }
+
+    private static TotaisFatia totais(long base) {
+        long[] valores = new long[TotaisFatia.TAMANHO];
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = base * (i + 1);
+        }
+        return TotaisFatia.deVetor(valores);
+    }
+}
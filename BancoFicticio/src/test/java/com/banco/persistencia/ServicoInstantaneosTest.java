@@ -0,0 +1,263 @@
+package com.banco.persistencia;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.banco.domain.Conta;
+import com.banco.domain.TipoInvestimento;
+import com.banco.service.BancoService;
+import com.banco.service.EstatisticasBanco;
+import com.banco.service.LoteMensal;
+import com.banco.service.PlanoFechamento;
+import com.banco.service.ProcessamentoMensalService;
+
+public class ServicoInstantaneosTest {
+
+    private static final int SEGMENTO_PEQUENO = 16 * 1024;
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    public void testRecuperaSnapshotMaisCaudaDoDiario() throws IOException {
+        try (DiarioMapeado diario = novoDiario()) {
+            BancoService banco = new BancoService(diario);
+            ServicoInstantaneos instantaneos = novoServico(banco, diario, 1);
+            assertEquals(0, instantaneos.recuperar());
+
+            banco.criarCliente("Ana", "12345678909", LocalDate.of(1990, 1, 1));
+            banco.criarCliente("Bruno", "98765432100", null);
+            banco.criarContaCorrente("CC", "12345678909", new BigDecimal("300.00"));
+            banco.criarContaPoupanca("CP", "12345678909");
+            banco.criarContaInvestimento("CI", "98765432100", TipoInvestimento.RENDA_VARIAVEL);
+            for (int i = 0; i < 2_000; i++) {
+                banco.depositar("CP", new BigDecimal("0.50"));
+            }
+            banco.sacar("CC", new BigDecimal("100.00"));
+            int segmentosAntes = segmentosDiario().size();
+            instantaneos.gerar();
+            assertTrue(segmentosDiario().size() < segmentosAntes);
+
+            // Operações posteriores ao snapshot ficam apenas no diário
+            banco.investir("CI", new BigDecimal("250.00"));
+            banco.encerrarConta("CC");
+        }
+
+        BancoService recuperado = new BancoService();
+        try (DiarioMapeado diario = novoDiario()) {
+            assertEquals(2, novoServico(recuperado, diario, 1).recuperar());
+        }
+        assertEquals(2, recuperado.quantidadeClientes());
+        assertEquals(3, recuperado.listarContas().size());
+        assertEquals(new BigDecimal("1000.00"), recuperado.buscarContaPorNumero("CP").getSaldo());
+        assertEquals(new BigDecimal("-100.00"), recuperado.buscarContaPorNumero("CC").getSaldo());
+        assertFalse(recuperado.buscarContaPorNumero("CC").isAtiva());
+        assertEquals(new BigDecimal("250.00"), recuperado.buscarContaPorNumero("CI").getSaldo());
+        assertEquals(2, recuperado.buscarContasPorCliente("12345678909").size());
+        // Os índices são reconstruídos na recuperação
+        assertEquals(2, recuperado.buscarContasAtivas().size());
+        assertTrue(recuperado.buscarContasCorrente().isEmpty());
+        assertEquals(1, recuperado.buscarContasInvestimento(TipoInvestimento.RENDA_VARIAVEL).size());
+        // Assim como os totais do painel
+        EstatisticasBanco estatisticas = recuperado.estatisticas();
+        assertEquals(2, estatisticas.getContasAtivas());
+        assertEquals(new BigDecimal("1150.00"), estatisticas.getTotalDepositos());
+        assertEquals(new BigDecimal("100.00"), estatisticas.getChequeEspecialUtilizado());
+        assertEquals(new BigDecimal("0.00"), estatisticas.getLimiteChequeEspecial());
+        assertEquals(new BigDecimal("43.75"), estatisticas.getImpostoPorTipo().get(TipoInvestimento.RENDA_VARIAVEL));
+    }
+
+    @Test
+    public void testSnapshotDuranteEscritasConcorrentes() throws Exception {
+        int contas = 32;
+        int depositosPorConta = 500;
+        BancoService original;
+        try (DiarioMapeado diario = novoDiario()) {
+            original = new BancoService(diario);
+            ServicoInstantaneos instantaneos = novoServico(original, diario, 2);
+            instantaneos.recuperar();
+            original.criarCliente("Ana", "12345678909", null);
+            for (int i = 0; i < contas; i++) {
+                original.criarContaPoupanca("CP" + i, "12345678909");
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            CountDownLatch largada = new CountDownLatch(1);
+            for (int i = 0; i < contas; i++) {
+                String numero = "CP" + i;
+                executor.submit(() -> {
+                    largada.await();
+                    for (int j = 0; j < depositosPorConta; j++) {
+                        original.depositar(numero, new BigDecimal("0.01"));
+                    }
+                    return null;
+                });
+            }
+            largada.countDown();
+            for (int i = 0; i < 3; i++) {
+                instantaneos.gerar();
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+            assertTrue(instantaneosGravados().size() <= 2);
+        }
+
+        BancoService recuperado = new BancoService();
+        try (DiarioMapeado diario = novoDiario()) {
+            novoServico(recuperado, diario, 2).recuperar();
+        }
+        for (Conta conta : original.listarContas()) {
+            assertEquals(new BigDecimal("5.00"), conta.getSaldo());
+            assertEquals(conta.getSaldo(), recuperado.buscarContaPorNumero(conta.getNumero()).getSaldo());
+        }
+    }
+
+    @Test
+    public void testSnapshotCorrompidoUsaOAnterior() throws IOException {
+        try (DiarioMapeado diario = novoDiario()) {
+            BancoService banco = new BancoService(diario);
+            ServicoInstantaneos instantaneos = novoServico(banco, diario, 2);
+            instantaneos.recuperar();
+            banco.criarCliente("Ana", "12345678909", null);
+            banco.criarContaPoupanca("CP", "12345678909");
+            banco.depositar("CP", new BigDecimal("10.00"));
+            instantaneos.gerar();
+            banco.depositar("CP", new BigDecimal("5.00"));
+            Path recente = instantaneos.gerar();
+            Files.write(recente, new byte[] {1, 2, 3});
+        }
+
+        BancoService recuperado = new BancoService();
+        try (DiarioMapeado diario = novoDiario()) {
+            novoServico(recuperado, diario, 2).recuperar();
+        }
+        assertEquals(1, recuperado.quantidadeClientes());
+        assertEquals(new BigDecimal("15.00"), recuperado.buscarContaPorNumero("CP").getSaldo());
+    }
+
+    @Test
+    public void testCompetenciaFechadaSobreviveAoSnapshotEAoDiario() throws Exception {
+        YearMonth competencia = YearMonth.now(ZoneOffset.UTC);
+        try (DiarioMapeado diario = novoDiario()) {
+            BancoService banco = new BancoService(diario);
+            ServicoInstantaneos instantaneos = novoServico(banco, diario, 1);
+            instantaneos.recuperar();
+            banco.criarCliente("Ana", "12345678909", null);
+            banco.criarContaPoupanca("CP", "12345678909");
+            banco.depositar("CP", new BigDecimal("1000.00"));
+            banco.criarContaCorrente("CC", "12345678909", BigDecimal.ZERO);
+            banco.depositar("CC", new BigDecimal("100.00"));
+            ProcessamentoMensalService processamento = new ProcessamentoMensalService(banco, 2, 1, mesSeguinte());
+            try {
+                aguardar(processamento.iniciar(competencia));
+                // A marca das duas primeiras vai no snapshot; a da terceira, só no diário
+                instantaneos.gerar();
+                banco.criarContaPoupanca("CP2", "12345678909");
+                banco.depositar("CP2", new BigDecimal("200.00"));
+                aguardar(processamento.iniciar(competencia));
+            } finally {
+                processamento.encerrar();
+            }
+        }
+
+        BancoService recuperado = new BancoService();
+        try (DiarioMapeado diario = novoDiario()) {
+            novoServico(recuperado, diario, 1).recuperar();
+        }
+        int codigo = PlanoFechamento.codigo(competencia);
+        for (String numero : List.of("CP", "CC", "CP2")) {
+            assertEquals(codigo, recuperado.buscarContaPorNumero(numero).ultimoFechamento());
+        }
+        assertEquals(new BigDecimal("1005.00"), recuperado.buscarContaPorNumero("CP").getSaldo());
+        assertEquals(new BigDecimal("70.00"), recuperado.buscarContaPorNumero("CC").getSaldo());
+        assertEquals(new BigDecimal("201.00"), recuperado.buscarContaPorNumero("CP2").getSaldo());
+
+        // Depois do reinício, repetir a competência não cobra nenhuma conta de novo
+        ProcessamentoMensalService processamento = new ProcessamentoMensalService(recuperado, 2, 1, mesSeguinte());
+        try {
+            LoteMensal lote = processamento.iniciar(competencia);
+            aguardar(lote);
+            assertEquals(3, lote.getContasJaAplicadas());
+            assertEquals(0, lote.getContasAplicadas());
+        } finally {
+            processamento.encerrar();
+        }
+        assertEquals(new BigDecimal("70.00"), recuperado.buscarContaPorNumero("CC").getSaldo());
+    }
+
+    // O fechamento só aceita meses encerrados; o relógio no mês seguinte encerra o mês real
+    private static Clock mesSeguinte() {
+        return Clock.fixed(YearMonth.now(ZoneOffset.UTC).plusMonths(1).atDay(1).atStartOfDay()
+                .toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    }
+
+    private static void aguardar(LoteMensal lote) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (lote.getEstado() == LoteMensal.Estado.EM_ANDAMENTO && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertEquals(LoteMensal.Estado.CONCLUIDO, lote.getEstado());
+    }
+
+    @Test
+    public void testSemSnapshotValidoEDiarioDescartadoImpedeARecuperacao() throws IOException {
+        try (DiarioMapeado diario = novoDiario()) {
+            BancoService banco = new BancoService(diario);
+            ServicoInstantaneos instantaneos = novoServico(banco, diario, 1);
+            instantaneos.recuperar();
+            banco.criarCliente("Ana", "12345678909", null);
+            banco.criarContaPoupanca("CP", "12345678909");
+            for (int i = 0; i < 2_000; i++) {
+                banco.depositar("CP", new BigDecimal("0.50"));
+            }
+            Path snapshot = instantaneos.gerar();
+            Files.write(snapshot, new byte[] {1, 2, 3});
+        }
+
+        BancoService recuperado = new BancoService();
+        try (DiarioMapeado diario = novoDiario()) {
+            ServicoInstantaneos instantaneos = novoServico(recuperado, diario, 1);
+            IllegalStateException erro = assertThrows(IllegalStateException.class, instantaneos::recuperar);
+            assertTrue(erro.getMessage().contains("nenhum snapshot válido"));
+        }
+    }
+
+    private DiarioMapeado novoDiario() {
+        return new DiarioMapeado(diretorio.resolve("diario"), SEGMENTO_PEQUENO, ModoSincronizacao.GRUPO);
+    }
+
+    private ServicoInstantaneos novoServico(BancoService banco, DiarioMapeado diario, int retidos) {
+        return new ServicoInstantaneos(diretorio.resolve("instantaneos"), banco, diario, retidos);
+    }
+
+    private List<Path> segmentosDiario() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio.resolve("diario"))) {
+            return arquivos.toList();
+        }
+    }
+
+    private List<Path> instantaneosGravados() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio.resolve("instantaneos"))) {
+            return arquivos.toList();
+        }
+    }
+}
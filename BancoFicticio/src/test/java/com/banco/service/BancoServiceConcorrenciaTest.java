@@ -0,0 +1,168 @@
+package com.banco.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.banco.domain.Cpf;
+import com.banco.exception.OperacaoInvalidaException;
+import com.banco.exception.SaldoInsuficienteException;
+
+public class BancoServiceConcorrenciaTest {
+
+    private static final int THREADS = 64;
+    private static final int OPERACOES_POR_THREAD = 2_000;
+
+    private BancoService bancoService;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        bancoService = new BancoService();
+        executor = Executors.newFixedThreadPool(THREADS);
+        bancoService.criarCliente("Cliente Concorrente", "000.000.001-91", LocalDate.of(1990, 1, 1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testDepositosConcorrentesNaMesmaContaNaoSePerdem() throws Exception {
+        bancoService.criarContaPoupanca("QUENTE", "000.000.001-91");
+
+        executarEmParalelo(indice -> {
+            for (int i = 0; i < OPERACOES_POR_THREAD; i++) {
+                bancoService.depositar("QUENTE", new BigDecimal("1.00"));
+            }
+        });
+
+        BigDecimal esperado = new BigDecimal(THREADS * OPERACOES_POR_THREAD).setScale(2);
+        assertEquals(0, esperado.compareTo(bancoService.buscarContaPorNumero("QUENTE").getSaldo()));
+    }
+
+    @Test
+    public void testDepositosESaquesIntercaladosPreservamSaldo() throws Exception {
+        int quantidadeContas = 8;
+        for (int c = 0; c < quantidadeContas; c++) {
+            bancoService.criarContaCorrente("CC-" + c, "000.000.001-91", BigDecimal.ZERO);
+            bancoService.depositar("CC-" + c, new BigDecimal("100.00"));
+        }
+
+        executarEmParalelo(indice -> {
+            String numero = "CC-" + (indice % quantidadeContas);
+            for (int i = 0; i < OPERACOES_POR_THREAD; i++) {
+                bancoService.depositar(numero, new BigDecimal("0.10"));
+                bancoService.sacar(numero, new BigDecimal("0.10"));
+            }
+        });
+
+        for (int c = 0; c < quantidadeContas; c++) {
+            BigDecimal saldo = bancoService.buscarContaPorNumero("CC-" + c).getSaldo();
+            assertEquals(0, new BigDecimal("100.00").compareTo(saldo), "Saldo divergente na conta CC-" + c);
+        }
+    }
+
+    @Test
+    public void testTransferenciasEmSentidosOpostosConservamODinheiro() throws Exception {
+        int quantidadeContas = 16;
+        for (int c = 0; c < quantidadeContas; c++) {
+            bancoService.criarContaPoupanca("CP-" + c, "000.000.001-91");
+            bancoService.depositar("CP-" + c, new BigDecimal("1000.00"));
+        }
+
+        // Threads pares e ímpares transferem entre as mesmas contas em sentidos
+        // opostos; uma ordem de travas inconsistente travaria aqui
+        executarEmParalelo(indice -> {
+            for (int i = 0; i < OPERACOES_POR_THREAD; i++) {
+                int a = (indice + i) % quantidadeContas;
+                int b = (a + 1 + i % (quantidadeContas - 1)) % quantidadeContas;
+                String origem = "CP-" + (indice % 2 == 0 ? a : b);
+                String destino = "CP-" + (indice % 2 == 0 ? b : a);
+                try {
+                    bancoService.transferir(origem, destino, new BigDecimal("7.31"));
+                } catch (SaldoInsuficienteException e) {
+                    // Recusada sem efeito: a soma continua a mesma
+                }
+            }
+        });
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (int c = 0; c < quantidadeContas; c++) {
+            BigDecimal saldo = bancoService.buscarContaPorNumero("CP-" + c).getSaldo();
+            assertTrue(saldo.signum() >= 0, "Saldo negativo na conta CP-" + c);
+            total = total.add(saldo);
+        }
+        assertEquals(new BigDecimal("16000.00"), total);
+    }
+
+    @Test
+    public void testCriacaoConcorrenteDeContaDuplicadaAceitaApenasUma() throws Exception {
+        AtomicInteger criadas = new AtomicInteger();
+        AtomicInteger rejeitadas = new AtomicInteger();
+
+        executarEmParalelo(indice -> {
+            try {
+                bancoService.criarContaPoupanca("DISPUTADA", "000.000.001-91");
+                criadas.incrementAndGet();
+            } catch (OperacaoInvalidaException e) {
+                rejeitadas.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, criadas.get());
+        assertEquals(THREADS - 1, rejeitadas.get());
+        assertEquals(1, bancoService.buscarContasPorCliente("000.000.001-91").size());
+    }
+
+    @Test
+    public void testCriacaoConcorrenteDeClientesDistintos() throws Exception {
+        executarEmParalelo(indice -> {
+            for (int i = 0; i < 100; i++) {
+                bancoService.criarCliente("Cliente " + indice + "-" + i, Cpf.gerar(1000 + indice * 100 + i), LocalDate.of(1990, 1, 1));
+            }
+        });
+
+        assertEquals(THREADS * 100 + 1, bancoService.listarClientes().size());
+        for (int i = 0; i < THREADS * 100; i++) {
+            assertEquals(Cpf.gerar(1000 + i), bancoService.buscarClientePorCpf(Cpf.gerar(1000 + i)).getCpf());
+        }
+    }
+
+    private void executarEmParalelo(Tarefa tarefa) throws Exception {
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> futuros = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int indice = t;
+            futuros.add(executor.submit(() -> {
+                largada.await();
+                tarefa.executar(indice);
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> futuro : futuros) {
+            futuro.get(60, TimeUnit.SECONDS);
+        }
+        assertTrue(futuros.stream().allMatch(Future::isDone));
+    }
+
+    @FunctionalInterface
+    private interface Tarefa {
+        void executar(int indice) throws Exception;
+    }
+}
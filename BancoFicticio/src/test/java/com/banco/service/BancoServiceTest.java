@@ -1,10 +1,16 @@
 package com.banco.service;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TimeZone;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -16,7 +22,14 @@ import com.banco.domain.Conta;
 import com.banco.domain.ContaCorrente;
 import com.banco.domain.ContaInvestimento;
 import com.banco.domain.ContaPoupanca;
+import com.banco.domain.LancamentoExtrato;
+import com.banco.domain.ResultadoOperacao;
+import com.banco.domain.TabelaSaldos;
+import com.banco.domain.TabelaSaldosForaDoHeap;
 import com.banco.domain.TipoInvestimento;
+import com.banco.domain.TipoLancamento;
+import com.banco.exception.OperacaoInvalidaException;
+import com.banco.exception.RecursoNaoEncontradoException;
 import com.banco.exception.SaldoInsuficienteException;
 
 public class BancoServiceTest {
@@ -26,6 +39,19 @@ public class BancoServiceTest {
     @BeforeEach
     public void setUp() {
         bancoService = new BancoService();
+
+        bancoService.criarCliente("João da Silva", "123.456.789-09", LocalDate.of(1980, 5, 15));
+        bancoService.criarCliente("Maria Souza", "987.654.321-00", LocalDate.of(1990, 10, 20));
+
+        bancoService.criarContaCorrente("1111", "123.456.789-09", new BigDecimal("500.00"));
+        bancoService.criarContaPoupanca("2222", "123.456.789-09");
+        bancoService.criarContaInvestimento("3333", "987.654.321-00", TipoInvestimento.RENDA_FIXA);
+        bancoService.criarContaCorrente("4444", "987.654.321-00", BigDecimal.ZERO);
+        bancoService.criarContaPoupanca("5555", "987.654.321-00");
+
+        bancoService.depositar("1111", new BigDecimal("1000.00"));
+        bancoService.depositar("2222", new BigDecimal("1000.00"));
+        bancoService.depositar("3333", new BigDecimal("3000.00"));
     }
 
     @Test
@@ -37,7 +63,7 @@ public class BancoServiceTest {
 
     @Test
     public void testBuscarClientePorCpf() {
-        Cliente cliente = bancoService.buscarClientePorCpf("123.456.789-00");
+        Cliente cliente = bancoService.buscarClientePorCpf("123.456.789-09");
         assertNotNull(cliente);
         assertEquals("João da Silva", cliente.getNome());
     }
@@ -88,18 +114,291 @@ public class BancoServiceTest {
         });
     }
 
+    @Test
+    public void testTransferir() {
+        bancoService.transferir("1111", "2222", new BigDecimal("250.00"));
+
+        assertEquals(new BigDecimal("750.00"), bancoService.buscarContaPorNumero("1111").getSaldo());
+        assertEquals(new BigDecimal("1250.00"), bancoService.buscarContaPorNumero("2222").getSaldo());
+    }
+
+    @Test
+    public void testTransferirComSaldoInsuficienteNaoAlteraContas() {
+        assertThrows(SaldoInsuficienteException.class, () -> {
+            bancoService.transferir("2222", "1111", new BigDecimal("5000.00"));
+        });
+
+        assertEquals(new BigDecimal("1000.00"), bancoService.buscarContaPorNumero("1111").getSaldo());
+        assertEquals(new BigDecimal("1000.00"), bancoService.buscarContaPorNumero("2222").getSaldo());
+    }
+
+    @Test
+    public void testTransferirParaMesmaContaOuContaEncerrada() {
+        assertThrows(OperacaoInvalidaException.class, () -> {
+            bancoService.transferir("1111", "1111", new BigDecimal("1.00"));
+        });
+        bancoService.encerrarConta("5555");
+        assertThrows(OperacaoInvalidaException.class, () -> {
+            bancoService.transferir("1111", "5555", new BigDecimal("1.00"));
+        });
+        assertEquals(new BigDecimal("1000.00"), bancoService.buscarContaPorNumero("1111").getSaldo());
+    }
+
+    @Test
+    public void testOperacoesSemExcecaoDevolvemOResultado() {
+        assertEquals(ResultadoOperacao.OK, bancoService.tentarDepositar("2222", new BigDecimal("10.00")));
+        assertEquals(ResultadoOperacao.SALDO_INSUFICIENTE, bancoService.tentarSacar("2222", new BigDecimal("10000.00")));
+        assertEquals(ResultadoOperacao.VALOR_INVALIDO, bancoService.tentarSacar("2222", BigDecimal.ZERO));
+        assertEquals(ResultadoOperacao.VALOR_INVALIDO, bancoService.tentarDepositar("2222", new BigDecimal("-1")));
+        assertEquals(ResultadoOperacao.OK, bancoService.tentarSacar("2222", new BigDecimal("1010.00")));
+        assertEquals(new BigDecimal("0.00"), bancoService.buscarContaPorNumero("2222").getSaldo());
+
+        // O cheque especial da conta corrente entra no limite do saque
+        assertEquals(ResultadoOperacao.OK, bancoService.tentarSacar("1111", new BigDecimal("1500.00")));
+        assertEquals(ResultadoOperacao.SALDO_INSUFICIENTE, bancoService.tentarSacar("1111", new BigDecimal("0.01")));
+
+        assertEquals(ResultadoOperacao.OK, bancoService.tentarInvestir("3333", new BigDecimal("100.00")));
+        assertEquals(ResultadoOperacao.SALDO_INSUFICIENTE, bancoService.tentarResgatar("3333", new BigDecimal("3100.01")));
+        assertEquals(ResultadoOperacao.OK, bancoService.tentarResgatar("3333", new BigDecimal("3100.00")));
+
+        assertEquals(ResultadoOperacao.SALDO_INSUFICIENTE, bancoService.tentarTransferir("2222", "4444", new BigDecimal("1.00")));
+        assertEquals(ResultadoOperacao.OK, bancoService.tentarDepositar("2222", new BigDecimal("5.00")));
+        assertEquals(ResultadoOperacao.OK, bancoService.tentarTransferir("2222", "4444", new BigDecimal("5.00")));
+        assertEquals(new BigDecimal("5.00"), bancoService.buscarContaPorNumero("4444").getSaldo());
+
+        // Conta inexistente ou de tipo errado continuam sendo exceções
+        assertThrows(RecursoNaoEncontradoException.class, () -> bancoService.tentarSacar("9999", BigDecimal.ONE));
+        assertThrows(OperacaoInvalidaException.class, () -> bancoService.tentarInvestir("1111", BigDecimal.ONE));
+    }
+
+    @Test
+    public void testContaEncerradaRecusaOperacoes() {
+        bancoService.encerrarConta("5555");
+        assertEquals(ResultadoOperacao.CONTA_INATIVA, bancoService.tentarDepositar("5555", BigDecimal.ONE));
+        assertEquals(ResultadoOperacao.CONTA_INATIVA, bancoService.tentarTransferir("1111", "5555", BigDecimal.ONE));
+        assertThrows(OperacaoInvalidaException.class, () -> bancoService.depositar("5555", BigDecimal.ONE));
+        assertEquals(new BigDecimal("0.00"), bancoService.buscarContaPorNumero("5555").getSaldo());
+        assertEquals(new BigDecimal("1000.00"), bancoService.buscarContaPorNumero("1111").getSaldo());
+    }
+
+    @Test
+    public void testIndicesAcompanhamCriacaoEEncerramento() {
+        assertEquals(5, bancoService.buscarContasAtivas().size());
+        assertEquals(2, bancoService.buscarContasCorrente().size());
+        assertEquals(2, bancoService.buscarContasPoupanca().size());
+        assertEquals(1, bancoService.buscarContasInvestimento().size());
+        assertEquals(1, bancoService.buscarContasInvestimento(TipoInvestimento.RENDA_FIXA).size());
+        assertTrue(bancoService.buscarContasInvestimento(TipoInvestimento.RENDA_VARIAVEL).isEmpty());
+
+        bancoService.criarContaInvestimento("6666", "987.654.321-00", TipoInvestimento.RENDA_VARIAVEL);
+        bancoService.encerrarConta("5555");
+
+        assertEquals(5, bancoService.buscarContasAtivas().size());
+        assertEquals(1, bancoService.buscarContasPoupanca().size());
+        assertEquals("2222", bancoService.buscarContasPoupanca().get(0).getNumero());
+        assertEquals(2, bancoService.buscarContasInvestimento().size());
+        assertEquals("6666", bancoService.buscarContasInvestimento(TipoInvestimento.RENDA_VARIAVEL).get(0).getNumero());
+        assertTrue(bancoService.buscarContasAtivas().stream().noneMatch(c -> c.getNumero().equals("5555")));
+    }
+
+    @Test
+    public void testPaginacaoPorCursorPercorreContasEmOrdem() {
+        Pagina<Conta> primeira = bancoService.listarContas(null, 2);
+        assertEquals(List.of("1111", "2222"), primeira.getItens().stream().map(Conta::getNumero).toList());
+        assertEquals("2222", primeira.getProximoCursor());
+
+        // Contas criadas depois do cursor aparecem nas próximas páginas; as anteriores não se repetem
+        bancoService.criarContaPoupanca("0000", "123.456.789-09");
+        bancoService.criarContaPoupanca("3000", "123.456.789-09");
+        Pagina<Conta> segunda = bancoService.listarContas(primeira.getProximoCursor(), 2);
+        assertEquals(List.of("3000", "3333"), segunda.getItens().stream().map(Conta::getNumero).toList());
+
+        Pagina<Conta> ultima = bancoService.listarContas(segunda.getProximoCursor(), 10);
+        assertEquals(List.of("4444", "5555"), ultima.getItens().stream().map(Conta::getNumero).toList());
+        assertEquals(null, ultima.getProximoCursor());
+    }
+
+    @Test
+    public void testPaginacaoDeClientesEListagemEmFluxo() {
+        Pagina<Cliente> pagina = bancoService.listarClientes(null, 1);
+        assertEquals("12345678909", pagina.getItens().get(0).getCpf());
+        assertEquals("12345678909", pagina.getProximoCursor());
+        pagina = bancoService.listarClientes(pagina.getProximoCursor(), 1);
+        assertEquals("98765432100", pagina.getItens().get(0).getCpf());
+        assertEquals(null, pagina.getProximoCursor());
+
+        StringBuilder numeros = new StringBuilder();
+        bancoService.percorrerContasPorNumero().forEach(c -> numeros.append(c.getNumero()).append(' '));
+        assertEquals("1111 2222 3333 4444 5555 ", numeros.toString());
+        assertThrows(IllegalArgumentException.class, () -> bancoService.listarContas(null, 0));
+    }
+
+    @Test
+    public void testSaldosForaDoHeap() {
+        TabelaSaldos tabela = new TabelaSaldosForaDoHeap(4);
+        BancoService foraDoHeap = new BancoService(DiarioOperacoes.NENHUM, MetricasOperacoes.NENHUMA, tabela);
+        foraDoHeap.criarCliente("Ana", "11122233396", LocalDate.of(1990, 1, 1));
+        for (int i = 0; i < 40; i++) {
+            foraDoHeap.criarContaCorrente("CC-" + i, "11122233396", new BigDecimal("100.00"));
+            foraDoHeap.depositar("CC-" + i, new BigDecimal("10.00"));
+        }
+        foraDoHeap.criarContaPoupanca("CP-1", "11122233396");
+        assertThrows(OperacaoInvalidaException.class, () -> foraDoHeap.criarContaPoupanca("CC-0", "11122233396"));
+
+        foraDoHeap.sacar("CC-1", new BigDecimal("60.00"));
+        foraDoHeap.transferir("CC-2", "CP-1", new BigDecimal("5.00"));
+        assertThrows(SaldoInsuficienteException.class, () -> foraDoHeap.sacar("CC-3", new BigDecimal("200.00")));
+
+        Conta conta = foraDoHeap.buscarContaPorNumero("CC-1");
+        assertEquals(new BigDecimal("-50.00"), conta.getSaldo());
+        assertEquals(-5000, tabela.saldo(conta.posicao()));
+        // A conta recusada devolveu sua posição: ela não entra na soma das poupanças
+        assertEquals(40 * 1000 - 6000 - 500, foraDoHeap.saldoTotalCentavos(TabelaSaldos.CORRENTE));
+        assertEquals(500, foraDoHeap.saldoTotalCentavos(TabelaSaldos.POUPANCA));
+        assertEquals(42, tabela.quantidade());
+    }
+
+    @Test
+    public void testEstatisticasAcompanhamAsOperacoes() {
+        SplittableRandom aleatorio = new SplittableRandom(11);
+        String[] numeros = {"1111", "2222", "3333", "4444", "5555"};
+        for (int i = 0; i < 2_000; i++) {
+            String numero = numeros[aleatorio.nextInt(numeros.length)];
+            BigDecimal valor = BigDecimal.valueOf(aleatorio.nextInt(1, 50_000), 2);
+            try {
+                switch (aleatorio.nextInt(6)) {
+                    case 0 -> bancoService.depositar(numero, valor);
+                    case 1 -> bancoService.sacar(numero, valor);
+                    case 2 -> bancoService.transferir(numero, numeros[aleatorio.nextInt(numeros.length)], valor);
+                    case 3 -> bancoService.investir(numero, valor);
+                    case 4 -> bancoService.calcularRendimentoPoupanca(numero, YearMonth.now(ZoneOffset.UTC).plusMonths(i));
+                    default -> bancoService.fecharConta(numero, YearMonth.now(ZoneOffset.UTC).plusMonths(i));
+                }
+            } catch (RuntimeException e) {
+                // Operações recusadas não podem alterar os totais
+            }
+        }
+        BigDecimal saldo4444 = bancoService.buscarContaPorNumero("4444").getSaldo();
+        if (saldo4444.signum() > 0) {
+            bancoService.sacar("4444", saldo4444);
+        }
+        bancoService.encerrarConta("4444");
+        bancoService.encerrarConta("4444");
+
+        EstatisticasBanco estatisticas = bancoService.estatisticas();
+        BigDecimal total = BigDecimal.ZERO;
+        BigDecimal corrente = BigDecimal.ZERO;
+        BigDecimal utilizado = BigDecimal.ZERO;
+        for (Conta conta : bancoService.listarContas()) {
+            total = total.add(conta.getSaldo());
+            if (conta instanceof ContaCorrente) {
+                corrente = corrente.add(conta.getSaldo());
+                utilizado = utilizado.add(conta.getSaldo().min(BigDecimal.ZERO).negate());
+            }
+        }
+        assertEquals(total, estatisticas.getTotalDepositos());
+        assertEquals(corrente, estatisticas.getSaldoContasCorrente());
+        assertEquals(bancoService.buscarContaPorNumero("2222").getSaldo()
+                .add(bancoService.buscarContaPorNumero("5555").getSaldo()), estatisticas.getSaldoContasPoupanca());
+        assertEquals(utilizado, estatisticas.getChequeEspecialUtilizado());
+        assertEquals(4, estatisticas.getContasAtivas());
+        assertEquals(new BigDecimal("500.00"), estatisticas.getLimiteChequeEspecial());
+        assertEquals(bancoService.calcularImpostoInvestimento("3333"),
+                estatisticas.getImpostoPorTipo().get(TipoInvestimento.RENDA_FIXA));
+        assertEquals(new BigDecimal("0.00"), estatisticas.getImpostoPorTipo().get(TipoInvestimento.TESOURO_DIRETO));
+        assertEquals(2, estatisticas.getClientes());
+        assertEquals(5, estatisticas.getContas());
+    }
+
+    @Test
+    public void testExtratoRegistraCadaLancamento() {
+        bancoService.sacar("1111", new BigDecimal("200.00"));
+        bancoService.transferir("1111", "4444", new BigDecimal("50.00"));
+        assertThrows(SaldoInsuficienteException.class, () -> bancoService.sacar("4444", new BigDecimal("100.00")));
+        bancoService.investir("3333", new BigDecimal("500.00"));
+        for (String numero : List.of("1111", "2222", "3333", "4444", "5555")) {
+            bancoService.fecharConta(numero, YearMonth.now(ZoneOffset.UTC));
+        }
+
+        List<LancamentoExtrato> corrente = bancoService.extrato("1111", 10);
+        assertEquals(List.of(TipoLancamento.TARIFA, TipoLancamento.TRANSFERENCIA_ENVIADA, TipoLancamento.SAQUE,
+                TipoLancamento.DEPOSITO), corrente.stream().map(LancamentoExtrato::getTipo).toList());
+        assertEquals(new BigDecimal("-50.00"), corrente.get(1).getValor());
+        assertEquals(new BigDecimal("750.00"), corrente.get(1).getSaldo());
+        assertEquals(bancoService.buscarContaPorNumero("1111").getSaldo(), corrente.get(0).getSaldo());
+
+        // O saque recusado não aparece
+        List<LancamentoExtrato> destino = bancoService.extrato("4444", 10);
+        assertEquals(List.of(TipoLancamento.TARIFA, TipoLancamento.TRANSFERENCIA_RECEBIDA),
+                destino.stream().map(LancamentoExtrato::getTipo).toList());
+
+        assertEquals(TipoLancamento.INVESTIMENTO, bancoService.extrato("3333", 10).get(1).getTipo());
+        assertEquals(1, bancoService.extrato("1111", 1).size());
+        assertTrue(bancoService.extrato("5555", 10).isEmpty());
+        assertThrows(RecursoNaoEncontradoException.class, () -> bancoService.extrato("9999", 10));
+    }
+
+    @Test
+    public void testExtratoGuardaSoOsUltimosLancamentos() {
+        for (int i = 1; i <= BancoService.CAPACIDADE_EXTRATO + 5; i++) {
+            bancoService.depositar("4444", new BigDecimal(i));
+        }
+
+        List<LancamentoExtrato> extrato = bancoService.extrato("4444", 1000);
+
+        assertEquals(BancoService.CAPACIDADE_EXTRATO, extrato.size());
+        assertEquals(new BigDecimal(BancoService.CAPACIDADE_EXTRATO + 5).setScale(2), extrato.get(0).getValor());
+    }
+
+    @Test
+    public void testEtagsMudamSoComAlteracoes() {
+        Conta conta = bancoService.buscarContaPorNumero("4444");
+        String etagConta = bancoService.etagConta(conta);
+        String etagCliente = bancoService.etagContasCliente("987.654.321-00");
+        String etagColecoes = bancoService.etagColecoes();
+        String etagOutroCliente = bancoService.etagContasCliente("123.456.789-09");
+
+        bancoService.listarContas();
+        assertThrows(SaldoInsuficienteException.class, () -> bancoService.sacar("4444", new BigDecimal("1.00")));
+        assertEquals(etagConta, bancoService.etagConta(conta));
+        assertEquals(etagCliente, bancoService.etagContasCliente("987.654.321-00"));
+        assertEquals(etagColecoes, bancoService.etagColecoes());
+
+        bancoService.depositar("4444", new BigDecimal("1.00"));
+        assertNotEquals(etagConta, bancoService.etagConta(conta));
+        assertNotEquals(etagCliente, bancoService.etagContasCliente("987.654.321-00"));
+        assertNotEquals(etagColecoes, bancoService.etagColecoes());
+        // Contas de outro cliente não mudam
+        assertEquals(etagOutroCliente, bancoService.etagContasCliente("123.456.789-09"));
+
+        etagCliente = bancoService.etagContasCliente("987.654.321-00");
+        etagColecoes = bancoService.etagColecoes();
+        bancoService.criarContaPoupanca("6666", "987.654.321-00");
+        assertNotEquals(etagCliente, bancoService.etagContasCliente("987.654.321-00"));
+        assertNotEquals(etagColecoes, bancoService.etagColecoes());
+
+        etagColecoes = bancoService.etagColecoes();
+        bancoService.criarCliente("Novo", "555.555.556-36", LocalDate.of(2000, 1, 1));
+        assertNotEquals(etagColecoes, bancoService.etagColecoes());
+    }
+
     @Test
     public void testCalcularRendimentoPoupanca() {
         ContaPoupanca conta = (ContaPoupanca) bancoService.buscarContaPorNumero("2222");
         BigDecimal saldoAnterior = conta.getSaldo();
         BigDecimal taxaRendimento = conta.getTaxaRendimento();
 
-        bancoService.calcularRendimentoPoupanca("2222");
+        bancoService.calcularRendimentoPoupanca("2222", YearMonth.now(ZoneOffset.UTC));
 
         BigDecimal rendimentoEsperado = saldoAnterior.multiply(taxaRendimento);
         BigDecimal saldoEsperado = saldoAnterior.add(rendimentoEsperado);
 
         assertEquals(saldoEsperado.setScale(2), conta.getSaldo().setScale(2));
+        // O rendimento é o fechamento da competência: pedir de novo não aplica duas vezes
+        assertThrows(OperacaoInvalidaException.class,
+                () -> bancoService.calcularRendimentoPoupanca("2222", YearMonth.now(ZoneOffset.UTC)));
+        assertEquals(saldoEsperado.setScale(2), conta.getSaldo().setScale(2));
+        assertThrows(OperacaoInvalidaException.class, () -> bancoService.fecharConta("2222", YearMonth.now(ZoneOffset.UTC)));
     }
 
     @Test
@@ -117,14 +416,15 @@ public class BancoServiceTest {
     @Test
     public void testCriarCliente() {
         String nome = "Teste da Silva";
-        String cpf = "111.222.333-44";
+        String cpf = "111.222.333-96";
         LocalDate dataNascimento = LocalDate.of(1995, 5, 15);
 
         Cliente cliente = bancoService.criarCliente(nome, cpf, dataNascimento);
 
         assertNotNull(cliente);
         assertEquals(nome, cliente.getNome());
-        assertEquals(cpf, cliente.getCpf());
+        assertEquals("11122233396", cliente.getCpf());
+        assertEquals(cpf, cliente.getCpfFormatado());
         assertEquals(dataNascimento, cliente.getDataNascimento());
 
         Cliente clienteRecuperado = bancoService.buscarClientePorCpf(cpf);
@@ -132,10 +432,27 @@ public class BancoServiceTest {
         assertEquals(cliente, clienteRecuperado);
     }
 
+    @Test
+    public void testCpfComESemPontuacaoEOMesmoCliente() {
+        Cliente cliente = bancoService.buscarClientePorCpf("123.456.789-09");
+        assertEquals(cliente, bancoService.buscarClientePorCpf("12345678909"));
+        assertThrows(OperacaoInvalidaException.class,
+                () -> bancoService.criarCliente("Outro João", "12345678909", LocalDate.of(1980, 5, 15)));
+        // Dígito verificador errado, dígitos repetidos e quantidade errada de dígitos
+        assertThrows(OperacaoInvalidaException.class,
+                () -> bancoService.criarCliente("Inválido", "123.456.789-00", LocalDate.of(1980, 5, 15)));
+        assertThrows(OperacaoInvalidaException.class,
+                () -> bancoService.criarCliente("Inválido", "111.111.111-11", LocalDate.of(1980, 5, 15)));
+        assertThrows(OperacaoInvalidaException.class,
+                () -> bancoService.criarCliente("Inválido", "1234567890", LocalDate.of(1980, 5, 15)));
+        assertThrows(RecursoNaoEncontradoException.class, () -> bancoService.buscarClientePorCpf("abc"));
+        assertEquals(2, bancoService.quantidadeClientes());
+    }
+
     @Test
     public void testCriarContaCorrente() {
         String numero = "9999";
-        String cpfCliente = "123.456.789-00";
+        String cpfCliente = "123.456.789-09";
         BigDecimal limite = new BigDecimal("2000.00");
 
         ContaCorrente conta = bancoService.criarContaCorrente(numero, cpfCliente, limite);
@@ -143,10 +460,25 @@ public class BancoServiceTest {
         assertNotNull(conta);
         assertEquals(numero, conta.getNumero());
         assertEquals(limite, conta.getLimiteChequeEspecial());
-        assertEquals(cpfCliente, conta.getTitular().getCpf());
+        assertEquals("12345678909", conta.getTitular().getCpf());
 
         Conta contaRecuperada = bancoService.buscarContaPorNumero(numero);
         assertNotNull(contaRecuperada);
         assertTrue(contaRecuperada instanceof ContaCorrente);
     }
+
+    @Test
+    public void testDataCriacaoEmUtcIndependenteDoFusoDoServidor() {
+        TimeZone original = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/Sao_Paulo"));
+        try {
+            long antes = Instant.now().getEpochSecond();
+            Conta conta = bancoService.criarContaPoupanca("FUSO", "123.456.789-09");
+            long depois = Instant.now().getEpochSecond();
+
+            assertTrue(conta.dataCriacaoEpochSegundos() >= antes && conta.dataCriacaoEpochSegundos() <= depois);
+        } finally {
+            TimeZone.setDefault(original);
+        }
+    }
 }
@@ -0,0 +1,182 @@
+package com.banco.service;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.banco.exception.LimiteRequisicoesException;
+
+public class ControleAdmissaoTest {
+
+    private final AtomicLong relogio = new AtomicLong();
+
+    // 10 requisições por segundo por conta com rajada de 3; 100 por segundo por cliente com rajada de 5
+    private ControleAdmissao controle(int concorrenciaMaxima, int chavesMaximas) {
+        return new ControleAdmissao(true, 10, 3, 100, 5, concorrenciaMaxima, Duration.ZERO, chavesMaximas, relogio::get);
+    }
+
+    private void admitirELiberar(ControleAdmissao controle, String conta, String cpf) {
+        assertTrue(controle.admitir(conta, cpf));
+        controle.liberar();
+    }
+
+    @Test
+    public void testRajadaPorContaEDepoisTaxa() {
+        ControleAdmissao controle = controle(10, 1000);
+
+        for (int i = 0; i < 3; i++) {
+            admitirELiberar(controle, "1111", null);
+        }
+        LimiteRequisicoesException recusa = assertThrows(LimiteRequisicoesException.class,
+                () -> controle.admitir("1111", null));
+        assertEquals(1, recusa.getSegundosParaNovaTentativa());
+        // Outra conta tem o próprio balde
+        admitirELiberar(controle, "2222", null);
+
+        // Uma ficha volta a cada 100 ms
+        relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        admitirELiberar(controle, "1111", null);
+        assertThrows(LimiteRequisicoesException.class, () -> controle.admitir("1111", null));
+
+        // Depois de parado o bastante, a rajada inteira volta
+        relogio.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        for (int i = 0; i < 3; i++) {
+            admitirELiberar(controle, "1111", null);
+        }
+    }
+
+    @Test
+    public void testLimitePorClienteSomaTodasAsContas() {
+        ControleAdmissao controle = controle(10, 1000);
+
+        admitirELiberar(controle, "1111", "123");
+        admitirELiberar(controle, "1112", "123");
+        admitirELiberar(controle, "1113", "123");
+        admitirELiberar(controle, "1114", "123");
+        admitirELiberar(controle, "1115", "123");
+        LimiteRequisicoesException recusa = assertThrows(LimiteRequisicoesException.class,
+                () -> controle.admitir("1116", "123"));
+        assertTrue(recusa.getMessage().contains("cliente"));
+        admitirELiberar(controle, "1116", "456");
+    }
+
+    @Test
+    public void testRecusaDoClienteDevolveAFichaDaConta() {
+        ControleAdmissao controle = controle(10, 1000);
+        for (int i = 0; i < 5; i++) {
+            admitirELiberar(controle, "outra-" + i, "123");
+        }
+
+        // O cliente está esgotado: a conta 1111 não pode perder fichas com as recusas
+        for (int i = 0; i < 10; i++) {
+            assertThrows(LimiteRequisicoesException.class, () -> controle.admitir("1111", "123"));
+        }
+        for (int i = 0; i < 3; i++) {
+            admitirELiberar(controle, "1111", "456");
+        }
+        assertEquals(10, controle.vagasLivres());
+    }
+
+    @Test
+    public void testRecusaPorConcorrenciaNaoConsomeFichas() {
+        ControleAdmissao controle = controle(1, 1000);
+        assertTrue(controle.admitir(null, null));
+
+        for (int i = 0; i < 10; i++) {
+            assertThrows(LimiteRequisicoesException.class, () -> controle.admitir("1111", "123"));
+        }
+        controle.liberar();
+        for (int i = 0; i < 3; i++) {
+            admitirELiberar(controle, "1111", "123");
+        }
+    }
+
+    @Test
+    public void testConcorrenciaMaximaRecusaSemEsperarNaFila() {
+        ControleAdmissao controle = controle(2, 1000);
+
+        assertTrue(controle.admitir(null, null));
+        assertTrue(controle.admitir(null, null));
+        assertThrows(LimiteRequisicoesException.class, () -> controle.admitir(null, null));
+
+        controle.liberar();
+        assertTrue(controle.admitir(null, null));
+        controle.liberar();
+        controle.liberar();
+        assertEquals(2, controle.vagasLivres());
+    }
+
+    @Test
+    public void testEsperaPorVagaDentroDoPrazo() throws Exception {
+        ControleAdmissao controle = new ControleAdmissao(true, 0, 0, 0, 0, 1, Duration.ofSeconds(5), 1000, System::nanoTime);
+        assertTrue(controle.admitir(null, null));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            var espera = executor.submit(() -> controle.admitir(null, null));
+            Thread.sleep(50);
+            controle.liberar();
+            assertTrue(espera.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testDesabilitadoAdmiteTudoSemOcuparVaga() {
+        ControleAdmissao controle = new ControleAdmissao(false, 1, 1, 1, 1, 1, Duration.ZERO, 1000, relogio::get);
+
+        for (int i = 0; i < 10; i++) {
+            assertFalse(controle.admitir("1111", "123"));
+        }
+        assertEquals(1, controle.vagasLivres());
+    }
+
+    @Test
+    public void testChavesOciosasSaoDescartadas() {
+        ControleAdmissao controle = controle(10, 100);
+
+        for (int i = 0; i < 100; i++) {
+            admitirELiberar(controle, "conta-" + i, null);
+        }
+        assertEquals(100, controle.chavesAcompanhadas());
+
+        // Com todos os baldes cheios de novo, a próxima chave nova provoca a varredura
+        relogio.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        admitirELiberar(controle, "conta-nova", null);
+        assertEquals(1, controle.chavesAcompanhadas());
+    }
+
+    @Test
+    public void testAdmissoesConcorrentesRespeitamARajada() throws Exception {
+        ControleAdmissao controle = new ControleAdmissao(true, 1, 50, 0, 0, 1000, Duration.ZERO, 1000, relogio::get);
+        AtomicInteger admitidas = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int i = 0; i < 400; i++) {
+                executor.execute(() -> {
+                    try {
+                        controle.admitir("1111", null);
+                        admitidas.incrementAndGet();
+                        controle.liberar();
+                    } catch (LimiteRequisicoesException e) {
+                        // esperado depois da rajada
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+        assertEquals(50, admitidas.get());
+    }
+}
@@ -0,0 +1,106 @@
+package com.banco.service;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.banco.domain.TipoInvestimento;
+import com.banco.persistencia.DiarioMapeado;
+import com.banco.persistencia.ModoSincronizacao;
+import com.banco.persistencia.RecuperacaoDiario;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Auditoria de fixação (pinning): nenhuma operação do BancoService pode bloquear uma
+ * thread virtual enquanto segura um monitor ({@code synchronized}), o que prenderia a
+ * thread portadora. Usa o evento JFR {@code jdk.VirtualThreadPinned}.
+ */
+public class FixacaoThreadsVirtuaisTest {
+
+    private static final int THREADS = 200;
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    public void testAuditoriaDetectaBloqueioDentroDeSynchronized() throws Exception {
+        Object monitor = new Object();
+        List<RecordedEvent> eventos = registrarFixacoes(() -> {
+            synchronized (monitor) {
+                Thread.sleep(5);
+            }
+            return null;
+        });
+        assertTrue(eventos.size() > 0, "A auditoria deveria detectar sleep dentro de synchronized");
+    }
+
+    @Test
+    public void testOperacoesDoServicoNaoFixamThreadsPortadoras() throws Exception {
+        try (DiarioMapeado diario = new DiarioMapeado(diretorio, 1024 * 1024, ModoSincronizacao.GRUPO)) {
+            diario.iniciar(0, new RecuperacaoDiario(new BancoService()));
+            BancoService bancoService = new BancoService(diario);
+            bancoService.criarCliente("Cliente", "00000000191", LocalDate.of(1990, 1, 1));
+            bancoService.criarContaCorrente("CC-A", "00000000191", BigDecimal.ZERO);
+            bancoService.criarContaCorrente("CC-B", "00000000191", BigDecimal.ZERO);
+            bancoService.criarContaInvestimento("CI", "00000000191", TipoInvestimento.RENDA_FIXA);
+            bancoService.depositar("CC-A", new BigDecimal("100000.00"));
+
+            // Todas as threads disputam as mesmas contas e esperam o fsync em grupo
+            List<RecordedEvent> eventos = registrarFixacoes(() -> {
+                String numero = "N-" + Thread.currentThread().threadId();
+                bancoService.criarContaPoupanca(numero, "00000000191");
+                for (int i = 0; i < 20; i++) {
+                    bancoService.depositar("CC-B", new BigDecimal("1.00"));
+                    bancoService.transferir(i % 2 == 0 ? "CC-A" : "CC-B", i % 2 == 0 ? "CC-B" : "CC-A", new BigDecimal("0.50"));
+                    bancoService.investir("CI", new BigDecimal("1.00"));
+                    bancoService.resgatar("CI", new BigDecimal("1.00"));
+                    bancoService.depositar(numero, new BigDecimal("1.00"));
+                }
+                bancoService.listarContas(null, 50);
+                bancoService.buscarContasAtivas();
+                return null;
+            });
+
+            assertEquals(List.of(), eventos.stream().map(e -> e.getStackTrace().toString()).toList());
+            assertEquals(new BigDecimal("100000.00").add(new BigDecimal(THREADS * 20)),
+                    bancoService.buscarContaPorNumero("CC-A").getSaldo().add(bancoService.buscarContaPorNumero("CC-B").getSaldo()));
+        }
+    }
+
+    private List<RecordedEvent> registrarFixacoes(Callable<Void> tarefa) throws Exception {
+        Path arquivo = diretorio.resolve("fixacao-" + System.nanoTime() + ".jfr");
+        try (Recording gravacao = new Recording()) {
+            gravacao.enable("jdk.VirtualThreadPinned").withoutThreshold().withStackTrace();
+            gravacao.start();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<Void>> futuros = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    futuros.add(executor.submit(tarefa));
+                }
+                for (Future<Void> futuro : futuros) {
+                    futuro.get(60, TimeUnit.SECONDS);
+                }
+            }
+            gravacao.stop();
+            gravacao.dump(arquivo);
+        }
+        return RecordingFile.readAllEvents(arquivo).stream()
+                .filter(e -> e.getEventType().getName().equals("jdk.VirtualThreadPinned"))
+                .toList();
+    }
+}
@@ -0,0 +1,187 @@
+package com.banco.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.banco.domain.ContaCorrente;
+import com.banco.domain.ContaInvestimento;
+import com.banco.domain.Cpf;
+import com.banco.domain.TipoInvestimento;
+import com.banco.exception.OperacaoInvalidaException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ImportacaoServiceTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private BancoService bancoService;
+    private ImportacaoService importacao;
+
+    @BeforeEach
+    public void setUp() {
+        bancoService = new BancoService();
+        // Blocos de duas linhas em quatro threads: quase toda conta depende de um cliente de outro bloco
+        importacao = new ImportacaoService(bancoService, 4, 2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        importacao.encerrar();
+    }
+
+    private JsonNode importar(String conteudo, ImportacaoService.Formato formato) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        importacao.importar(new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8)), formato, saida);
+        return mapper.readTree(saida.toByteArray());
+    }
+
+    private static Map<Long, String> rejeitadas(JsonNode resposta) {
+        Map<Long, String> porLinha = new HashMap<>();
+        resposta.get("rejeitadas").forEach(r -> porLinha.put(r.get("linha").asLong(), r.get("mensagem").asText()));
+        return porLinha;
+    }
+
+    @Test
+    public void testImportaCsvERelataLinhasRecusadas() throws IOException {
+        String csv = """
+                tipo,chave,nome,data
+                CLIENTE,12345678909,João,1980-05-15
+                CLIENTE,98765432100,"Souza, Maria",1990-10-20
+                CORRENTE,C1,12345678909,500.00
+                POUPANCA,P1,12345678909
+                INVESTIMENTO,I1,98765432100,RENDA_VARIAVEL
+                CLIENTE,12345678909,João,1980-05-15
+                CORRENTE,C1,12345678909,500.00
+                CORRENTE,C2,11144477735,0
+                CLIENTE,52998224725,Data Ruim,15/05/1980
+
+                INVESTIMENTO,I2,98765432100,POUPANCA
+                OUTRO,X
+                CORRENTE,C3,98765432100
+                CLIENTE,123.456.789-00,Dígito Errado,1980-05-15
+                """;
+
+        JsonNode resposta = importar(csv, ImportacaoService.Formato.CSV);
+
+        assertEquals(13, resposta.get("total").asLong());
+        assertEquals(6, resposta.get("importadas").asLong());
+        assertEquals(7, resposta.get("rejeitadasTotal").asLong());
+        Map<Long, String> rejeitadas = rejeitadas(resposta);
+        assertEquals(7, rejeitadas.size());
+        // Entre linhas repetidas fica a que for processada primeiro, não necessariamente a primeira do arquivo
+        assertTrue(rejeitadas.getOrDefault(2L, rejeitadas.get(7L)).contains("já existe"));
+        assertTrue(rejeitadas.getOrDefault(4L, rejeitadas.get(8L)).contains("já existe"));
+        assertTrue(rejeitadas.get(9L).contains("não encontrado"));
+        assertTrue(rejeitadas.get(10L).contains("Data de nascimento inválida"));
+        assertTrue(rejeitadas.get(12L).contains("Tipo de investimento inválido"));
+        assertTrue(rejeitadas.get(13L).contains("Tipo de registro desconhecido"));
+        assertTrue(rejeitadas.get(15L).contains("CPF inválido"));
+
+        assertEquals("Souza, Maria", bancoService.buscarClientePorCpf("98765432100").getNome());
+        assertEquals(2, bancoService.buscarContasPorCliente("12345678909").size());
+        assertEquals(new BigDecimal("500.00"),
+                ((ContaCorrente) bancoService.buscarContaPorNumero("C1")).getLimiteChequeEspecial());
+        assertEquals("12345678909", bancoService.buscarContaPorNumero("C1").getTitular().getCpf());
+        assertEquals(TipoInvestimento.RENDA_VARIAVEL,
+                ((ContaInvestimento) bancoService.buscarContaPorNumero("I1")).getTipo());
+        assertEquals(BigDecimal.ZERO.setScale(2), ((ContaCorrente) bancoService.buscarContaPorNumero("C3")).getLimiteChequeEspecial());
+        assertEquals(2, bancoService.estatisticas().getClientes());
+        assertEquals(4, bancoService.estatisticas().getContas());
+    }
+
+    @Test
+    public void testImportaNdjson() throws IOException {
+        String ndjson = """
+                {"tipo":"CLIENTE","cpf":"12345678909","nome":"João","dataNascimento":"1980-05-15"}
+                {"tipo":"CORRENTE","numero":"C1","cpf":"12345678909","limiteChequeEspecial":100}
+                {"tipo":"POUPANCA","numero":"P1","cpf":"12345678909"}
+                {"tipo":"CORRENTE","numero":"C2"}
+                {"tipo":"CORRENTE",
+                """;
+
+        JsonNode resposta = importar(ndjson, ImportacaoService.Formato.NDJSON);
+
+        assertEquals(5, resposta.get("total").asLong());
+        assertEquals(3, resposta.get("importadas").asLong());
+        Map<Long, String> rejeitadas = rejeitadas(resposta);
+        assertTrue(rejeitadas.get(4L).contains("Campo obrigatório ausente: cpf"));
+        assertTrue(rejeitadas.get(5L).contains("JSON inválido"));
+        assertEquals(new BigDecimal("100.00"),
+                ((ContaCorrente) bancoService.buscarContaPorNumero("C1")).getLimiteChequeEspecial());
+    }
+
+    @Test
+    public void testContaAntesDoClienteNoMesmoBlocoEAdiada() throws IOException {
+        ImportacaoService umBloco = new ImportacaoService(bancoService, 2, 100);
+        try {
+            ByteArrayOutputStream saida = new ByteArrayOutputStream();
+            String csv = "POUPANCA,P1,12345678909\nCLIENTE,12345678909,João,1980-05-15\n";
+            umBloco.importar(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportacaoService.Formato.CSV, saida);
+            JsonNode resposta = mapper.readTree(saida.toByteArray());
+
+            assertEquals(2, resposta.get("importadas").asLong());
+            assertEquals("12345678909", bancoService.buscarContaPorNumero("P1").getTitular().getCpf());
+        } finally {
+            umBloco.encerrar();
+        }
+    }
+
+    @Test
+    public void testArquivoGrandeComRepetidos() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        int clientes = 5_000;
+        for (int i = 0; i < clientes; i++) {
+            String cpf = Cpf.gerar(i + 1);
+            csv.append("CLIENTE,").append(cpf).append(",Cliente ").append(i).append(",1990-01-01\n");
+            csv.append("CORRENTE,C").append(i).append(',').append(cpf).append(",0\n");
+            // Cada conta poupança aparece duas vezes
+            csv.append("POUPANCA,P").append(i / 2).append(',').append(cpf).append('\n');
+        }
+
+        JsonNode resposta = importar(csv.toString(), ImportacaoService.Formato.CSV);
+
+        assertEquals(3 * clientes, resposta.get("total").asLong());
+        assertEquals(clientes / 2, resposta.get("rejeitadasTotal").asLong());
+        assertEquals(clientes, bancoService.quantidadeClientes());
+        assertEquals(clientes + clientes / 2, bancoService.quantidadeContas());
+        rejeitadas(resposta).values().forEach(m -> assertTrue(m.contains("já existe"), m));
+    }
+
+    @Test
+    public void testContaRepetidaNaoConsomePosicaoDeSaldo() throws IOException {
+        String cpf = Cpf.gerar(1);
+        StringBuilder csv = new StringBuilder("CLIENTE,").append(cpf).append(",Ana,1990-01-01\n");
+        csv.append("CORRENTE,C1,").append(cpf).append(",0\n");
+        importar(csv.toString(), ImportacaoService.Formato.CSV);
+        int posicoes = bancoService.tabelaSaldos().quantidade();
+
+        StringBuilder repetidas = new StringBuilder();
+        for (int i = 0; i < 1_000; i++) {
+            repetidas.append("CORRENTE,C1,").append(cpf).append(",0\n");
+        }
+        JsonNode resposta = importar(repetidas.toString(), ImportacaoService.Formato.CSV);
+
+        assertEquals(1_000, resposta.get("rejeitadasTotal").asLong());
+        assertEquals(posicoes, bancoService.tabelaSaldos().quantidade());
+    }
+
+    @Test
+    public void testCamposCsvComAspas() {
+        assertEquals(List.of("a", "b, c", "d\"e", ""), ImportacaoService.camposCsv("a,\"b, c\",\"d\"\"e\","));
+        assertThrows(OperacaoInvalidaException.class, () -> ImportacaoService.camposCsv("a,\"b"));
+    }
+}
@@ -0,0 +1,213 @@
+package com.banco.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.banco.domain.Cliente;
+import com.banco.domain.Conta;
+import com.banco.domain.TipoInvestimento;
+import com.banco.domain.TipoLancamento;
+import com.banco.exception.OperacaoInvalidaException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class OperacoesLoteServiceTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private static final ControleAdmissao SEM_LIMITES =
+            new ControleAdmissao(false, 0, 0, 0, 0, 1, Duration.ZERO, 1, System::nanoTime);
+
+    private final AtomicLong sequencia = new AtomicLong();
+    private final AtomicInteger esperasDuraveis = new AtomicInteger();
+    // Resultados OK já escritos na resposta a cada espera pelo diário
+    private final List<Integer> oksAntesDeCadaEspera = new ArrayList<>();
+    private ByteArrayOutputStream saida;
+
+    private BancoService bancoService;
+    private OperacoesLoteService lote;
+
+    @BeforeEach
+    public void setUp() {
+        // Diário de contagem: verifica que a durabilidade é aguardada por bloco, não por item
+        DiarioOperacoes diario = new DiarioOperacoes() {
+            @Override
+            public long clienteCriado(Cliente cliente) {
+                return sequencia.incrementAndGet();
+            }
+
+            @Override
+            public long contaCriada(Conta conta) {
+                return sequencia.incrementAndGet();
+            }
+
+            @Override
+            public long lancamento(TipoLancamento tipo, Conta conta, long valorCentavos) {
+                return sequencia.incrementAndGet();
+            }
+
+            @Override
+            public long passoTransferencia(TipoLancamento tipo, Conta conta, long valorCentavos, String chave) {
+                return sequencia.incrementAndGet();
+            }
+
+            @Override
+            public long passoEsquecido(String chave) {
+                return sequencia.incrementAndGet();
+            }
+
+            @Override
+            public long contaEncerrada(Conta conta) {
+                return sequencia.incrementAndGet();
+            }
+
+            @Override
+            public long contaRemovida(Conta conta) {
+                return sequencia.incrementAndGet();
+            }
+
+            @Override
+            public long transferencia(Conta origem, Conta destino, long valorCentavos) {
+                return sequencia.incrementAndGet();
+            }
+
+            @Override
+            public long fechamentoMensal(Conta conta, int competencia, long rendimentoCentavos, long tarifaCentavos) {
+                return sequencia.incrementAndGet();
+            }
+
+            @Override
+            public void tornarDuravel(long ultima) {
+                esperasDuraveis.incrementAndGet();
+                if (saida != null) {
+                    oksAntesDeCadaEspera.add(saida.toString(StandardCharsets.UTF_8).split("\"OK\"", -1).length - 1);
+                }
+            }
+        };
+        bancoService = new BancoService(diario);
+        lote = new OperacoesLoteService(bancoService, SEM_LIMITES, 100);
+        bancoService.criarCliente("Cliente Lote", "000.000.001-91", LocalDate.of(1990, 1, 1));
+        bancoService.criarContaCorrente("CC", "000.000.001-91", BigDecimal.ZERO);
+        bancoService.criarContaInvestimento("CI", "000.000.001-91", TipoInvestimento.RENDA_FIXA);
+    }
+
+    @Test
+    public void testAplicaItensEReportaResultadoDeCada() throws IOException {
+        String corpo = """
+                [
+                  {"operacao": "DEPOSITO", "conta": "CC", "valor": 100.50},
+                  {"operacao": "SAQUE", "conta": "CC", "valor": "500.00"},
+                  {"operacao": "INVESTIMENTO", "conta": "CI", "valor": 300, "origem": {"canal": "api"}},
+                  {"operacao": "RESGATE", "conta": "CI", "valor": 50},
+                  {"operacao": "INVESTIMENTO", "conta": "CC", "valor": 10},
+                  {"operacao": "TARIFA", "conta": "CC", "valor": 10},
+                  {"operacao": "DEPOSITO", "conta": "NAO-EXISTE", "valor": 10},
+                  {"operacao": "DEPOSITO", "conta": "CC", "valor": "abc"},
+                  {"conta": "CC", "valor": 1}
+                ]
+                """;
+        JsonNode resposta = processar(corpo);
+
+        assertEquals(9, resposta.get("total").asLong());
+        assertEquals(3, resposta.get("sucesso").asLong());
+        assertEquals(6, resposta.get("falhas").asLong());
+        JsonNode resultados = resposta.get("resultados");
+        assertEquals(9, resultados.size());
+        assertEquals("OK", resultados.get(0).get("status").asText());
+        assertEquals("ERRO", resultados.get(1).get("status").asText());
+        assertEquals(1, resultados.get(1).get("indice").asLong());
+        assertEquals("OK", resultados.get(2).get("status").asText());
+        assertEquals("ERRO", resultados.get(8).get("status").asText());
+        assertEquals(new BigDecimal("100.50"), bancoService.buscarContaPorNumero("CC").getSaldo());
+        assertEquals(new BigDecimal("250.00"), bancoService.buscarContaPorNumero("CI").getSaldo());
+    }
+
+    @Test
+    public void testDurabilidadeAguardadaPorBloco() throws IOException {
+        StringBuilder corpo = new StringBuilder("[");
+        for (int i = 0; i < 1_000; i++) {
+            corpo.append(i == 0 ? "" : ",").append("{\"operacao\":\"DEPOSITO\",\"conta\":\"CC\",\"valor\":0.01}");
+        }
+        corpo.append("]");
+        esperasDuraveis.set(0);
+
+        JsonNode resposta = processar(corpo.toString());
+
+        assertEquals(1_000, resposta.get("sucesso").asLong());
+        assertEquals(new BigDecimal("10.00"), bancoService.buscarContaPorNumero("CC").getSaldo());
+        // 10 blocos de 100 itens mais a espera final
+        assertEquals(11, esperasDuraveis.get());
+    }
+
+    @Test
+    public void testResultadosDoBlocoSoSaemDepoisDoDiario() throws IOException {
+        // Blocos de 1000 resultados passam do buffer do gerador, que descarregaria sozinho
+        lote = new OperacoesLoteService(bancoService, SEM_LIMITES, 1_000);
+        StringBuilder corpo = new StringBuilder("[");
+        for (int i = 0; i < 3_000; i++) {
+            corpo.append(i == 0 ? "" : ",").append("{\"operacao\":\"DEPOSITO\",\"conta\":\"CC\",\"valor\":0.01}");
+        }
+        corpo.append("]");
+
+        processar(corpo.toString());
+
+        // Na espera de cada bloco a resposta só tem os OKs dos blocos anteriores
+        assertEquals(List.of(0, 1_000, 2_000, 3_000), oksAntesDeCadaEspera);
+    }
+
+    @Test
+    public void testCadaContaConsomeUmaFichaPorBloco() throws IOException {
+        // Rajada de 2 por conta, relógio parado, blocos de 2 itens
+        ControleAdmissao controle = new ControleAdmissao(true, 10, 2, 0, 0, 10, Duration.ZERO, 1000, () -> 0L);
+        lote = new OperacoesLoteService(bancoService, controle, 2);
+        String deposito = "{\"operacao\":\"DEPOSITO\",\"conta\":\"CC\",\"valor\":1}";
+        String corpo = "[{\"operacao\":\"TRANSFERENCIA\",\"conta\":\"CC\",\"valor\":1},"
+                + deposito + "," + deposito + "," + deposito + "," + deposito
+                + ",{\"operacao\":\"DEPOSITO\",\"conta\":\"CI\",\"valor\":1}]";
+
+        JsonNode resposta = processar(corpo);
+
+        // O item inválido não cobra; o primeiro e o segundo bloco cobram uma ficha cada, o terceiro é recusado
+        assertEquals(4, resposta.get("sucesso").asLong());
+        assertEquals("ERRO", resposta.get("resultados").get(0).get("status").asText());
+        assertEquals("OK", resposta.get("resultados").get(3).get("status").asText());
+        assertEquals("ERRO", resposta.get("resultados").get(4).get("status").asText());
+        assertTrue(resposta.get("resultados").get(4).get("mensagem").asText().contains("conta"));
+        assertEquals("OK", resposta.get("resultados").get(5).get("status").asText());
+        assertEquals(new BigDecimal("3.00"), bancoService.buscarContaPorNumero("CC").getSaldo());
+    }
+
+    @Test
+    public void testJsonTruncadoMantemItensAnterioresEInformaErro() throws IOException {
+        JsonNode resposta = processar("[{\"operacao\":\"DEPOSITO\",\"conta\":\"CC\",\"valor\":5}, {\"operacao\":");
+
+        assertEquals(1, resposta.get("total").asLong());
+        assertTrue(resposta.get("erro").asText().contains("após o item 1"));
+        assertEquals(new BigDecimal("5.00"), bancoService.buscarContaPorNumero("CC").getSaldo());
+    }
+
+    @Test
+    public void testCorpoQueNaoEArrayERejeitado() {
+        assertThrows(OperacaoInvalidaException.class, () -> processar("{\"operacao\":\"DEPOSITO\"}"));
+    }
+
+    private JsonNode processar(String corpo) throws IOException {
+        saida = new ByteArrayOutputStream();
+        lote.processar(new ByteArrayInputStream(corpo.getBytes(StandardCharsets.UTF_8)), saida);
+        return mapper.readTree(saida.toByteArray());
+    }
+}
@@ -0,0 +1,247 @@
+package com.banco.service;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.banco.domain.TipoInvestimento;
+import com.banco.exception.OperacaoInvalidaException;
+
+public class ProcessamentoMensalServiceTest {
+
+    private static final int CONTAS_POR_TIPO = 5_000;
+    // Relógio no mês seguinte: o mês real, em que as contas são abertas, já está encerrado
+    private static final Clock MES_SEGUINTE = Clock.fixed(
+            YearMonth.now(ZoneOffset.UTC).plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    private BancoService bancoService;
+    private ProcessamentoMensalService processamento;
+
+    @BeforeEach
+    public void setUp() {
+        bancoService = new BancoService();
+        processamento = new ProcessamentoMensalService(bancoService, 4, 256, MES_SEGUINTE);
+        bancoService.criarCliente("Cliente Lote", "000.000.001-91", LocalDate.of(1990, 1, 1));
+        for (int i = 0; i < CONTAS_POR_TIPO; i++) {
+            bancoService.criarContaCorrente("CC-" + i, "000.000.001-91", BigDecimal.ZERO);
+            bancoService.depositar("CC-" + i, new BigDecimal("100.00"));
+            bancoService.criarContaPoupanca("CP-" + i, "000.000.001-91");
+            bancoService.depositar("CP-" + i, new BigDecimal("1000.00"));
+            bancoService.criarContaInvestimento("CI-" + i, "000.000.001-91", TipoInvestimento.RENDA_FIXA);
+            bancoService.depositar("CI-" + i, new BigDecimal("1000.00"));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        processamento.encerrar();
+    }
+
+    @Test
+    public void testLoteAplicaTarifasERendimentos() throws Exception {
+        LoteMensal lote = processamento.iniciar();
+        aguardar(lote);
+
+        assertEquals(LoteMensal.Estado.CONCLUIDO, lote.getEstado());
+        assertEquals(3L * CONTAS_POR_TIPO, lote.getContasProcessadas());
+        assertEquals(0, lote.getFalhas());
+        assertEquals(100.0, lote.getPercentualConcluido());
+        for (int i = 0; i < CONTAS_POR_TIPO; i++) {
+            assertEquals(new BigDecimal("70.00"), bancoService.buscarContaPorNumero("CC-" + i).getSaldo());
+            assertEquals(new BigDecimal("1005.00"), bancoService.buscarContaPorNumero("CP-" + i).getSaldo());
+            // 1000,00 - (15,00 + 1000,00 * 0,001)
+            assertEquals(new BigDecimal("984.00"), bancoService.buscarContaPorNumero("CI-" + i).getSaldo());
+        }
+    }
+
+    @Test
+    public void testDepositosDuranteOLoteNaoSePerdem() throws Exception {
+        LoteMensal lote = processamento.iniciar();
+        for (int i = 0; i < CONTAS_POR_TIPO; i++) {
+            bancoService.depositar("CC-" + i, new BigDecimal("1.00"));
+        }
+        aguardar(lote);
+
+        for (int i = 0; i < CONTAS_POR_TIPO; i++) {
+            assertEquals(new BigDecimal("71.00"), bancoService.buscarContaPorNumero("CC-" + i).getSaldo());
+        }
+    }
+
+    @Test
+    public void testRendimentoAvulsoEOLoteNaoSeSomam() throws Exception {
+        processamento.calcularRendimento("CP-0");
+        assertEquals(new BigDecimal("1005.00"), bancoService.buscarContaPorNumero("CP-0").getSaldo());
+        assertThrows(OperacaoInvalidaException.class, () -> processamento.calcularRendimento("CP-0"));
+
+        LoteMensal lote = processamento.iniciar();
+        aguardar(lote);
+
+        assertEquals(1, lote.getContasJaAplicadas());
+        assertEquals(new BigDecimal("1005.00"), bancoService.buscarContaPorNumero("CP-0").getSaldo());
+        assertThrows(OperacaoInvalidaException.class, () -> processamento.calcularRendimento("CP-1"));
+        assertEquals(new BigDecimal("1005.00"), bancoService.buscarContaPorNumero("CP-1").getSaldo());
+    }
+
+    @Test
+    public void testBuscarLoteRetornaMesmaExecucao() throws Exception {
+        LoteMensal lote = processamento.iniciar();
+        aguardar(lote);
+
+        assertEquals(lote, processamento.buscar(lote.getId()));
+    }
+
+    @Test
+    public void testRepetirACompetenciaNaoCobraDeNovo() throws Exception {
+        YearMonth competencia = YearMonth.now(ZoneOffset.UTC);
+        LoteMensal primeiro = processamento.iniciar(competencia);
+        aguardar(primeiro);
+        LoteMensal segundo = processamento.iniciar(competencia);
+        aguardar(segundo);
+
+        assertEquals(LoteMensal.Estado.CONCLUIDO, segundo.getEstado());
+        assertEquals(0, segundo.getContasAplicadas());
+        assertEquals(3L * CONTAS_POR_TIPO, segundo.getContasJaAplicadas());
+        for (int i = 0; i < CONTAS_POR_TIPO; i++) {
+            assertEquals(new BigDecimal("70.00"), bancoService.buscarContaPorNumero("CC-" + i).getSaldo());
+            assertEquals(new BigDecimal("1005.00"), bancoService.buscarContaPorNumero("CP-" + i).getSaldo());
+            assertEquals(PlanoFechamento.codigo(competencia), bancoService.buscarContaPorNumero("CI-" + i).ultimoFechamento());
+        }
+    }
+
+    @Test
+    public void testTotaisPorEstagio() throws Exception {
+        LoteMensal lote = processamento.iniciar();
+        aguardar(lote);
+
+        assertEquals(3L * CONTAS_POR_TIPO, lote.getContasAplicadas());
+        assertEquals(lote.getTotalFatias(), lote.getFatiasConcluidas());
+        Map<EstagioFechamento, LoteMensal.ResumoEstagio> estagios = new EnumMap<>(EstagioFechamento.class);
+        for (LoteMensal.ResumoEstagio resumo : lote.getEstagios()) {
+            estagios.put(resumo.estagio(), resumo);
+        }
+        assertEquals(CONTAS_POR_TIPO, estagios.get(EstagioFechamento.RENDIMENTO).contas());
+        assertEquals(new BigDecimal("5.00").multiply(BigDecimal.valueOf(CONTAS_POR_TIPO)),
+                estagios.get(EstagioFechamento.RENDIMENTO).valor().setScale(2));
+        assertEquals(3L * CONTAS_POR_TIPO, estagios.get(EstagioFechamento.TARIFA).contas());
+        // 30,00 por conta corrente e 16,00 por conta investimento
+        assertEquals(new BigDecimal("46.00").multiply(BigDecimal.valueOf(CONTAS_POR_TIPO)),
+                estagios.get(EstagioFechamento.TARIFA).valor().setScale(2));
+        assertEquals(CONTAS_POR_TIPO, estagios.get(EstagioFechamento.IMPOSTO).contas());
+        assertTrue(estagios.get(EstagioFechamento.TARIFA).contasPorSegundo() > 0);
+    }
+
+    @Test
+    public void testExecucaoInterrompidaERetomadaSemCobrarDuasVezes() throws Exception {
+        // Pontos de controle que "caem" depois de algumas fatias gravadas
+        PontosControleMemoria memoria = new PontosControleMemoria();
+        AtomicInteger gravacoesAteQueda = new AtomicInteger(10);
+        PontosControleFechamento instavel = new PontosControleFechamento() {
+            @Override
+            public PlanoFechamento carregar(YearMonth competencia) {
+                return memoria.carregar(competencia);
+            }
+
+            @Override
+            public void iniciar(YearMonth competencia, List<String> limites) {
+                memoria.iniciar(competencia, limites);
+            }
+
+            @Override
+            public void fatiaConcluida(YearMonth competencia, int fatia, TotaisFatia totais) {
+                if (gravacoesAteQueda.getAndDecrement() <= 0) {
+                    throw new IllegalStateException("Queda simulada");
+                }
+                memoria.fatiaConcluida(competencia, fatia, totais);
+            }
+
+            @Override
+            public List<YearMonth> pendentes() {
+                return memoria.pendentes();
+            }
+
+            @Override
+            public YearMonth ultima() {
+                return memoria.ultima();
+            }
+        };
+        processamento.encerrar();
+        processamento = new ProcessamentoMensalService(bancoService, instavel, 4, 256, MES_SEGUINTE);
+        YearMonth competencia = YearMonth.now(ZoneOffset.UTC);
+
+        LoteMensal interrompido = processamento.iniciar(competencia);
+        aguardar(interrompido);
+        assertEquals(LoteMensal.Estado.FALHOU, interrompido.getEstado());
+        assertEquals(List.of(competencia), instavel.pendentes());
+
+        // Reinício: as fatias gravadas são puladas e as contas já marcadas das demais não são cobradas
+        gravacoesAteQueda.set(Integer.MAX_VALUE);
+        processamento.encerrar();
+        processamento = new ProcessamentoMensalService(bancoService, instavel, 4, 256, MES_SEGUINTE);
+        LoteMensal retomado = processamento.iniciar(competencia);
+        aguardar(retomado);
+
+        assertEquals(LoteMensal.Estado.CONCLUIDO, retomado.getEstado());
+        assertEquals(10, retomado.getFatiasRetomadas());
+        assertTrue(retomado.getContasJaAplicadas() > 0);
+        assertEquals(3L * CONTAS_POR_TIPO, retomado.getContasAplicadas() + retomado.getContasJaAplicadas());
+        assertTrue(instavel.pendentes().isEmpty());
+        for (int i = 0; i < CONTAS_POR_TIPO; i++) {
+            assertEquals(new BigDecimal("70.00"), bancoService.buscarContaPorNumero("CC-" + i).getSaldo());
+            assertEquals(new BigDecimal("1005.00"), bancoService.buscarContaPorNumero("CP-" + i).getSaldo());
+            assertEquals(new BigDecimal("984.00"), bancoService.buscarContaPorNumero("CI-" + i).getSaldo());
+        }
+    }
+
+    @Test
+    public void testContasAbertasDepoisDaCompetenciaSaoIgnoradas() throws Exception {
+        LoteMensal lote = processamento.iniciar(YearMonth.now(ZoneOffset.UTC).minusMonths(1));
+        aguardar(lote);
+
+        assertEquals(LoteMensal.Estado.CONCLUIDO, lote.getEstado());
+        assertEquals(3L * CONTAS_POR_TIPO, lote.getContasIgnoradas());
+        assertEquals(new BigDecimal("100.00"), bancoService.buscarContaPorNumero("CC-0").getSaldo());
+        assertThrows(OperacaoInvalidaException.class,
+                () -> processamento.iniciar(YearMonth.now(ZoneOffset.UTC).plusMonths(1)));
+    }
+
+    @Test
+    public void testMesEmCursoNaoEFechado() {
+        OperacaoInvalidaException erro = assertThrows(OperacaoInvalidaException.class,
+                () -> processamento.iniciar(YearMonth.now(MES_SEGUINTE)));
+        assertTrue(erro.getMessage().contains("ainda não terminou"), erro.getMessage());
+    }
+
+    @Test
+    public void testCompetenciaAnteriorAUltimaFechadaERecusada() throws Exception {
+        YearMonth competencia = YearMonth.now(ZoneOffset.UTC);
+        aguardar(processamento.iniciar());
+        assertEquals(PlanoFechamento.codigo(competencia), bancoService.buscarContaPorNumero("CC-0").ultimoFechamento());
+
+        // Cada conta guarda só a última competência: fechar a anterior agora pularia todas elas
+        assertThrows(OperacaoInvalidaException.class, () -> processamento.iniciar(competencia.minusMonths(1)));
+        LoteMensal repetido = processamento.iniciar(competencia);
+        aguardar(repetido);
+        assertEquals(3L * CONTAS_POR_TIPO, repetido.getContasJaAplicadas());
+    }
+
+    private void aguardar(LoteMensal lote) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (lote.getEstado() == LoteMensal.Estado.EM_ANDAMENTO && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+    }
+}
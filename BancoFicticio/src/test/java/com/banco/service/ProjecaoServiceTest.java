@@ -0,0 +1,138 @@
+package com.banco.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.banco.domain.Centavos;
+import com.banco.domain.Cliente;
+import com.banco.domain.Conta;
+import com.banco.domain.ContaInvestimento;
+import com.banco.domain.ContaPoupanca;
+import com.banco.domain.Rentavel;
+import com.banco.domain.TipoInvestimento;
+import com.banco.exception.OperacaoInvalidaException;
+
+public class ProjecaoServiceTest {
+
+    private BancoService bancoService;
+    private ProjecaoService projecaoService;
+
+    @BeforeEach
+    public void setUp() {
+        bancoService = new BancoService();
+        projecaoService = new ProjecaoService(bancoService, 4, 64);
+        bancoService.criarCliente("Cliente Projeção", "000.000.001-91", LocalDate.of(1990, 1, 1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        projecaoService.encerrar();
+    }
+
+    @Test
+    public void testProjecaoIgualAoFechamentoMesAMes() {
+        Cliente cliente = new Cliente("Teste", "111.111.111-11", LocalDate.of(1990, 1, 1));
+        SplittableRandom aleatorio = new SplittableRandom(7);
+        for (int i = 0; i < 200; i++) {
+            long saldo = aleatorio.nextLong(0, 100_000_000_00L);
+            int meses = aleatorio.nextInt(1, 361);
+            Conta conta = i % 4 == 0
+                    ? new ContaPoupanca("CP", cliente)
+                    : new ContaInvestimento("CI", cliente, TipoInvestimento.values()[i % 4 - 1]);
+            conta.depositar(Centavos.paraBigDecimal(saldo));
+
+            Projecao projecao = ProjecaoService.projetar(conta, meses);
+
+            for (int mes = 0; mes < meses; mes++) {
+                long saldoMes = conta.saldoEmCentavos();
+                conta.restaurarSaldoCentavos(saldoMes + ((Rentavel) conta).rendimentoMensalCentavos(saldoMes));
+                conta.calcularTarifaMensal();
+            }
+            assertEquals(conta.getSaldo(), projecao.getSaldoProjetado(), "saldo " + saldo + ", " + meses + " meses");
+            long imposto = conta instanceof ContaInvestimento ? ((ContaInvestimento) conta).calcularImpostoCentavos() : 0;
+            assertEquals(imposto, projecao.impostoEmCentavos());
+            assertEquals(Centavos.paraBigDecimal(saldo), projecao.getSaldoAtual());
+            assertEquals(projecao.getSaldoProjetado(),
+                    projecao.getSaldoAtual().add(projecao.getRendimentos()).subtract(projecao.getTarifas()));
+        }
+    }
+
+    @Test
+    public void testPoupancaPequenaParaDeRender() {
+        bancoService.criarContaPoupanca("CP", "000.000.001-91");
+        bancoService.depositar("CP", new BigDecimal("0.99"));
+
+        Projecao projecao = projecaoService.projetarConta("CP", ProjecaoService.MESES_MAXIMO);
+
+        assertEquals(new BigDecimal("0.99"), projecao.getSaldoProjetado());
+        assertEquals(new BigDecimal("0.00"), projecao.getRendimentos());
+        // A projeção não altera a conta
+        assertEquals(new BigDecimal("0.99"), bancoService.buscarContaPorNumero("CP").getSaldo());
+    }
+
+    @Test
+    public void testCarteiraDoClienteIgnoraContaCorrente() {
+        bancoService.criarContaCorrente("CC", "000.000.001-91", BigDecimal.ZERO);
+        bancoService.depositar("CC", new BigDecimal("500.00"));
+        bancoService.criarContaPoupanca("CP", "000.000.001-91");
+        bancoService.depositar("CP", new BigDecimal("1000.00"));
+        bancoService.criarContaInvestimento("CI", "000.000.001-91", TipoInvestimento.RENDA_FIXA);
+        bancoService.depositar("CI", new BigDecimal("1000.00"));
+
+        ProjecaoCarteira carteira = projecaoService.projetarCliente("000.000.001-91", 1);
+
+        assertEquals(2, carteira.getContas());
+        assertEquals(2, carteira.getProjecoes().size());
+        // Poupança: 1000,00 + 5,00; investimento: 1000,00 + 7,00 - (15,00 + 1007,00 * 0,001)
+        assertEquals(new BigDecimal("1005.00"), carteira.getProjecoes().get(0).getSaldoProjetado());
+        assertEquals(new BigDecimal("990.99"), carteira.getProjecoes().get(1).getSaldoProjetado());
+        // 990,99 * 0,015
+        assertEquals(new BigDecimal("14.86"), carteira.getProjecoes().get(1).getImposto());
+        assertEquals(new BigDecimal("1995.99"), carteira.getSaldoProjetado());
+        assertEquals(new BigDecimal("1981.13"), carteira.getSaldoLiquido());
+    }
+
+    @Test
+    public void testBancoEmParaleloSomaAsContas() {
+        long saldoProjetado = 0;
+        long imposto = 0;
+        for (int i = 0; i < 1_000; i++) {
+            String numero = "C-" + i;
+            if (i % 2 == 0) {
+                bancoService.criarContaPoupanca(numero, "000.000.001-91");
+            } else {
+                bancoService.criarContaInvestimento(numero, "000.000.001-91", TipoInvestimento.RENDA_VARIAVEL);
+            }
+            bancoService.depositar(numero, new BigDecimal(100 + i));
+            Projecao projecao = projecaoService.projetarConta(numero, 24);
+            saldoProjetado += projecao.saldoProjetadoEmCentavos();
+            imposto += projecao.impostoEmCentavos();
+        }
+        bancoService.criarContaCorrente("CC", "000.000.001-91", BigDecimal.ZERO);
+
+        ProjecaoCarteira banco = projecaoService.projetarBanco(24);
+
+        assertEquals(1_000, banco.getContas());
+        assertEquals(saldoProjetado, banco.saldoProjetadoEmCentavos());
+        assertEquals(imposto, banco.impostoEmCentavos());
+        assertEquals(0, banco.getProjecoes().size());
+    }
+
+    @Test
+    public void testProjecaoInvalida() {
+        bancoService.criarContaCorrente("CC", "000.000.001-91", BigDecimal.ZERO);
+        bancoService.criarContaPoupanca("CP", "000.000.001-91");
+
+        assertThrows(OperacaoInvalidaException.class, () -> projecaoService.projetarConta("CC", 12));
+        assertThrows(OperacaoInvalidaException.class, () -> projecaoService.projetarConta("CP", 0));
+        assertThrows(OperacaoInvalidaException.class,
+                () -> projecaoService.projetarConta("CP", ProjecaoService.MESES_MAXIMO + 1));
+    }
+}
@@ -0,0 +1,158 @@
+package com.banco.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import com.banco.exception.ConflitoIdempotenciaException;
+import com.banco.exception.SaldoInsuficienteException;
+
+public class RegistroIdempotenciaTest {
+
+    private final AtomicLong relogio = new AtomicLong();
+    private final AtomicInteger execucoes = new AtomicInteger();
+
+    private RegistroIdempotencia registro(int capacidade) {
+        return new RegistroIdempotencia(capacidade, Duration.ofSeconds(10), relogio::get);
+    }
+
+    private String operacao() {
+        return "resultado " + execucoes.incrementAndGet();
+    }
+
+    @Test
+    public void testRepeticaoDevolveOResultadoOriginal() {
+        RegistroIdempotencia registro = registro(100);
+
+        assertEquals("resultado 1", registro.executar("k1", "depositar 1111 10", this::operacao));
+        assertEquals("resultado 1", registro.executar("k1", "depositar 1111 10", this::operacao));
+        assertEquals("resultado 2", registro.executar("k2", "depositar 1111 10", this::operacao));
+        assertEquals(2, execucoes.get());
+
+        assertThrows(ConflitoIdempotenciaException.class,
+                () -> registro.executar("k1", "sacar 1111 10", this::operacao));
+        assertEquals(2, execucoes.get());
+    }
+
+    @Test
+    public void testChaveExpiraDepoisDoTtl() {
+        RegistroIdempotencia registro = registro(100);
+        registro.executar("k1", "p", this::operacao);
+
+        relogio.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertEquals("resultado 1", registro.executar("k1", "p", this::operacao));
+
+        relogio.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertEquals("resultado 2", registro.executar("k1", "p", this::operacao));
+        // Inserções novas descartam as vencidas
+        registro.executar("k2", "p", this::operacao);
+        relogio.addAndGet(Duration.ofSeconds(11).toNanos());
+        registro.executar("k3", "p", this::operacao);
+        assertEquals(1, registro.tamanho());
+    }
+
+    @Test
+    public void testCapacidadeLimitaAsChaves() {
+        RegistroIdempotencia registro = registro(1_000);
+        for (int i = 0; i < 50_000; i++) {
+            registro.executar("k" + i, "p", this::operacao);
+        }
+        assertEquals(1_000, registro.tamanho());
+        // As mais recentes continuam lembradas
+        assertEquals("resultado 50000", registro.executar("k49999", "p", this::operacao));
+    }
+
+    @Test
+    public void testFalhaLiberaAChave() {
+        RegistroIdempotencia registro = registro(100);
+        assertThrows(SaldoInsuficienteException.class, () -> registro.executar("k1", "p", () -> {
+            throw new SaldoInsuficienteException("Saldo insuficiente para saque");
+        }));
+        assertEquals("resultado 1", registro.executar("k1", "p", this::operacao));
+    }
+
+    @Test
+    public void testFalhaDepoisDeAlterarFicaComoResultado() {
+        RegistroIdempotencia registro = registro(100);
+        IllegalStateException falha = new IllegalStateException("Falha ao gravar no diário");
+        assertThrows(IllegalStateException.class, () -> registro.executar("k1", "p", () -> {
+            execucoes.incrementAndGet();
+            throw falha;
+        }));
+        // A operação pode ter tido efeito: a repetição recebe a mesma falha sem executar de novo
+        assertSame(falha, assertThrows(IllegalStateException.class, () -> registro.executar("k1", "p", this::operacao)));
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    public void testCapacidadeNaoDescartaOperacaoEmAndamento() throws Exception {
+        RegistroIdempotencia registro = registro(10);
+        CountDownLatch iniciada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> lenta = executor.submit(() -> registro.executar("lenta", "p", () -> {
+                iniciada.countDown();
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "lenta";
+            }));
+            iniciada.await();
+            for (int i = 0; i < 100; i++) {
+                registro.executar("k" + i, "p", this::operacao);
+            }
+            assertEquals(10, registro.tamanho());
+            liberar.countDown();
+            assertEquals("lenta", lenta.get());
+            // Ainda lembrada: a repetição não executa de novo
+            assertEquals("lenta", registro.executar("lenta", "p", () -> "outra"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRepeticoesConcorrentesExecutamUmaVez() throws Exception {
+        RegistroIdempotencia registro = new RegistroIdempotencia(100, Duration.ofMinutes(1));
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> resultados = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    return registro.executar("k1", "p", () -> {
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return operacao();
+                    });
+                }));
+            }
+            largada.countDown();
+            for (Future<String> resultado : resultados) {
+                assertEquals("resultado 1", resultado.get());
+            }
+            assertEquals(1, execucoes.get());
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, registro.tamanho());
+    }
+}
@@ -0,0 +1,125 @@
+package com.banco.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.banco.domain.Cliente;
+import com.banco.domain.Conta;
+import com.banco.domain.ContaPoupanca;
+import com.banco.domain.TabelaSaldos;
+import com.banco.domain.TabelaSaldosNoHeap;
+
+public class TabelaContasTest {
+
+    private final Cliente titular = new Cliente("Titular", "12345678909", LocalDate.of(1990, 1, 1));
+    private final TabelaSaldos saldos = new TabelaSaldosNoHeap(4);
+    private final TabelaContas tabela = new TabelaContas();
+
+    private Conta conta(String numero) {
+        return new ContaPoupanca(numero, titular, saldos);
+    }
+
+    @Test
+    public void testBuscaPeloNumeroDevolveOIdDaConta() {
+        Conta curta = conta("CC-001");
+        Conta longa = conta("CONTA-CORRENTE-0001");
+        Conta acentuada = conta("Poupança");
+        for (Conta conta : List.of(curta, longa, acentuada)) {
+            assertNull(tabela.adicionarSeAusente(conta));
+        }
+
+        assertEquals(curta.posicao(), tabela.id("CC-001"));
+        assertSame(curta, tabela.conta(tabela.id(new String("CC-001"))));
+        assertSame(longa, tabela.buscar("CONTA-CORRENTE-0001"));
+        assertSame(acentuada, tabela.buscar("Poupança"));
+        assertEquals(TabelaContas.AUSENTE, tabela.id("CC-002"));
+        assertEquals(TabelaContas.AUSENTE, tabela.id(""));
+        assertNull(tabela.conta(1_000_000));
+        assertEquals(3, tabela.tamanho());
+    }
+
+    @Test
+    public void testChavesDistinguemNumerosParecidos() {
+        assertNotEquals(TabelaContas.chave("A"), TabelaContas.chave("\u0001A"));
+        assertTrue(TabelaContas.chave("ZZZZZZZZZ") > 0);
+        assertTrue(TabelaContas.chave("ZZZZZZZZZZ") < 0);
+
+        // "Aa" e "BB" têm o mesmo hashCode: a conta confirma o número
+        Conta aa = conta("NUMERO-LONGO-Aa");
+        Conta bb = conta("NUMERO-LONGO-BB");
+        assertEquals(TabelaContas.chave(aa.getNumero()), TabelaContas.chave(bb.getNumero()));
+        assertNull(tabela.adicionarSeAusente(aa));
+        assertNull(tabela.adicionarSeAusente(bb));
+        assertSame(aa, tabela.buscar("NUMERO-LONGO-Aa"));
+        assertSame(bb, tabela.buscar("NUMERO-LONGO-BB"));
+    }
+
+    @Test
+    public void testNumeroRepetidoDevolveAContaExistente() {
+        Conta original = conta("CC-001");
+        Conta repetida = conta("CC-001");
+        assertNull(tabela.adicionarSeAusente(original));
+
+        assertSame(original, tabela.adicionarSeAusente(repetida));
+        assertSame(original, tabela.adicionarSeAusente(original));
+        assertNull(tabela.conta(repetida.posicao()));
+        assertEquals(1, tabela.tamanho());
+    }
+
+    @Test
+    public void testRemoverLiberaONumero() {
+        Conta removida = conta("CC-001");
+        tabela.adicionarSeAusente(removida);
+
+        assertTrue(tabela.remover(removida));
+        assertFalse(tabela.remover(removida));
+        assertEquals(TabelaContas.AUSENTE, tabela.id("CC-001"));
+        assertEquals(0, tabela.tamanho());
+
+        Conta nova = conta("CC-001");
+        assertNull(tabela.adicionarSeAusente(nova));
+        assertSame(nova, tabela.buscar("CC-001"));
+        assertNull(tabela.conta(removida.posicao()));
+    }
+
+    @Test
+    public void testCresceEPercorreEmOrdemDeCriacao() {
+        List<Conta> criadas = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            Conta conta = conta(i % 2 == 0 ? "C-" + i : "CONTA-NUMERO-" + i);
+            criadas.add(conta);
+            tabela.adicionarSeAusente(conta);
+        }
+        // Remoções deixam chaves mortas, descartadas no próximo crescimento
+        for (int i = 0; i < criadas.size(); i += 3) {
+            tabela.remover(criadas.get(i));
+        }
+
+        List<Conta> esperadas = new ArrayList<>();
+        for (int i = 0; i < criadas.size(); i++) {
+            Conta conta = criadas.get(i);
+            if (i % 3 == 0) {
+                assertEquals(TabelaContas.AUSENTE, tabela.id(conta.getNumero()));
+            } else {
+                assertSame(conta, tabela.buscar(conta.getNumero()));
+                esperadas.add(conta);
+            }
+        }
+        assertEquals(esperadas, tabela.listar());
+        assertEquals(esperadas.size(), tabela.tamanho());
+
+        tabela.limpar();
+        assertEquals(0, tabela.tamanho());
+        assertNull(tabela.buscar("C-2"));
+        assertFalse(tabela.iterator().hasNext());
+    }
+}